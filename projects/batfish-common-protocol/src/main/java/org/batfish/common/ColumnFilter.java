@@ -6,6 +6,7 @@ import static java.util.Objects.requireNonNull;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -25,9 +26,13 @@ public final class ColumnFilter {
 
   private final String _filterText;
 
+  // lower-cased once, since matching is case-insensitive and is done for every row
+  private final String _lowerCaseFilterText;
+
   public ColumnFilter(@Nonnull String column, @Nonnull String filterText) {
     _column = column;
     _filterText = filterText;
+    _lowerCaseFilterText = filterText.toLowerCase();
   }
 
   @Override
@@ -58,7 +63,12 @@ public final class ColumnFilter {
   }
 
   public boolean matches(@Nonnull Row row) {
-    return row.get(_column).toString().toLowerCase().contains(_filterText.toLowerCase());
+    return matchesValue(row.get(_column));
+  }
+
+  /** Returns whether {@code value}, the value of this filter's column in some row, matches. */
+  public boolean matchesValue(@Nonnull JsonNode value) {
+    return value.toString().toLowerCase().contains(_lowerCaseFilterText);
   }
 
   @Override
@@ -5,7 +5,9 @@ import static org.batfish.common.bdd.BDDInteger.makeFromIndex;
 import static org.batfish.common.bdd.BDDUtils.swapPairing;
 
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -49,6 +51,12 @@ public class BDDPacket {
   private static final int JFACTORY_INITIAL_NODE_CACHE_SIZE =
       (JFACTORY_INITIAL_NODE_TABLE_SIZE + JFACTORY_CACHE_RATIO - 1) / JFACTORY_CACHE_RATIO;
 
+  /*
+   * Number of nodes in use above which a factory with automatic reordering enabled first reorders.
+   * Smaller tables are cheap enough to work with in any order.
+   */
+  private static final int AUTO_REORDER_NODE_THRESHOLD = 1_000_000;
+
   /*
    * The first BDD variable used to encode packets. Clients can use these bits anyway they want to.
    */
@@ -104,8 +112,13 @@ public class BDDPacket {
    * various attributes of a control plane advertisement.
    */
   public BDDPacket() {
-    _factory = JFactory.init(JFACTORY_INITIAL_NODE_TABLE_SIZE, JFACTORY_INITIAL_NODE_CACHE_SIZE);
-    _factory.setCacheRatio(JFACTORY_CACHE_RATIO);
+    JFactory factory =
+        (JFactory)
+            JFactory.init(JFACTORY_INITIAL_NODE_TABLE_SIZE, JFACTORY_INITIAL_NODE_CACHE_SIZE);
+    factory.setCacheRatio(JFACTORY_CACHE_RATIO);
+    // Let heavily-used operator caches outgrow the cache ratio
+    factory.setAdaptiveCacheSizing(true);
+    _factory = factory;
     // Do not impose a maximum node table increase
     _factory.setMaxIncrease(0);
     // Disables printing
@@ -213,10 +226,28 @@ public class BDDPacket {
     }
     BDDInteger var = makeFromIndex(_factory, bits, _nextFreeBDDVarIdx, reverse);
     addBitNames(name, bits, _nextFreeBDDVarIdx, false);
+    if (bits > 1) {
+      // Keep the bits of the integer together when the factory reorders variables
+      _factory.addVarBlock(_nextFreeBDDVarIdx, _nextFreeBDDVarIdx + bits - 1);
+    }
     _nextFreeBDDVarIdx += bits;
     return var;
   }
 
+  /**
+   * Enables automatic sifting of this packet's variables once its factory has many nodes in use.
+   * The bits of each {@link BDDInteger} allocated by this packet are sifted together, so they stay
+   * adjacent and in order.
+   */
+  public void enableAutoReorder() {
+    _factory.autoReorder(BDDFactory.REORDER_SIFT, AUTO_REORDER_NODE_THRESHOLD);
+  }
+
+  /** Returns the names of the variables allocated so far, in variable order. */
+  public @Nonnull List<String> getBitNames() {
+    return ImmutableList.copyOf(ImmutableSortedMap.copyOf(_bitNames).values());
+  }
+
   public IpSpaceToBDD getDstIpSpaceToBDD() {
     return _dstIpSpaceToBDD;
   }
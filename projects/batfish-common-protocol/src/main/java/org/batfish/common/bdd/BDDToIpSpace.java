@@ -0,0 +1,209 @@
+package org.batfish.common.bdd;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import net.sf.javabdd.BDD;
+import org.batfish.datamodel.AclIpSpace;
+import org.batfish.datamodel.EmptyIpSpace;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.IpWildcardSetIpSpace;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.UniverseIpSpace;
+
+/**
+ * Converts a {@link BDD} constraining only the bits of a {@link BDDInteger} IP variable back to an
+ * {@link IpSpace}. The inverse of {@link IpSpaceToBDD}.
+ *
+ * <p>If the BDD or its complement has no more paths than the BDD has nodes, the result is a flat
+ * {@link IpWildcardSetIpSpace} with one {@link IpWildcard} per path. Otherwise, since the number of
+ * paths can be exponential in the number of nodes, the result mirrors the BDD instead: an {@link
+ * AclIpSpace} per node, shared wherever the BDD shares nodes. Either way the result is linear in
+ * the size of the BDD.
+ */
+@ParametersAreNonnullByDefault
+public final class BDDToIpSpace {
+
+  /** A node of the BDD being converted, detached from its factory. */
+  private static final class Node {
+    private static final Node ZERO = new Node(-1, null, null, 1L, 0L);
+    private static final Node ONE = new Node(-1, null, null, 0L, 1L);
+
+    // IP bit position of the node's variable (0 is the most significant bit)
+    private final int _position;
+    private final @Nullable Node _low;
+    private final @Nullable Node _high;
+    // number of paths from this node to the zero and one terminals
+    private final long _zeroPaths;
+    private final long _onePaths;
+
+    private Node(
+        int position, @Nullable Node low, @Nullable Node high, long zeroPaths, long onePaths) {
+      _position = position;
+      _low = low;
+      _high = high;
+      _zeroPaths = zeroPaths;
+      _onePaths = onePaths;
+    }
+  }
+
+  // BDD variable -> IP bit position (0 is the most significant bit)
+  private final Map<Integer, Integer> _bitPositions;
+
+  public BDDToIpSpace(BDDInteger var) {
+    checkArgument(
+        var.getBitvec().length == Prefix.MAX_PREFIX_LENGTH,
+        "Expected a %s-bit IP variable, got %s bits",
+        Prefix.MAX_PREFIX_LENGTH,
+        var.getBitvec().length);
+    ImmutableMap.Builder<Integer, Integer> bitPositions = ImmutableMap.builder();
+    BDD[] bitvec = var.getBitvec();
+    for (int i = 0; i < bitvec.length; i++) {
+      bitPositions.put(bitvec[i].var(), i);
+    }
+    _bitPositions = bitPositions.build();
+  }
+
+  public @Nonnull IpSpace toIpSpace(BDD bdd) {
+    if (bdd.isZero()) {
+      return EmptyIpSpace.INSTANCE;
+    }
+    if (bdd.isOne()) {
+      return UniverseIpSpace.INSTANCE;
+    }
+    Map<BDD, Node> nodes = new HashMap<>();
+    Node root = toNode(bdd, nodes);
+    // free the children walked above; the root belongs to the caller
+    nodes.keySet().stream().filter(node -> node != bdd).forEach(BDD::free);
+
+    int numNodes = nodes.size();
+    if (root._onePaths <= root._zeroPaths && root._onePaths <= numNodes) {
+      return IpWildcardSetIpSpace.builder().including(toIpWildcards(root, Node.ONE)).build();
+    }
+    if (root._zeroPaths <= numNodes) {
+      return IpWildcardSetIpSpace.builder()
+          .including(IpWildcard.ANY)
+          .excluding(toIpWildcards(root, Node.ZERO))
+          .build();
+    }
+    return toAclIpSpace(root, new IdentityHashMap<>());
+  }
+
+  /**
+   * Returns the {@link Node} of {@code bdd}, adding it and its descendants to {@code nodes}. Takes
+   * ownership of any {@link BDD} not added to {@code nodes}.
+   */
+  private @Nonnull Node toNode(BDD bdd, Map<BDD, Node> nodes) {
+    if (bdd.isZero()) {
+      return Node.ZERO;
+    }
+    if (bdd.isOne()) {
+      return Node.ONE;
+    }
+    Node node = nodes.get(bdd);
+    if (node != null) {
+      bdd.free();
+      return node;
+    }
+    Integer position = _bitPositions.get(bdd.var());
+    checkArgument(
+        position != null, "BDD constrains variable %s, which is not an IP bit", bdd.var());
+    Node low = toNode(bdd.low(), nodes);
+    Node high = toNode(bdd.high(), nodes);
+    node =
+        new Node(
+            position, low, high, low._zeroPaths + high._zeroPaths, low._onePaths + high._onePaths);
+    nodes.put(bdd, node);
+    return node;
+  }
+
+  /**
+   * Returns disjoint {@link IpWildcard IpWildcards} whose union is the set of IPs in {@code bdd}.
+   */
+  @Nonnull
+  List<IpWildcard> toIpWildcards(BDD bdd) {
+    if (bdd.isZero()) {
+      return ImmutableList.of();
+    }
+    if (bdd.isOne()) {
+      return ImmutableList.of(IpWildcard.ANY);
+    }
+    Map<BDD, Node> nodes = new HashMap<>();
+    Node root = toNode(bdd, nodes);
+    nodes.keySet().stream().filter(node -> node != bdd).forEach(BDD::free);
+    return toIpWildcards(root, Node.ONE);
+  }
+
+  /** Returns one {@link IpWildcard} per path from {@code root} to the {@code terminal} node. */
+  private static @Nonnull List<IpWildcard> toIpWildcards(Node root, Node terminal) {
+    ImmutableList.Builder<IpWildcard> wildcards = ImmutableList.builder();
+    addIpWildcards(root, terminal, 0L, 0L, wildcards);
+    return wildcards.build();
+  }
+
+  private static void addIpWildcards(
+      Node node,
+      Node terminal,
+      long ip,
+      long significantBits,
+      ImmutableList.Builder<IpWildcard> wildcards) {
+    if (node == terminal) {
+      wildcards.add(IpWildcard.ipWithWildcardMask(Ip.create(ip), ~significantBits & 0xFFFFFFFFL));
+      return;
+    }
+    if (node._low == null || node._high == null) {
+      // the other terminal
+      return;
+    }
+    long bit = bitMask(node._position);
+    addIpWildcards(node._low, terminal, ip, significantBits | bit, wildcards);
+    addIpWildcards(node._high, terminal, ip | bit, significantBits | bit, wildcards);
+  }
+
+  /**
+   * Returns an {@link IpSpace} mirroring the structure of {@code node}, reusing the {@link IpSpace
+   * IpSpaces} in {@code converted} for nodes converted before.
+   */
+  private static @Nonnull IpSpace toAclIpSpace(Node node, Map<Node, IpSpace> converted) {
+    if (node == Node.ZERO) {
+      return EmptyIpSpace.INSTANCE;
+    }
+    if (node == Node.ONE) {
+      return UniverseIpSpace.INSTANCE;
+    }
+    IpSpace ipSpace = converted.get(node);
+    if (ipSpace != null) {
+      return ipSpace;
+    }
+    assert node._low != null && node._high != null;
+    long bit = bitMask(node._position);
+    IpSpace bitSet = IpWildcard.ipWithWildcardMask(Ip.create(bit), ~bit & 0xFFFFFFFFL).toIpSpace();
+    IpSpace bitClear = IpWildcard.ipWithWildcardMask(Ip.ZERO, ~bit & 0xFFFFFFFFL).toIpSpace();
+    IpSpace high = toAclIpSpace(node._high, converted);
+    IpSpace low = toAclIpSpace(node._low, converted);
+    // IPs with the bit set are in the space iff they are in high, and the rest iff they are in low
+    ipSpace =
+        AclIpSpace.builder()
+            .thenPermitting(
+                AclIpSpace.builder().thenRejecting(bitClear).thenPermitting(high).build())
+            .thenRejecting(bitSet)
+            .thenPermitting(low)
+            .build();
+    converted.put(node, ipSpace);
+    return ipSpace;
+  }
+
+  private static long bitMask(int position) {
+    return 1L << (Prefix.MAX_PREFIX_LENGTH - 1 - position);
+  }
+}
@@ -10,6 +10,10 @@ import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
@@ -28,22 +32,36 @@ import org.batfish.datamodel.bgp.community.StandardCommunity;
 public abstract class BgpRoute<B extends Builder<B, R>, R extends BgpRoute<B, R>>
     extends AbstractRoute {
 
-  // Soft values: let it be garbage collected in times of pressure.
-  // Maximum size 2^16: Just some upper bound on cache size, well less than GiB.
-  //   (8 bytes seems smallest possible entry (set(long)), would be 1 MiB total).
-  private static final LoadingCache<SortedSet<Community>, SortedSet<Community>> COMMUNITY_CACHE =
-      CacheBuilder.newBuilder()
-          .softValues()
-          .maximumSize(1 << 16)
-          .build(CacheLoader.from(ImmutableSortedSet::copyOf));
-  // Soft values: let it be garbage collected in times of pressure.
-  // Maximum size 2^16: Just some upper bound on cache size, well less than GiB.
-  //   (8 bytes seems smallest possible entry (set(long)), would be 1 MiB total).
-  private static final LoadingCache<SortedSet<Long>, SortedSet<Long>> CLUSTER_CACHE =
-      CacheBuilder.newBuilder()
-          .softValues()
-          .maximumSize(1 << 16)
-          .build(CacheLoader.from(ImmutableSortedSet::copyOf));
+  // Weak interners: many routes share the same attributes, and unused ones can be collected.
+  private static final Interner<SortedSet<Community>> COMMUNITIES_INTERNER =
+      Interners.newWeakInterner();
+  private static final Interner<SortedSet<Long>> CLUSTER_LIST_INTERNER =
+      Interners.newWeakInterner();
+
+  // Weak keys (compared by identity): keyed by interned community sets, so the standard and
+  // extended subsets are computed once per distinct set of communities.
+  private static final LoadingCache<SortedSet<Community>, CommunitySubsets> COMMUNITY_SUBSETS =
+      CacheBuilder.newBuilder().weakKeys().build(CacheLoader.from(CommunitySubsets::new));
+
+  /** The standard and extended communities of a set of communities */
+  private static final class CommunitySubsets {
+    @Nonnull private final Set<StandardCommunity> _standardCommunities;
+    @Nonnull private final Set<ExtendedCommunity> _extendedCommunities;
+
+    private CommunitySubsets(SortedSet<Community> communities) {
+      ImmutableSet.Builder<StandardCommunity> standardCommunities = ImmutableSet.builder();
+      ImmutableSet.Builder<ExtendedCommunity> extendedCommunities = ImmutableSet.builder();
+      for (Community community : communities) {
+        if (community instanceof StandardCommunity) {
+          standardCommunities.add((StandardCommunity) community);
+        } else if (community instanceof ExtendedCommunity) {
+          extendedCommunities.add((ExtendedCommunity) community);
+        }
+      }
+      _standardCommunities = standardCommunities.build();
+      _extendedCommunities = extendedCommunities.build();
+    }
+  }
 
   /** Builder for {@link BgpRoute} */
   @ParametersAreNonnullByDefault
@@ -110,6 +128,10 @@ public abstract class BgpRoute<B extends Builder<B, R>, R extends BgpRoute<B, R>
           : Collections.unmodifiableSortedSet(_communities);
     }
 
+    public boolean getDiscard() {
+      return _discard;
+    }
+
     public long getLocalPreference() {
       return _localPreference;
     }
@@ -134,6 +156,20 @@ public abstract class BgpRoute<B extends Builder<B, R>, R extends BgpRoute<B, R>
       return _protocol;
     }
 
+    @Nullable
+    public Ip getReceivedFromIp() {
+      return _receivedFromIp;
+    }
+
+    public boolean getReceivedFromRouteReflectorClient() {
+      return _receivedFromRouteReflectorClient;
+    }
+
+    @Nullable
+    public RoutingProtocol getSrcProtocol() {
+      return _srcProtocol;
+    }
+
     @Override
     @Nonnull
     protected abstract B getThis();
@@ -294,9 +330,8 @@ public abstract class BgpRoute<B extends Builder<B, R>, R extends BgpRoute<B, R>
   /* NOTE: Cisco-only attribute */
   protected final int _weight;
 
-  // Cached values
-  @Nonnull private Set<StandardCommunity> _standardCommunities;
-  @Nonnull private Set<ExtendedCommunity> _extendedCommunities;
+  // Cached values, shared by routes with the same communities rather than serialized per route
+  @Nonnull private transient CommunitySubsets _communitySubsets;
 
   protected BgpRoute(
       @Nullable Prefix network,
@@ -327,9 +362,13 @@ public abstract class BgpRoute<B extends Builder<B, R>, R extends BgpRoute<B, R>
         "Invalid BgpRoute protocol");
     _asPath = firstNonNull(asPath, AsPath.empty());
     _clusterList =
-        clusterList == null ? ImmutableSortedSet.of() : CLUSTER_CACHE.getUnchecked(clusterList);
+        clusterList == null
+            ? ImmutableSortedSet.of()
+            : CLUSTER_LIST_INTERNER.intern(ImmutableSortedSet.copyOf(clusterList));
     _communities =
-        communities == null ? ImmutableSortedSet.of() : COMMUNITY_CACHE.getUnchecked(communities);
+        communities == null
+            ? ImmutableSortedSet.of()
+            : COMMUNITIES_INTERNER.intern(ImmutableSortedSet.copyOf(communities));
     _discard = discard;
     _localPreference = localPreference;
     _med = med;
@@ -343,17 +382,7 @@ public abstract class BgpRoute<B extends Builder<B, R>, R extends BgpRoute<B, R>
     _srcProtocol = srcProtocol;
     _weight = weight;
 
-    // Cache community values
-    _standardCommunities =
-        _communities.stream()
-            .filter(StandardCommunity.class::isInstance)
-            .map(StandardCommunity.class::cast)
-            .collect(ImmutableSet.toImmutableSet());
-    _extendedCommunities =
-        _communities.stream()
-            .filter(ExtendedCommunity.class::isInstance)
-            .map(ExtendedCommunity.class::cast)
-            .collect(ImmutableSet.toImmutableSet());
+    _communitySubsets = COMMUNITY_SUBSETS.getUnchecked(_communities);
   }
 
   @Nonnull
@@ -379,14 +408,14 @@ public abstract class BgpRoute<B extends Builder<B, R>, R extends BgpRoute<B, R>
   @Nonnull
   @JsonIgnore
   public Set<StandardCommunity> getStandardCommunities() {
-    return _standardCommunities;
+    return _communitySubsets._standardCommunities;
   }
 
   /** Return only extended community attributes */
   @Nonnull
   @JsonIgnore
   public Set<ExtendedCommunity> getExtendedCommunities() {
-    return _extendedCommunities;
+    return _communitySubsets._extendedCommunities;
   }
 
   @JsonProperty(PROP_DISCARD)
@@ -466,4 +495,9 @@ public abstract class BgpRoute<B extends Builder<B, R>, R extends BgpRoute<B, R>
 
   @Override
   public abstract B toBuilder();
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    _communitySubsets = COMMUNITY_SUBSETS.getUnchecked(_communities);
+  }
 }
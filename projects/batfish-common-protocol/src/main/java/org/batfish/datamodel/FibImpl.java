@@ -89,6 +89,9 @@ public final class FibImpl implements Fib {
 
   private transient Supplier<Set<FibEntry>> _entries;
 
+  /** Frozen copy of {@link #_root} used for longest-prefix-match lookups */
+  private transient Supplier<FrozenPrefixTrie<FibEntry>> _lookupTrie;
+
   public FibImpl(@Nonnull GenericRib<? extends AbstractRouteDecorator> rib) {
     _root = new PrefixTrieMultiMap<>(Prefix.ZERO);
     rib.getRoutes()
@@ -102,6 +105,7 @@ public final class FibImpl implements Fib {
 
   private void initSuppliers() {
     _entries = Suppliers.memoize(this::computeEntries);
+    _lookupTrie = Suppliers.memoize(() -> FrozenPrefixTrie.from(_root));
   }
 
   private Set<FibEntry> computeEntries() {
@@ -276,7 +280,7 @@ public final class FibImpl implements Fib {
   @Nonnull
   @Override
   public Set<FibEntry> get(Ip ip) {
-    return _root.longestPrefixMatch(ip);
+    return _lookupTrie.get().longestPrefixMatch(ip);
   }
 
   @Nonnull
@@ -2,6 +2,9 @@ package org.batfish.datamodel;
 
 import java.util.Map;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
 
 public interface ForwardingAnalysis {
   /**
@@ -20,6 +23,16 @@ public interface ForwardingAnalysis {
    */
   Map<String, Map<String, Map<Edge, IpSpace>>> getArpTrueEdge();
 
+  /**
+   * Return the BDD that {@code ipSpace}, one of the IP spaces returned by this analysis, was
+   * computed from, or {@code null} if there is none. The BDD constrains the destination IP of a
+   * fresh {@link org.batfish.common.bdd.BDDPacket}; use {@link BDDFactory#importBDD(BDD)} to copy
+   * it into another packet's factory.
+   */
+  default @Nullable BDD getDstIpBdd(IpSpace ipSpace) {
+    return null;
+  }
+
   /** Mapping: hostname -&gt; vrfName -&gt; outInterface -&gt; dstIPsWhichDeliveredToSubnet */
   Map<String, Map<String, Map<String, IpSpace>>> getDeliveredToSubnet();
 
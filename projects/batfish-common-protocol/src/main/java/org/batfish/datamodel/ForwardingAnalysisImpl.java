@@ -18,6 +18,7 @@ import io.opentracing.Span;
 import io.opentracing.util.GlobalTracer;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -25,8 +26,11 @@ import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
 import org.batfish.common.bdd.BDDPacket;
+import org.batfish.common.bdd.BDDToIpSpace;
 import org.batfish.common.bdd.IpSpaceToBDD;
 import org.batfish.common.bdd.MemoizedIpSpaceToBDD;
 import org.batfish.common.topology.IpOwners;
@@ -48,9 +52,6 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
   // ARPing for some ARP IP and receiving a reply from the target of the edge.
   private final Map<String, Map<String, Map<Edge, IpSpace>>> _arpTrueEdge;
 
-  // node -> vrf -> interface -> destination IPs for which arp will fail
-  private final Map<String, Map<String, Map<String, IpSpace>>> _arpFalse;
-
   // node -> vrf -> nextVrf -> IPs that vrf delegates to nextVrf
   private final Map<String, Map<String, Map<String, IpSpace>>> _nextVrfIpsByNodeVrf;
 
@@ -60,6 +61,12 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
   // node -> vrf -> destination IPs that can be routed
   private final Map<String, Map<String, IpSpace>> _routableIps;
 
+  /*
+   * _arpTrueEdge and the disposition IpSpaces below are computed as BDDs and then converted back to
+   * IpSpaces (see BDDToIpSpace), rather than composed from the IpSpaces they are derived from. The
+   * BDDs themselves are kept in _dstIpBdds.
+   */
+
   // node -> vrf -> interface -> dst ips that end up with neighbor unreachable
   private final Map<String, Map<String, Map<String, IpSpace>>> _neighborUnreachable;
 
@@ -72,6 +79,9 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
   // node -> vrf -> interface -> dst ips that end up with insufficient info
   private final Map<String, Map<String, Map<String, IpSpace>>> _insufficientInfo;
 
+  // IpSpace (by identity) -> the BDD it was converted from, in a factory holding only these BDDs
+  private final Map<IpSpace, BDD> _dstIpBdds = new IdentityHashMap<>();
+
   public ForwardingAnalysisImpl(
       Map<String, Configuration> configurations,
       Map<String, Map<String, Fib>> fibs,
@@ -84,6 +94,9 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
       // TODO accept IpSpaceToBDD as parameter
       IpSpaceToBDD ipSpaceToBDD =
           new MemoizedIpSpaceToBDD(new BDDPacket().getDstIp(), ImmutableMap.of());
+      BDDToIpSpace bddToIpSpace = new BDDToIpSpace(ipSpaceToBDD.getBDDInteger());
+      // a separate factory, so the intermediate BDDs below can be garbage collected with theirs
+      BDDFactory dstIpBddFactory = new BDDPacket().getFactory();
 
       IpOwners ipOwners = new IpOwners(configurations);
 
@@ -93,9 +106,9 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
           IpOwners.computeInterfaceOwnedIps(configurations, /*excludeInactive=*/ false);
 
       // Owned (i.e., internal to the network) IPs
-      IpSpace ownedIps = computeOwnedIps(interfaceOwnedIps);
+      BDD ownedIpsBDD = ipSpaceToBDD.visit(computeOwnedIps(interfaceOwnedIps));
       // Unowned (i.e., external to the network) IPs
-      BDD unownedIpsBDD = ipSpaceToBDD.visit(ownedIps).not();
+      BDD unownedIpsBDD = ownedIpsBDD.not();
 
       _acceptedIps = computeAcceptedIps(ipOwners);
 
@@ -127,15 +140,17 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
       /* node -> vrf -> interface -> dst IPs for which that VRF forwards out that interface, ARPing
        * for the dst ip itself with no reply
        */
-      Map<String, Map<String, Map<String, IpSpace>>> arpFalseDestIp;
+      Map<String, Map<String, Map<String, BDD>>> arpFalseDestIp;
       /* node -> vrf -> interface -> dst IPs for which that VRF forwards out that interface, ARPing
        *for some unowned next-hop IP with no reply
        */
-      Map<String, Map<String, Map<String, IpSpace>>> dstIpsWithUnownedNextHopIpArpFalse;
+      Map<String, Map<String, Map<String, BDD>>> dstIpsWithUnownedNextHopIpArpFalse;
       /* node -> vrf -> interface -> dst IPs for which that VRF forwards out that interface, ARPing
        * for some owned next-hop IP with no reply
        */
-      Map<String, Map<String, Map<String, IpSpace>>> dstIpsWithOwnedNextHopIpArpFalse;
+      Map<String, Map<String, Map<String, BDD>>> dstIpsWithOwnedNextHopIpArpFalse;
+      // node -> vrf -> interface -> destination IPs for which arp will fail
+      Map<String, Map<String, Map<String, BDD>>> arpFalse;
       {
         Map<String, Map<String, IpSpace>> someoneReplies =
             computeSomeoneReplies(topology, _arpReplies);
@@ -183,9 +198,10 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
         Map<String, Map<String, Map<String, Set<AbstractRoute>>>> routesWhereDstIpCanBeArpIp =
             computeRoutesWhereDstIpCanBeArpIp(nextHopInterfacesByNodeVrf, routesWithNextHop);
 
-        arpFalseDestIp =
+        Map<String, Map<String, Map<String, IpSpace>>> arpFalseDestIpSpaces =
             computeArpFalseDestIp(matchingIps, routesWhereDstIpCanBeArpIp, someoneReplies);
-        _arpFalse = union(arpFalseDestIp, arpFalseNextHopIp);
+        arpFalseDestIp = toBdds(arpFalseDestIpSpaces, ipSpaceToBDD);
+        arpFalse = toBdds(union(arpFalseDestIpSpaces, arpFalseNextHopIp), ipSpaceToBDD);
 
         /* node -> vrf -> edge -> routes in that vrf that forward out the source of that edge,
          * ARPing for the dest IP and receiving a response from the target of the edge.
@@ -224,13 +240,22 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
         Map<String, Map<String, Map<Edge, IpSpace>>> arpTrueEdgeNextHopIp =
             computeArpTrueEdgeNextHopIp(matchingIps, routesWithNextHopIpArpTrue);
 
-        _arpTrueEdge = computeArpTrueEdge(arpTrueEdgeDestIp, arpTrueEdgeNextHopIp);
+        _arpTrueEdge =
+            exportIpSpaces(
+                toBdds(computeArpTrueEdge(arpTrueEdgeDestIp, arpTrueEdgeNextHopIp), ipSpaceToBDD),
+                bddToIpSpace,
+                dstIpBddFactory);
 
         dstIpsWithUnownedNextHopIpArpFalse =
-            computeDstIpsWithUnownedNextHopIpArpFalse(
-                matchingIps, routesWithUnownedNextHopIpArpFalse);
+            toBdds(
+                computeDstIpsWithUnownedNextHopIpArpFalse(
+                    matchingIps, routesWithUnownedNextHopIpArpFalse),
+                ipSpaceToBDD);
         dstIpsWithOwnedNextHopIpArpFalse =
-            computeDstIpsWithOwnedNextHopIpArpFalse(matchingIps, routesWithOwnedNextHopIpArpFalse);
+            toBdds(
+                computeDstIpsWithOwnedNextHopIpArpFalse(
+                    matchingIps, routesWithOwnedNextHopIpArpFalse),
+                ipSpaceToBDD);
       }
 
       // mapping: hostname -> interface -> ips on which we should assume some external device (not
@@ -245,46 +270,59 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
                           entry -> ((InterfaceLinkLocation) entry.getKey()).getInterfaceName(),
                           entry -> entry.getValue().getArpIps())));
 
-      _deliveredToSubnet =
-          computeDeliveredToSubnet(arpFalseDestIp, interfaceExternalArpIps, ownedIps);
-
       Map<String, Map<String, BDD>> interfaceExternalArpIpBDDs =
           computeInterfaceExternalArpIpBDDs(interfaceExternalArpIps, ipSpaceToBDD);
+
+      _deliveredToSubnet =
+          exportIpSpaces(
+              computeDeliveredToSubnet(arpFalseDestIp, interfaceExternalArpIpBDDs, ownedIpsBDD),
+              bddToIpSpace,
+              dstIpBddFactory);
+
       // hostname -> interfaces that are not full. I.e. could have neighbors not present in snapshot
       Map<String, Set<String>> interfacesWithMissingDevices =
           computeInterfacesWithMissingDevices(interfaceExternalArpIpBDDs, unownedIpsBDD);
 
       _neighborUnreachable =
-          computeNeighborUnreachable(
-              _arpFalse,
-              interfacesWithMissingDevices,
-              arpFalseDestIp,
-              interfaceExternalArpIps,
-              ownedIps);
+          exportIpSpaces(
+              computeNeighborUnreachable(
+                  arpFalse,
+                  interfacesWithMissingDevices,
+                  arpFalseDestIp,
+                  interfaceExternalArpIpBDDs,
+                  ownedIpsBDD),
+              bddToIpSpace,
+              dstIpBddFactory);
 
       // ips belonging to any subnet in the network, including inactive interfaces.
-      IpSpace internalIps = computeInternalIps(ipOwners.getAllInterfaceHostIps());
+      BDD internalIps = computeInternalIps(ipOwners.getAllInterfaceHostIps(), ipSpaceToBDD);
 
       _insufficientInfo =
-          computeInsufficientInfo(
-              interfaceExternalArpIps,
-              interfacesWithMissingDevices,
-              arpFalseDestIp,
-              dstIpsWithUnownedNextHopIpArpFalse,
-              dstIpsWithOwnedNextHopIpArpFalse,
-              internalIps);
+          exportIpSpaces(
+              computeInsufficientInfo(
+                  interfaceExternalArpIpBDDs,
+                  interfacesWithMissingDevices,
+                  arpFalseDestIp,
+                  dstIpsWithUnownedNextHopIpArpFalse,
+                  dstIpsWithOwnedNextHopIpArpFalse,
+                  internalIps),
+              bddToIpSpace,
+              dstIpBddFactory);
 
       // ips not belonging to any subnet in the network, including inactive interfaces.
-      IpSpace externalIps = internalIps.complement();
+      BDD externalIps = internalIps.not();
 
       _exitsNetwork =
-          computeExitsNetwork(
-              interfacesWithMissingDevices,
-              dstIpsWithUnownedNextHopIpArpFalse,
-              arpFalseDestIp,
-              externalIps);
-
-      assert sanityCheck(ipSpaceToBDD, configurations);
+          exportIpSpaces(
+              computeExitsNetwork(
+                  interfacesWithMissingDevices,
+                  dstIpsWithUnownedNextHopIpArpFalse,
+                  arpFalseDestIp,
+                  externalIps),
+              bddToIpSpace,
+              dstIpBddFactory);
+
+      assert sanityCheck(ipSpaceToBDD, bddToIpSpace, configurations, arpFalse);
     } finally {
       span.finish();
     }
@@ -1113,6 +1151,11 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
     return _arpTrueEdge;
   }
 
+  @Override
+  public @Nullable BDD getDstIpBdd(IpSpace ipSpace) {
+    return _dstIpBdds.get(ipSpace);
+  }
+
   @Override
   public Map<String, Map<String, Map<String, IpSpace>>> getNextVrfIps() {
     return _nextVrfIpsByNodeVrf;
@@ -1133,7 +1176,8 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
     return _deliveredToSubnet;
   }
 
-  private static Map<String, Map<String, BDD>> computeInterfaceExternalArpIpBDDs(
+  @VisibleForTesting
+  static Map<String, Map<String, BDD>> computeInterfaceExternalArpIpBDDs(
       Map<String, Map<String, IpSpace>> interfaceExternalArpIps, IpSpaceToBDD ipSpaceToBDD) {
     Span span =
         GlobalTracer.get()
@@ -1154,6 +1198,70 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
     }
   }
 
+  /** Converts each IpSpace in a node -&gt; vrf -&gt; key -&gt; IpSpace map to a BDD. */
+  @VisibleForTesting
+  static <K> Map<String, Map<String, Map<K, BDD>>> toBdds(
+      Map<String, Map<String, Map<K, IpSpace>>> ipSpaces, IpSpaceToBDD ipSpaceToBDD) {
+    return toImmutableMap(
+        ipSpaces,
+        Entry::getKey, /* hostname */
+        nodeEntry ->
+            toImmutableMap(
+                nodeEntry.getValue(),
+                Entry::getKey, /* vrf */
+                vrfEntry ->
+                    toImmutableMap(
+                        vrfEntry.getValue(),
+                        Entry::getKey,
+                        entry -> ipSpaceToBDD.visit(entry.getValue()))));
+  }
+
+  /**
+   * Converts each BDD in a node -&gt; vrf -&gt; key -&gt; BDD map back to an IpSpace, recording a
+   * copy of the BDD in {@code dstIpBddFactory} for {@link #getDstIpBdd(IpSpace)}.
+   */
+  private <K> Map<String, Map<String, Map<K, IpSpace>>> exportIpSpaces(
+      Map<String, Map<String, Map<K, BDD>>> bdds,
+      BDDToIpSpace bddToIpSpace,
+      BDDFactory dstIpBddFactory) {
+    Map<String, Map<String, Map<K, IpSpace>>> ipSpaces = toIpSpaces(bdds, bddToIpSpace);
+    ipSpaces.forEach(
+        (node, vrfs) ->
+            vrfs.forEach(
+                (vrf, keys) ->
+                    keys.forEach(
+                        (key, ipSpace) ->
+                            _dstIpBdds.computeIfAbsent(
+                                ipSpace,
+                                k ->
+                                    dstIpBddFactory.importBDD(bdds.get(node).get(vrf).get(key))))));
+    return ipSpaces;
+  }
+
+  /** Converts each BDD in a node -&gt; vrf -&gt; key -&gt; BDD map back to an IpSpace. */
+  @VisibleForTesting
+  static <K> Map<String, Map<String, Map<K, IpSpace>>> toIpSpaces(
+      Map<String, Map<String, Map<K, BDD>>> bdds, BDDToIpSpace bddToIpSpace) {
+    Span span = GlobalTracer.get().buildSpan("ForwardingAnalysisImpl.toIpSpaces").start();
+    try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
+      assert scope != null; // avoid unused warning
+      return toImmutableMap(
+          bdds,
+          Entry::getKey, /* hostname */
+          nodeEntry ->
+              toImmutableMap(
+                  nodeEntry.getValue(),
+                  Entry::getKey, /* vrf */
+                  vrfEntry ->
+                      toImmutableMap(
+                          vrfEntry.getValue(),
+                          Entry::getKey,
+                          entry -> bddToIpSpace.toIpSpace(entry.getValue()))));
+    } finally {
+      span.finish();
+    }
+  }
+
   static Map<String, Map<String, Map<String, IpSpace>>> union(
       Map<String, Map<String, Map<String, IpSpace>>> ipSpaces1,
       Map<String, Map<String, Map<String, IpSpace>>> ipSpaces2) {
@@ -1203,17 +1311,19 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
     }
   }
 
-  private static IpSpace computeInternalIps(
-      Map<String, Map<String, IpSpace>> interfaceHostSubnetIps) {
+  private static BDD computeInternalIps(
+      Map<String, Map<String, IpSpace>> interfaceHostSubnetIps, IpSpaceToBDD ipSpaceToBDD) {
     Span span = GlobalTracer.get().buildSpan("ForwardingAnalysisImpl.computeInternalIps").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      return firstNonNull(
-          AclIpSpace.union(
+      return ipSpaceToBDD
+          .getBDDInteger()
+          .getFactory()
+          .orAll(
               interfaceHostSubnetIps.values().stream()
                   .flatMap(ifaceSubnetIps -> ifaceSubnetIps.values().stream())
-                  .collect(Collectors.toList())),
-          EmptyIpSpace.INSTANCE);
+                  .map(ipSpaceToBDD::visit)
+                  .collect(Collectors.toList()));
     } finally {
       span.finish();
     }
@@ -1224,10 +1334,10 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
    * subnet.
    */
   @VisibleForTesting
-  static Map<String, Map<String, Map<String, IpSpace>>> computeDeliveredToSubnet(
-      Map<String, Map<String, Map<String, IpSpace>>> arpFalseDestIp,
-      Map<String, Map<String, IpSpace>> interfaceExternalArpIps,
-      IpSpace ownedIps) {
+  static Map<String, Map<String, Map<String, BDD>>> computeDeliveredToSubnet(
+      Map<String, Map<String, Map<String, BDD>>> arpFalseDestIp,
+      Map<String, Map<String, BDD>> interfaceExternalArpIps,
+      BDD ownedIps) {
     Span span =
         GlobalTracer.get().buildSpan("ForwardingAnalysisImpl.computeDeliveredToSubnet").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
@@ -1244,13 +1354,13 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
                           vrfEntry.getValue(),
                           Entry::getKey,
                           ifaceEntry ->
-                              AclIpSpace.difference(
-                                  AclIpSpace.intersection(
-                                      ifaceEntry.getValue(),
+                              ifaceEntry
+                                  .getValue()
+                                  .and(
                                       interfaceExternalArpIps
                                           .get(nodeEntry.getKey())
-                                          .get(ifaceEntry.getKey())),
-                                  ownedIps))));
+                                          .get(ifaceEntry.getKey()))
+                                  .diff(ownedIps))));
     } finally {
       span.finish();
     }
@@ -1265,11 +1375,11 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
    * Necessary and sufficient: The connected subnet is not full, the dest IP is external, and path
    * is not expected to come back into network (i.e. the ARP IP is also external).
    */
-  static Map<String, Map<String, Map<String, IpSpace>>> computeExitsNetwork(
+  static Map<String, Map<String, Map<String, BDD>>> computeExitsNetwork(
       Map<String, Set<String>> interfacesWithMissingDevices,
-      Map<String, Map<String, Map<String, IpSpace>>> dstIpsWithUnownedNextHopIpArpFalse,
-      Map<String, Map<String, Map<String, IpSpace>>> arpFalseDstIp,
-      IpSpace externalIps) {
+      Map<String, Map<String, Map<String, BDD>>> dstIpsWithUnownedNextHopIpArpFalse,
+      Map<String, Map<String, Map<String, BDD>>> arpFalseDstIp,
+      BDD externalIps) {
     Span span = GlobalTracer.get().buildSpan("ForwardingAnalysisImpl.computeExitsNetwork").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
@@ -1285,7 +1395,7 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
                 Entry::getKey,
                 vrfEntry -> {
                   String vrfName = vrfEntry.getKey();
-                  Map<String, IpSpace> arpFalseDstIpVrf = arpFalseDstIp.get(hostname).get(vrfName);
+                  Map<String, BDD> arpFalseDstIpVrf = arpFalseDstIp.get(hostname).get(vrfName);
                   return toImmutableMap(
                       vrfEntry.getValue(),
                       Entry::getKey,
@@ -1293,19 +1403,17 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
                         String ifaceName = ifaceEntry.getKey();
                         // the connected subnet is full
                         if (!interfacesWithMissingDevicesNode.contains(ifaceName)) {
-                          return EmptyIpSpace.INSTANCE;
+                          return externalIps.getFactory().zero();
                         }
 
                         // Returns the union of the following 2 cases:
                         // 1. Arp for dst ip and dst ip is external
                         // 2. Arp for next hop ip, next hop ip is not owned by any interfaces,
                         // and dst ip is external
-                        return AclIpSpace.intersection(
-                            // dest ip is external
-                            externalIps,
+                        return externalIps // dest ip is external
+                            .and(
                             // arp for dst Ip OR arp for external next-hop IP
-                            AclIpSpace.union(
-                                arpFalseDstIpVrf.get(ifaceName), ifaceEntry.getValue()));
+                            arpFalseDstIpVrf.get(ifaceName).or(ifaceEntry.getValue()));
                       });
                 });
           });
@@ -1332,13 +1440,13 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
    * @param internalIps IPs owned by devices in the snapshot or in connected subnets.
    */
   @VisibleForTesting
-  static Map<String, Map<String, Map<String, IpSpace>>> computeInsufficientInfo(
-      Map<String, Map<String, IpSpace>> interfaceExternalArpIps,
+  static Map<String, Map<String, Map<String, BDD>>> computeInsufficientInfo(
+      Map<String, Map<String, BDD>> interfaceExternalArpIps,
       Map<String, Set<String>> interfacesWithMissingDevices,
-      Map<String, Map<String, Map<String, IpSpace>>> arpFalseDestIp,
-      Map<String, Map<String, Map<String, IpSpace>>> dstIpsWithUnownedNextHopIpArpFalse,
-      Map<String, Map<String, Map<String, IpSpace>>> dstIpsWithOwnedNextHopIpArpFalse,
-      IpSpace internalIps) {
+      Map<String, Map<String, Map<String, BDD>>> arpFalseDestIp,
+      Map<String, Map<String, Map<String, BDD>>> dstIpsWithUnownedNextHopIpArpFalse,
+      Map<String, Map<String, Map<String, BDD>>> dstIpsWithOwnedNextHopIpArpFalse,
+      BDD internalIps) {
     Span span =
         GlobalTracer.get().buildSpan("ForwardingAnalysisImpl.computeInsufficientInfo").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
@@ -1362,44 +1470,43 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
                             // If interface is full (no missing devices), it cannot be insufficient
                             // info
                             if (!interfacesWithMissingDevices.get(hostname).contains(ifaceName)) {
-                              return EmptyIpSpace.INSTANCE;
+                              return internalIps.getFactory().zero();
                             }
 
-                            IpSpace ipSpaceElsewhere =
-                                AclIpSpace.difference(
-                                    internalIps,
+                            BDD ipSpaceElsewhere =
+                                internalIps.diff(
                                     interfaceExternalArpIps.get(hostname).get(ifaceName));
 
                             // case 1: arp for dst ip, dst ip is internal but not in any subnet of
                             // the interface
-                            IpSpace ipSpaceInternalDstIp =
-                                AclIpSpace.intersection(
-                                    arpFalseDestIp.get(hostname).get(vrfName).get(ifaceName),
-                                    ipSpaceElsewhere);
+                            BDD ipSpaceInternalDstIp =
+                                arpFalseDestIp
+                                    .get(hostname)
+                                    .get(vrfName)
+                                    .get(ifaceName)
+                                    .and(ipSpaceElsewhere);
 
                             // case 2: arp for nhip, nhip is not owned by interfaces, dst ip is
                             // internal
-                            IpSpace dstIpsWithUnownedNextHopIpArpFalsePerInterafce =
+                            BDD dstIpsWithUnownedNextHopIpArpFalsePerInterafce =
                                 dstIpsWithUnownedNextHopIpArpFalse
                                     .get(hostname)
                                     .get(vrfName)
                                     .get(ifaceName);
 
-                            IpSpace ipSpaceInternalDstIpUnownedNexthopIp =
-                                AclIpSpace.intersection(
-                                    dstIpsWithUnownedNextHopIpArpFalsePerInterafce, internalIps);
+                            BDD ipSpaceInternalDstIpUnownedNexthopIp =
+                                dstIpsWithUnownedNextHopIpArpFalsePerInterafce.and(internalIps);
 
                             // case 3: arp for nhip, nhip is owned by some interfaces
-                            IpSpace ipSpaceOwnedNextHopIp =
+                            BDD ipSpaceOwnedNextHopIp =
                                 dstIpsWithOwnedNextHopIpArpFalse
                                     .get(hostname)
                                     .get(vrfName)
                                     .get(ifaceName);
 
-                            return AclIpSpace.union(
-                                ipSpaceInternalDstIp,
-                                ipSpaceInternalDstIpUnownedNexthopIp,
-                                ipSpaceOwnedNextHopIp);
+                            return ipSpaceInternalDstIp
+                                .or(ipSpaceInternalDstIpUnownedNexthopIp)
+                                .or(ipSpaceOwnedNextHopIp);
                           })));
     } finally {
       span.finish();
@@ -1412,12 +1519,12 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
    *
    * <p>An interface is full if all subnets connected to it are full.
    */
-  static Map<String, Map<String, Map<String, IpSpace>>> computeNeighborUnreachable(
-      Map<String, Map<String, Map<String, IpSpace>>> arpFalse,
+  static Map<String, Map<String, Map<String, BDD>>> computeNeighborUnreachable(
+      Map<String, Map<String, Map<String, BDD>>> arpFalse,
       Map<String, Set<String>> interfacesWithMissingDevices,
-      Map<String, Map<String, Map<String, IpSpace>>> arpFalseDestIp,
-      Map<String, Map<String, IpSpace>> interfaceExternalArpIps,
-      IpSpace ownedIps) {
+      Map<String, Map<String, Map<String, BDD>>> arpFalseDestIp,
+      Map<String, Map<String, BDD>> interfaceExternalArpIps,
+      BDD ownedIps) {
     Span span =
         GlobalTracer.get().buildSpan("ForwardingAnalysisImpl.computeNeighborUnreachable").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
@@ -1438,13 +1545,15 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
                             String vrf = vrfEntry.getKey();
                             String iface = ifaceEntry.getKey();
 
-                            IpSpace ifaceArpFalse = ifaceEntry.getValue();
+                            BDD ifaceArpFalse = ifaceEntry.getValue();
 
                             return interfacesWithMissingDevices.get(node).contains(iface)
-                                ? AclIpSpace.intersection(
-                                    arpFalseDestIp.get(node).get(vrf).get(iface),
-                                    interfaceExternalArpIps.get(node).get(iface),
-                                    ownedIps)
+                                ? arpFalseDestIp
+                                    .get(node)
+                                    .get(vrf)
+                                    .get(iface)
+                                    .and(interfaceExternalArpIps.get(node).get(iface))
+                                    .and(ownedIps)
                                 : ifaceArpFalse;
                           })));
     } finally {
@@ -1569,10 +1678,16 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
    * Run sanity checks over the computed variables. Can be slow so only run in debug/assertion mode.
    */
   private boolean sanityCheck(
-      IpSpaceToBDD ipSpaceToBDD, Map<String, Configuration> configurations) {
+      IpSpaceToBDD ipSpaceToBDD,
+      BDDToIpSpace bddToIpSpace,
+      Map<String, Configuration> configurations,
+      Map<String, Map<String, Map<String, BDD>>> arpFalseBdds) {
+    Map<String, Map<String, Map<String, IpSpace>>> arpFalse =
+        toIpSpaces(arpFalseBdds, bddToIpSpace);
+
     // Sanity check internal properties.
     assertAllInterfacesActiveNodeInterface(_arpReplies, configurations);
-    assertAllInterfacesActiveNodeVrfInterface(_arpFalse, configurations);
+    assertAllInterfacesActiveNodeVrfInterface(arpFalse, configurations);
     assertAllInterfacesActiveNodeVrfInterface(_deliveredToSubnet, configurations);
     assertAllInterfacesActiveNodeVrfInterface(_exitsNetwork, configurations);
     assertAllInterfacesActiveNodeVrfInterface(_insufficientInfo, configurations);
@@ -1584,7 +1699,6 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
     assertAllInterfacesActiveNodeVrfInterface(getExitsNetwork(), configurations);
     assertAllInterfacesActiveNodeVrfInterface(getInsufficientInfo(), configurations);
     assertAllInterfacesActiveNodeVrfInterface(getNeighborUnreachable(), configurations);
-    assertAllInterfacesActiveNodeVrfInterface(_arpFalse, configurations);
 
     // Sanity check traceroute-reachability different variables.
     Map<String, Map<String, Map<String, IpSpace>>> unionOthers =
@@ -1603,7 +1717,7 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis {
     Map<String, Map<String, Map<String, IpSpace>>> union2 = union(union1, getDeliveredToSubnet());
     Map<String, Map<String, Map<String, IpSpace>>> union3 = union(union2, getExitsNetwork());
     assertDeepIpSpaceEquality(unionOthers, union3, ipSpaceToBDD);
-    assertDeepIpSpaceEquality(_arpFalse, unionOthers, ipSpaceToBDD);
+    assertDeepIpSpaceEquality(arpFalse, unionOthers, ipSpaceToBDD);
 
     return true;
   }
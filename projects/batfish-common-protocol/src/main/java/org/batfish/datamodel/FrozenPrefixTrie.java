@@ -0,0 +1,220 @@
+package org.batfish.datamodel;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * An immutable, array-backed multibit trie for longest-prefix-match lookups, built once from a
+ * {@link PrefixTrieMultiMap}. Use {@link PrefixTrieMultiMap} for tries that need to be mutated.
+ *
+ * <p>The trie has a stride of 8 bits, so a lookup visits at most 4 nodes. Longer prefixes are
+ * pushed down to the leaves, so no backtracking is needed. Nodes are compressed as in poptrie: each
+ * node stores a 256-bit bitmap of the slots that point to child nodes, and a 256-bit bitmap marking
+ * the start of each run of identical leaves. Children and leaves of a node are stored contiguously
+ * in shared arrays and are indexed by counting bits (popcount) in the bitmaps.
+ */
+@ParametersAreNonnullByDefault
+public final class FrozenPrefixTrie<T> {
+
+  private static final int STRIDE = 8;
+  private static final int FANOUT = 1 << STRIDE;
+  private static final int WORDS_PER_NODE = FANOUT / Long.SIZE;
+
+  /** Leaf index for addresses not matching any prefix */
+  private static final int NO_MATCH = 0;
+
+  /**
+   * Create a frozen trie containing the non-empty entries of {@code trie}. Lookups in the result
+   * return the same values as {@link PrefixTrieMultiMap#longestPrefixMatch(Ip)}.
+   */
+  @Nonnull
+  public static <T> FrozenPrefixTrie<T> from(PrefixTrieMultiMap<T> trie) {
+    List<Map.Entry<Prefix, Set<T>>> entries = new ArrayList<>();
+    trie.traverseEntries(
+        (prefix, elements) -> {
+          if (!elements.isEmpty()) {
+            entries.add(Maps.immutableEntry(prefix, elements));
+          }
+        });
+    return new FrozenPrefixTrie<>(entries);
+  }
+
+  /** Uncompressed node, used only during construction */
+  private static final class BuildNode {
+    private final int[] _leaves;
+    private final BuildNode[] _children;
+
+    private BuildNode(int leaf) {
+      _leaves = new int[FANOUT];
+      Arrays.fill(_leaves, leaf);
+      _children = new BuildNode[FANOUT];
+    }
+  }
+
+  /** Bitmaps of slots pointing to child nodes, {@link #WORDS_PER_NODE} words per node */
+  private final long[] _childVectors;
+  /** Bitmaps of slots starting a run of identical leaves, {@link #WORDS_PER_NODE} per node */
+  private final long[] _leafVectors;
+  /** Index of the first child of each node */
+  private final int[] _childBases;
+  /** Index in {@link #_leaves} of the first leaf run of each node */
+  private final int[] _leafBases;
+  /** Leaf runs of all nodes, as indices into {@link #_values} */
+  private final int[] _leaves;
+  /** Distinct element sets. Index {@link #NO_MATCH} holds the empty set. */
+  private final List<Set<T>> _values;
+
+  private FrozenPrefixTrie(List<Map.Entry<Prefix, Set<T>>> entries) {
+    // Intern value sets so that identical sets share a leaf index
+    Map<Set<T>, Integer> valueIndices = new HashMap<>();
+    _values = new ArrayList<>();
+    _values.add(ImmutableSet.of());
+    valueIndices.put(ImmutableSet.of(), NO_MATCH);
+
+    // Insert shorter prefixes first, so that longer prefixes overwrite them
+    entries.sort(Comparator.comparing(e -> e.getKey().getPrefixLength()));
+    BuildNode root = new BuildNode(NO_MATCH);
+    for (Map.Entry<Prefix, Set<T>> entry : entries) {
+      int valueIndex =
+          valueIndices.computeIfAbsent(
+              entry.getValue(),
+              v -> {
+                _values.add(ImmutableSet.copyOf(v));
+                return _values.size() - 1;
+              });
+      insert(root, entry.getKey(), valueIndex);
+    }
+
+    // Number nodes in breadth-first order, so that the children of each node are contiguous
+    List<BuildNode> nodes = new ArrayList<>();
+    Queue<BuildNode> queue = new ArrayDeque<>();
+    queue.add(root);
+    while (!queue.isEmpty()) {
+      BuildNode node = queue.remove();
+      nodes.add(node);
+      for (BuildNode child : node._children) {
+        if (child != null) {
+          queue.add(child);
+        }
+      }
+    }
+
+    int numNodes = nodes.size();
+    _childVectors = new long[numNodes * WORDS_PER_NODE];
+    _leafVectors = new long[numNodes * WORDS_PER_NODE];
+    _childBases = new int[numNodes];
+    _leafBases = new int[numNodes];
+    List<Integer> leaves = new ArrayList<>();
+    int nextChild = 1;
+    for (int i = 0; i < numNodes; i++) {
+      BuildNode node = nodes.get(i);
+      _childBases[i] = nextChild;
+      _leafBases[i] = leaves.size();
+      boolean previousIsLeaf = false;
+      int previousLeaf = NO_MATCH;
+      for (int slot = 0; slot < FANOUT; slot++) {
+        int word = i * WORDS_PER_NODE + (slot >>> 6);
+        long bit = 1L << (slot & 63);
+        if (node._children[slot] != null) {
+          _childVectors[word] |= bit;
+          nextChild++;
+          previousIsLeaf = false;
+        } else {
+          int leaf = node._leaves[slot];
+          if (!previousIsLeaf || leaf != previousLeaf) {
+            _leafVectors[word] |= bit;
+            leaves.add(leaf);
+          }
+          previousIsLeaf = true;
+          previousLeaf = leaf;
+        }
+      }
+    }
+    _leaves = leaves.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private static void insert(BuildNode root, Prefix prefix, int valueIndex) {
+    int length = prefix.getPrefixLength();
+    int address = (int) prefix.getStartIp().asLong();
+    if (length == 0) {
+      Arrays.fill(root._leaves, valueIndex);
+      return;
+    }
+    // The prefix ends in the node at this depth
+    int depth = (length - 1) / STRIDE;
+    BuildNode node = root;
+    for (int d = 0; d < depth; d++) {
+      int slot = slotAt(address, d);
+      BuildNode child = node._children[slot];
+      if (child == null) {
+        // Push the (shorter) prefix covering this slot down into the new child
+        child = new BuildNode(node._leaves[slot]);
+        node._children[slot] = child;
+      }
+      node = child;
+    }
+    int first = slotAt(address, depth);
+    int span = 1 << (STRIDE * (depth + 1) - length);
+    for (int slot = first; slot < first + span; slot++) {
+      if (node._children[slot] == null) {
+        node._leaves[slot] = valueIndex;
+      } else {
+        // Cannot happen when prefixes are inserted in order of increasing length
+        throw new IllegalStateException("Prefix inserted after a longer prefix: " + prefix);
+      }
+    }
+  }
+
+  private static int slotAt(int address, int depth) {
+    return (address >>> (Integer.SIZE - STRIDE * (depth + 1))) & (FANOUT - 1);
+  }
+
+  /**
+   * Number of set bits in the bitmap of {@code node} at positions up to and including {@code slot}
+   */
+  private static int rank(long[] vectors, int node, int slot) {
+    int base = node * WORDS_PER_NODE;
+    int word = slot >>> 6;
+    int count = 0;
+    for (int w = 0; w < word; w++) {
+      count += Long.bitCount(vectors[base + w]);
+    }
+    return count + Long.bitCount(vectors[base + word] & (-1L >>> (63 - (slot & 63))));
+  }
+
+  /** Find the elements associated with the longest matching prefix of a given IP address. */
+  @Nonnull
+  public Set<T> longestPrefixMatch(Ip address) {
+    return _values.get(_leaves[leafIndex((int) address.asLong())]);
+  }
+
+  private int leafIndex(int address) {
+    int node = 0;
+    for (int depth = 0; ; depth++) {
+      int slot = slotAt(address, depth);
+      long word = _childVectors[node * WORDS_PER_NODE + (slot >>> 6)];
+      if ((word & (1L << (slot & 63))) != 0) {
+        node = _childBases[node] + rank(_childVectors, node, slot) - 1;
+      } else {
+        // The leaf run containing the slot starts at the last run start at or before the slot
+        return _leafBases[node] + rank(_leafVectors, node, slot) - 1;
+      }
+    }
+  }
+
+  /** Number of internal nodes in the trie */
+  public int getNumNodes() {
+    return _childBases.length;
+  }
+}
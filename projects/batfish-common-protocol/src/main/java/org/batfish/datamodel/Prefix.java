@@ -4,9 +4,8 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import java.io.Serializable;
 import java.util.Optional;
 import javax.annotation.Nonnull;
@@ -17,11 +16,8 @@ import javax.annotation.ParametersAreNonnullByDefault;
 @ParametersAreNonnullByDefault
 public final class Prefix implements Comparable<Prefix>, Serializable {
 
-  // Soft values: let it be garbage collected in times of pressure.
-  // Maximum size 2^20: Just some upper bound on cache size, well less than GiB.
-  //   (12 bytes seems smallest possible entry (long + int), would be 12 MiB total).
-  private static final LoadingCache<Prefix, Prefix> CACHE =
-      CacheBuilder.newBuilder().softValues().maximumSize(1 << 20).build(CacheLoader.from(x -> x));
+  // Weak interner, for the same reasons as in Ip.
+  private static final Interner<Prefix> INTERNER = Interners.newWeakInterner();
 
   /** Maximum prefix length (number of bits) for a IPv4 address, which is 32 */
   public static final int MAX_PREFIX_LENGTH = 32;
@@ -111,7 +107,7 @@ public final class Prefix implements Comparable<Prefix>, Serializable {
 
   public static Prefix create(Ip ip, int prefixLength) {
     Prefix p = new Prefix(ip, prefixLength);
-    return CACHE.getUnchecked(p);
+    return INTERNER.intern(p);
   }
 
   public static Prefix create(Ip address, Ip mask) {
@@ -154,6 +150,11 @@ public final class Prefix implements Comparable<Prefix>, Serializable {
     return _prefixLength <= prefix._prefixLength && containsIp(prefix._ip);
   }
 
+  /** Canonicalize deserialized instances. */
+  private Object readResolve() {
+    return INTERNER.intern(this);
+  }
+
   @Override
   public boolean equals(@Nullable Object o) {
     if (o == this) {
@@ -0,0 +1,485 @@
+package org.batfish.datamodel.acl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AclAclLine;
+import org.batfish.datamodel.AclIpSpace;
+import org.batfish.datamodel.AclIpSpaceLine;
+import org.batfish.datamodel.EmptyIpSpace;
+import org.batfish.datamodel.ExprAclLine;
+import org.batfish.datamodel.FilterResult;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpIpSpace;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpSpaceReference;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.IpWildcardIpSpace;
+import org.batfish.datamodel.IpWildcardSetIpSpace;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixIpSpace;
+import org.batfish.datamodel.SubRange;
+import org.batfish.datamodel.TcpFlagsMatchConditions;
+import org.batfish.datamodel.UniverseIpSpace;
+import org.batfish.datamodel.acl.CompiledIpAccessList.CompiledLine;
+import org.batfish.datamodel.visitors.GenericIpSpaceVisitor;
+
+/**
+ * Compiles {@link IpAccessList ACLs} into {@link CompiledIpAccessList}s. Every construct has the
+ * same semantics as in {@link AclLineEvaluator}, {@link HeaderSpace#matches}, and {@link
+ * org.batfish.datamodel.IpSpaceContainsIp}, including errors on undefined ACL references, which are
+ * raised when the reference is evaluated rather than when it is compiled.
+ */
+@ParametersAreNonnullByDefault
+final class AclCompiler
+    implements GenericAclLineVisitor<CompiledLine>, GenericAclLineMatchExprVisitor<FlowMatcher> {
+
+  private final Map<String, IpAccessList> _acls;
+  private final Map<String, CompiledIpAccessList> _compiledAcls;
+  private final IpSpaceCompiler _ipSpaceCompiler;
+
+  AclCompiler(Map<String, IpAccessList> acls, Map<String, IpSpace> namedIpSpaces) {
+    _acls = acls;
+    _compiledAcls = new HashMap<>();
+    _ipSpaceCompiler = new IpSpaceCompiler(namedIpSpaces);
+  }
+
+  Map<String, CompiledIpAccessList> compileAll() {
+    ImmutableMap.Builder<String, CompiledIpAccessList> compiled = ImmutableMap.builder();
+    _acls.keySet().forEach(name -> compiled.put(name, compileReference(name)));
+    return compiled.build();
+  }
+
+  CompiledIpAccessList compile(IpAccessList acl) {
+    if (_acls.get(acl.getName()) == acl) {
+      return compileReference(acl.getName());
+    }
+    CompiledIpAccessList compiled = new CompiledIpAccessList(acl);
+    compileLines(compiled);
+    return compiled;
+  }
+
+  /** Returns the compiled ACL with the given name, or {@code null} if there is no such ACL. */
+  private @Nullable CompiledIpAccessList compileReference(String name) {
+    CompiledIpAccessList compiled = _compiledAcls.get(name);
+    if (compiled != null) {
+      return compiled;
+    }
+    IpAccessList acl = _acls.get(name);
+    if (acl == null) {
+      return null;
+    }
+    compiled = new CompiledIpAccessList(acl);
+    // register before compiling lines, so that circular references terminate
+    _compiledAcls.put(name, compiled);
+    compileLines(compiled);
+    return compiled;
+  }
+
+  private void compileLines(CompiledIpAccessList compiled) {
+    compiled.setLines(
+        compiled.getIpAccessList().getLines().stream()
+            .map(this::visit)
+            .toArray(CompiledLine[]::new));
+  }
+
+  private static NullPointerException undefinedAcl(String name) {
+    return new NullPointerException(String.format("Reference to undefined IpAccessList %s", name));
+  }
+
+  @Override
+  public CompiledLine visitAclAclLine(AclAclLine aclAclLine) {
+    String name = aclAclLine.getAclName();
+    CompiledIpAccessList referenced = compileReference(name);
+    if (referenced == null) {
+      return (flow, srcInterface) -> {
+        throw undefinedAcl(name);
+      };
+    }
+    return (flow, srcInterface) -> {
+      FilterResult result = referenced.filter(flow, srcInterface);
+      return result.getMatchLine() == null ? null : result.getAction();
+    };
+  }
+
+  @Override
+  public CompiledLine visitExprAclLine(ExprAclLine exprAclLine) {
+    FlowMatcher matcher = visit(exprAclLine.getMatchCondition());
+    LineAction action = exprAclLine.getAction();
+    return (flow, srcInterface) -> matcher.matches(flow, srcInterface) ? action : null;
+  }
+
+  private static FlowMatcher and(Collection<FlowMatcher> conjuncts) {
+    if (conjuncts.isEmpty()) {
+      return FlowMatcher.TRUE;
+    } else if (conjuncts.size() == 1) {
+      return conjuncts.iterator().next();
+    }
+    FlowMatcher[] matchers = conjuncts.toArray(new FlowMatcher[0]);
+    return (flow, srcInterface) -> {
+      for (FlowMatcher matcher : matchers) {
+        if (!matcher.matches(flow, srcInterface)) {
+          return false;
+        }
+      }
+      return true;
+    };
+  }
+
+  @Override
+  public FlowMatcher visitAndMatchExpr(AndMatchExpr andMatchExpr) {
+    List<FlowMatcher> conjuncts = new ArrayList<>();
+    andMatchExpr.getConjuncts().forEach(conjunct -> conjuncts.add(visit(conjunct)));
+    return and(conjuncts);
+  }
+
+  @Override
+  public FlowMatcher visitDeniedByAcl(DeniedByAcl deniedByAcl) {
+    String name = deniedByAcl.getAclName();
+    CompiledIpAccessList referenced = compileReference(name);
+    if (referenced == null) {
+      return (flow, srcInterface) -> {
+        throw undefinedAcl(name);
+      };
+    }
+    return (flow, srcInterface) ->
+        referenced.filter(flow, srcInterface).getAction() == LineAction.DENY;
+  }
+
+  @Override
+  public FlowMatcher visitFalseExpr(FalseExpr falseExpr) {
+    return FlowMatcher.FALSE;
+  }
+
+  @Override
+  public FlowMatcher visitMatchHeaderSpace(MatchHeaderSpace matchHeaderSpace) {
+    return compileHeaderSpace(matchHeaderSpace.getHeaderspace());
+  }
+
+  @Override
+  public FlowMatcher visitMatchSrcInterface(MatchSrcInterface matchSrcInterface) {
+    Set<String> srcInterfaces = matchSrcInterface.getSrcInterfaces();
+    return (flow, srcInterface) -> srcInterfaces.contains(srcInterface);
+  }
+
+  @Override
+  public FlowMatcher visitNotMatchExpr(NotMatchExpr notMatchExpr) {
+    FlowMatcher operand = visit(notMatchExpr.getOperand());
+    return (flow, srcInterface) -> !operand.matches(flow, srcInterface);
+  }
+
+  @Override
+  public FlowMatcher visitOriginatingFromDevice(OriginatingFromDevice originatingFromDevice) {
+    return (flow, srcInterface) -> srcInterface == null;
+  }
+
+  @Override
+  public FlowMatcher visitOrMatchExpr(OrMatchExpr orMatchExpr) {
+    if (orMatchExpr.getDisjuncts().isEmpty()) {
+      return FlowMatcher.FALSE;
+    }
+    FlowMatcher[] disjuncts =
+        orMatchExpr.getDisjuncts().stream().map(this::visit).toArray(FlowMatcher[]::new);
+    return (flow, srcInterface) -> {
+      for (FlowMatcher disjunct : disjuncts) {
+        if (disjunct.matches(flow, srcInterface)) {
+          return true;
+        }
+      }
+      return false;
+    };
+  }
+
+  @Override
+  public FlowMatcher visitPermittedByAcl(PermittedByAcl permittedByAcl) {
+    String name = permittedByAcl.getAclName();
+    CompiledIpAccessList referenced = compileReference(name);
+    if (referenced == null) {
+      return (flow, srcInterface) -> {
+        throw undefinedAcl(name);
+      };
+    }
+    return (flow, srcInterface) ->
+        referenced.filter(flow, srcInterface).getAction() == LineAction.PERMIT;
+  }
+
+  @Override
+  public FlowMatcher visitTrueExpr(TrueExpr trueExpr) {
+    return FlowMatcher.TRUE;
+  }
+
+  /** Compiles a header space into a conjunction of checks on only the fields it constrains. */
+  private FlowMatcher compileHeaderSpace(HeaderSpace hs) {
+    List<FlowMatcher> checks = new ArrayList<>();
+    if (!hs.getDscps().isEmpty()) {
+      Set<Integer> dscps = ImmutableSet.copyOf(hs.getDscps());
+      checks.add((flow, srcInterface) -> dscps.contains(flow.getDscp()));
+    }
+    if (!hs.getNotDscps().isEmpty()) {
+      Set<Integer> notDscps = ImmutableSet.copyOf(hs.getNotDscps());
+      checks.add((flow, srcInterface) -> !notDscps.contains(flow.getDscp()));
+    }
+    if (hs.getDstIps() != null) {
+      LongPredicate dstIps = _ipSpaceCompiler.visit(hs.getDstIps());
+      checks.add((flow, srcInterface) -> dstIps.test(flow.getDstIp().asLong()));
+    }
+    if (hs.getNotDstIps() != null) {
+      LongPredicate notDstIps = _ipSpaceCompiler.visit(hs.getNotDstIps());
+      checks.add((flow, srcInterface) -> !notDstIps.test(flow.getDstIp().asLong()));
+    }
+    if (!hs.getDstPorts().isEmpty()) {
+      Ranges dstPorts = new Ranges(hs.getDstPorts());
+      checks.add((flow, srcInterface) -> dstPorts.includes(flow.getDstPort()));
+    }
+    if (!hs.getNotDstPorts().isEmpty()) {
+      Ranges notDstPorts = new Ranges(hs.getNotDstPorts());
+      checks.add((flow, srcInterface) -> !notDstPorts.includes(flow.getDstPort()));
+    }
+    if (!hs.getEcns().isEmpty()) {
+      Set<Integer> ecns = ImmutableSet.copyOf(hs.getEcns());
+      checks.add((flow, srcInterface) -> ecns.contains(flow.getEcn()));
+    }
+    if (!hs.getNotEcns().isEmpty()) {
+      Set<Integer> notEcns = ImmutableSet.copyOf(hs.getNotEcns());
+      checks.add((flow, srcInterface) -> !notEcns.contains(flow.getEcn()));
+    }
+    if (!hs.getFragmentOffsets().isEmpty()) {
+      Ranges fragmentOffsets = new Ranges(hs.getFragmentOffsets());
+      checks.add((flow, srcInterface) -> fragmentOffsets.includes(flow.getFragmentOffset()));
+    }
+    if (!hs.getNotFragmentOffsets().isEmpty()) {
+      Ranges notFragmentOffsets = new Ranges(hs.getNotFragmentOffsets());
+      checks.add((flow, srcInterface) -> !notFragmentOffsets.includes(flow.getFragmentOffset()));
+    }
+    if (!hs.getIcmpCodes().isEmpty()) {
+      Ranges icmpCodes = new Ranges(hs.getIcmpCodes());
+      checks.add(
+          (flow, srcInterface) ->
+              flow.getIcmpCode() == null || icmpCodes.includes(flow.getIcmpCode()));
+    }
+    // HeaderSpace#matches tests the fragment offset against the excluded ICMP codes and types.
+    if (!hs.getNotIcmpCodes().isEmpty()) {
+      Ranges notIcmpCodes = new Ranges(hs.getNotIcmpCodes());
+      checks.add((flow, srcInterface) -> !notIcmpCodes.includes(flow.getFragmentOffset()));
+    }
+    if (!hs.getIcmpTypes().isEmpty()) {
+      Ranges icmpTypes = new Ranges(hs.getIcmpTypes());
+      checks.add(
+          (flow, srcInterface) ->
+              flow.getIcmpType() == null || icmpTypes.includes(flow.getIcmpType()));
+    }
+    if (!hs.getNotIcmpTypes().isEmpty()) {
+      Ranges notIcmpTypes = new Ranges(hs.getNotIcmpTypes());
+      checks.add((flow, srcInterface) -> !notIcmpTypes.includes(flow.getFragmentOffset()));
+    }
+    if (!hs.getIpProtocols().isEmpty()) {
+      Set<IpProtocol> ipProtocols = Sets.immutableEnumSet(hs.getIpProtocols());
+      checks.add((flow, srcInterface) -> ipProtocols.contains(flow.getIpProtocol()));
+    }
+    if (!hs.getNotIpProtocols().isEmpty()) {
+      Set<IpProtocol> notIpProtocols = Sets.immutableEnumSet(hs.getNotIpProtocols());
+      checks.add((flow, srcInterface) -> !notIpProtocols.contains(flow.getIpProtocol()));
+    }
+    if (!hs.getPacketLengths().isEmpty()) {
+      Ranges packetLengths = new Ranges(hs.getPacketLengths());
+      checks.add((flow, srcInterface) -> packetLengths.includes(flow.getPacketLength()));
+    }
+    if (!hs.getNotPacketLengths().isEmpty()) {
+      Ranges notPacketLengths = new Ranges(hs.getNotPacketLengths());
+      checks.add((flow, srcInterface) -> !notPacketLengths.includes(flow.getPacketLength()));
+    }
+    if (hs.getSrcOrDstIps() != null) {
+      LongPredicate srcOrDstIps = _ipSpaceCompiler.visit(hs.getSrcOrDstIps());
+      checks.add(
+          (flow, srcInterface) ->
+              srcOrDstIps.test(flow.getSrcIp().asLong())
+                  || srcOrDstIps.test(flow.getDstIp().asLong()));
+    }
+    if (!hs.getSrcOrDstPorts().isEmpty()) {
+      Ranges srcOrDstPorts = new Ranges(hs.getSrcOrDstPorts());
+      checks.add(
+          (flow, srcInterface) ->
+              srcOrDstPorts.includes(flow.getSrcPort())
+                  || srcOrDstPorts.includes(flow.getDstPort()));
+    }
+    if (hs.getSrcIps() != null) {
+      LongPredicate srcIps = _ipSpaceCompiler.visit(hs.getSrcIps());
+      checks.add((flow, srcInterface) -> srcIps.test(flow.getSrcIp().asLong()));
+    }
+    if (hs.getNotSrcIps() != null) {
+      LongPredicate notSrcIps = _ipSpaceCompiler.visit(hs.getNotSrcIps());
+      checks.add((flow, srcInterface) -> !notSrcIps.test(flow.getSrcIp().asLong()));
+    }
+    if (!hs.getSrcPorts().isEmpty()) {
+      Ranges srcPorts = new Ranges(hs.getSrcPorts());
+      checks.add((flow, srcInterface) -> srcPorts.includes(flow.getSrcPort()));
+    }
+    if (!hs.getNotSrcPorts().isEmpty()) {
+      Ranges notSrcPorts = new Ranges(hs.getNotSrcPorts());
+      checks.add((flow, srcInterface) -> !notSrcPorts.includes(flow.getSrcPort()));
+    }
+    if (!hs.getTcpFlags().isEmpty()) {
+      TcpFlagsMatchConditions[] tcpFlags = hs.getTcpFlags().toArray(new TcpFlagsMatchConditions[0]);
+      checks.add(
+          (flow, srcInterface) -> {
+            for (TcpFlagsMatchConditions flags : tcpFlags) {
+              if (flags.match(flow)) {
+                return true;
+              }
+            }
+            return false;
+          });
+    }
+    return and(checks);
+  }
+
+  /** A union of {@link SubRange}s. */
+  private static final class Ranges {
+    private final int[] _starts;
+    private final int[] _ends;
+
+    Ranges(Collection<SubRange> ranges) {
+      _starts = ranges.stream().mapToInt(SubRange::getStart).toArray();
+      _ends = ranges.stream().mapToInt(SubRange::getEnd).toArray();
+    }
+
+    boolean includes(@Nullable Integer value) {
+      return value != null && includes(value.intValue());
+    }
+
+    boolean includes(int value) {
+      for (int i = 0; i < _starts.length; i++) {
+        if (_starts[i] <= value && value <= _ends[i]) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /** Compiles {@link IpSpace}s into predicates on {@link org.batfish.datamodel.Ip#asLong()}. */
+  private static final class IpSpaceCompiler implements GenericIpSpaceVisitor<LongPredicate> {
+    private final Map<String, IpSpace> _namedIpSpaces;
+    private final Map<String, LongPredicate> _compiledNamedIpSpaces;
+
+    IpSpaceCompiler(Map<String, IpSpace> namedIpSpaces) {
+      _namedIpSpaces = namedIpSpaces;
+      _compiledNamedIpSpaces = new HashMap<>();
+    }
+
+    @Override
+    public LongPredicate castToGenericIpSpaceVisitorReturnType(Object o) {
+      return (LongPredicate) o;
+    }
+
+    @Override
+    public LongPredicate visitAclIpSpace(AclIpSpace aclIpSpace) {
+      List<AclIpSpaceLine> lines = aclIpSpace.getLines();
+      LongPredicate[] matchers = new LongPredicate[lines.size()];
+      boolean[] permits = new boolean[lines.size()];
+      for (int i = 0; i < matchers.length; i++) {
+        matchers[i] = visit(lines.get(i).getIpSpace());
+        permits[i] = lines.get(i).getAction() == LineAction.PERMIT;
+      }
+      return ip -> {
+        for (int i = 0; i < matchers.length; i++) {
+          if (matchers[i].test(ip)) {
+            return permits[i];
+          }
+        }
+        return false;
+      };
+    }
+
+    @Override
+    public LongPredicate visitEmptyIpSpace(EmptyIpSpace emptyIpSpace) {
+      return ip -> false;
+    }
+
+    @Override
+    public LongPredicate visitIpIpSpace(IpIpSpace ipIpSpace) {
+      long value = ipIpSpace.getIp().asLong();
+      return ip -> ip == value;
+    }
+
+    @Override
+    public LongPredicate visitIpSpaceReference(IpSpaceReference ipSpaceReference) {
+      String name = ipSpaceReference.getName();
+      LongPredicate compiled = _compiledNamedIpSpaces.get(name);
+      if (compiled != null) {
+        return compiled;
+      }
+      IpSpace ipSpace = _namedIpSpaces.get(name);
+      if (ipSpace == null) {
+        return ip -> false;
+      }
+      // register a forwarder before compiling, so that circular references terminate
+      LongPredicate[] target = new LongPredicate[1];
+      _compiledNamedIpSpaces.put(name, ip -> target[0].test(ip));
+      target[0] = visit(ipSpace);
+      _compiledNamedIpSpaces.put(name, target[0]);
+      return target[0];
+    }
+
+    @Override
+    public LongPredicate visitIpWildcardIpSpace(IpWildcardIpSpace ipWildcardIpSpace) {
+      IpWildcard wildcard = ipWildcardIpSpace.getIpWildcard();
+      long wildcardMask = wildcard.getWildcardMask();
+      long value = wildcard.getIp().asLong() | wildcardMask;
+      return ip -> (ip | wildcardMask) == value;
+    }
+
+    @Override
+    public LongPredicate visitIpWildcardSetIpSpace(IpWildcardSetIpSpace ipWildcardSetIpSpace) {
+      long[] blacklistMasks = masks(ipWildcardSetIpSpace.getBlacklist());
+      long[] blacklistValues = values(ipWildcardSetIpSpace.getBlacklist());
+      long[] whitelistMasks = masks(ipWildcardSetIpSpace.getWhitelist());
+      long[] whitelistValues = values(ipWildcardSetIpSpace.getWhitelist());
+      return ip ->
+          !anyWildcardContains(blacklistMasks, blacklistValues, ip)
+              && anyWildcardContains(whitelistMasks, whitelistValues, ip);
+    }
+
+    private static long[] masks(Collection<IpWildcard> wildcards) {
+      return wildcards.stream().mapToLong(IpWildcard::getWildcardMask).toArray();
+    }
+
+    private static long[] values(Collection<IpWildcard> wildcards) {
+      return wildcards.stream().mapToLong(w -> w.getIp().asLong() | w.getWildcardMask()).toArray();
+    }
+
+    private static boolean anyWildcardContains(long[] masks, long[] values, long ip) {
+      for (int i = 0; i < masks.length; i++) {
+        if ((ip | masks[i]) == values[i]) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public LongPredicate visitPrefixIpSpace(PrefixIpSpace prefixIpSpace) {
+      Prefix prefix = prefixIpSpace.getPrefix();
+      long mask = ~prefix.getPrefixWildcard().asLong();
+      long value = prefix.getStartIp().asLong();
+      return ip -> (ip & mask) == value;
+    }
+
+    @Override
+    public LongPredicate visitUniverseIpSpace(UniverseIpSpace universeIpSpace) {
+      return ip -> true;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package org.batfish.datamodel.acl;
+
+import com.google.common.collect.MapMaker;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.FilterResult;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.LineAction;
+
+/**
+ * An {@link IpAccessList} compiled for repeated evaluation against concrete {@link Flow flows}.
+ *
+ * <p>References to other ACLs and to named {@link IpSpace IP spaces} are resolved once at compile
+ * time, and header space matches only test the fields they constrain. {@link #filter(Flow, String)}
+ * returns the same result as {@link IpAccessList#filter(Flow, String, Map, Map)} without
+ * allocating.
+ */
+@ParametersAreNonnullByDefault
+public final class CompiledIpAccessList {
+
+  /** A compiled {@link org.batfish.datamodel.AclLine}. */
+  @FunctionalInterface
+  interface CompiledLine {
+    /** Returns the action the line takes on the flow, or {@code null} if it does not match. */
+    @Nullable
+    LineAction action(Flow flow, @Nullable String srcInterface);
+  }
+
+  private static final FilterResult NO_MATCH = new FilterResult(null, LineAction.DENY);
+
+  /*
+   * Compiled ACLs of each configuration, keyed by configuration identity. A configuration lives as
+   * long as its snapshot is loaded, so every traceroute and question on a snapshot shares one
+   * compilation of each node's ACLs.
+   */
+  private static final Map<Configuration, Map<String, CompiledIpAccessList>> BY_CONFIGURATION =
+      new MapMaker().weakKeys().makeMap();
+
+  /**
+   * Returns {@code acl}, which is used on the node with configuration {@code c}, compiled. Each
+   * configuration's ACLs are compiled together the first time any of them is requested, and the
+   * results are shared until the configuration is garbage collected. An ACL that is not among the
+   * configuration's ACLs is compiled on every call.
+   */
+  public static @Nonnull CompiledIpAccessList forConfiguration(Configuration c, IpAccessList acl) {
+    CompiledIpAccessList compiled =
+        BY_CONFIGURATION
+            .computeIfAbsent(c, config -> compile(config.getIpAccessLists(), config.getIpSpaces()))
+            .get(acl.getName());
+    if (compiled != null && compiled.getIpAccessList() == acl) {
+      return compiled;
+    }
+    return compile(acl, c.getIpAccessLists(), c.getIpSpaces());
+  }
+
+  /**
+   * Compiles all of {@code acls}, which may reference each other and {@code namedIpSpaces}, and
+   * returns the results keyed by ACL name.
+   */
+  public static @Nonnull Map<String, CompiledIpAccessList> compile(
+      Map<String, IpAccessList> acls, Map<String, IpSpace> namedIpSpaces) {
+    return new AclCompiler(acls, namedIpSpaces).compileAll();
+  }
+
+  /**
+   * Compiles {@code acl}, which may reference {@code availableAcls} and {@code namedIpSpaces}.
+   * Referenced ACLs are compiled as needed.
+   */
+  public static @Nonnull CompiledIpAccessList compile(
+      IpAccessList acl,
+      Map<String, IpAccessList> availableAcls,
+      Map<String, IpSpace> namedIpSpaces) {
+    return new AclCompiler(availableAcls, namedIpSpaces).compile(acl);
+  }
+
+  private final @Nonnull IpAccessList _acl;
+  private final @Nonnull FilterResult[] _denyResults;
+  private final @Nonnull FilterResult[] _permitResults;
+  private CompiledLine[] _lines;
+
+  CompiledIpAccessList(IpAccessList acl) {
+    _acl = acl;
+    int size = acl.getLines().size();
+    _denyResults = new FilterResult[size];
+    _permitResults = new FilterResult[size];
+    for (int i = 0; i < size; i++) {
+      _denyResults[i] = new FilterResult(i, LineAction.DENY);
+      _permitResults[i] = new FilterResult(i, LineAction.PERMIT);
+    }
+  }
+
+  /**
+   * Sets the compiled lines. Done after construction so that ACLs can be referenced while they are
+   * being compiled.
+   */
+  void setLines(CompiledLine[] lines) {
+    assert lines.length == _permitResults.length;
+    _lines = lines;
+  }
+
+  /** Applies this ACL to a flow entering the device through {@code srcInterface}. */
+  public @Nonnull FilterResult filter(Flow flow, @Nullable String srcInterface) {
+    CompiledLine[] lines = _lines;
+    for (int i = 0; i < lines.length; i++) {
+      LineAction action = lines[i].action(flow, srcInterface);
+      if (action != null) {
+        return action == LineAction.PERMIT ? _permitResults[i] : _denyResults[i];
+      }
+    }
+    return NO_MATCH;
+  }
+
+  /** The ACL this was compiled from. */
+  public @Nonnull IpAccessList getIpAccessList() {
+    return _acl;
+  }
+
+  public @Nonnull String getName() {
+    return _acl.getName();
+  }
+}
@@ -0,0 +1,19 @@
+package org.batfish.datamodel.acl;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.Flow;
+
+/** A compiled {@link AclLineMatchExpr}. */
+@FunctionalInterface
+@ParametersAreNonnullByDefault
+interface FlowMatcher {
+  FlowMatcher TRUE = (flow, srcInterface) -> true;
+  FlowMatcher FALSE = (flow, srcInterface) -> false;
+
+  /**
+   * Returns whether the flow entering the device through {@code srcInterface} (or originating from
+   * the device, if {@code null}) matches.
+   */
+  boolean matches(Flow flow, @Nullable String srcInterface);
+}
@@ -15,6 +15,8 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
       "bgpMultipathRibRoutesByIteration";
   private static final String PROP_DEPENDENT_ROUTES_ITERATIONS = "dependentRoutesIterations";
   private static final String PROP_OSPF_INTERNAL_ITERATIONS = "ospfInternalIterations";
+  private static final String PROP_ROUTING_POLICY_CACHE_HITS = "routingPolicyCacheHits";
+  private static final String PROP_ROUTING_POLICY_CACHE_MISSES = "routingPolicyCacheMisses";
   private static final String PROP_WARNINGS = "warnings";
 
   private SortedMap<Integer, Integer> _bgpBestPathRibRoutesByIteration;
@@ -22,6 +24,8 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
   private int _dependentRoutesIterations;
   private SortedMap<Integer, Integer> _mainRibRoutesByIteration;
   private int _ospfInternalIterations;
+  private long _routingPolicyCacheHits;
+  private long _routingPolicyCacheMisses;
   private String _version;
   private Warnings _warnings;
 
@@ -57,6 +61,18 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
     return _ospfInternalIterations;
   }
 
+  /** Number of BGP import/export policy applications answered from memoized results */
+  @JsonProperty(PROP_ROUTING_POLICY_CACHE_HITS)
+  public long getRoutingPolicyCacheHits() {
+    return _routingPolicyCacheHits;
+  }
+
+  /** Number of BGP import/export policy applications that had to evaluate the policy */
+  @JsonProperty(PROP_ROUTING_POLICY_CACHE_MISSES)
+  public long getRoutingPolicyCacheMisses() {
+    return _routingPolicyCacheMisses;
+  }
+
   @Override
   @JsonProperty(PROP_VERSION)
   public String getVersion() {
@@ -95,6 +111,16 @@ public class IncrementalBdpAnswerElement extends DataPlaneAnswerElement {
     _ospfInternalIterations = ospfInternalIterations;
   }
 
+  @JsonProperty(PROP_ROUTING_POLICY_CACHE_HITS)
+  public void setRoutingPolicyCacheHits(long routingPolicyCacheHits) {
+    _routingPolicyCacheHits = routingPolicyCacheHits;
+  }
+
+  @JsonProperty(PROP_ROUTING_POLICY_CACHE_MISSES)
+  public void setRoutingPolicyCacheMisses(long routingPolicyCacheMisses) {
+    _routingPolicyCacheMisses = routingPolicyCacheMisses;
+  }
+
   @JsonProperty(PROP_VERSION)
   public void setVersion(String version) {
     _version = version;
@@ -1,6 +1,7 @@
 package org.batfish.datamodel.routing_policy;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
+import static java.util.Collections.unmodifiableMap;
 import static org.batfish.common.util.CollectionUtil.toImmutableMap;
 import static org.batfish.datamodel.Route.UNSET_ROUTE_NEXT_HOP_IP;
 
@@ -33,25 +34,28 @@ public class Environment {
   /**
    * Initializes an {@link Environment} builder using a {@link Configuration} as the source of
    * several fields.
+   *
+   * <p>The configuration's named structures are exposed through unmodifiable views rather than
+   * copied, since this is called for every route a policy processes and evaluation only reads them.
    */
   public static Builder builder(@Nonnull Configuration c) {
     ConfigurationFormat format = c.getConfigurationFormat();
-    return new Builder()
-        .setAsPathAccessLists(c.getAsPathAccessLists())
-        .setCommunityLists(c.getCommunityLists())
-        .setCommunityMatchExprs(c.getCommunityMatchExprs())
-        .setCommunitySetExprs(c.getCommunitySetExprs())
-        .setCommunitySetMatchExprs(c.getCommunitySetMatchExprs())
-        .setCommunitySets(c.getCommunitySets())
-        .setIpAccessLists(c.getIpAccessLists())
-        .setIp6AccessLists(c.getIp6AccessLists())
-        .setRouteFilterLists(c.getRouteFilterLists())
-        .setRoute6FilterLists(c.getRoute6FilterLists())
-        .setRoutingPolicies(c.getRoutingPolicies())
-        .setUseOutputAttributes(
-            format == ConfigurationFormat.JUNIPER
-                || format == ConfigurationFormat.JUNIPER_SWITCH
-                || format == ConfigurationFormat.FLAT_JUNIPER);
+    Builder builder = new Builder();
+    builder._asPathAccessLists = unmodifiableMap(c.getAsPathAccessLists());
+    builder._communityLists = unmodifiableMap(c.getCommunityLists());
+    builder._communityMatchExprs = unmodifiableMap(c.getCommunityMatchExprs());
+    builder._communitySetExprs = unmodifiableMap(c.getCommunitySetExprs());
+    builder._communitySetMatchExprs = unmodifiableMap(c.getCommunitySetMatchExprs());
+    builder._communitySets = unmodifiableMap(c.getCommunitySets());
+    builder._ipAccessLists = unmodifiableMap(c.getIpAccessLists());
+    builder._ip6AccessLists = unmodifiableMap(c.getIp6AccessLists());
+    builder._routeFilterLists = unmodifiableMap(c.getRouteFilterLists());
+    builder._route6FilterLists = unmodifiableMap(c.getRoute6FilterLists());
+    builder._routingPolicies = unmodifiableMap(c.getRoutingPolicies());
+    return builder.setUseOutputAttributes(
+        format == ConfigurationFormat.JUNIPER
+            || format == ConfigurationFormat.JUNIPER_SWITCH
+            || format == ConfigurationFormat.FLAT_JUNIPER);
   }
 
   public enum Direction {
@@ -8,6 +8,21 @@ import org.batfish.datamodel.routing_policy.statement.If;
 
 /** Result of evaluating a {@link RoutingPolicy} or a {@link BooleanExpr}. */
 public final class Result {
+  // Results are immutable and have only 16 possible values, so builders hand out shared instances
+  // instead of allocating one per evaluated statement.
+  private static final Result[] INSTANCES = new Result[16];
+
+  static {
+    for (int i = 0; i < INSTANCES.length; i++) {
+      INSTANCES[i] = new Result((i & 1) != 0, (i & 2) != 0, (i & 4) != 0, (i & 8) != 0);
+    }
+  }
+
+  private static int index(
+      boolean booleanValue, boolean exit, boolean fallThrough, boolean aReturn) {
+    return (booleanValue ? 1 : 0) | (exit ? 2 : 0) | (fallThrough ? 4 : 0) | (aReturn ? 8 : 0);
+  }
+
   private final boolean _booleanValue;
   private final boolean _exit;
   private final boolean _fallThrough;
@@ -118,8 +133,9 @@ public final class Result {
 
     private Builder() {}
 
+    /** Returns the shared {@link Result} with this builder's values. */
     public Result build() {
-      return new Result(_booleanValue, _exit, _fallThrough, _return);
+      return INSTANCES[index(_booleanValue, _exit, _fallThrough, _return)];
     }
 
     public Builder setBooleanValue(boolean booleanValue) {
@@ -0,0 +1,421 @@
+package org.batfish.datamodel.routing_policy;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.routing_policy.communities.MatchCommunities;
+import org.batfish.datamodel.routing_policy.communities.SetCommunities;
+import org.batfish.datamodel.routing_policy.expr.BooleanExpr;
+import org.batfish.datamodel.routing_policy.expr.BooleanExprVisitor;
+import org.batfish.datamodel.routing_policy.expr.BooleanExprs.StaticBooleanExpr;
+import org.batfish.datamodel.routing_policy.expr.CallExpr;
+import org.batfish.datamodel.routing_policy.expr.Conjunction;
+import org.batfish.datamodel.routing_policy.expr.ConjunctionChain;
+import org.batfish.datamodel.routing_policy.expr.Disjunction;
+import org.batfish.datamodel.routing_policy.expr.FirstMatchChain;
+import org.batfish.datamodel.routing_policy.expr.HasRoute;
+import org.batfish.datamodel.routing_policy.expr.HasRoute6;
+import org.batfish.datamodel.routing_policy.expr.MatchAsPath;
+import org.batfish.datamodel.routing_policy.expr.MatchColor;
+import org.batfish.datamodel.routing_policy.expr.MatchCommunitySet;
+import org.batfish.datamodel.routing_policy.expr.MatchEntireCommunitySet;
+import org.batfish.datamodel.routing_policy.expr.MatchIp6AccessList;
+import org.batfish.datamodel.routing_policy.expr.MatchIpv4;
+import org.batfish.datamodel.routing_policy.expr.MatchIpv6;
+import org.batfish.datamodel.routing_policy.expr.MatchLocalPreference;
+import org.batfish.datamodel.routing_policy.expr.MatchLocalRouteSourcePrefixLength;
+import org.batfish.datamodel.routing_policy.expr.MatchMetric;
+import org.batfish.datamodel.routing_policy.expr.MatchPrefix6Set;
+import org.batfish.datamodel.routing_policy.expr.MatchPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.MatchProcessAsn;
+import org.batfish.datamodel.routing_policy.expr.MatchProtocol;
+import org.batfish.datamodel.routing_policy.expr.MatchRouteType;
+import org.batfish.datamodel.routing_policy.expr.MatchSourceVrf;
+import org.batfish.datamodel.routing_policy.expr.MatchTag;
+import org.batfish.datamodel.routing_policy.expr.NeighborIsAsPath;
+import org.batfish.datamodel.routing_policy.expr.Not;
+import org.batfish.datamodel.routing_policy.expr.OriginatesFromAsPath;
+import org.batfish.datamodel.routing_policy.expr.PassesThroughAsPath;
+import org.batfish.datamodel.routing_policy.expr.RouteIsClassful;
+import org.batfish.datamodel.routing_policy.expr.WithEnvironmentExpr;
+import org.batfish.datamodel.routing_policy.statement.AddCommunity;
+import org.batfish.datamodel.routing_policy.statement.BufferedStatement;
+import org.batfish.datamodel.routing_policy.statement.CallStatement;
+import org.batfish.datamodel.routing_policy.statement.Comment;
+import org.batfish.datamodel.routing_policy.statement.DeleteCommunity;
+import org.batfish.datamodel.routing_policy.statement.If;
+import org.batfish.datamodel.routing_policy.statement.PrependAsPath;
+import org.batfish.datamodel.routing_policy.statement.RetainCommunity;
+import org.batfish.datamodel.routing_policy.statement.SetAdministrativeCost;
+import org.batfish.datamodel.routing_policy.statement.SetCommunity;
+import org.batfish.datamodel.routing_policy.statement.SetDefaultPolicy;
+import org.batfish.datamodel.routing_policy.statement.SetEigrpMetric;
+import org.batfish.datamodel.routing_policy.statement.SetIsisLevel;
+import org.batfish.datamodel.routing_policy.statement.SetIsisMetricType;
+import org.batfish.datamodel.routing_policy.statement.SetLocalPreference;
+import org.batfish.datamodel.routing_policy.statement.SetMetric;
+import org.batfish.datamodel.routing_policy.statement.SetNextHop;
+import org.batfish.datamodel.routing_policy.statement.SetOrigin;
+import org.batfish.datamodel.routing_policy.statement.SetOspfMetricType;
+import org.batfish.datamodel.routing_policy.statement.SetTag;
+import org.batfish.datamodel.routing_policy.statement.SetVarMetricType;
+import org.batfish.datamodel.routing_policy.statement.SetWeight;
+import org.batfish.datamodel.routing_policy.statement.Statement;
+import org.batfish.datamodel.routing_policy.statement.StatementVisitor;
+import org.batfish.datamodel.routing_policy.statement.Statements.StaticStatement;
+
+/**
+ * Determines statically whether a {@link RoutingPolicy} may read the network (prefix) of the route
+ * it processes.
+ *
+ * <p>The analysis is conservative: it follows calls to other policies, including the default
+ * policies that {@link ConjunctionChain} and {@link FirstMatchChain} may fall back to, and reports
+ * that the network is read whenever a referenced policy is undefined. A policy that does not read
+ * the network transforms routes that differ only in their network identically, up to that network.
+ */
+@ParametersAreNonnullByDefault
+public final class RoutingPolicyNetworkUsage {
+
+  /**
+   * Returns {@code true} if evaluating {@code policy} may read the network of the input or output
+   * route. {@code routingPolicies} are the policies available to {@code policy} by name.
+   */
+  public static boolean readsNetwork(
+      RoutingPolicy policy, Map<String, RoutingPolicy> routingPolicies) {
+    return new RoutingPolicyNetworkUsage(routingPolicies).visitPolicy(policy);
+  }
+
+  private final Map<String, RoutingPolicy> _routingPolicies;
+  private final Set<String> _visitedPolicies;
+  private final BooleanExprNetworkUsage _booleanExprVisitor;
+  private final StatementNetworkUsage _statementVisitor;
+
+  private RoutingPolicyNetworkUsage(Map<String, RoutingPolicy> routingPolicies) {
+    _routingPolicies = routingPolicies;
+    _visitedPolicies = new HashSet<>();
+    _booleanExprVisitor = new BooleanExprNetworkUsage();
+    _statementVisitor = new StatementNetworkUsage();
+  }
+
+  private boolean visitPolicy(RoutingPolicy policy) {
+    if (!_visitedPolicies.add(policy.getName())) {
+      // Already visited, or being visited higher in the call stack.
+      return false;
+    }
+    return anyStatementReadsNetwork(policy.getStatements());
+  }
+
+  private boolean visitPolicyName(@Nullable String name) {
+    if (name == null) {
+      return false;
+    }
+    RoutingPolicy policy = _routingPolicies.get(name);
+    return policy == null || visitPolicy(policy);
+  }
+
+  private boolean anyExprReadsNetwork(List<BooleanExpr> exprs) {
+    return exprs.stream().anyMatch(expr -> expr.accept(_booleanExprVisitor, null));
+  }
+
+  private boolean anyStatementReadsNetwork(List<Statement> statements) {
+    return statements.stream().anyMatch(s -> s.accept(_statementVisitor, null));
+  }
+
+  private final class BooleanExprNetworkUsage implements BooleanExprVisitor<Boolean, Void> {
+
+    @Override
+    public Boolean visitBooleanExprs(StaticBooleanExpr staticBooleanExpr, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitCallExpr(CallExpr callExpr, Void arg) {
+      return visitPolicyName(callExpr.getCalledPolicyName());
+    }
+
+    @Override
+    public Boolean visitConjunction(Conjunction conjunction, Void arg) {
+      return anyExprReadsNetwork(conjunction.getConjuncts());
+    }
+
+    @Override
+    public Boolean visitConjunctionChain(ConjunctionChain conjunctionChain, Void arg) {
+      return anyExprReadsNetwork(conjunctionChain.getSubroutines());
+    }
+
+    @Override
+    public Boolean visitDisjunction(Disjunction disjunction, Void arg) {
+      return anyExprReadsNetwork(disjunction.getDisjuncts());
+    }
+
+    @Override
+    public Boolean visitFirstMatchChain(FirstMatchChain firstMatchChain, Void arg) {
+      return anyExprReadsNetwork(firstMatchChain.getSubroutines());
+    }
+
+    @Override
+    public Boolean visitHasRoute(HasRoute hasRoute, Void arg) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitHasRoute6(HasRoute6 hasRoute6, Void arg) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitMatchAsPath(MatchAsPath matchAsPath, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitMatchColor(MatchColor matchColor, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitMatchCommunities(MatchCommunities matchCommunities, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitMatchCommunitySet(MatchCommunitySet matchCommunitySet, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitMatchEntireCommunitySet(
+        MatchEntireCommunitySet matchEntireCommunitySet, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitMatchIp6AccessList(MatchIp6AccessList matchIp6AccessList, Void arg) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitMatchIpv4(MatchIpv4 matchIpv4, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitMatchIpv6(MatchIpv6 matchIpv6, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitMatchLocalPreference(MatchLocalPreference matchLocalPreference, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitMatchLocalRouteSourcePrefixLength(
+        MatchLocalRouteSourcePrefixLength matchLocalRouteSourcePrefixLength, Void arg) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitMatchMetric(MatchMetric matchMetric, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitMatchPrefix6Set(MatchPrefix6Set matchPrefix6Set, Void arg) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitMatchPrefixSet(MatchPrefixSet matchPrefixSet, Void arg) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitMatchProcessAsn(MatchProcessAsn matchProcessAsn, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitMatchProtocol(MatchProtocol matchProtocol, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitMatchRouteType(MatchRouteType matchRouteType, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitMatchSourceVrf(MatchSourceVrf matchSourceVrf, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitMatchTag(MatchTag matchTag, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitNeighborIsAsPath(NeighborIsAsPath neighborIsAsPath, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitNot(Not not, Void arg) {
+      return not.getExpr().accept(this, arg);
+    }
+
+    @Override
+    public Boolean visitOriginatesFromAsPath(OriginatesFromAsPath originatesFromAsPath, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitPassesThroughAsPath(PassesThroughAsPath passesThroughAsPath, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitRouteIsClassful(RouteIsClassful routeIsClassful, Void arg) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitWithEnvironmentExpr(WithEnvironmentExpr withEnvironmentExpr, Void arg) {
+      return withEnvironmentExpr.getExpr().accept(this, arg)
+          || anyStatementReadsNetwork(withEnvironmentExpr.getPreStatements())
+          || anyStatementReadsNetwork(withEnvironmentExpr.getPostStatements())
+          || anyStatementReadsNetwork(withEnvironmentExpr.getPostTrueStatements());
+    }
+  }
+
+  private final class StatementNetworkUsage implements StatementVisitor<Boolean, Void> {
+
+    @Override
+    public Boolean visitAddCommunity(AddCommunity addCommunity, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitBufferedStatement(BufferedStatement bufferedStatement, Void arg) {
+      return bufferedStatement.getStatement().accept(this, arg);
+    }
+
+    @Override
+    public Boolean visitCallStatement(CallStatement callStatement, Void arg) {
+      return visitPolicyName(callStatement.getCalledPolicyName());
+    }
+
+    @Override
+    public Boolean visitComment(Comment comment, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitDeleteCommunity(DeleteCommunity deleteCommunity, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitIf(If if1, Void arg) {
+      return if1.getGuard().accept(_booleanExprVisitor, arg)
+          || anyStatementReadsNetwork(if1.getTrueStatements())
+          || anyStatementReadsNetwork(if1.getFalseStatements());
+    }
+
+    @Override
+    public Boolean visitPrependAsPath(PrependAsPath prependAsPath, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitRetainCommunity(RetainCommunity retainCommunity, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitSetAdministrativeCost(
+        SetAdministrativeCost setAdministrativeCost, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitSetCommunities(SetCommunities setCommunities, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitSetCommunity(SetCommunity setCommunity, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitSetDefaultPolicy(SetDefaultPolicy setDefaultPolicy, Void arg) {
+      // The default policy is called when a chain falls through.
+      return visitPolicyName(setDefaultPolicy.getDefaultPolicy());
+    }
+
+    @Override
+    public Boolean visitSetEigrpMetric(SetEigrpMetric setEigrpMetric, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitSetIsisLevel(SetIsisLevel setIsisLevel, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitSetIsisMetricType(SetIsisMetricType setIsisMetricType, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitSetLocalPreference(SetLocalPreference setLocalPreference, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitSetMetric(SetMetric setMetric, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitSetNextHop(SetNextHop setNextHop, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitSetOrigin(SetOrigin setOrigin, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitSetOspfMetricType(SetOspfMetricType setOspfMetricType, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitSetTag(SetTag setTag, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitSetVarMetricType(SetVarMetricType setVarMetricType, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitSetWeight(SetWeight setWeight, Void arg) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitStaticStatement(StaticStatement staticStatement, Void arg) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package org.batfish.datamodel.table;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Comparator.nullsFirst;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.ColumnFilter;
+import org.batfish.common.ColumnSortOption;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.answers.SchemaUtils;
+
+/**
+ * A column-oriented view of the rows of a table, used to filter and sort large tables without
+ * repeatedly decoding the JSON value of every cell.
+ *
+ * <p>Each column is dictionary-encoded on first use: the column's distinct values are stored once,
+ * and each row holds the index of its value in that dictionary. Filters are evaluated once per
+ * distinct value, and sorting decodes each distinct value into its {@link Schema} type once and
+ * then compares rows by the rank of their values. Rows are identified by their index in the
+ * original list, so only the rows that are eventually returned need to be touched again.
+ */
+@ParametersAreNonnullByDefault
+public final class ColumnVectors {
+
+  /** A dictionary-encoded column. */
+  private static final class Column {
+    private final List<JsonNode> _dictionary;
+    private final int[] _codes;
+
+    private Column(List<JsonNode> dictionary, int[] codes) {
+      _dictionary = dictionary;
+      _codes = codes;
+    }
+  }
+
+  private final @Nonnull List<Row> _rows;
+  private final @Nonnull Map<String, ColumnMetadata> _columnMetadata;
+  private final @Nonnull Map<String, Column> _columns;
+
+  /**
+   * Creates a view of {@code rows}, which must not be modified while this view is in use, whose
+   * columns are described by {@code columnMetadata}.
+   */
+  public ColumnVectors(List<Row> rows, Map<String, ColumnMetadata> columnMetadata) {
+    _rows = rows;
+    _columnMetadata = columnMetadata;
+    _columns = new HashMap<>();
+  }
+
+  /**
+   * Returns the indices, in ascending order, of the rows that match all of {@code filters}.
+   *
+   * @throws java.util.NoSuchElementException if a filter's column is not present in some row
+   */
+  public @Nonnull int[] filter(List<ColumnFilter> filters) {
+    boolean[] matches = new boolean[_rows.size()];
+    Arrays.fill(matches, true);
+    for (ColumnFilter filter : filters) {
+      Column column = getColumn(filter.getColumn());
+      boolean[] valueMatches = new boolean[column._dictionary.size()];
+      for (int i = 0; i < valueMatches.length; i++) {
+        valueMatches[i] = filter.matchesValue(column._dictionary.get(i));
+      }
+      for (int row = 0; row < matches.length; row++) {
+        matches[row] = matches[row] && valueMatches[column._codes[row]];
+      }
+    }
+    return IntStream.range(0, matches.length).filter(row -> matches[row]).toArray();
+  }
+
+  /**
+   * Returns {@code rowIndices} stably sorted according to {@code sortOrder}. Values of each sort
+   * column are compared with the comparator that {@code schemaComparator} returns for the column's
+   * {@link Schema}, with nulls first.
+   */
+  public @Nonnull int[] sort(
+      int[] rowIndices,
+      List<ColumnSortOption> sortOrder,
+      Function<Schema, Comparator<?>> schemaComparator) {
+    int[][] ranks = new int[sortOrder.size()][];
+    for (int i = 0; i < ranks.length; i++) {
+      ColumnSortOption sortOption = sortOrder.get(i);
+      int[] valueRanks =
+          rankValues(
+              sortOption.getColumn(), schemaComparator.apply(getSchema(sortOption.getColumn())));
+      int[] codes = getColumn(sortOption.getColumn())._codes;
+      int sign = sortOption.getReversed() ? -1 : 1;
+      int[] rowRanks = new int[_rows.size()];
+      for (int row : rowIndices) {
+        rowRanks[row] = sign * valueRanks[codes[row]];
+      }
+      ranks[i] = rowRanks;
+    }
+    Comparator<Integer> comparator =
+        (row1, row2) -> {
+          for (int[] rowRanks : ranks) {
+            int cmp = Integer.compare(rowRanks[row1], rowRanks[row2]);
+            if (cmp != 0) {
+              return cmp;
+            }
+          }
+          return 0;
+        };
+    return Arrays.stream(rowIndices).boxed().sorted(comparator).mapToInt(i -> i).toArray();
+  }
+
+  /** Returns the row at {@code rowIndex}. */
+  public @Nonnull Row getRow(int rowIndex) {
+    return _rows.get(rowIndex);
+  }
+
+  /** Returns the number of rows in this view. */
+  public int size() {
+    return _rows.size();
+  }
+
+  private @Nonnull Column getColumn(String columnName) {
+    return _columns.computeIfAbsent(columnName, this::encode);
+  }
+
+  private @Nonnull Column encode(String columnName) {
+    Map<JsonNode, Integer> codesByValue = new HashMap<>();
+    ImmutableList.Builder<JsonNode> dictionary = ImmutableList.builder();
+    int[] codes = new int[_rows.size()];
+    for (int row = 0; row < codes.length; row++) {
+      JsonNode value = _rows.get(row).get(columnName);
+      Integer code = codesByValue.get(value);
+      if (code == null) {
+        code = codesByValue.size();
+        codesByValue.put(value, code);
+        dictionary.add(value);
+      }
+      codes[row] = code;
+    }
+    return new Column(dictionary.build(), codes);
+  }
+
+  private @Nonnull Schema getSchema(String columnName) {
+    ColumnMetadata metadata = _columnMetadata.get(columnName);
+    checkArgument(metadata != null, "Column '%s' is not present", columnName);
+    return metadata.getSchema();
+  }
+
+  /**
+   * Returns the rank of each distinct value of the column, such that equal values have equal ranks
+   * and ranks are ordered as the decoded values are under {@code comparator}.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private @Nonnull int[] rankValues(String columnName, Comparator comparator) {
+    Schema schema = getSchema(columnName);
+    List<JsonNode> dictionary = getColumn(columnName)._dictionary;
+    Object[] values = new Object[dictionary.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = SchemaUtils.convertType(dictionary.get(i), schema);
+    }
+    Comparator<Object> valueComparator = nullsFirst(comparator);
+    Integer[] order = new Integer[values.length];
+    Arrays.setAll(order, i -> i);
+    Arrays.sort(order, (i, j) -> valueComparator.compare(values[i], values[j]));
+    int[] ranks = new int[values.length];
+    int rank = 0;
+    for (int i = 0; i < order.length; i++) {
+      if (i > 0 && valueComparator.compare(values[order[i - 1]], values[order[i]]) != 0) {
+        rank++;
+      }
+      ranks[order[i]] = rank;
+    }
+    return ranks;
+  }
+}
@@ -17,9 +17,9 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedSet;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -308,7 +308,7 @@ public class Row implements Comparable<Row>, Serializable {
    * @return The list
    */
   public List<Object> getKey(List<ColumnMetadata> metadata) {
-    List<Object> keyList = new LinkedList<>();
+    List<Object> keyList = new ArrayList<>(metadata.size());
     for (ColumnMetadata column : metadata) {
       if (column.getIsKey()) {
         keyList.add(get(column.getName(), column.getSchema()));
@@ -364,7 +364,7 @@ public class Row implements Comparable<Row>, Serializable {
    * @return The list
    */
   public List<Object> getValue(List<ColumnMetadata> metadata) {
-    List<Object> valueList = new LinkedList<>();
+    List<Object> valueList = new ArrayList<>(metadata.size());
     for (ColumnMetadata column : metadata) {
       if (column.getIsValue()) {
         valueList.add(get(column.getName(), column.getSchema()));
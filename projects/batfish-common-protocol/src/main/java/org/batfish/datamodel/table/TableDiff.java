@@ -4,10 +4,10 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -47,7 +47,7 @@ public final class TableDiff {
     Iterator<Row> iterator = rows.iterator();
     while (iterator.hasNext()) {
       Row row = iterator.next();
-      map.computeIfAbsent(row.getKey(metadata), k -> new LinkedList<>()).add(row);
+      map.computeIfAbsent(row.getKey(metadata), k -> new ArrayList<>(1)).add(row);
     }
     return map;
   }
@@ -186,9 +186,10 @@ public final class TableDiff {
           diffTable.addRow(diffRowBuilder.build());
         }
       } else {
+        List<Object> baseValue = baseRow.getValue(valueColumns);
         for (Row deltaRow : deltaRows) {
           // insert delta rows that are unequal
-          if (!baseRow.getValue(valueColumns).equals(deltaRow.getValue(valueColumns))) {
+          if (!baseValue.equals(deltaRow.getValue(valueColumns))) {
             RowBuilder diffRowBuilder = Row.builder(diffColumnMap).putAll(baseRow, keyColumns);
             diffRowValues(diffRowBuilder, baseRow, deltaRow, inputMetadata);
             diffTable.addRow(diffRowBuilder.build());
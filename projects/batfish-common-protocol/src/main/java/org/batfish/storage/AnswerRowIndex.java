@@ -0,0 +1,234 @@
+package org.batfish.storage;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.primitives.Longs;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.BfConsts;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.datamodel.answers.AnswerStatus;
+import org.batfish.datamodel.table.TableAnswerElement;
+
+/**
+ * Locations of the parts of a stored, JSON-serialized, successful answer whose first answer element
+ * is a {@link TableAnswerElement}. Used to read the table's metadata, summary, and individual rows
+ * without reading or parsing the rest of the answer.
+ *
+ * <p>Each location is a range of byte offsets into the UTF-8 encoded answer, with an inclusive
+ * start and an exclusive end.
+ */
+@ParametersAreNonnullByDefault
+public final class AnswerRowIndex {
+
+  private static final String PROP_CLASS = "class";
+  private static final String PROP_METADATA = "metadata";
+  private static final String PROP_ROWS = "rows";
+
+  /** Marks the start of a serialized index, to reject files in some other format */
+  private static final int MAGIC = 0x42465249;
+
+  private static final int NO_SUMMARY = -1;
+
+  /**
+   * Returns the index of {@code answerJson}, or {@code null} if it is not valid JSON for a
+   * successful answer whose first answer element is a {@link TableAnswerElement}.
+   */
+  public static @Nullable AnswerRowIndex compute(byte[] answerJson) {
+    try {
+      return computeOrThrow(answerJson);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private static @Nullable AnswerRowIndex computeOrThrow(byte[] answerJson) throws IOException {
+    try (JsonParser parser = BatfishObjectMapper.mapper().getFactory().createParser(answerJson)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return null;
+      }
+      AnswerRowIndex index = null;
+      boolean success = false;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if (field.equals(BfConsts.PROP_STATUS)) {
+          success = AnswerStatus.SUCCESS.toString().equals(parser.getValueAsString());
+        } else if (field.equals(BfConsts.PROP_ANSWER_ELEMENTS)
+            && value == JsonToken.START_ARRAY
+            && parser.nextToken() == JsonToken.START_OBJECT) {
+          index = indexTable(parser);
+          // skip the remaining answer elements
+          while (parser.nextToken() != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+      return success ? index : null;
+    }
+  }
+
+  /**
+   * Indexes the answer element object whose start the parser is at, leaving the parser at the end
+   * of that object. Returns {@code null} if it is not a table answer.
+   */
+  private static @Nullable AnswerRowIndex indexTable(JsonParser parser) throws IOException {
+    boolean isTable = false;
+    long[] metadata = null;
+    long[] summary = null;
+    List<long[]> rows = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if (field.equals(PROP_CLASS)) {
+        isTable = TableAnswerElement.class.getName().equals(parser.getValueAsString());
+      } else if (field.equals(PROP_METADATA)) {
+        metadata = valueRange(parser);
+      } else if (field.equals(BfConsts.PROP_SUMMARY)) {
+        summary = valueRange(parser);
+      } else if (field.equals(PROP_ROWS) && value == JsonToken.START_ARRAY) {
+        rows = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          rows.add(valueRange(parser));
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+    if (!isTable || metadata == null) {
+      return null;
+    }
+    if (rows == null) {
+      rows = new ArrayList<>();
+    }
+    long[] rowStarts = new long[rows.size()];
+    long[] rowEnds = new long[rows.size()];
+    for (int i = 0; i < rowStarts.length; i++) {
+      rowStarts[i] = rows.get(i)[0];
+      rowEnds[i] = rows.get(i)[1];
+    }
+    return new AnswerRowIndex(
+        metadata[0],
+        metadata[1],
+        summary == null ? NO_SUMMARY : summary[0],
+        summary == null ? NO_SUMMARY : summary[1],
+        rowStarts,
+        rowEnds);
+  }
+
+  /** Returns the range of the value whose first token the parser is at, and skips past it. */
+  private static @Nonnull long[] valueRange(JsonParser parser) throws IOException {
+    long start = parser.getTokenLocation().getByteOffset();
+    parser.skipChildren();
+    long end = parser.getCurrentLocation().getByteOffset();
+    return new long[] {start, end};
+  }
+
+  /**
+   * Reads an index written by {@link #write(OutputStream)}.
+   *
+   * @throws IOException if the index cannot be read or is not in the expected format
+   */
+  public static @Nonnull AnswerRowIndex read(InputStream inputStream) throws IOException {
+    DataInputStream in = new DataInputStream(inputStream);
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not an answer row index");
+    }
+    long metadataStart = in.readLong();
+    long metadataEnd = in.readLong();
+    long summaryStart = in.readLong();
+    long summaryEnd = in.readLong();
+    int numRows = in.readInt();
+    long[] rowStarts = new long[numRows];
+    long[] rowEnds = new long[numRows];
+    for (int i = 0; i < numRows; i++) {
+      rowStarts[i] = in.readLong();
+      rowEnds[i] = in.readLong();
+    }
+    return new AnswerRowIndex(
+        metadataStart, metadataEnd, summaryStart, summaryEnd, rowStarts, rowEnds);
+  }
+
+  private final long _metadataStart;
+  private final long _metadataEnd;
+  private final long _summaryStart;
+  private final long _summaryEnd;
+  private final long[] _rowStarts;
+  private final long[] _rowEnds;
+
+  private AnswerRowIndex(
+      long metadataStart,
+      long metadataEnd,
+      long summaryStart,
+      long summaryEnd,
+      long[] rowStarts,
+      long[] rowEnds) {
+    checkArgument(rowStarts.length == rowEnds.length, "Row starts and ends must match");
+    _metadataStart = metadataStart;
+    _metadataEnd = metadataEnd;
+    _summaryStart = summaryStart;
+    _summaryEnd = summaryEnd;
+    _rowStarts = rowStarts;
+    _rowEnds = rowEnds;
+  }
+
+  public long getMetadataStart() {
+    return _metadataStart;
+  }
+
+  public long getMetadataEnd() {
+    return _metadataEnd;
+  }
+
+  /** Whether the table has a summary, located by {@link #getSummaryStart()} and end. */
+  public boolean hasSummary() {
+    return _summaryStart != NO_SUMMARY;
+  }
+
+  public long getSummaryStart() {
+    return _summaryStart;
+  }
+
+  public long getSummaryEnd() {
+    return _summaryEnd;
+  }
+
+  public int getNumRows() {
+    return _rowStarts.length;
+  }
+
+  public long getRowStart(int row) {
+    return _rowStarts[row];
+  }
+
+  public long getRowEnd(int row) {
+    return _rowEnds[row];
+  }
+
+  /** Writes this index to {@code outputStream}, in a form that {@link #read} accepts. */
+  public void write(OutputStream outputStream) throws IOException {
+    DataOutputStream out = new DataOutputStream(outputStream);
+    out.writeInt(MAGIC);
+    for (long offset : Longs.asList(_metadataStart, _metadataEnd, _summaryStart, _summaryEnd)) {
+      out.writeLong(offset);
+    }
+    out.writeInt(_rowStarts.length);
+    for (int i = 0; i < _rowStarts.length; i++) {
+      out.writeLong(_rowStarts[i]);
+      out.writeLong(_rowEnds[i]);
+    }
+    out.flush();
+  }
+}
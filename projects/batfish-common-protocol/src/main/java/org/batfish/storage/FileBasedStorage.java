@@ -11,10 +11,22 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
 import com.google.common.io.Closer;
+import com.google.common.io.MoreFiles;
 import com.google.errorprone.annotations.MustBeClosed;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -25,6 +37,8 @@ import java.io.OutputStream;
 import java.io.PushbackInputStream;
 import java.io.Serializable;
 import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
@@ -32,6 +46,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
@@ -51,7 +66,8 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import net.jpountz.lz4.LZ4FrameInputStream;
-import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.batfish.common.BatfishException;
@@ -72,6 +88,7 @@ import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+import org.batfish.datamodel.answers.DataPlaneAnswerElement;
 import org.batfish.datamodel.answers.MajorIssueConfig;
 import org.batfish.datamodel.answers.ParseEnvironmentBgpTablesAnswerElement;
 import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
@@ -125,11 +142,14 @@ public final class FileBasedStorage implements StorageProvider {
   private static final String RELPATH_ANSWERS_DIR = "answers";
   private static final String RELPATH_ANSWER_METADATA = "answer_metadata.json";
   private static final String RELPATH_ANSWER_JSON = "answer.json";
+  private static final String RELPATH_ANSWER_ROW_INDEX = "answer_row_index";
   private static final String RELPATH_ANALYSES_DIR = "analyses";
   private static final String RELPATH_BATFISH_CONFIGS_DIR = "batfish";
   private static final String RELPATH_ISP_CONFIG_FILE = "isp_config.json";
   private static final String RELPATH_SNAPSHOT_ZIP_FILE = "snapshot.zip";
   private static final String RELPATH_DATA_PLANE = "dp";
+  private static final String RELPATH_DATA_PLANE_ANSWER = "dp_answer";
+  private static final String RELPATH_DATA_PLANE_BDDS = "dp_bdds";
   private static final String RELPATH_SERIALIZED_ENVIRONMENT_BGP_TABLES = "bgp_processed";
   private static final String RELPATH_ENVIRONMENT_BGP_TABLES_ANSWER = "bgp_answer";
   private static final String RELPATH_EXTERNAL_BGP_ANNOUNCEMENTS =
@@ -143,15 +163,20 @@ public final class FileBasedStorage implements StorageProvider {
   private final BatfishLogger _logger;
   private final BiFunction<String, Integer, AtomicInteger> _newBatch;
   private final Path _baseDir;
+  private final SerializationFormat _serializationFormat;
 
   /**
-   * Create a new {@link FileBasedStorage} instance that uses the given root path and job batch
-   * provider function.
+   * Create a new {@link FileBasedStorage} instance that uses the given root path, job batch
+   * provider function, and format for serialized objects it writes.
    */
   public FileBasedStorage(
-      Path baseDir, BatfishLogger logger, BiFunction<String, Integer, AtomicInteger> newBatch) {
+      Path baseDir,
+      BatfishLogger logger,
+      BiFunction<String, Integer, AtomicInteger> newBatch,
+      SerializationFormat serializationFormat) {
     _logger = logger;
     _newBatch = newBatch;
+    _serializationFormat = serializationFormat;
     try {
       _baseDir = baseDir.toFile().getCanonicalFile().toPath();
     } catch (IOException e) {
@@ -160,6 +185,16 @@ public final class FileBasedStorage implements StorageProvider {
     }
   }
 
+  /**
+   * Create a new {@link FileBasedStorage} instance that uses the given root path and job batch
+   * provider function, and writes serialized objects in the {@link SerializationFormat#DEFAULT
+   * default format}.
+   */
+  public FileBasedStorage(
+      Path baseDir, BatfishLogger logger, BiFunction<String, Integer, AtomicInteger> newBatch) {
+    this(baseDir, logger, newBatch, SerializationFormat.DEFAULT);
+  }
+
   /**
    * Create a new {@link FileBasedStorage} instance that uses the given root path job and whose job
    * batch provider function is a NOP.
@@ -176,6 +211,25 @@ public final class FileBasedStorage implements StorageProvider {
   @Nullable
   public SortedMap<String, Configuration> loadConfigurations(
       NetworkId network, SnapshotId snapshot) {
+    SortedSet<String> hostnames = loadConfigurationHostnames(network, snapshot);
+    if (hostnames == null) {
+      return null;
+    }
+
+    _logger.info("\n*** DESERIALIZING VENDOR-INDEPENDENT CONFIGURATION STRUCTURES ***\n");
+    Path indepDir = getVendorIndependentConfigDir(network, snapshot);
+    Map<Path, String> namesByPath = new TreeMap<>();
+    hostnames.forEach(hostname -> namesByPath.put(indepDir.resolve(hostname), hostname));
+    try {
+      return deserializeObjects(namesByPath, Configuration.class);
+    } catch (BatfishException e) {
+      return null;
+    }
+  }
+
+  @Override
+  @Nullable
+  public SortedSet<String> loadConfigurationHostnames(NetworkId network, SnapshotId snapshot) {
     Path indepDir = getVendorIndependentConfigDir(network, snapshot);
     // If the directory that would contain these configs does not even exist, no cache exists.
     if (!Files.exists(indepDir)) {
@@ -191,22 +245,55 @@ public final class FileBasedStorage implements StorageProvider {
       return null;
     }
 
-    _logger.info("\n*** DESERIALIZING VENDOR-INDEPENDENT CONFIGURATION STRUCTURES ***\n");
-    Map<Path, String> namesByPath = new TreeMap<>();
+    ImmutableSortedSet.Builder<String> hostnames = ImmutableSortedSet.naturalOrder();
     try (DirectoryStream<Path> stream = Files.newDirectoryStream(indepDir)) {
       for (Path serializedConfig : stream) {
-        String name = serializedConfig.getFileName().toString();
-        namesByPath.put(serializedConfig, name);
+        hostnames.add(serializedConfig.getFileName().toString());
       }
     } catch (IOException e) {
       throw new BatfishException(
           "Error reading vendor-independent configs directory: '" + indepDir + "'", e);
     }
-    try {
-      return deserializeObjects(namesByPath, Configuration.class);
-    } catch (BatfishException e) {
+    return hostnames.build();
+  }
+
+  @Override
+  @Nullable
+  public SortedMap<String, HashCode> loadConfigurationHashes(
+      NetworkId network, SnapshotId snapshot) {
+    SortedSet<String> hostnames = loadConfigurationHostnames(network, snapshot);
+    if (hostnames == null) {
       return null;
     }
+    Path indepDir = getVendorIndependentConfigDir(network, snapshot);
+    ImmutableSortedMap.Builder<String, HashCode> hashes = ImmutableSortedMap.naturalOrder();
+    for (String hostname : hostnames) {
+      try {
+        hashes.put(
+            hostname, MoreFiles.asByteSource(indepDir.resolve(hostname)).hash(Hashing.sha256()));
+      } catch (IOException e) {
+        throw new BatfishException(
+            "Error hashing vendor-independent config for '" + hostname + "'", e);
+      }
+    }
+    return hashes.build();
+  }
+
+  @Override
+  public long getSerializedConfigurationsSize(NetworkId network, SnapshotId snapshot) {
+    try {
+      return sizeOfFiles(getVendorIndependentConfigDir(network, snapshot));
+    } catch (IOException e) {
+      throw new BatfishException("Error reading vendor-independent configs directory", e);
+    }
+  }
+
+  @Override
+  @Nonnull
+  public Configuration loadConfiguration(NetworkId network, SnapshotId snapshot, String hostname) {
+    Path inputPath = getVendorIndependentConfigDir(network, snapshot).resolve(hostname);
+    _logger.debugf("Reading configuration '%s' from '%s'\n", hostname, inputPath);
+    return deserializeObject(inputPath, Configuration.class);
   }
 
   @Override
@@ -506,7 +593,17 @@ public final class FileBasedStorage implements StorageProvider {
   public void storeAnswer(String answerStr, AnswerId answerId) throws IOException {
     Path answerPath = getAnswerPath(answerId);
     mkdirs(answerPath.getParent());
-    writeStringToFile(answerPath, answerStr, UTF_8);
+    Path rowIndexPath = getAnswerRowIndexPath(answerId);
+    // never leave an index in place for an answer it was not computed from
+    Files.deleteIfExists(validatePath(rowIndexPath));
+    byte[] answerBytes = answerStr.getBytes(UTF_8);
+    writeStreamToFile(new ByteArrayInputStream(answerBytes), answerPath);
+    AnswerRowIndex rowIndex = AnswerRowIndex.compute(answerBytes);
+    if (rowIndex != null) {
+      ByteArrayOutputStream rowIndexBytes = new ByteArrayOutputStream();
+      rowIndex.write(rowIndexBytes);
+      writeStreamToFile(new ByteArrayInputStream(rowIndexBytes.toByteArray()), rowIndexPath);
+    }
   }
 
   @Override
@@ -524,8 +621,8 @@ public final class FileBasedStorage implements StorageProvider {
   }
 
   /**
-   * Returns a single object of the given class deserialized from the given file. Uses the {@link
-   * FileBasedStorage} default file encoding including serialization format and compression.
+   * Returns a single object of the given class deserialized from the given file. The file's framing
+   * is detected, so files written in any {@link SerializationFormat} can be read.
    */
   @SuppressWarnings("PMD.CloseResource") // PMD does not understand Closer
   private <S extends Serializable> S deserializeObject(Path inputFile, Class<S> outputClass)
@@ -586,8 +683,8 @@ public final class FileBasedStorage implements StorageProvider {
   }
 
   /**
-   * Writes a single object of the given class to the given file. Uses the {@link FileBasedStorage}
-   * default file encoding including serialization format and compression.
+   * Writes a single object of the given class to the given file, framed in this storage's {@link
+   * SerializationFormat}.
    */
   private void serializeObject(Serializable object, Path outputFile) {
     Path sanitizedOutputFile = validatePath(outputFile);
@@ -595,8 +692,8 @@ public final class FileBasedStorage implements StorageProvider {
       Path tmpFile = Files.createTempFile(null, null);
       try {
         try (OutputStream out = Files.newOutputStream(tmpFile);
-            LZ4FrameOutputStream gos = new LZ4FrameOutputStream(out);
-            ObjectOutputStream oos = new ObjectOutputStream(gos)) {
+            OutputStream framed = _serializationFormat.wrap(out);
+            ObjectOutputStream oos = new ObjectOutputStream(framed)) {
           oos.writeObject(object);
         } catch (Throwable e) {
           throw new BatfishException(
@@ -671,6 +768,39 @@ public final class FileBasedStorage implements StorageProvider {
     return readFileToString(answerPath, UTF_8);
   }
 
+  @Override
+  public @Nonnull Optional<AnswerRowIndex> loadAnswerRowIndex(AnswerId answerId)
+      throws FileNotFoundException, IOException {
+    if (!Files.exists(getAnswerPath(answerId))) {
+      throw new FileNotFoundException(String.format("Could not find answer with ID: %s", answerId));
+    }
+    Path rowIndexPath = validatePath(getAnswerRowIndexPath(answerId));
+    if (!Files.exists(rowIndexPath)) {
+      return Optional.empty();
+    }
+    try (InputStream inputStream = Files.newInputStream(rowIndexPath)) {
+      return Optional.of(AnswerRowIndex.read(inputStream));
+    }
+  }
+
+  @MustBeClosed
+  @Override
+  public @Nonnull InputStream loadAnswerRange(AnswerId answerId, long offset, long length)
+      throws FileNotFoundException, IOException {
+    Path answerPath = validatePath(getAnswerPath(answerId));
+    if (!Files.exists(answerPath)) {
+      throw new FileNotFoundException(String.format("Could not find answer with ID: %s", answerId));
+    }
+    SeekableByteChannel channel = Files.newByteChannel(answerPath);
+    try {
+      channel.position(offset);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    return ByteStreams.limit(Channels.newInputStream(channel), length);
+  }
+
   @Override
   public @Nonnull AnswerMetadata loadAnswerMetadata(AnswerId answerId)
       throws FileNotFoundException, IOException {
@@ -688,6 +818,10 @@ public final class FileBasedStorage implements StorageProvider {
     return getAnswerDir(answerId).resolve(RELPATH_ANSWER_JSON);
   }
 
+  private @Nonnull Path getAnswerRowIndexPath(AnswerId answerId) {
+    return getAnswerDir(answerId).resolve(RELPATH_ANSWER_ROW_INDEX);
+  }
+
   private @Nonnull Path getAnswerMetadataPath(AnswerId answerId) {
     return getAnswerDir(answerId).resolve(RELPATH_ANSWER_METADATA);
   }
@@ -1472,6 +1606,8 @@ public final class FileBasedStorage implements StorageProvider {
 
   @Override
   public void storeDataPlane(DataPlane dataPlane, NetworkSnapshot snapshot) throws IOException {
+    // BDDs derived from an earlier data plane are stale
+    Files.deleteIfExists(getDataPlaneBddsPath(snapshot));
     serializeObject(dataPlane, getDataPlanePath(snapshot));
   }
 
@@ -1480,6 +1616,117 @@ public final class FileBasedStorage implements StorageProvider {
     return Files.exists(getDataPlanePath(snapshot));
   }
 
+  @Nonnull
+  @Override
+  public DataPlaneAnswerElement loadDataPlaneAnswerElement(NetworkSnapshot snapshot)
+      throws IOException {
+    return deserializeObject(getDataPlaneAnswerElementPath(snapshot), DataPlaneAnswerElement.class);
+  }
+
+  @Override
+  public void storeDataPlaneAnswerElement(
+      DataPlaneAnswerElement dataPlaneAnswerElement, NetworkSnapshot snapshot) throws IOException {
+    serializeObject(dataPlaneAnswerElement, getDataPlaneAnswerElementPath(snapshot));
+  }
+
+  @Override
+  public boolean hasDataPlaneAnswerElement(NetworkSnapshot snapshot) throws IOException {
+    return Files.exists(getDataPlaneAnswerElementPath(snapshot));
+  }
+
+  /*
+   * Stored data plane BDDs are the fingerprint, the number of keys, each key as its number of names
+   * followed by the names, and then the BDDs in the format of BDDFactory#save, all framed in the
+   * storage's serialization format.
+   */
+
+  @Nonnull
+  @Override
+  @SuppressWarnings("PMD.CloseResource") // PMD does not understand Closer
+  public Optional<Map<List<String>, BDD>> loadDataPlaneBdds(
+      NetworkSnapshot snapshot, String fingerprint, BDDFactory factory) throws IOException {
+    Path sanitizedInputFile = validatePath(getDataPlaneBddsPath(snapshot));
+    if (!Files.exists(sanitizedInputFile)) {
+      return Optional.empty();
+    }
+    try (Closer closer = Closer.create()) {
+      PushbackInputStream pbstream =
+          new PushbackInputStream(
+              closer.register(Files.newInputStream(sanitizedInputFile)),
+              DEFAULT_HEADER_LENGTH_BYTES);
+      Format f = detectFormat(pbstream);
+      InputStream unframed;
+      if (f == Format.GZIP) {
+        unframed = closer.register(new GZIPInputStream(pbstream, 8192 /* enlarge buffer */));
+      } else if (f == Format.LZ4) {
+        unframed = closer.register(new LZ4FrameInputStream(pbstream));
+      } else {
+        unframed = pbstream;
+      }
+      DataInputStream in = new DataInputStream(new BufferedInputStream(unframed));
+      String storedFingerprint = in.readUTF();
+      if (!storedFingerprint.equals(fingerprint)) {
+        _logger.infof(
+            "Ignoring data plane BDDs stored with fingerprint %s instead of %s\n",
+            storedFingerprint, fingerprint);
+        return Optional.empty();
+      }
+      int size = in.readInt();
+      List<List<String>> keys = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        String[] names = new String[in.readInt()];
+        for (int j = 0; j < names.length; j++) {
+          names[j] = in.readUTF();
+        }
+        keys.add(ImmutableList.copyOf(names));
+      }
+      if (size == 0) {
+        return Optional.of(ImmutableMap.of());
+      }
+      List<BDD> bdds = factory.load(in);
+      if (bdds.size() != size) {
+        throw new IOException(
+            String.format(
+                "Expected %d BDDs but found %d in file %s", size, bdds.size(), sanitizedInputFile));
+      }
+      ImmutableMap.Builder<List<String>, BDD> builder = ImmutableMap.builder();
+      for (int i = 0; i < size; i++) {
+        builder.put(keys.get(i), bdds.get(i));
+      }
+      return Optional.of(builder.build());
+    }
+  }
+
+  @Override
+  public void storeDataPlaneBdds(
+      Map<List<String>, BDD> bdds, String fingerprint, NetworkSnapshot snapshot)
+      throws IOException {
+    Path sanitizedOutputFile = validatePath(getDataPlaneBddsPath(snapshot));
+    Path tmpFile = Files.createTempFile(null, null);
+    try {
+      try (OutputStream out = Files.newOutputStream(tmpFile);
+          DataOutputStream dos =
+              new DataOutputStream(new BufferedOutputStream(_serializationFormat.wrap(out)))) {
+        dos.writeUTF(fingerprint);
+        dos.writeInt(bdds.size());
+        for (List<String> key : bdds.keySet()) {
+          dos.writeInt(key.size());
+          for (String name : key) {
+            dos.writeUTF(name);
+          }
+        }
+        if (!bdds.isEmpty()) {
+          List<BDD> values = ImmutableList.copyOf(bdds.values());
+          values.get(0).getFactory().save(dos, values);
+        }
+      }
+      mkdirs(sanitizedOutputFile.getParent());
+      Files.move(tmpFile, sanitizedOutputFile, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmpFile);
+    }
+  }
+
   @MustBeClosed
   @Nonnull
   @Override
@@ -1596,6 +1843,16 @@ public final class FileBasedStorage implements StorageProvider {
         .resolve(RELPATH_DATA_PLANE);
   }
 
+  private @Nonnull Path getDataPlaneAnswerElementPath(NetworkSnapshot snapshot) {
+    return getSnapshotOutputDir(snapshot.getNetwork(), snapshot.getSnapshot())
+        .resolve(RELPATH_DATA_PLANE_ANSWER);
+  }
+
+  private @Nonnull Path getDataPlaneBddsPath(NetworkSnapshot snapshot) {
+    return getSnapshotOutputDir(snapshot.getNetwork(), snapshot.getSnapshot())
+        .resolve(RELPATH_DATA_PLANE_BDDS);
+  }
+
   private @Nonnull Path getReferenceLibraryPath(NetworkId network) {
     return getNetworkDir(network).resolve(BfConsts.RELPATH_REFERENCE_LIBRARY_PATH);
   }
@@ -1767,6 +2024,25 @@ public final class FileBasedStorage implements StorageProvider {
     return vendorConfigurations;
   }
 
+  @Override
+  public long getSerializedVendorConfigurationsSize(NetworkSnapshot snapshot) throws IOException {
+    return sizeOfFiles(getVendorConfigurationsPath(snapshot));
+  }
+
+  /** Returns the total size of the files directly in {@code dir}, or {@code 0} if it is absent. */
+  private static long sizeOfFiles(Path dir) throws IOException {
+    if (!Files.exists(dir)) {
+      return 0L;
+    }
+    long size = 0L;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+      for (Path file : files) {
+        size += Files.size(file);
+      }
+    }
+    return size;
+  }
+
   private @Nonnull Path getVendorConfigurationsPath(NetworkSnapshot snapshot) {
     return getSnapshotOutputDir(snapshot.getNetwork(), snapshot.getSnapshot())
         .resolve(RELPATH_VENDOR_SPECIFIC_CONFIG_DIR);
@@ -1786,6 +2062,29 @@ public final class FileBasedStorage implements StorageProvider {
     serializeObjects(output);
   }
 
+  @Override
+  public void storeVendorConfiguration(
+      String name, VendorConfiguration vendorConfiguration, NetworkSnapshot snapshot)
+      throws IOException {
+    serializeObject(vendorConfiguration, getVendorConfigurationsPath(snapshot).resolve(name));
+  }
+
+  @Nullable
+  @Override
+  public VendorConfiguration loadVendorConfiguration(String name, NetworkSnapshot snapshot)
+      throws IOException {
+    Path path = getVendorConfigurationsPath(snapshot).resolve(name);
+    if (!Files.exists(path)) {
+      return null;
+    }
+    return deserializeObject(path, VendorConfiguration.class);
+  }
+
+  @Override
+  public void deleteVendorConfiguration(String name, NetworkSnapshot snapshot) throws IOException {
+    Files.deleteIfExists(validatePath(getVendorConfigurationsPath(snapshot).resolve(name)));
+  }
+
   @Override
   public void deleteVendorConfigurations(NetworkSnapshot snapshot) throws IOException {
     deleteDirectory(getVendorConfigurationsPath(snapshot));
@@ -0,0 +1,73 @@
+package org.batfish.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream.BLOCKSIZE;
+import net.jpountz.lz4.LZ4FrameOutputStream.FLG;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * The framing {@link FileBasedStorage} applies to Java-serialized objects it writes to disk.
+ *
+ * <p>Every format is detected when reading, so objects written in one format remain readable after
+ * the format is changed.
+ */
+@ParametersAreNonnullByDefault
+public enum SerializationFormat {
+  /** Uncompressed Java serialization. Largest on disk, cheapest to write and read. */
+  JAVA_SERIALIZED {
+    @Override
+    @Nonnull
+    OutputStream wrap(OutputStream out) {
+      return out;
+    }
+  },
+  /** LZ4 frame with the fast compressor. */
+  LZ4 {
+    @Override
+    @Nonnull
+    OutputStream wrap(OutputStream out) throws IOException {
+      return new LZ4FrameOutputStream(out, BLOCKSIZE.SIZE_4MB);
+    }
+  },
+  /**
+   * LZ4 frame with the high-compression compressor. Smaller and slower to write than {@link #LZ4},
+   * but just as fast to read.
+   */
+  LZ4_HC {
+    @Override
+    @Nonnull
+    OutputStream wrap(OutputStream out) throws IOException {
+      return new LZ4FrameOutputStream(
+          out,
+          BLOCKSIZE.SIZE_4MB,
+          -1L,
+          LZ4Factory.fastestInstance().highCompressor(),
+          XXHashFactory.fastestInstance().hash32(),
+          FLG.Bits.BLOCK_INDEPENDENCE);
+    }
+  },
+  /** GZIP. Smallest on disk, slowest to write and read. */
+  GZIP {
+    @Override
+    @Nonnull
+    OutputStream wrap(OutputStream out) throws IOException {
+      return new GZIPOutputStream(out, 8192 /* enlarge buffer */);
+    }
+  };
+
+  /** The format used unless another is configured. */
+  public static final SerializationFormat DEFAULT = LZ4;
+
+  /**
+   * Returns a stream that frames what is written to it in this format and writes the result to
+   * {@code out}. Closing the returned stream closes {@code out}.
+   */
+  @Nonnull
+  abstract OutputStream wrap(OutputStream out) throws IOException;
+}
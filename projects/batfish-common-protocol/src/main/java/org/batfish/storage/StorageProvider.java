@@ -1,5 +1,6 @@
 package org.batfish.storage;
 
+import com.google.common.hash.HashCode;
 import com.google.errorprone.annotations.MustBeClosed;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -14,6 +15,8 @@ import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
 import org.batfish.common.CompletionMetadata;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.runtime.SnapshotRuntimeData;
@@ -26,6 +29,7 @@ import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+import org.batfish.datamodel.answers.DataPlaneAnswerElement;
 import org.batfish.datamodel.answers.MajorIssueConfig;
 import org.batfish.datamodel.answers.ParseEnvironmentBgpTablesAnswerElement;
 import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
@@ -60,6 +64,37 @@ public interface StorageProvider {
   @Nullable
   SortedMap<String, Configuration> loadConfigurations(NetworkId network, SnapshotId snapshot);
 
+  /**
+   * Returns the hostnames of the configurations stored for the given snapshot, without loading the
+   * configurations themselves. Returns {@code null} under the same conditions as {@link
+   * #loadConfigurations(NetworkId, SnapshotId)}.
+   */
+  @Nullable
+  SortedSet<String> loadConfigurationHostnames(NetworkId network, SnapshotId snapshot);
+
+  /**
+   * Returns the stored configuration of the node with the given hostname, which must be one of
+   * those returned by {@link #loadConfigurationHostnames(NetworkId, SnapshotId)}.
+   *
+   * @throws org.batfish.common.BatfishException if the configuration cannot be read
+   */
+  @Nonnull
+  Configuration loadConfiguration(NetworkId network, SnapshotId snapshot, String hostname);
+
+  /**
+   * Returns a hash of the stored serialized form of each vendor-independent configuration of the
+   * given snapshot, keyed by hostname, or {@code null} if none are stored. Equal hashes mean equal
+   * stored configurations, so two snapshots can be compared without deserializing them.
+   */
+  @Nullable
+  SortedMap<String, HashCode> loadConfigurationHashes(NetworkId network, SnapshotId snapshot);
+
+  /**
+   * Returns the total size in bytes of the stored serialized vendor-independent configurations of
+   * the given snapshot, or {@code 0} if none are stored.
+   */
+  long getSerializedConfigurationsSize(NetworkId network, SnapshotId snapshot);
+
   /**
    * Returns the {@link ConvertConfigurationAnswerElement} that is the result of the phase that
    * converts vendor-specific configurations to vendor-independent configurations.
@@ -169,6 +204,8 @@ public interface StorageProvider {
   /**
    * Store the answer to an ad-hoc or analysis question.
    *
+   * <p>If the answer is a table, an {@link AnswerRowIndex} of it is stored as well.
+   *
    * @param answerStr The text of the answer
    * @param answerId The ID of the answer
    * @throws IOException if there is an error
@@ -218,6 +255,32 @@ public interface StorageProvider {
   @Nonnull
   String loadAnswer(AnswerId answerId) throws FileNotFoundException, IOException;
 
+  /**
+   * Load the {@link AnswerRowIndex} of the JSON-serialized answer to an ad-hoc or analysis
+   * question, if the answer is a table that was indexed when it was stored.
+   *
+   * @param answerId The ID of the answer
+   * @throws FileNotFoundException if answer does not exist; {@link IOException} if there is an
+   *     error reading the index.
+   */
+  @Nonnull
+  Optional<AnswerRowIndex> loadAnswerRowIndex(AnswerId answerId)
+      throws FileNotFoundException, IOException;
+
+  /**
+   * Provide a stream of {@code length} bytes of the UTF-8 encoded, JSON-serialized answer to an
+   * ad-hoc or analysis question, starting at byte {@code offset}. Offsets are those of the answer's
+   * {@link AnswerRowIndex}.
+   *
+   * @param answerId The ID of the answer
+   * @throws FileNotFoundException if answer does not exist; {@link IOException} if there is an
+   *     error reading the answer.
+   */
+  @Nonnull
+  @MustBeClosed
+  InputStream loadAnswerRange(AnswerId answerId, long offset, long length)
+      throws FileNotFoundException, IOException;
+
   /**
    * Load the metadata for the answer to an ad-hoc or analysis question.
    *
@@ -777,6 +840,53 @@ public interface StorageProvider {
    */
   boolean hasDataPlane(NetworkSnapshot snapshot) throws IOException;
 
+  /**
+   * Loads the {@link DataPlaneAnswerElement} of the data plane computation for the given snapshot.
+   *
+   * @throws IOException if there is an error
+   */
+  @Nonnull
+  DataPlaneAnswerElement loadDataPlaneAnswerElement(NetworkSnapshot snapshot) throws IOException;
+
+  /**
+   * Stores the {@link DataPlaneAnswerElement} of the data plane computation for the given snapshot.
+   *
+   * @throws IOException if there is an error
+   */
+  void storeDataPlaneAnswerElement(
+      DataPlaneAnswerElement dataPlaneAnswerElement, NetworkSnapshot snapshot) throws IOException;
+
+  /**
+   * Returns {@code true} iff a {@link DataPlaneAnswerElement} has been stored for the given
+   * snapshot
+   *
+   * @throws IOException if there is an error
+   */
+  boolean hasDataPlaneAnswerElement(NetworkSnapshot snapshot) throws IOException;
+
+  /**
+   * Loads the BDDs stored by {@link #storeDataPlaneBdds(Map, String, NetworkSnapshot)} for the
+   * given snapshot into {@code factory}, keyed as they were stored. Returns empty if none are
+   * stored, or if they were stored with a fingerprint other than {@code fingerprint}.
+   *
+   * @throws IOException if there is an error reading the BDDs
+   */
+  @Nonnull
+  Optional<Map<List<String>, BDD>> loadDataPlaneBdds(
+      NetworkSnapshot snapshot, String fingerprint, BDDFactory factory) throws IOException;
+
+  /**
+   * Stores BDDs derived from the data plane of the given snapshot, keyed by lists of names, so that
+   * they can be loaded instead of recomputed. {@code fingerprint} identifies the variable layout
+   * the BDDs were built with; they are only loaded for the same fingerprint. Replaces any BDDs
+   * stored earlier, and is itself replaced by {@link #storeDataPlane(DataPlane, NetworkSnapshot)}.
+   * All the BDDs must belong to the same factory.
+   *
+   * @throws IOException if there is an error writing the BDDs
+   */
+  void storeDataPlaneBdds(Map<List<String>, BDD> bdds, String fingerprint, NetworkSnapshot snapshot)
+      throws IOException;
+
   /**
    * Returns a list of snapshot input object keys corresponding to environment BGP tables.
    *
@@ -903,6 +1013,14 @@ public interface StorageProvider {
   Map<String, VendorConfiguration> loadVendorConfigurations(NetworkSnapshot snapshot)
       throws IOException;
 
+  /**
+   * Returns the total size in bytes of the stored compiled vendor configurations of the given
+   * snapshot, or {@code 0} if none are stored.
+   *
+   * @throws IOException if there is an error
+   */
+  long getSerializedVendorConfigurationsSize(NetworkSnapshot snapshot) throws IOException;
+
   /**
    * Stores the compiled vendor configurations for the given snapshot if they exist. Merges with any
    * existing stored vendor configurations.
@@ -913,6 +1031,34 @@ public interface StorageProvider {
       Map<String, VendorConfiguration> vendorConfigurations, NetworkSnapshot snapshot)
       throws IOException;
 
+  /**
+   * Stores a single compiled vendor configuration with the given name for the given snapshot,
+   * replacing any existing vendor configuration with that name.
+   *
+   * @throws IOException if there is an error
+   */
+  void storeVendorConfiguration(
+      String name, VendorConfiguration vendorConfiguration, NetworkSnapshot snapshot)
+      throws IOException;
+
+  /**
+   * Loads the compiled vendor configuration with the given name for the given snapshot. Returns
+   * {@code null} if there is no such vendor configuration.
+   *
+   * @throws IOException if there is an error
+   */
+  @Nullable
+  VendorConfiguration loadVendorConfiguration(String name, NetworkSnapshot snapshot)
+      throws IOException;
+
+  /**
+   * Deletes the compiled vendor configuration with the given name for the given snapshot if it
+   * exists.
+   *
+   * @throws IOException if there is an error
+   */
+  void deleteVendorConfiguration(String name, NetworkSnapshot snapshot) throws IOException;
+
   /**
    * Deletes the compiled vendor configurations for the given snapshot if they exist.
    *
@@ -0,0 +1,249 @@
+package org.batfish.storage;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import com.google.errorprone.annotations.MustBeClosed;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.AnswerRowsOptions;
+import org.batfish.common.ColumnFilter;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.datamodel.answers.AnswerSummary;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.ColumnVectors;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.TableMetadata;
+import org.batfish.datamodel.table.TableView;
+import org.batfish.datamodel.table.TableViewRow;
+import org.batfish.identifiers.AnswerId;
+
+/**
+ * Reads a stored table answer through its {@link AnswerRowIndex}, parsing one row at a time, so
+ * that a page of the table can be served without loading the whole answer into memory.
+ */
+@ParametersAreNonnullByDefault
+public final class StoredTableReader {
+
+  private final @Nonnull StorageProvider _storage;
+  private final @Nonnull AnswerId _answerId;
+  private final @Nonnull AnswerRowIndex _index;
+
+  public StoredTableReader(StorageProvider storage, AnswerId answerId, AnswerRowIndex index) {
+    _storage = storage;
+    _answerId = answerId;
+    _index = index;
+  }
+
+  public int getNumRows() {
+    return _index.getNumRows();
+  }
+
+  public @Nonnull TableMetadata readMetadata() throws IOException {
+    return readValue(_index.getMetadataStart(), _index.getMetadataEnd(), TableMetadata.class);
+  }
+
+  public @Nullable AnswerSummary readSummary() throws IOException {
+    return _index.hasSummary()
+        ? readValue(_index.getSummaryStart(), _index.getSummaryEnd(), AnswerSummary.class)
+        : null;
+  }
+
+  /** Returns the rows in the range [{@code from}, {@code to}) of the table. */
+  public @Nonnull List<Row> readRows(int from, int to) throws IOException {
+    ImmutableList.Builder<Row> rows = ImmutableList.builder();
+    try (RowIterator iterator = new RowIterator(from, to)) {
+      while (iterator.hasNext()) {
+        rows.add(iterator.next());
+      }
+    }
+    return rows.build();
+  }
+
+  /**
+   * Returns the view of the table selected by {@code options}, with the same rows and ids as {@link
+   * TableView}s computed from the whole table in memory. Only the rows that pass the filters are
+   * kept in memory, and only if the view is sorted. Sort columns are compared with the comparator
+   * that {@code schemaComparator} returns for their {@link Schema}.
+   */
+  public @Nonnull TableView readView(
+      AnswerRowsOptions options, Function<Schema, Comparator<?>> schemaComparator)
+      throws IOException {
+    TableMetadata rawMetadata = readMetadata();
+    Map<String, ColumnMetadata> rawColumnMap = rawMetadata.toColumnMap();
+    TableMetadata metadata;
+    if (options.getColumns().isEmpty()) {
+      metadata = rawMetadata;
+    } else {
+      // project to desired columns
+      Map<String, ColumnMetadata> columnMap = new LinkedHashMap<>(rawColumnMap);
+      columnMap.keySet().retainAll(options.getColumns());
+      metadata =
+          new TableMetadata(ImmutableList.copyOf(columnMap.values()), rawMetadata.getTextDesc());
+    }
+    PageBuilder page = new PageBuilder(options);
+
+    int numResults = 0;
+    List<Integer> filteredIds = new ArrayList<>();
+    List<Row> filteredRows = new ArrayList<>();
+    boolean sorted = !options.getSortOrder().isEmpty();
+    try (RowIterator iterator = new RowIterator(0, getNumRows())) {
+      while (iterator.hasNext()) {
+        int id = iterator.nextIndex();
+        Row row = iterator.next();
+        if (!matchesAll(options.getFilters(), row)) {
+          continue;
+        }
+        numResults++;
+        if (sorted) {
+          filteredIds.add(id);
+          filteredRows.add(row);
+        } else {
+          page.offer(id, row);
+        }
+      }
+    }
+    if (sorted) {
+      ColumnVectors columns = new ColumnVectors(filteredRows, rawColumnMap);
+      int[] order =
+          columns.sort(
+              IntStream.range(0, columns.size()).toArray(),
+              options.getSortOrder(),
+              schemaComparator);
+      for (int i : order) {
+        if (page.isFull()) {
+          break;
+        }
+        page.offer(filteredIds.get(i), filteredRows.get(i));
+      }
+    }
+
+    TableView view = new TableView(options, page.build(), metadata);
+    AnswerSummary summary = readSummary();
+    view.setSummary(summary != null ? summary : new AnswerSummary());
+    view.getSummary().setNumResults(numResults);
+    return view;
+  }
+
+  private static boolean matchesAll(List<ColumnFilter> filters, Row row) {
+    for (ColumnFilter filter : filters) {
+      if (!filter.matches(row)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Accumulates the rows of a page in order: projects them, drops duplicates if requested, skips
+   * the offset, and keeps at most the maximum number of rows.
+   */
+  private static final class PageBuilder {
+    private final @Nonnull AnswerRowsOptions _options;
+    private final @Nullable Set<Row> _seen;
+    private final @Nonnull ImmutableList.Builder<TableViewRow> _rows;
+    private int _skipped;
+    private int _size;
+
+    PageBuilder(AnswerRowsOptions options) {
+      _options = options;
+      _seen = options.getUniqueRows() ? new HashSet<>() : null;
+      _rows = ImmutableList.builder();
+    }
+
+    boolean isFull() {
+      return _size >= _options.getMaxRows();
+    }
+
+    void offer(int id, Row rawRow) {
+      if (isFull()) {
+        return;
+      }
+      Row row =
+          _options.getColumns().isEmpty()
+              ? rawRow
+              : Row.builder().putAll(rawRow, _options.getColumns()).build();
+      if (_seen != null && !_seen.add(row)) {
+        return;
+      }
+      if (_skipped < _options.getRowOffset()) {
+        _skipped++;
+        return;
+      }
+      _rows.add(new TableViewRow(id, row));
+      _size++;
+    }
+
+    @Nonnull
+    List<TableViewRow> build() {
+      return _rows.build();
+    }
+  }
+
+  private <T> T readValue(long start, long end, Class<T> clazz) throws IOException {
+    try (InputStream inputStream = _storage.loadAnswerRange(_answerId, start, end - start)) {
+      return BatfishObjectMapper.mapper().readValue(inputStream, clazz);
+    }
+  }
+
+  /** Reads a range of rows with a single pass over the stored answer. */
+  private final class RowIterator implements AutoCloseable {
+    private final @Nullable InputStream _inputStream;
+    private final int _to;
+    private int _next;
+    private long _position;
+
+    @MustBeClosed
+    RowIterator(int from, int to) throws IOException {
+      _next = from;
+      _to = to;
+      if (from < to) {
+        _position = _index.getRowStart(from);
+        _inputStream =
+            _storage.loadAnswerRange(_answerId, _position, _index.getRowEnd(to - 1) - _position);
+      } else {
+        _inputStream = null;
+      }
+    }
+
+    boolean hasNext() {
+      return _next < _to;
+    }
+
+    int nextIndex() {
+      return _next;
+    }
+
+    @Nonnull
+    Row next() throws IOException {
+      assert _inputStream != null;
+      long start = _index.getRowStart(_next);
+      long end = _index.getRowEnd(_next);
+      ByteStreams.skipFully(_inputStream, start - _position);
+      byte[] rowBytes = new byte[Math.toIntExact(end - start)];
+      ByteStreams.readFully(_inputStream, rowBytes);
+      _position = end;
+      _next++;
+      return BatfishObjectMapper.mapper().readValue(rowBytes, Row.class);
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (_inputStream != null) {
+        _inputStream.close();
+      }
+    }
+  }
+}
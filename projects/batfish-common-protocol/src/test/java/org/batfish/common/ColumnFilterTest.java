@@ -1,7 +1,9 @@
 package org.batfish.common;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import com.fasterxml.jackson.databind.node.TextNode;
 import com.google.common.testing.EqualsTester;
 import org.batfish.datamodel.table.Row;
 import org.junit.Test;
@@ -30,4 +32,11 @@ public final class ColumnFilterTest {
     Row row = Row.builder().put(columnName, "BlaHah").build();
     assertTrue(filter.matches(row));
   }
+
+  @Test
+  public void testMatchesValue() {
+    ColumnFilter filter = new ColumnFilter("column", "bLah");
+    assertTrue(filter.matchesValue(new TextNode("BlaHah")));
+    assertFalse(filter.matchesValue(new TextNode("foo")));
+  }
 }
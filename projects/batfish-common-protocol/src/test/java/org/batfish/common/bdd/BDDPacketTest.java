@@ -15,6 +15,7 @@ import static org.batfish.datamodel.matchers.FlowMatchers.hasTcpFlagsFin;
 import static org.batfish.datamodel.matchers.FlowMatchers.hasTcpFlagsPsh;
 import static org.batfish.datamodel.matchers.FlowMatchers.hasTcpFlagsRst;
 import static org.batfish.datamodel.matchers.FlowMatchers.hasTcpFlagsUrg;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
@@ -22,10 +23,12 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import com.google.common.collect.ImmutableList;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
 import org.batfish.common.bdd.BDDFlowConstraintGenerator.FlowPreference;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.Ip;
@@ -286,4 +289,72 @@ public class BDDPacketTest {
     BDD swapped = mkBdd.apply(srcIp, dstIp).apply(srcPort);
     assertThat(pkt.swapSourceAndDestinationFields(orig), equalTo(swapped));
   }
+
+  @Test
+  public void testReorderKeepsIntegersTogether() {
+    BDDPacket pkt = new BDDPacket();
+    BDDFactory factory = pkt.getFactory();
+    BDDInteger dstPort = pkt.getDstPort();
+    BDDInteger srcPort = pkt.getSrcPort();
+    BDD bdd = dstPort.value(80).and(srcPort.geq(1024)).or(pkt.getTcpAck());
+
+    factory.reorder(BDDFactory.REORDER_SIFT);
+
+    for (BDDInteger var : ImmutableList.of(pkt.getDstIp(), dstPort, srcPort)) {
+      BDD[] bits = var.getBitvec();
+      int first = factory.var2Level(bits[0].var());
+      for (int i = 0; i < bits.length; i++) {
+        assertThat(factory.var2Level(bits[i].var()), equalTo(first + i));
+      }
+    }
+    assertThat(dstPort.value(80).and(srcPort.geq(1024)).or(pkt.getTcpAck()), equalTo(bdd));
+    assertThat(
+        pkt.swapSourceAndDestinationFields(bdd),
+        equalTo(srcPort.value(80).and(dstPort.geq(1024)).or(pkt.getTcpAck())));
+  }
+
+  @Test
+  public void testEnableAutoReorder() {
+    BDDPacket pkt = new BDDPacket();
+    assertThat(pkt.getFactory().getReorderMethod(), equalTo(BDDFactory.REORDER_NONE));
+    pkt.enableAutoReorder();
+    assertThat(pkt.getFactory().getReorderMethod(), equalTo(BDDFactory.REORDER_SIFT));
+  }
+
+  /** Reverses the variable order of the packet's factory, so no level matches its variable. */
+  private static void reverseVarOrder(BDDPacket pkt) {
+    BDDFactory factory = pkt.getFactory();
+    int[] order = new int[factory.varNum()];
+    for (int level = 0; level < order.length; level++) {
+      order[level] = order.length - 1 - level;
+    }
+    factory.setVarOrder(order);
+  }
+
+  @Test
+  public void testGetFlowWithReversedVarOrder() {
+    BDDPacket pkt = new BDDPacket();
+    Ip dstIp = Ip.parse("1.2.3.4");
+    Ip srcIp = Ip.parse("5.6.7.8");
+    BDD bdd =
+        pkt.getDstIp()
+            .value(dstIp.asLong())
+            .and(pkt.getSrcIp().value(srcIp.asLong()))
+            .and(pkt.getDstPort().value(80))
+            .and(pkt.getIpProtocol().value(IpProtocol.TCP))
+            .and(pkt.getTcpAck());
+    reverseVarOrder(pkt);
+    assertThat(pkt.getFactory().level2Var(0), not(equalTo(0)));
+
+    Flow flow = pkt.getFlow(bdd).get().setIngressNode("node").build();
+    assertThat(flow, hasDstIp(dstIp));
+    assertThat(flow, hasSrcIp(srcIp));
+    assertThat(flow, hasDstPort(80));
+    assertThat(flow, hasIpProtocol(IpProtocol.TCP));
+    assertThat(flow, hasTcpFlagsAck(1));
+    // which values are found first depends on the order, but all of them are found
+    assertThat(
+        pkt.getDstPort().getValuesSatisfying(pkt.getDstPort().range(79, 81), 5),
+        containsInAnyOrder(79L, 80L, 81L));
+  }
 }
@@ -0,0 +1,150 @@
+package org.batfish.common.bdd;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import org.batfish.datamodel.AclIpSpace;
+import org.batfish.datamodel.EmptyIpSpace;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.IpWildcardSetIpSpace;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.UniverseIpSpace;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class BDDToIpSpaceTest {
+  @Rule public ExpectedException exception = ExpectedException.none();
+
+  private BDDFactory _factory;
+  private IpSpaceToBDD _ipSpaceToBdd;
+  private BDDToIpSpace _bddToIpSpace;
+
+  @Before
+  public void init() {
+    _factory = BDDUtils.bddFactory(33);
+    BDDInteger ipAddrBdd = BDDInteger.makeFromIndex(_factory, 32, 0, true);
+    _ipSpaceToBdd = new IpSpaceToBDD(ipAddrBdd);
+    _bddToIpSpace = new BDDToIpSpace(ipAddrBdd);
+  }
+
+  private BDD toBdd(IpSpace ipSpace) {
+    return ipSpace.accept(_ipSpaceToBdd);
+  }
+
+  @Test
+  public void testConstants() {
+    assertThat(_bddToIpSpace.toIpSpace(_factory.zero()), equalTo(EmptyIpSpace.INSTANCE));
+    assertThat(_bddToIpSpace.toIpSpace(_factory.one()), equalTo(UniverseIpSpace.INSTANCE));
+  }
+
+  @Test
+  public void testPrefix() {
+    Prefix prefix = Prefix.parse("10.1.0.0/16");
+    assertThat(
+        _bddToIpSpace.toIpWildcards(toBdd(prefix.toIpSpace())),
+        contains(IpWildcard.create(prefix)));
+    assertThat(
+        _bddToIpSpace.toIpSpace(toBdd(prefix.toIpSpace())),
+        equalTo(IpWildcardSetIpSpace.builder().including(IpWildcard.create(prefix)).build()));
+  }
+
+  @Test
+  public void testWildcard() {
+    IpWildcard wildcard = IpWildcard.parse("10.0.0.1:0.255.0.0");
+    assertThat(_bddToIpSpace.toIpWildcards(toBdd(wildcard.toIpSpace())), contains(wildcard));
+  }
+
+  @Test
+  public void testUnion() {
+    Ip ip1 = Ip.parse("1.1.1.1");
+    Ip ip2 = Ip.parse("2.2.2.2");
+    assertThat(
+        _bddToIpSpace.toIpWildcards(toBdd(AclIpSpace.union(ip1.toIpSpace(), ip2.toIpSpace()))),
+        containsInAnyOrder(IpWildcard.create(ip1), IpWildcard.create(ip2)));
+  }
+
+  @Test
+  public void testComplementIsSmaller() {
+    Prefix prefix = Prefix.parse("10.0.0.0/8");
+    IpSpace ipSpace = _bddToIpSpace.toIpSpace(toBdd(prefix.toIpSpace()).not());
+    assertThat(
+        ipSpace,
+        equalTo(
+            IpWildcardSetIpSpace.builder()
+                .including(IpWildcard.ANY)
+                .excluding(IpWildcard.create(prefix))
+                .build()));
+  }
+
+  @Test
+  public void testRoundTrip() {
+    // a deeply nested space whose BDD is small
+    IpSpace ipSpace =
+        AclIpSpace.difference(
+            AclIpSpace.union(
+                Prefix.parse("10.0.0.0/8").toIpSpace(), Prefix.parse("12.0.0.0/8").toIpSpace()),
+            AclIpSpace.intersection(
+                Prefix.parse("10.1.0.0/16").toIpSpace(),
+                IpWildcard.parse("0.0.0.1:255.255.255.254").toIpSpace()));
+    BDD bdd = toBdd(ipSpace);
+    assertThat(toBdd(_bddToIpSpace.toIpSpace(bdd)), equalTo(bdd));
+    assertThat(toBdd(_bddToIpSpace.toIpSpace(bdd.not())), equalTo(bdd.not()));
+  }
+
+  @Test
+  public void testManyPaths() {
+    // the parity of the low 16 bits: 31 nodes, but 2^15 paths to each terminal
+    BDD[] bitvec = _ipSpaceToBdd.getBDDInteger().getBitvec();
+    BDD parity = _factory.zero();
+    for (int i = 16; i < 32; i++) {
+      parity = parity.xor(bitvec[i]);
+    }
+    IpSpace ipSpace = _bddToIpSpace.toIpSpace(parity);
+    assertThat(ipSpace, instanceOf(AclIpSpace.class));
+    assertThat(toBdd(ipSpace), equalTo(parity));
+    assertTrue(ipSpace.containsIp(Ip.parse("10.0.0.1"), ImmutableMap.of()));
+    assertFalse(ipSpace.containsIp(Ip.parse("10.0.0.3"), ImmutableMap.of()));
+    assertTrue(ipSpace.containsIp(Ip.parse("10.0.128.3"), ImmutableMap.of()));
+  }
+
+  @Test
+  public void testOtherVariable() {
+    exception.expect(IllegalArgumentException.class);
+    _bddToIpSpace.toIpSpace(_factory.ithVar(32));
+  }
+
+  @Test
+  public void testRoundTripWithReorderedVars() {
+    BDDPacket pkt = new BDDPacket();
+    IpSpaceToBDD ipSpaceToBdd = pkt.getDstIpSpaceToBDD();
+    BDDToIpSpace bddToIpSpace = new BDDToIpSpace(pkt.getDstIp());
+    BDD bdd =
+        AclIpSpace.difference(
+                Prefix.parse("10.0.0.0/8").toIpSpace(),
+                IpWildcard.parse("0.0.0.1:255.255.255.254").toIpSpace())
+            .accept(ipSpaceToBdd);
+
+    // put the IP bits in reverse order, below every other variable
+    BDDFactory factory = pkt.getFactory();
+    int[] order = new int[factory.varNum()];
+    for (int level = 0; level < order.length; level++) {
+      order[level] = order.length - 1 - level;
+    }
+    factory.setVarOrder(order);
+
+    assertThat(bddToIpSpace.toIpSpace(bdd).accept(ipSpaceToBdd), equalTo(bdd));
+    assertThat(bddToIpSpace.toIpSpace(bdd.not()).accept(ipSpaceToBdd), equalTo(bdd.not()));
+  }
+}
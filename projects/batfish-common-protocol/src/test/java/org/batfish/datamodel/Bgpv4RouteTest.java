@@ -1,13 +1,17 @@
 package org.batfish.datamodel;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.testing.EqualsTester;
 import org.apache.commons.lang3.SerializationUtils;
 import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.datamodel.Bgpv4Route.Builder;
+import org.batfish.datamodel.bgp.community.ExtendedCommunity;
 import org.batfish.datamodel.bgp.community.StandardCommunity;
 import org.junit.Rule;
 import org.junit.Test;
@@ -91,6 +95,47 @@ public class Bgpv4RouteTest {
         .testEquals();
   }
 
+  @Test
+  public void testSharedCommunities() {
+    StandardCommunity standard = StandardCommunity.of(1, 1);
+    ExtendedCommunity extended = ExtendedCommunity.target(1, 1);
+    Builder brb =
+        Bgpv4Route.builder()
+            .setNetwork(Prefix.parse("1.1.1.0/24"))
+            .setOriginatorIp(Ip.parse("1.1.1.1"))
+            .setOriginType(OriginType.IGP)
+            .setProtocol(RoutingProtocol.BGP);
+    Bgpv4Route route1 = brb.setCommunities(ImmutableSet.of(standard, extended)).build();
+    Bgpv4Route route2 = brb.setCommunities(ImmutableSet.of(extended, standard)).build();
+
+    assertThat(route1.getStandardCommunities(), contains(standard));
+    assertThat(route1.getExtendedCommunities(), contains(extended));
+    assertThat(route2.getCommunities(), sameInstance(route1.getCommunities()));
+    assertThat(route2.getStandardCommunities(), sameInstance(route1.getStandardCommunities()));
+    assertThat(route2.getExtendedCommunities(), sameInstance(route1.getExtendedCommunities()));
+  }
+
+  @Test
+  public void testSharedCommunitiesAfterJavaSerialization() {
+    StandardCommunity standard = StandardCommunity.of(1, 1);
+    Builder brb =
+        Bgpv4Route.builder()
+            .setCommunities(ImmutableSet.of(standard))
+            .setOriginatorIp(Ip.parse("1.1.1.1"))
+            .setOriginType(OriginType.IGP)
+            .setProtocol(RoutingProtocol.BGP);
+    ImmutableList<Bgpv4Route> routes =
+        SerializationUtils.clone(
+            ImmutableList.of(
+                brb.setNetwork(Prefix.parse("1.1.1.0/24")).build(),
+                brb.setNetwork(Prefix.parse("2.2.2.0/24")).build()));
+
+    assertThat(routes.get(0).getStandardCommunities(), contains(standard));
+    assertThat(
+        routes.get(1).getStandardCommunities(),
+        sameInstance(routes.get(0).getStandardCommunities()));
+  }
+
   @Test
   public void testThrowsWithoutOriginType() {
     thrown.expect(IllegalArgumentException.class);
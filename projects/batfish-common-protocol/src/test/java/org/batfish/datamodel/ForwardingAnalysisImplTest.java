@@ -10,6 +10,7 @@ import static org.batfish.datamodel.ForwardingAnalysisImpl.computeDeliveredToSub
 import static org.batfish.datamodel.ForwardingAnalysisImpl.computeExitsNetwork;
 import static org.batfish.datamodel.ForwardingAnalysisImpl.computeInsufficientInfo;
 import static org.batfish.datamodel.ForwardingAnalysisImpl.computeInterfaceArpReplies;
+import static org.batfish.datamodel.ForwardingAnalysisImpl.computeInterfaceExternalArpIpBDDs;
 import static org.batfish.datamodel.ForwardingAnalysisImpl.computeIpsAssignedToThisInterfaceForArpReplies;
 import static org.batfish.datamodel.ForwardingAnalysisImpl.computeIpsRoutedOutInterfaces;
 import static org.batfish.datamodel.ForwardingAnalysisImpl.computeMatchingIps;
@@ -22,6 +23,8 @@ import static org.batfish.datamodel.ForwardingAnalysisImpl.computeRoutesWithNext
 import static org.batfish.datamodel.ForwardingAnalysisImpl.computeRoutesWithNextHopIpArpFalseForInterface;
 import static org.batfish.datamodel.ForwardingAnalysisImpl.computeRoutesWithNextHopIpArpTrue;
 import static org.batfish.datamodel.ForwardingAnalysisImpl.computeSomeoneReplies;
+import static org.batfish.datamodel.ForwardingAnalysisImpl.toBdds;
+import static org.batfish.datamodel.ForwardingAnalysisImpl.toIpSpaces;
 import static org.batfish.datamodel.ForwardingAnalysisImpl.union;
 import static org.batfish.datamodel.matchers.AclIpSpaceMatchers.hasLines;
 import static org.batfish.datamodel.matchers.AclIpSpaceMatchers.isAclIpSpaceThat;
@@ -45,6 +48,10 @@ import com.google.common.collect.ImmutableSortedSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import net.sf.javabdd.BDD;
+import org.batfish.common.bdd.BDDPacket;
+import org.batfish.common.bdd.BDDToIpSpace;
+import org.batfish.common.bdd.IpSpaceToBDD;
 import org.batfish.common.topology.IpOwners;
 import org.batfish.datamodel.visitors.GenericIpSpaceVisitor;
 import org.junit.Before;
@@ -73,6 +80,12 @@ public class ForwardingAnalysisImplTest {
 
   private static final Prefix P3 = Prefix.parse("3.0.0.0/24");
 
+  private static final BDDPacket PKT = new BDDPacket();
+
+  private static final IpSpaceToBDD IP_SPACE_TO_BDD = PKT.getDstIpSpaceToBDD();
+
+  private static final BDDToIpSpace BDD_TO_IP_SPACE = new BDDToIpSpace(PKT.getDstIp());
+
   private Configuration.Builder _cb;
 
   private Interface.Builder _ib;
@@ -1211,7 +1224,12 @@ public class ForwardingAnalysisImplTest {
     IpSpace ownedIps = EmptyIpSpace.INSTANCE;
 
     Map<String, Map<String, Map<String, IpSpace>>> result =
-        computeDeliveredToSubnet(arpFalseDestIp, interfaceHostSubnetIps, ownedIps);
+        toIpSpaces(
+            computeDeliveredToSubnet(
+                toBdds(arpFalseDestIp, IP_SPACE_TO_BDD),
+                computeInterfaceExternalArpIpBDDs(interfaceHostSubnetIps, IP_SPACE_TO_BDD),
+                IP_SPACE_TO_BDD.visit(ownedIps)),
+            BDD_TO_IP_SPACE);
 
     assertThat(
         result,
@@ -1232,7 +1250,12 @@ public class ForwardingAnalysisImplTest {
     IpSpace ownedIps = EmptyIpSpace.INSTANCE;
 
     Map<String, Map<String, Map<String, IpSpace>>> result =
-        computeDeliveredToSubnet(arpFalseDestIp, interfaceHostSubnetIps, ownedIps);
+        toIpSpaces(
+            computeDeliveredToSubnet(
+                toBdds(arpFalseDestIp, IP_SPACE_TO_BDD),
+                computeInterfaceExternalArpIpBDDs(interfaceHostSubnetIps, IP_SPACE_TO_BDD),
+                IP_SPACE_TO_BDD.visit(ownedIps)),
+            BDD_TO_IP_SPACE);
 
     assertThat(
         result,
@@ -1253,7 +1276,12 @@ public class ForwardingAnalysisImplTest {
     IpSpace ownedIps = EmptyIpSpace.INSTANCE;
 
     Map<String, Map<String, Map<String, IpSpace>>> result =
-        computeDeliveredToSubnet(arpFalseDestIp, interfaceHostSubnetIps, ownedIps);
+        toIpSpaces(
+            computeDeliveredToSubnet(
+                toBdds(arpFalseDestIp, IP_SPACE_TO_BDD),
+                computeInterfaceExternalArpIpBDDs(interfaceHostSubnetIps, IP_SPACE_TO_BDD),
+                IP_SPACE_TO_BDD.visit(ownedIps)),
+            BDD_TO_IP_SPACE);
 
     assertThat(
         result,
@@ -1343,42 +1371,54 @@ public class ForwardingAnalysisImplTest {
 
     IpSpace ownedIps = EmptyIpSpace.INSTANCE;
 
+    Map<String, Map<String, Map<String, BDD>>> arpFalseDestIpBdds =
+        toBdds(arpFalseDestIp, IP_SPACE_TO_BDD);
+    Map<String, Map<String, Map<String, BDD>>> dstIpsWithUnownedNextHopIpArpFalseBdds =
+        toBdds(dstIpsWithUnownedNextHopIpArpFalse, IP_SPACE_TO_BDD);
+    Map<String, Map<String, BDD>> interfaceHostSubnetIpBdds =
+        computeInterfaceExternalArpIpBDDs(interfaceHostSubnetIps, IP_SPACE_TO_BDD);
+    BDD ownedIpsBdd = IP_SPACE_TO_BDD.visit(ownedIps);
+
     IpSpace deliveredToSubnetIpSpace =
-        computeDeliveredToSubnet(arpFalseDestIp, interfaceHostSubnetIps, ownedIps)
-            .get(CONFIG1)
-            .get(VRF1)
-            .get(INTERFACE1);
+        BDD_TO_IP_SPACE.toIpSpace(
+            computeDeliveredToSubnet(arpFalseDestIpBdds, interfaceHostSubnetIpBdds, ownedIpsBdd)
+                .get(CONFIG1)
+                .get(VRF1)
+                .get(INTERFACE1));
     IpSpace exitsNetworkIpSpace =
-        computeExitsNetwork(
-                interfacesWithMissingDevices,
-                dstIpsWithUnownedNextHopIpArpFalse,
-                arpFalseDestIp,
-                externalIps)
-            .get(CONFIG1)
-            .get(VRF1)
-            .get(INTERFACE1);
+        BDD_TO_IP_SPACE.toIpSpace(
+            computeExitsNetwork(
+                    interfacesWithMissingDevices,
+                    dstIpsWithUnownedNextHopIpArpFalseBdds,
+                    arpFalseDestIpBdds,
+                    IP_SPACE_TO_BDD.visit(externalIps))
+                .get(CONFIG1)
+                .get(VRF1)
+                .get(INTERFACE1));
 
     IpSpace insufficientInfoIpSpace =
-        computeInsufficientInfo(
-                interfaceHostSubnetIps,
-                interfacesWithMissingDevices,
-                arpFalseDestIp,
-                dstIpsWithUnownedNextHopIpArpFalse,
-                dstIpsWithOwnedNextHopIpArpFalse,
-                internalIps)
-            .get(CONFIG1)
-            .get(VRF1)
-            .get(INTERFACE1);
+        BDD_TO_IP_SPACE.toIpSpace(
+            computeInsufficientInfo(
+                    interfaceHostSubnetIpBdds,
+                    interfacesWithMissingDevices,
+                    arpFalseDestIpBdds,
+                    dstIpsWithUnownedNextHopIpArpFalseBdds,
+                    toBdds(dstIpsWithOwnedNextHopIpArpFalse, IP_SPACE_TO_BDD),
+                    IP_SPACE_TO_BDD.visit(internalIps))
+                .get(CONFIG1)
+                .get(VRF1)
+                .get(INTERFACE1));
     IpSpace neighborUnreachableIpSpace =
-        computeNeighborUnreachable(
-                arpFalse,
-                interfacesWithMissingDevices,
-                arpFalseDestIp,
-                interfaceHostSubnetIps,
-                ownedIps)
-            .get(CONFIG1)
-            .get(VRF1)
-            .get(INTERFACE1);
+        BDD_TO_IP_SPACE.toIpSpace(
+            computeNeighborUnreachable(
+                    toBdds(arpFalse, IP_SPACE_TO_BDD),
+                    interfacesWithMissingDevices,
+                    arpFalseDestIpBdds,
+                    interfaceHostSubnetIpBdds,
+                    ownedIpsBdd)
+                .get(CONFIG1)
+                .get(VRF1)
+                .get(INTERFACE1));
 
     if (expectedDisposition == FlowDisposition.EXITS_NETWORK) {
       assertThat(exitsNetworkIpSpace, containsIp(dstPrefix.getStartIp()));
@@ -1584,6 +1624,14 @@ public class ForwardingAnalysisImplTest {
             .get(v1.getName())
             .get(i1.getName())
             .containsIp(ip2, c1.getIpSpaces()));
+
+    // the BDDs the disposition IpSpaces were converted from can be imported into another packet
+    BDDPacket pkt = new BDDPacket();
+    IpSpace neighborUnreachable =
+        analysis.getNeighborUnreachable().get(c1.getHostname()).get(v1.getName()).get(i1.getName());
+    assertThat(
+        pkt.getFactory().importBDD(analysis.getDstIpBdd(neighborUnreachable)),
+        equalTo(neighborUnreachable.accept(pkt.getDstIpSpaceToBDD())));
   }
 
   private static class MockIpSpace extends IpSpace {
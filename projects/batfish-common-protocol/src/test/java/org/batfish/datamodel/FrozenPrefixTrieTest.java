@@ -0,0 +1,81 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+/** Tests of {@link FrozenPrefixTrie} */
+public class FrozenPrefixTrieTest {
+
+  @Test
+  public void testEmpty() {
+    FrozenPrefixTrie<Integer> trie = FrozenPrefixTrie.from(new PrefixTrieMultiMap<>());
+    assertThat(trie.longestPrefixMatch(Ip.parse("1.2.3.4")), empty());
+    assertThat(trie.getNumNodes(), equalTo(1));
+  }
+
+  @Test
+  public void testLongestPrefixMatch() {
+    PrefixTrieMultiMap<Integer> map = new PrefixTrieMultiMap<>(Prefix.ZERO);
+    map.put(Prefix.ZERO, 0);
+    map.put(Prefix.parse("10.0.0.0/8"), 8);
+    map.put(Prefix.parse("10.1.0.0/16"), 16);
+    map.put(Prefix.parse("10.1.2.0/23"), 23);
+    map.put(Prefix.parse("10.1.2.3/32"), 32);
+    map.put(Prefix.parse("10.1.2.3/32"), 33);
+    FrozenPrefixTrie<Integer> trie = FrozenPrefixTrie.from(map);
+
+    assertThat(trie.longestPrefixMatch(Ip.parse("11.0.0.0")), contains(0));
+    assertThat(trie.longestPrefixMatch(Ip.parse("10.255.0.0")), contains(8));
+    assertThat(trie.longestPrefixMatch(Ip.parse("10.1.4.0")), contains(16));
+    assertThat(trie.longestPrefixMatch(Ip.parse("10.1.3.255")), contains(23));
+    assertThat(trie.longestPrefixMatch(Ip.parse("10.1.2.2")), contains(23));
+    assertThat(trie.longestPrefixMatch(Ip.parse("10.1.2.3")), containsInAnyOrder(32, 33));
+  }
+
+  @Test
+  public void testEmptyElementsIgnored() {
+    PrefixTrieMultiMap<Integer> map = new PrefixTrieMultiMap<>(Prefix.ZERO);
+    map.put(Prefix.parse("10.0.0.0/8"), 8);
+    map.put(Prefix.parse("10.1.0.0/16"), 16);
+    map.remove(Prefix.parse("10.1.0.0/16"), 16);
+    FrozenPrefixTrie<Integer> trie = FrozenPrefixTrie.from(map);
+
+    assertThat(trie.longestPrefixMatch(Ip.parse("10.1.0.0")), contains(8));
+  }
+
+  @Test
+  public void testMatchesPrefixTrieMultiMap() {
+    Random random = new Random(0);
+    PrefixTrieMultiMap<Integer> map = new PrefixTrieMultiMap<>(Prefix.ZERO);
+    List<Prefix> prefixes = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      // Cluster prefixes under 10.0.0.0/14 so that they overlap
+      long address = 0x0A000000L | (random.nextInt() & 0x0003FFFFL);
+      Prefix prefix = Prefix.create(Ip.create(address), 8 + random.nextInt(25));
+      prefixes.add(prefix);
+      map.put(prefix, i % 50);
+    }
+    FrozenPrefixTrie<Integer> trie = FrozenPrefixTrie.from(map);
+
+    for (Prefix prefix : prefixes) {
+      Ip start = prefix.getStartIp();
+      Ip end = prefix.getEndIp();
+      for (Ip ip :
+          new Ip[] {start, end, Ip.create(start.asLong() - 1), Ip.create(end.asLong() + 1)}) {
+        assertThat(trie.longestPrefixMatch(ip), equalTo(map.longestPrefixMatch(ip)));
+      }
+    }
+    for (int i = 0; i < 10000; i++) {
+      Ip ip = Ip.create(0x0A000000L | (random.nextInt() & 0x0003FFFFL));
+      assertThat(trie.longestPrefixMatch(ip), equalTo(map.longestPrefixMatch(ip)));
+    }
+  }
+}
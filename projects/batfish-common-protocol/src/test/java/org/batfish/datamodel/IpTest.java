@@ -5,8 +5,10 @@ import static org.batfish.datamodel.matchers.IpSpaceMatchers.containsIp;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
+import org.apache.commons.lang3.SerializationUtils;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -79,4 +81,15 @@ public class IpTest {
     _thrown.expect(IllegalArgumentException.class);
     Ip.create(1L << 32);
   }
+
+  @Test
+  public void testInterned() {
+    assertThat(Ip.parse("1.2.3.4"), sameInstance(Ip.parse("1.2.3.4")));
+  }
+
+  @Test
+  public void testDeserializedInterned() {
+    Ip ip = Ip.parse("1.2.3.4");
+    assertThat(SerializationUtils.clone(ip), sameInstance(ip));
+  }
 }
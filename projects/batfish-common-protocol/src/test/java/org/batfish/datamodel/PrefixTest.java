@@ -6,9 +6,11 @@ import static org.batfish.datamodel.Prefix.strict;
 import static org.batfish.datamodel.matchers.IpSpaceMatchers.containsIp;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import net.sf.javabdd.BDD;
+import org.apache.commons.lang3.SerializationUtils;
 import org.batfish.common.bdd.BDDInteger;
 import org.batfish.common.bdd.BDDUtils;
 import org.batfish.common.bdd.IpSpaceToBDD;
@@ -144,4 +146,15 @@ public class PrefixTest {
     p2 = Prefix.parse("0.0.0.255/32");
     assertThat(longestCommonPrefix(p1, p2), equalTo(Prefix.parse("0.0.0.0/24")));
   }
+
+  @Test
+  public void testInterned() {
+    assertThat(Prefix.parse("1.2.3.0/24"), sameInstance(Prefix.parse("1.2.3.0/24")));
+  }
+
+  @Test
+  public void testDeserializedInterned() {
+    Prefix prefix = Prefix.parse("1.2.3.0/24");
+    assertThat(SerializationUtils.clone(prefix), sameInstance(prefix));
+  }
 }
@@ -0,0 +1,182 @@
+package org.batfish.datamodel.acl;
+
+import static org.batfish.datamodel.ExprAclLine.accepting;
+import static org.batfish.datamodel.ExprAclLine.acceptingHeaderSpace;
+import static org.batfish.datamodel.ExprAclLine.rejecting;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.and;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDst;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchSrc;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchSrcInterface;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.not;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.or;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.Arrays;
+import java.util.Map;
+import org.batfish.datamodel.AclAclLine;
+import org.batfish.datamodel.AclIpSpace;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.FilterResult;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpSpaceReference;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.IpWildcardSetIpSpace;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.SubRange;
+import org.batfish.datamodel.TcpFlagsMatchConditions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/** Tests of {@link CompiledIpAccessList}. */
+public final class CompiledIpAccessListTest {
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  private static final Map<String, IpSpace> NAMED_IP_SPACES =
+      ImmutableMap.of(
+          "servers",
+          AclIpSpace.builder()
+              .thenRejecting(Ip.parse("10.0.0.5").toIpSpace())
+              .thenPermitting(Prefix.parse("10.0.0.0/24").toIpSpace())
+              .build(),
+          "clients",
+          IpWildcardSetIpSpace.builder()
+              .including(IpWildcard.parse("192.168.0.0/16"))
+              .excluding(IpWildcard.ipWithWildcardMask(Ip.parse("192.168.0.1"), 0xFF00L))
+              .build(),
+          "alias",
+          new IpSpaceReference("servers"));
+
+  private static final IpAccessList WEB =
+      IpAccessList.builder()
+          .setName("web")
+          .setLines(
+              acceptingHeaderSpace(
+                  HeaderSpace.builder()
+                      .setDstIps(new IpSpaceReference("alias"))
+                      .setIpProtocols(IpProtocol.TCP)
+                      .setDstPorts(new SubRange(80, 80), new SubRange(443, 443))
+                      .setNotSrcPorts(ImmutableList.of(new SubRange(0, 1023)))
+                      .build()),
+              acceptingHeaderSpace(
+                  HeaderSpace.builder()
+                      .setSrcOrDstIps(new IpSpaceReference("clients"))
+                      .setIpProtocols(IpProtocol.ICMP)
+                      .setIcmpTypes(8)
+                      .build()),
+              rejecting(matchDst(new IpSpaceReference("undefined"))))
+          .build();
+
+  private static final IpAccessList MAIN =
+      IpAccessList.builder()
+          .setName("main")
+          .setLines(
+              rejecting(and(matchSrcInterface("outside"), matchSrc(Prefix.parse("10.0.0.0/8")))),
+              accepting(OriginatingFromDevice.INSTANCE),
+              accepting(
+                  and(
+                      new PermittedByAcl("web"),
+                      not(
+                          new MatchHeaderSpace(
+                              HeaderSpace.builder()
+                                  .setTcpFlags(
+                                      ImmutableList.of(TcpFlagsMatchConditions.RST_TCP_FLAG))
+                                  .build())))),
+              new AclAclLine("web-line", "web"),
+              accepting(or(new DeniedByAcl("web"), matchDst(Ip.parse("1.1.1.1")))))
+          .build();
+
+  private static final Map<String, IpAccessList> ACLS =
+      ImmutableMap.of(WEB.getName(), WEB, MAIN.getName(), MAIN);
+
+  @Test
+  public void testSameResultsAsIpAccessList() {
+    Map<String, CompiledIpAccessList> compiled =
+        CompiledIpAccessList.compile(ACLS, NAMED_IP_SPACES);
+    for (String srcIp : Arrays.asList("10.0.0.1", "10.0.0.5", "192.168.3.1", "192.168.3.2")) {
+      for (String dstIp : Arrays.asList("10.0.0.7", "10.0.0.5", "192.168.0.9", "1.1.1.1")) {
+        for (IpProtocol protocol : Arrays.asList(IpProtocol.TCP, IpProtocol.ICMP)) {
+          for (int port : new int[] {22, 80, 443}) {
+            for (int rst : new int[] {0, 1}) {
+              Flow.Builder fb =
+                  Flow.builder()
+                      .setIngressNode("node")
+                      .setSrcIp(Ip.parse(srcIp))
+                      .setDstIp(Ip.parse(dstIp))
+                      .setIpProtocol(protocol);
+              if (protocol == IpProtocol.TCP) {
+                fb.setSrcPort(port * 100).setDstPort(port).setTcpFlagsRst(rst);
+              } else {
+                fb.setIcmpType(port == 22 ? 0 : 8).setIcmpCode(0);
+              }
+              Flow flow = fb.build();
+              for (String srcInterface : Arrays.asList("inside", "outside", null)) {
+                for (IpAccessList acl : ACLS.values()) {
+                  FilterResult expected = acl.filter(flow, srcInterface, ACLS, NAMED_IP_SPACES);
+                  FilterResult actual = compiled.get(acl.getName()).filter(flow, srcInterface);
+                  String context = String.format("%s %s %s", acl.getName(), flow, srcInterface);
+                  assertThat(context, actual.getAction(), equalTo(expected.getAction()));
+                  assertThat(context, actual.getMatchLine(), equalTo(expected.getMatchLine()));
+                }
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testResultsAreShared() {
+    CompiledIpAccessList compiled = CompiledIpAccessList.compile(MAIN, ACLS, NAMED_IP_SPACES);
+    Flow flow =
+        Flow.builder()
+            .setIngressNode("node")
+            .setSrcIp(Ip.parse("10.0.0.1"))
+            .setDstIp(Ip.parse("1.1.1.1"))
+            .build();
+    assertThat(compiled.filter(flow, null), sameInstance(compiled.filter(flow, null)));
+  }
+
+  @Test
+  public void testForConfiguration() {
+    Configuration c = new Configuration("node", ConfigurationFormat.CISCO_IOS);
+    c.setIpAccessLists(ACLS);
+    c.setIpSpaces(ImmutableSortedMap.copyOf(NAMED_IP_SPACES));
+    CompiledIpAccessList compiled = CompiledIpAccessList.forConfiguration(c, MAIN);
+
+    assertThat(compiled.getIpAccessList(), sameInstance(MAIN));
+    assertThat(CompiledIpAccessList.forConfiguration(c, MAIN), sameInstance(compiled));
+
+    // an ACL that is not the configuration's, though it has the same name
+    IpAccessList other =
+        IpAccessList.builder().setName(MAIN.getName()).setLines(ImmutableList.of()).build();
+    assertThat(
+        CompiledIpAccessList.forConfiguration(c, other).getIpAccessList(), sameInstance(other));
+  }
+
+  @Test
+  public void testUndefinedReferenceFailsOnEvaluation() {
+    IpAccessList acl =
+        IpAccessList.builder()
+            .setName("acl")
+            .setLines(accepting(new PermittedByAcl("undefined")))
+            .build();
+    CompiledIpAccessList compiled =
+        CompiledIpAccessList.compile(acl, ImmutableMap.of(), ImmutableMap.of());
+
+    _thrown.expect(NullPointerException.class);
+    compiled.filter(Flow.builder().setIngressNode("node").build(), null);
+  }
+}
@@ -0,0 +1,38 @@
+package org.batfish.datamodel.routing_policy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasKey;
+
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.RouteFilterList;
+import org.junit.Test;
+
+/** Tests of {@link Environment}. */
+public final class EnvironmentTest {
+  @Test
+  public void testBuilderFromConfiguration() {
+    Configuration c =
+        new NetworkFactory()
+            .configurationBuilder()
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    RoutingPolicy.builder().setName("rp").setOwner(c).build();
+    c.getRouteFilterLists().put("rfl", new RouteFilterList("rfl"));
+
+    Environment env = Environment.builder(c).build();
+    assertThat(env.getRoutingPolicies(), hasKey("rp"));
+    assertThat(env.getRouteFilterLists(), hasKey("rfl"));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testBuilderFromConfigurationIsUnmodifiable() {
+    Configuration c =
+        new NetworkFactory()
+            .configurationBuilder()
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    Environment.builder(c).build().getRouteFilterLists().put("rfl", new RouteFilterList("rfl"));
+  }
+}
@@ -1,5 +1,9 @@
 package org.batfish.datamodel.routing_policy;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
 import com.google.common.testing.EqualsTester;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -19,4 +23,13 @@ public class ResultTest {
         .addEqualityGroup(new Object())
         .testEquals();
   }
+
+  @Test
+  public void testBuilderSharesInstances() {
+    Result result = Result.builder().setBooleanValue(true).setFallThrough(true).build();
+    assertThat(result, equalTo(new Result(true, false, true, false)));
+    assertThat(result, sameInstance(result.toBuilder().build()));
+    assertThat(
+        result.toBuilder().setReturn(true).build(), equalTo(new Result(true, false, true, true)));
+  }
 }
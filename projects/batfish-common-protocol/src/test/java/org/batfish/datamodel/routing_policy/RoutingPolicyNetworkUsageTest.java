@@ -0,0 +1,102 @@
+package org.batfish.datamodel.routing_policy;
+
+import static org.batfish.datamodel.routing_policy.RoutingPolicyNetworkUsage.readsNetwork;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixRange;
+import org.batfish.datamodel.PrefixSpace;
+import org.batfish.datamodel.routing_policy.expr.CallExpr;
+import org.batfish.datamodel.routing_policy.expr.DestinationNetwork;
+import org.batfish.datamodel.routing_policy.expr.ExplicitPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.IntComparator;
+import org.batfish.datamodel.routing_policy.expr.LiteralLong;
+import org.batfish.datamodel.routing_policy.expr.MatchPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.MatchTag;
+import org.batfish.datamodel.routing_policy.statement.If;
+import org.batfish.datamodel.routing_policy.statement.SetLocalPreference;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+import org.junit.Test;
+
+/** Tests of {@link RoutingPolicyNetworkUsage}. */
+public final class RoutingPolicyNetworkUsageTest {
+
+  private static RoutingPolicy policy(String name, If statement) {
+    return RoutingPolicy.builder().setName(name).addStatement(statement).build();
+  }
+
+  private static final RoutingPolicy MATCH_PREFIX =
+      policy(
+          "matchPrefix",
+          new If(
+              new MatchPrefixSet(
+                  DestinationNetwork.instance(),
+                  new ExplicitPrefixSet(
+                      new PrefixSpace(PrefixRange.fromPrefix(Prefix.parse("10.0.0.0/8"))))),
+              ImmutableList.of(Statements.ReturnTrue.toStaticStatement())));
+
+  private static final RoutingPolicy MATCH_TAG =
+      policy(
+          "matchTag",
+          new If(
+              new MatchTag(IntComparator.EQ, new LiteralLong(5)),
+              ImmutableList.of(
+                  new SetLocalPreference(new LiteralLong(200)),
+                  Statements.ExitAccept.toStaticStatement())));
+
+  private static final RoutingPolicy CALL_MATCH_PREFIX =
+      policy(
+          "callMatchPrefix",
+          new If(
+              new CallExpr(MATCH_PREFIX.getName()),
+              ImmutableList.of(Statements.ExitAccept.toStaticStatement())));
+
+  private static final RoutingPolicy CALL_UNDEFINED =
+      policy(
+          "callUndefined",
+          new If(
+              new CallExpr("undefined"),
+              ImmutableList.of(Statements.ExitAccept.toStaticStatement())));
+
+  private static final Map<String, RoutingPolicy> POLICIES =
+      ImmutableMap.of(
+          MATCH_PREFIX.getName(),
+          MATCH_PREFIX,
+          MATCH_TAG.getName(),
+          MATCH_TAG,
+          CALL_MATCH_PREFIX.getName(),
+          CALL_MATCH_PREFIX,
+          CALL_UNDEFINED.getName(),
+          CALL_UNDEFINED);
+
+  @Test
+  public void testReadsNetwork() {
+    assertTrue(readsNetwork(MATCH_PREFIX, POLICIES));
+    assertFalse(readsNetwork(MATCH_TAG, POLICIES));
+  }
+
+  @Test
+  public void testReadsNetworkFollowsCalls() {
+    assertTrue(readsNetwork(CALL_MATCH_PREFIX, POLICIES));
+  }
+
+  @Test
+  public void testUndefinedPolicyIsAssumedToReadNetwork() {
+    assertTrue(readsNetwork(CALL_UNDEFINED, POLICIES));
+  }
+
+  @Test
+  public void testRecursivePolicyTerminates() {
+    RoutingPolicy recursive =
+        policy(
+            "recursive",
+            new If(
+                new CallExpr("recursive"),
+                ImmutableList.of(Statements.ExitAccept.toStaticStatement())));
+    assertFalse(readsNetwork(recursive, ImmutableMap.of(recursive.getName(), recursive)));
+  }
+}
@@ -0,0 +1,93 @@
+package org.batfish.datamodel.table;
+
+import static java.util.Comparator.naturalOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.List;
+import java.util.Map;
+import org.batfish.common.ColumnFilter;
+import org.batfish.common.ColumnSortOption;
+import org.batfish.datamodel.answers.Schema;
+import org.junit.Test;
+
+/** Tests of {@link ColumnVectors}. */
+public final class ColumnVectorsTest {
+
+  private static final String COL_NAME = "name";
+  private static final String COL_NUM = "num";
+
+  private static final Map<String, ColumnMetadata> COLUMNS =
+      ImmutableMap.of(
+          COL_NAME,
+          new ColumnMetadata(COL_NAME, Schema.STRING, "name", true, false),
+          COL_NUM,
+          new ColumnMetadata(COL_NUM, Schema.INTEGER, "num", false, true));
+
+  private static final List<Row> ROWS =
+      ImmutableList.of(
+          Row.of(COL_NAME, "b", COL_NUM, 10),
+          Row.of(COL_NAME, "a", COL_NUM, 9),
+          Row.of(COL_NAME, "B", COL_NUM, 2),
+          Row.of(COL_NAME, "c", COL_NUM, null),
+          Row.of(COL_NAME, "a", COL_NUM, 10));
+
+  @Test
+  public void testFilter() {
+    ColumnVectors columns = new ColumnVectors(ROWS, COLUMNS);
+    assertArrayEquals(columns.filter(ImmutableList.of()), new int[] {0, 1, 2, 3, 4});
+    assertArrayEquals(
+        columns.filter(ImmutableList.of(new ColumnFilter(COL_NAME, "b"))), new int[] {0, 2});
+    assertArrayEquals(
+        columns.filter(
+            ImmutableList.of(new ColumnFilter(COL_NAME, "b"), new ColumnFilter(COL_NUM, "1"))),
+        new int[] {0});
+  }
+
+  @Test
+  public void testSort() {
+    ColumnVectors columns = new ColumnVectors(ROWS, COLUMNS);
+    int[] all = columns.filter(ImmutableList.of());
+
+    // integers compare numerically, not as strings, and nulls come first
+    assertArrayEquals(
+        columns.sort(
+            all, ImmutableList.of(new ColumnSortOption(COL_NUM, false)), s -> naturalOrder()),
+        new int[] {3, 2, 1, 0, 4});
+    // reversed sorting puts nulls last, and is stable
+    assertArrayEquals(
+        columns.sort(
+            all, ImmutableList.of(new ColumnSortOption(COL_NUM, true)), s -> naturalOrder()),
+        new int[] {0, 4, 1, 2, 3});
+    // ties are broken by subsequent columns
+    assertArrayEquals(
+        columns.sort(
+            all,
+            ImmutableList.of(
+                new ColumnSortOption(COL_NUM, true), new ColumnSortOption(COL_NAME, false)),
+            s -> naturalOrder()),
+        new int[] {4, 0, 1, 2, 3});
+  }
+
+  @Test
+  public void testSortSubset() {
+    ColumnVectors columns = new ColumnVectors(ROWS, COLUMNS);
+    assertArrayEquals(
+        columns.sort(
+            new int[] {4, 0, 2},
+            ImmutableList.of(new ColumnSortOption(COL_NAME, false)),
+            s -> naturalOrder()),
+        new int[] {2, 4, 0});
+  }
+
+  @Test
+  public void testGetRow() {
+    ColumnVectors columns = new ColumnVectors(ROWS, COLUMNS);
+    assertThat(columns.size(), equalTo(ROWS.size()));
+    assertThat(columns.getRow(2), sameInstance(ROWS.get(2)));
+  }
+}
@@ -4,9 +4,11 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.batfish.storage.FileBasedStorage.ISP_CONFIGURATION_KEY;
 import static org.batfish.storage.FileBasedStorage.getWorkLogPath;
 import static org.batfish.storage.FileBasedStorage.objectKeyToRelativePath;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
@@ -20,6 +22,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
 import com.google.common.io.ByteStreams;
 import java.io.ByteArrayInputStream;
 import java.io.File;
@@ -36,6 +39,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.atomic.AtomicInteger;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.batfish.common.BatfishException;
@@ -44,6 +49,7 @@ import org.batfish.common.CompletionMetadata;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.autocomplete.IpCompletionMetadata;
 import org.batfish.common.autocomplete.NodeCompletionMetadata;
+import org.batfish.common.bdd.BDDPacket;
 import org.batfish.common.topology.Layer1Topology;
 import org.batfish.common.topology.Layer2Topology;
 import org.batfish.common.util.BatfishObjectMapper;
@@ -52,14 +58,24 @@ import org.batfish.common.util.UnzipUtility;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
 import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.MockDataPlane;
+import org.batfish.datamodel.answers.Answer;
+import org.batfish.datamodel.answers.AnswerStatus;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
 import org.batfish.datamodel.answers.MajorIssueConfig;
 import org.batfish.datamodel.answers.MinorIssueConfig;
+import org.batfish.datamodel.answers.Schema;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.isp_configuration.BorderInterfaceInfo;
 import org.batfish.datamodel.isp_configuration.IspConfiguration;
 import org.batfish.datamodel.isp_configuration.IspFilter;
+import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.datamodel.table.TableMetadata;
 import org.batfish.identifiers.AnalysisId;
+import org.batfish.identifiers.AnswerId;
 import org.batfish.identifiers.IssueSettingsId;
 import org.batfish.identifiers.NetworkId;
 import org.batfish.identifiers.QuestionId;
@@ -108,6 +124,104 @@ public final class FileBasedStorageTest {
     assertThat(deserialized.keySet(), equalTo(Sets.newHashSet("node1")));
   }
 
+  @Test
+  public void roundTripSingleConfiguration() throws IOException {
+    NetworkId network = new NetworkId("network");
+    SnapshotId snapshot = new SnapshotId("snapshot");
+    Map<String, Configuration> configs = new HashMap<>();
+    configs.put("node1", new Configuration("node1", ConfigurationFormat.CISCO_IOS));
+    configs.put("node2", new Configuration("node2", ConfigurationFormat.JUNIPER));
+
+    assertThat(_storage.loadConfigurationHostnames(network, snapshot), nullValue());
+    _storage.storeConfigurations(
+        configs, new ConvertConfigurationAnswerElement(), Layer1Topology.EMPTY, network, snapshot);
+    assertThat(_storage.loadConfigurationHostnames(network, snapshot), contains("node1", "node2"));
+    assertThat(
+        _storage.loadConfiguration(network, snapshot, "node2").getConfigurationFormat(),
+        equalTo(ConfigurationFormat.JUNIPER));
+  }
+
+  @Test
+  public void testLoadConfigurationHashes() throws IOException {
+    NetworkId network = new NetworkId("network");
+    SnapshotId snapshot1 = new SnapshotId("snapshot1");
+    SnapshotId snapshot2 = new SnapshotId("snapshot2");
+
+    assertThat(_storage.loadConfigurationHashes(network, snapshot1), nullValue());
+    _storage.storeConfigurations(
+        ImmutableMap.of(
+            "node1", new Configuration("node1", ConfigurationFormat.CISCO_IOS),
+            "node2", new Configuration("node2", ConfigurationFormat.CISCO_IOS)),
+        new ConvertConfigurationAnswerElement(),
+        Layer1Topology.EMPTY,
+        network,
+        snapshot1);
+    _storage.storeConfigurations(
+        ImmutableMap.of(
+            "node1", new Configuration("node1", ConfigurationFormat.CISCO_IOS),
+            "node2", new Configuration("node2", ConfigurationFormat.JUNIPER)),
+        new ConvertConfigurationAnswerElement(),
+        Layer1Topology.EMPTY,
+        network,
+        snapshot2);
+    Map<String, HashCode> hashes1 = _storage.loadConfigurationHashes(network, snapshot1);
+    Map<String, HashCode> hashes2 = _storage.loadConfigurationHashes(network, snapshot2);
+
+    assertThat(hashes1.keySet(), contains("node1", "node2"));
+    assertThat(hashes2.get("node1"), equalTo(hashes1.get("node1")));
+    assertThat(hashes2.get("node2"), not(equalTo(hashes1.get("node2"))));
+  }
+
+  @Test
+  public void testGetSerializedConfigurationsSize() throws IOException {
+    NetworkId network = new NetworkId("network");
+    SnapshotId snapshot = new SnapshotId("snapshot");
+
+    assertThat(_storage.getSerializedConfigurationsSize(network, snapshot), equalTo(0L));
+    _storage.storeConfigurations(
+        ImmutableMap.of("node1", new Configuration("node1", ConfigurationFormat.CISCO_IOS)),
+        new ConvertConfigurationAnswerElement(),
+        Layer1Topology.EMPTY,
+        network,
+        snapshot);
+    long oneNode = _storage.getSerializedConfigurationsSize(network, snapshot);
+    assertThat(oneNode, greaterThan(0L));
+
+    _storage.storeConfigurations(
+        ImmutableMap.of(
+            "node1", new Configuration("node1", ConfigurationFormat.CISCO_IOS),
+            "node2", new Configuration("node2", ConfigurationFormat.CISCO_IOS)),
+        new ConvertConfigurationAnswerElement(),
+        Layer1Topology.EMPTY,
+        network,
+        snapshot);
+    assertThat(_storage.getSerializedConfigurationsSize(network, snapshot), greaterThan(oneNode));
+  }
+
+  @Test
+  public void roundTripConfigurationsInEachSerializationFormat() throws IOException {
+    NetworkId network = new NetworkId("network");
+    Map<String, Configuration> configs = new HashMap<>();
+    configs.put("node1", new Configuration("node1", ConfigurationFormat.CISCO_IOS));
+
+    for (SerializationFormat format : SerializationFormat.values()) {
+      SnapshotId snapshot = new SnapshotId(format.name());
+      FileBasedStorage writer =
+          new FileBasedStorage(
+              _containerDir.getParent(), _logger, (m, n) -> new AtomicInteger(), format);
+      writer.storeConfigurations(
+          configs,
+          new ConvertConfigurationAnswerElement(),
+          Layer1Topology.EMPTY,
+          network,
+          snapshot);
+
+      // the format is detected on load, regardless of the reader's configured format
+      Map<String, Configuration> deserialized = _storage.loadConfigurations(network, snapshot);
+      assertThat(format.name(), deserialized.keySet(), equalTo(Sets.newHashSet("node1")));
+    }
+  }
+
   @Test
   public void loadMissingConfigurationsReturnsNull() {
     assertThat(
@@ -338,6 +452,42 @@ public final class FileBasedStorageTest {
     assertThat(content, equalTo(loaded));
   }
 
+  @Test
+  public void testStoreAnswerIndexesTable() throws IOException {
+    AnswerId answerId = new AnswerId("answer");
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(new ColumnMetadata("col", Schema.STRING, "desc")), "text"));
+    table.addRow(Row.of("col", "val1"));
+    table.addRow(Row.of("col", "val2"));
+    Answer answer = new Answer();
+    answer.setStatus(AnswerStatus.SUCCESS);
+    answer.addAnswerElement(table);
+    _storage.storeAnswer(BatfishObjectMapper.writePrettyString(answer), answerId);
+
+    Optional<AnswerRowIndex> maybeIndex = _storage.loadAnswerRowIndex(answerId);
+    assertTrue(maybeIndex.isPresent());
+    AnswerRowIndex index = maybeIndex.get();
+    assertThat(index.getNumRows(), equalTo(2));
+    try (InputStream row =
+        _storage.loadAnswerRange(
+            answerId, index.getRowStart(1), index.getRowEnd(1) - index.getRowStart(1))) {
+      assertThat(
+          BatfishObjectMapper.mapper().readValue(row, Row.class), equalTo(Row.of("col", "val2")));
+    }
+
+    // overwriting with an answer that is not a table removes the index
+    _storage.storeAnswer("not a table", answerId);
+    assertFalse(_storage.loadAnswerRowIndex(answerId).isPresent());
+  }
+
+  @Test
+  public void testLoadAnswerRowIndexMissingAnswer() throws IOException {
+    _thrown.expect(FileNotFoundException.class);
+    _storage.loadAnswerRowIndex(new AnswerId("missing"));
+  }
+
   @Test
   public void testLoadSnapshotInputObjectFile() throws IOException {
     NetworkId network = new NetworkId("network");
@@ -494,6 +644,82 @@ public final class FileBasedStorageTest {
         _storage.loadCompletionMetadata(networkId, snapshotId), equalTo(CompletionMetadata.EMPTY));
   }
 
+  @Test
+  public void testDataPlaneBddsRoundTripInEachSerializationFormat() throws IOException {
+    BDDPacket pkt = new BDDPacket();
+    BDD dstIp = pkt.getDstIp().value(Ip.parse("1.2.3.4").asLong());
+    BDD tcp = pkt.getIpProtocol().value(IpProtocol.TCP);
+    Map<List<String>, BDD> bdds =
+        ImmutableMap.of(
+            ImmutableList.of("routable", "node", "vrf"),
+            dstIp,
+            ImmutableList.of("acl", "node", "acl/with/slashes"),
+            dstIp.and(tcp),
+            ImmutableList.of("empty"),
+            pkt.getFactory().zero());
+
+    for (SerializationFormat format : SerializationFormat.values()) {
+      NetworkSnapshot snapshot =
+          new NetworkSnapshot(new NetworkId("network"), new SnapshotId(format.name()));
+      new FileBasedStorage(
+              _containerDir.getParent(), _logger, (m, n) -> new AtomicInteger(), format)
+          .storeDataPlaneBdds(bdds, "fingerprint", snapshot);
+
+      // load into a fresh packet, as after a restart
+      BDDPacket loadedPkt = new BDDPacket();
+      Map<List<String>, BDD> loaded =
+          _storage.loadDataPlaneBdds(snapshot, "fingerprint", loadedPkt.getFactory()).get();
+      assertThat(format.name(), loaded.keySet(), contains(bdds.keySet().toArray()));
+      assertThat(
+          loaded.get(ImmutableList.of("acl", "node", "acl/with/slashes")),
+          equalTo(
+              loadedPkt
+                  .getDstIp()
+                  .value(Ip.parse("1.2.3.4").asLong())
+                  .and(loadedPkt.getIpProtocol().value(IpProtocol.TCP))));
+      assertThat(loaded.get(ImmutableList.of("empty")).isZero(), equalTo(true));
+    }
+  }
+
+  @Test
+  public void testDataPlaneBddsEmpty() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    BDDFactory factory = new BDDPacket().getFactory();
+    assertThat(
+        _storage.loadDataPlaneBdds(snapshot, "fingerprint", factory), equalTo(Optional.empty()));
+
+    _storage.storeDataPlaneBdds(ImmutableMap.of(), "fingerprint", snapshot);
+    assertThat(
+        _storage.loadDataPlaneBdds(snapshot, "fingerprint", factory),
+        equalTo(Optional.of(ImmutableMap.of())));
+  }
+
+  @Test
+  public void testDataPlaneBddsOtherFingerprint() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    BDDPacket pkt = new BDDPacket();
+    _storage.storeDataPlaneBdds(
+        ImmutableMap.of(ImmutableList.of("key"), pkt.getTcpAck()), "old", snapshot);
+
+    assertThat(
+        _storage.loadDataPlaneBdds(snapshot, "new", new BDDPacket().getFactory()),
+        equalTo(Optional.empty()));
+  }
+
+  @Test
+  public void testStoreDataPlaneDeletesDataPlaneBdds() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    BDDFactory factory = new BDDPacket().getFactory();
+    _storage.storeDataPlaneBdds(ImmutableMap.of(), "fingerprint", snapshot);
+
+    _storage.storeDataPlane(MockDataPlane.builder().build(), snapshot);
+    assertThat(
+        _storage.loadDataPlaneBdds(snapshot, "fingerprint", factory), equalTo(Optional.empty()));
+  }
+
   @Test
   public void testStoreLayer2TopologyMissing() throws IOException {
     NetworkSnapshot networkSnapshot =
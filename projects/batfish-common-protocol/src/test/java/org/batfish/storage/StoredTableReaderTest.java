@@ -0,0 +1,150 @@
+package org.batfish.storage;
+
+import static java.util.Comparator.naturalOrder;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.batfish.common.AnswerRowsOptions;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.ColumnFilter;
+import org.batfish.common.ColumnSortOption;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.datamodel.answers.Answer;
+import org.batfish.datamodel.answers.AnswerStatus;
+import org.batfish.datamodel.answers.AnswerSummary;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.datamodel.table.TableMetadata;
+import org.batfish.datamodel.table.TableView;
+import org.batfish.datamodel.table.TableViewRow;
+import org.batfish.identifiers.AnswerId;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link StoredTableReader}. */
+public final class StoredTableReaderTest {
+
+  private static final String COL_NAME = "name";
+  private static final String COL_NUM = "num";
+
+  private static final TableMetadata METADATA =
+      new TableMetadata(
+          ImmutableList.of(
+              new ColumnMetadata(COL_NAME, Schema.STRING, "name", true, false),
+              new ColumnMetadata(COL_NUM, Schema.INTEGER, "num", false, true)),
+          "desc");
+
+  private static final Row ROW0 = Row.of(COL_NAME, "b", COL_NUM, 10);
+  private static final Row ROW1 = Row.of(COL_NAME, "a", COL_NUM, 9);
+  private static final Row ROW2 = Row.of(COL_NAME, "bb", COL_NUM, 2);
+  private static final Row ROW3 = Row.of(COL_NAME, "a", COL_NUM, 3);
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  private StoredTableReader _reader;
+
+  @Before
+  public void before() throws IOException {
+    FileBasedStorage storage =
+        new FileBasedStorage(
+            _folder.getRoot().toPath(),
+            new BatfishLogger(BatfishLogger.LEVELSTR_DEBUG, false),
+            (m, n) -> new AtomicInteger());
+    TableAnswerElement table = new TableAnswerElement(METADATA);
+    ImmutableList.of(ROW0, ROW1, ROW2, ROW3).forEach(table::addRow);
+    table.setSummary(new AnswerSummary("notes", 0, 0, 4));
+    Answer answer = new Answer();
+    answer.setStatus(AnswerStatus.SUCCESS);
+    answer.addAnswerElement(table);
+    AnswerId answerId = new AnswerId("answer");
+    storage.storeAnswer(BatfishObjectMapper.writePrettyString(answer), answerId);
+    _reader = new StoredTableReader(storage, answerId, storage.loadAnswerRowIndex(answerId).get());
+  }
+
+  private static AnswerRowsOptions options(
+      ImmutableSet<String> columns,
+      ImmutableList<ColumnFilter> filters,
+      int maxRows,
+      int rowOffset,
+      ImmutableList<ColumnSortOption> sortOrder,
+      boolean uniqueRows) {
+    return new AnswerRowsOptions(columns, filters, maxRows, rowOffset, sortOrder, uniqueRows);
+  }
+
+  @Test
+  public void testReadMetadataAndSummary() throws IOException {
+    assertThat(_reader.readMetadata(), equalTo(METADATA));
+    assertThat(_reader.readSummary().getNotes(), equalTo("notes"));
+  }
+
+  @Test
+  public void testReadRows() throws IOException {
+    assertThat(_reader.getNumRows(), equalTo(4));
+    assertThat(_reader.readRows(1, 3), contains(ROW1, ROW2));
+    assertThat(_reader.readRows(2, 2), equalTo(ImmutableList.of()));
+  }
+
+  @Test
+  public void testReadViewFiltered() throws IOException {
+    TableView view =
+        _reader.readView(
+            options(
+                ImmutableSet.of(),
+                ImmutableList.of(new ColumnFilter(COL_NAME, "B")),
+                1,
+                0,
+                ImmutableList.of(),
+                false),
+            s -> naturalOrder());
+    assertThat(view.getRows(), contains(new TableViewRow(0, ROW0)));
+    assertThat(view.getSummary().getNumResults(), equalTo(2));
+    assertThat(view.getTableMetadata(), equalTo(METADATA));
+  }
+
+  @Test
+  public void testReadViewSorted() throws IOException {
+    TableView view =
+        _reader.readView(
+            options(
+                ImmutableSet.of(),
+                ImmutableList.of(),
+                2,
+                1,
+                ImmutableList.of(new ColumnSortOption(COL_NUM, false)),
+                false),
+            s -> naturalOrder());
+    assertThat(view.getRows(), contains(new TableViewRow(3, ROW3), new TableViewRow(1, ROW1)));
+    assertThat(view.getSummary().getNumResults(), equalTo(4));
+  }
+
+  @Test
+  public void testReadViewProjectedUnique() throws IOException {
+    TableView view =
+        _reader.readView(
+            options(
+                ImmutableSet.of(COL_NAME),
+                ImmutableList.of(),
+                10,
+                0,
+                ImmutableList.of(new ColumnSortOption(COL_NAME, false)),
+                true),
+            s -> naturalOrder());
+    assertThat(
+        view.getRows(),
+        contains(
+            new TableViewRow(1, Row.of(COL_NAME, "a")),
+            new TableViewRow(0, Row.of(COL_NAME, "b")),
+            new TableViewRow(2, Row.of(COL_NAME, "bb"))));
+    assertThat(
+        view.getTableMetadata().getColumnMetadata(), contains(METADATA.getColumnMetadata().get(0)));
+  }
+}
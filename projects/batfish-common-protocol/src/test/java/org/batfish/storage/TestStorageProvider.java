@@ -1,5 +1,6 @@
 package org.batfish.storage;
 
+import com.google.common.hash.HashCode;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
@@ -11,6 +12,8 @@ import java.util.SortedSet;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
 import org.batfish.common.CompletionMetadata;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.runtime.SnapshotRuntimeData;
@@ -23,6 +26,7 @@ import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+import org.batfish.datamodel.answers.DataPlaneAnswerElement;
 import org.batfish.datamodel.answers.MajorIssueConfig;
 import org.batfish.datamodel.answers.ParseEnvironmentBgpTablesAnswerElement;
 import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
@@ -54,6 +58,27 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException("no implementation for generated method");
   }
 
+  @Override
+  public SortedSet<String> loadConfigurationHostnames(NetworkId network, SnapshotId snapshot) {
+    throw new UnsupportedOperationException("no implementation for generated method");
+  }
+
+  @Override
+  public SortedMap<String, HashCode> loadConfigurationHashes(
+      NetworkId network, SnapshotId snapshot) {
+    throw new UnsupportedOperationException("no implementation for generated method");
+  }
+
+  @Override
+  public long getSerializedConfigurationsSize(NetworkId network, SnapshotId snapshot) {
+    throw new UnsupportedOperationException("no implementation for generated method");
+  }
+
+  @Override
+  public Configuration loadConfiguration(NetworkId network, SnapshotId snapshot, String hostname) {
+    throw new UnsupportedOperationException("no implementation for generated method");
+  }
+
   @Override
   public ConvertConfigurationAnswerElement loadConvertConfigurationAnswerElement(
       NetworkId network, SnapshotId snapshot) {
@@ -172,6 +197,16 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException("no implementation for generated method");
   }
 
+  @Override
+  public Optional<AnswerRowIndex> loadAnswerRowIndex(AnswerId answerId) {
+    throw new UnsupportedOperationException("no implementation for generated method");
+  }
+
+  @Override
+  public InputStream loadAnswerRange(AnswerId answerId, long offset, long length) {
+    throw new UnsupportedOperationException("no implementation for generated method");
+  }
+
   @Override
   public AnswerMetadata loadAnswerMetadata(AnswerId answerId) {
     throw new UnsupportedOperationException("no implementation for generated method");
@@ -499,6 +534,38 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException();
   }
 
+  @Nonnull
+  @Override
+  public DataPlaneAnswerElement loadDataPlaneAnswerElement(NetworkSnapshot snapshot)
+      throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void storeDataPlaneAnswerElement(
+      DataPlaneAnswerElement dataPlaneAnswerElement, NetworkSnapshot snapshot) throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean hasDataPlaneAnswerElement(NetworkSnapshot snapshot) throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Nonnull
+  @Override
+  public Optional<Map<List<String>, BDD>> loadDataPlaneBdds(
+      NetworkSnapshot snapshot, String fingerprint, BDDFactory factory) throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void storeDataPlaneBdds(
+      Map<List<String>, BDD> bdds, String fingerprint, NetworkSnapshot snapshot)
+      throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
   @Nonnull
   @Override
   public Stream<String> listInputEnvironmentBgpTableKeys(NetworkSnapshot snapshot)
@@ -593,6 +660,11 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public long getSerializedVendorConfigurationsSize(NetworkSnapshot snapshot) {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public void storeVendorConfigurations(
       Map<String, VendorConfiguration> vendorConfigurations, NetworkSnapshot snapshot)
@@ -600,6 +672,23 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public void storeVendorConfiguration(
+      String name, VendorConfiguration vendorConfiguration, NetworkSnapshot snapshot)
+      throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Nullable
+  @Override
+  public VendorConfiguration loadVendorConfiguration(String name, NetworkSnapshot snapshot)
+      throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void deleteVendorConfiguration(String name, NetworkSnapshot snapshot) throws IOException {}
+
   @Override
   public void deleteVendorConfigurations(NetworkSnapshot snapshot) throws IOException {}
 
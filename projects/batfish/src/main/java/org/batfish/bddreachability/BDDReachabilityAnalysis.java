@@ -3,6 +3,7 @@ package org.batfish.bddreachability;
 import static org.batfish.bddreachability.BDDReachabilityUtils.computeForwardEdgeTable;
 import static org.batfish.bddreachability.BDDReachabilityUtils.getIngressLocationBdds;
 
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableTable;
@@ -16,7 +17,9 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
+import javax.annotation.Nonnull;
 import net.sf.javabdd.BDD;
 import org.batfish.bddreachability.transition.Transition;
 import org.batfish.common.bdd.BDDPacket;
@@ -58,6 +61,11 @@ public class BDDReachabilityAnalysis {
 
   private final BDD _queryHeaderSpaceBdd;
 
+  // Computed on first use, then shared by every fixpoint over this graph.
+  private final Supplier<StronglyConnectedComponents> _sccs;
+
+  private @Nonnull FixpointStrategy _fixpointStrategy;
+
   BDDReachabilityAnalysis(
       BDDPacket packet,
       Set<StateExpr> ingressLocationStates,
@@ -70,6 +78,8 @@ public class BDDReachabilityAnalysis {
       _forwardEdgeTable = computeForwardEdgeTable(edges);
       _ingressLocationStates = ImmutableSet.copyOf(ingressLocationStates);
       _queryHeaderSpaceBdd = queryHeaderSpaceBdd;
+      _sccs = Suppliers.memoize(() -> StronglyConnectedComponents.of(_forwardEdgeTable));
+      _fixpointStrategy = FixpointStrategy.SCC;
     } finally {
       span.finish();
     }
@@ -85,7 +95,8 @@ public class BDDReachabilityAnalysis {
       assert span != null; // avoid unused warning
       Map<StateExpr, BDD> reverseReachableStates = new HashMap<>();
       reverseReachableStates.put(Query.INSTANCE, _queryHeaderSpaceBdd);
-      BDDReachabilityUtils.backwardFixpoint(_forwardEdgeTable, reverseReachableStates);
+      BDDReachabilityUtils.backwardFixpoint(
+          _fixpointStrategy, _forwardEdgeTable, _sccs, reverseReachableStates);
       return ImmutableMap.copyOf(reverseReachableStates);
     } finally {
       span.finish();
@@ -99,7 +110,8 @@ public class BDDReachabilityAnalysis {
    */
   public Map<StateExpr, BDD> computeReverseReachableStates(Map<StateExpr, BDD> roots) {
     Map<StateExpr, BDD> reverseReachableStates = new HashMap<>(roots);
-    BDDReachabilityUtils.backwardFixpoint(_forwardEdgeTable, reverseReachableStates);
+    BDDReachabilityUtils.backwardFixpoint(
+        _fixpointStrategy, _forwardEdgeTable, _sccs, reverseReachableStates);
     return ImmutableMap.copyOf(reverseReachableStates);
   }
 
@@ -114,7 +126,8 @@ public class BDDReachabilityAnalysis {
       Map<StateExpr, BDD> forwardReachableStates = new LinkedHashMap<>();
       BDD one = _bddPacket.getFactory().one();
       _ingressLocationStates.forEach(state -> forwardReachableStates.put(state, one));
-      BDDReachabilityUtils.forwardFixpoint(_forwardEdgeTable, forwardReachableStates);
+      BDDReachabilityUtils.forwardFixpoint(
+          _fixpointStrategy, _forwardEdgeTable, _sccs, forwardReachableStates);
       return ImmutableMap.copyOf(forwardReachableStates);
     } finally {
       span.finish();
@@ -135,7 +148,8 @@ public class BDDReachabilityAnalysis {
       assert scope != null; // avoid unused warning
       assert span != null; // avoid unused warning
       Map<StateExpr, BDD> forwardReachableStates = new LinkedHashMap<>(initialReachableStates);
-      BDDReachabilityUtils.forwardFixpoint(_forwardEdgeTable, forwardReachableStates);
+      BDDReachabilityUtils.forwardFixpoint(
+          _fixpointStrategy, _forwardEdgeTable, _sccs, forwardReachableStates);
       return ImmutableMap.copyOf(forwardReachableStates);
     } finally {
       span.finish();
@@ -146,6 +160,18 @@ public class BDDReachabilityAnalysis {
     return _bddPacket;
   }
 
+  public @Nonnull FixpointStrategy getFixpointStrategy() {
+    return _fixpointStrategy;
+  }
+
+  /**
+   * Sets the strategy used by subsequent fixpoints of this analysis. Defaults to {@link
+   * FixpointStrategy#SCC}; the work done by each strategy is tallied in {@link FixpointCounters}.
+   */
+  public void setFixpointStrategy(FixpointStrategy fixpointStrategy) {
+    _fixpointStrategy = fixpointStrategy;
+  }
+
   public ImmutableSet<StateExpr> getIngressLocationStates() {
     return _ingressLocationStates;
   }
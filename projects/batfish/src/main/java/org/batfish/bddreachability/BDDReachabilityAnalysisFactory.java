@@ -23,6 +23,7 @@ import static org.batfish.datamodel.transformation.TransformationUtil.visitTrans
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
@@ -139,6 +140,10 @@ import org.batfish.symbolic.state.VrfAccept;
  * backward edges it's established using {@link BDDSourceManager#isValidValue}. When we exit the
  * node (e.g. forward into another node or a disposition state, or backward into another node or an
  * origination state), we erase the constraint on source by existential quantification.
+ *
+ * <p>A factory may be reused for any number of queries over the same snapshot, and the edges that
+ * do not depend on the query are only generated once. Like the {@link BDDPacket} it wraps, a
+ * factory is not thread-safe.
  */
 @ParametersAreNonnullByDefault
 public final class BDDReachabilityAnalysisFactory {
@@ -178,6 +183,12 @@ public final class BDDReachabilityAnalysisFactory {
   private final IpSpaceToBDD _dstIpSpaceToBDD;
   private final IpSpaceToBDD _srcIpSpaceToBDD;
 
+  // forwarding and ACL BDDs, either loaded from storage or computed and recorded for storing
+  private final StoredBdds _storedBdds;
+
+  // Edges that do not depend on the query, computed on first use and shared by every query
+  private @Nullable List<Edge> _edges;
+
   private final boolean _ignoreFilters;
 
   /*
@@ -239,6 +250,30 @@ public final class BDDReachabilityAnalysisFactory {
       IpsRoutedOutInterfacesFactory ipsRoutedOutInterfacesFactory,
       boolean ignoreFilters,
       boolean initializeSessions) {
+    this(
+        packet,
+        configs,
+        forwardingAnalysis,
+        ipsRoutedOutInterfacesFactory,
+        ignoreFilters,
+        initializeSessions,
+        StoredBdds.empty());
+  }
+
+  /**
+   * Like {@link #BDDReachabilityAnalysisFactory(BDDPacket, Map, ForwardingAnalysis,
+   * IpsRoutedOutInterfacesFactory, boolean, boolean)}, but takes the forwarding and ACL BDDs from
+   * {@code storedBdds} where present instead of computing them. The BDDs must have been loaded into
+   * {@code packet} before it allocated any variables beyond its own packet fields.
+   */
+  public BDDReachabilityAnalysisFactory(
+      BDDPacket packet,
+      Map<String, Configuration> configs,
+      ForwardingAnalysis forwardingAnalysis,
+      IpsRoutedOutInterfacesFactory ipsRoutedOutInterfacesFactory,
+      boolean ignoreFilters,
+      boolean initializeSessions,
+      StoredBdds storedBdds) {
     Span span = GlobalTracer.get().buildSpan("Construct BDDReachabilityAnalysisFactory").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
@@ -260,27 +295,48 @@ public final class BDDReachabilityAnalysisFactory {
       _configs = configs;
       _dstIpSpaceToBDD = _bddPacket.getDstIpSpaceToBDD();
       _srcIpSpaceToBDD = _bddPacket.getSrcIpSpaceToBDD();
+      _storedBdds = storedBdds;
 
-      _aclPermitBDDs = computeAclBDDs(_bddPacket, _bddSourceManagers, configs);
+      _aclPermitBDDs = computeAclBDDs(_bddPacket, _bddSourceManagers, configs, _storedBdds);
       _aclDenyBDDs = computeAclDenyBDDs(_aclPermitBDDs);
 
       _bddIncomingTransformations = computeBDDIncomingTransformations();
       _bddOutgoingTransformations = computeBDDOutgoingTransformations();
 
-      _arpTrueEdgeBDDs = computeArpTrueEdgeBDDs(forwardingAnalysis, _dstIpSpaceToBDD);
+      // import the BDDs the forwarding analysis computed rather than rebuilding them from IpSpaces
+      Function<IpSpace, BDD> dstIpBdd =
+          ipSpace -> {
+            BDD bdd = forwardingAnalysis.getDstIpBdd(ipSpace);
+            return bdd == null
+                ? ipSpace.accept(_dstIpSpaceToBDD)
+                : _bddPacket.getFactory().importBDD(bdd);
+          };
+      _arpTrueEdgeBDDs = computeArpTrueEdgeBDDs(forwardingAnalysis, dstIpBdd, _storedBdds);
       _neighborUnreachableBDDs =
-          computeDispositionBDDs(forwardingAnalysis.getNeighborUnreachable(), _dstIpSpaceToBDD);
+          computeDispositionBDDs(
+              "neighborUnreachable",
+              forwardingAnalysis.getNeighborUnreachable(),
+              dstIpBdd,
+              _storedBdds);
       _deliveredToSubnetBDDs =
-          computeDispositionBDDs(forwardingAnalysis.getDeliveredToSubnet(), _dstIpSpaceToBDD);
+          computeDispositionBDDs(
+              "deliveredToSubnet",
+              forwardingAnalysis.getDeliveredToSubnet(),
+              dstIpBdd,
+              _storedBdds);
       _exitsNetworkBDDs =
-          computeDispositionBDDs(forwardingAnalysis.getExitsNetwork(), _dstIpSpaceToBDD);
+          computeDispositionBDDs(
+              "exitsNetwork", forwardingAnalysis.getExitsNetwork(), dstIpBdd, _storedBdds);
       _insufficientInfoBDDs =
-          computeDispositionBDDs(forwardingAnalysis.getInsufficientInfo(), _dstIpSpaceToBDD);
-      _nullRoutedBDDs = computeNullRoutedBDDs(forwardingAnalysis, _dstIpSpaceToBDD);
-      _routableBDDs = computeRoutableBDDs(forwardingAnalysis, _dstIpSpaceToBDD);
+          computeDispositionBDDs(
+              "insufficientInfo", forwardingAnalysis.getInsufficientInfo(), dstIpBdd, _storedBdds);
+      _nullRoutedBDDs = computeNullRoutedBDDs(forwardingAnalysis, _dstIpSpaceToBDD, _storedBdds);
+      _routableBDDs = computeRoutableBDDs(forwardingAnalysis, _dstIpSpaceToBDD, _storedBdds);
       _ifaceAcceptBDDs =
-          computeIfaceAcceptBDDs(configs, forwardingAnalysis.getAcceptsIps(), _dstIpSpaceToBDD);
-      _nextVrfBDDs = computeNextVrfBDDs(forwardingAnalysis.getNextVrfIps(), _dstIpSpaceToBDD);
+          computeIfaceAcceptBDDs(
+              configs, forwardingAnalysis.getAcceptsIps(), _dstIpSpaceToBDD, _storedBdds);
+      _nextVrfBDDs =
+          computeNextVrfBDDs(forwardingAnalysis.getNextVrfIps(), _dstIpSpaceToBDD, _storedBdds);
       _interfacesToVrfsMap = computeInterfacesToVrfsMap(configs);
 
       _convertedPacketPolicies = convertPacketPolicies(configs, ipsRoutedOutInterfacesFactory);
@@ -319,7 +375,8 @@ public final class BDDReachabilityAnalysisFactory {
   private static Map<String, Map<String, Supplier<BDD>>> computeAclBDDs(
       BDDPacket bddPacket,
       Map<String, BDDSourceManager> bddSourceManagers,
-      Map<String, Configuration> configs) {
+      Map<String, Configuration> configs,
+      StoredBdds storedBdds) {
     Span span =
         GlobalTracer.get().buildSpan("BDDReachabilityAnalysisFactory.computeAclBDDs").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
@@ -334,7 +391,12 @@ public final class BDDReachabilityAnalysisFactory {
             return toImmutableMap(
                 config.getIpAccessLists(),
                 Entry::getKey,
-                aclEntry -> Suppliers.memoize(() -> aclToBdd.toBdd(aclEntry.getValue())));
+                aclEntry ->
+                    Suppliers.memoize(
+                        () ->
+                            storedBdds.get(
+                                ImmutableList.of("acl", nodeEntry.getKey(), aclEntry.getKey()),
+                                () -> aclToBdd.toBdd(aclEntry.getValue()))));
           });
     } finally {
       span.finish();
@@ -345,6 +407,14 @@ public final class BDDReachabilityAnalysisFactory {
     return _aclPermitBDDs;
   }
 
+  /**
+   * Returns the forwarding and ACL BDDs of this factory for storing, keyed as in {@link
+   * StoredBdds}. ACL BDDs are computed lazily, so only those needed so far are included.
+   */
+  public @Nonnull StoredBdds getStoredBdds() {
+    return _storedBdds;
+  }
+
   IpAccessListToBdd ipAccessListToBdd(Configuration config) {
     return ipAccessListToBdd(_bddPacket, _bddSourceManagers.get(config.getHostname()), config);
   }
@@ -433,7 +503,7 @@ public final class BDDReachabilityAnalysisFactory {
   }
 
   private static @Nonnull Map<String, Map<String, BDD>> computeNullRoutedBDDs(
-      ForwardingAnalysis forwardingAnalysis, IpSpaceToBDD ipSpaceToBDD) {
+      ForwardingAnalysis forwardingAnalysis, IpSpaceToBDD ipSpaceToBDD, StoredBdds storedBdds) {
     Span span =
         GlobalTracer.get()
             .buildSpan("BDDReachabilityAnalysisFactory.computeNullRoutedBDDs")
@@ -448,14 +518,19 @@ public final class BDDReachabilityAnalysisFactory {
                   nullRoutedIpsByNodeVrfEntry.getValue(),
                   Entry::getKey /* vrf */,
                   nullRoutedIpsByVrfEntry ->
-                      nullRoutedIpsByVrfEntry.getValue().accept(ipSpaceToBDD)));
+                      storedBdds.get(
+                          ImmutableList.of(
+                              "nullRouted",
+                              nullRoutedIpsByNodeVrfEntry.getKey(),
+                              nullRoutedIpsByVrfEntry.getKey()),
+                          () -> nullRoutedIpsByVrfEntry.getValue().accept(ipSpaceToBDD))));
     } finally {
       span.finish();
     }
   }
 
   private static Map<String, Map<String, BDD>> computeRoutableBDDs(
-      ForwardingAnalysis forwardingAnalysis, IpSpaceToBDD ipSpaceToBDD) {
+      ForwardingAnalysis forwardingAnalysis, IpSpaceToBDD ipSpaceToBDD, StoredBdds storedBdds) {
     Span span =
         GlobalTracer.get().buildSpan("BDDReachabilityAnalysisFactory.computeRoutableBDDs").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
@@ -467,7 +542,10 @@ public final class BDDReachabilityAnalysisFactory {
               toImmutableMap(
                   nodeEntry.getValue(),
                   Entry::getKey,
-                  vrfEntry -> vrfEntry.getValue().accept(ipSpaceToBDD)));
+                  vrfEntry ->
+                      storedBdds.get(
+                          ImmutableList.of("routable", nodeEntry.getKey(), vrfEntry.getKey()),
+                          () -> vrfEntry.getValue().accept(ipSpaceToBDD))));
     } finally {
       span.finish();
     }
@@ -514,6 +592,10 @@ public final class BDDReachabilityAnalysisFactory {
     }
   }
 
+  public BDDPacket getBDDPacket() {
+    return _bddPacket;
+  }
+
   IpSpaceToBDD getIpSpaceToBDD() {
     return _dstIpSpaceToBDD;
   }
@@ -527,7 +609,10 @@ public final class BDDReachabilityAnalysisFactory {
   }
 
   private static Map<String, Map<String, Map<org.batfish.datamodel.Edge, BDD>>>
-      computeArpTrueEdgeBDDs(ForwardingAnalysis forwardingAnalysis, IpSpaceToBDD ipSpaceToBDD) {
+      computeArpTrueEdgeBDDs(
+          ForwardingAnalysis forwardingAnalysis,
+          Function<IpSpace, BDD> dstIpBdd,
+          StoredBdds storedBdds) {
     Span span =
         GlobalTracer.get()
             .buildSpan("BDDReachabilityAnalysisFactory.computeArpTrueEdgeBDDs")
@@ -545,14 +630,29 @@ public final class BDDReachabilityAnalysisFactory {
                       toImmutableMap(
                           vrfEntry.getValue(),
                           Entry::getKey,
-                          edgeEntry -> edgeEntry.getValue().accept(ipSpaceToBDD))));
+                          edgeEntry -> {
+                            org.batfish.datamodel.Edge edge = edgeEntry.getKey();
+                            return storedBdds.get(
+                                ImmutableList.of(
+                                    "arpTrueEdge",
+                                    nodeEntry.getKey(),
+                                    vrfEntry.getKey(),
+                                    edge.getNode1(),
+                                    edge.getInt1(),
+                                    edge.getNode2(),
+                                    edge.getInt2()),
+                                () -> dstIpBdd.apply(edgeEntry.getValue()));
+                          })));
     } finally {
       span.finish();
     }
   }
 
   private static Map<String, Map<String, Map<String, BDD>>> computeDispositionBDDs(
-      Map<String, Map<String, Map<String, IpSpace>>> ipSpaceMap, IpSpaceToBDD ipSpaceToBDD) {
+      String disposition,
+      Map<String, Map<String, Map<String, IpSpace>>> ipSpaceMap,
+      Function<IpSpace, BDD> dstIpBdd,
+      StoredBdds storedBdds) {
     Span span =
         GlobalTracer.get()
             .buildSpan("BDDReachabilityAnalysisFactory.computeDispositionBDDs")
@@ -570,7 +670,14 @@ public final class BDDReachabilityAnalysisFactory {
                       toImmutableMap(
                           vrfEntry.getValue(),
                           Entry::getKey,
-                          ifaceEntry -> ifaceEntry.getValue().accept(ipSpaceToBDD))));
+                          ifaceEntry ->
+                              storedBdds.get(
+                                  ImmutableList.of(
+                                      disposition,
+                                      nodeEntry.getKey(),
+                                      vrfEntry.getKey(),
+                                      ifaceEntry.getKey()),
+                                  () -> dstIpBdd.apply(ifaceEntry.getValue())))));
     } finally {
       span.finish();
     }
@@ -693,10 +800,17 @@ public final class BDDReachabilityAnalysisFactory {
   }
 
   /*
-   * These edges do not depend on the query. Compute them separately so that we can later cache them
-   * across queries if we want to.
+   * These edges do not depend on the query, so they are computed once and reused by every query to
+   * this factory. Queries only add their own root, disposition, and query edges.
    */
   private Stream<Edge> generateEdges() {
+    if (_edges == null) {
+      _edges = generateQueryIndependentEdges().collect(ImmutableList.toImmutableList());
+    }
+    return _edges.stream();
+  }
+
+  private Stream<Edge> generateQueryIndependentEdges() {
     return Streams.concat(
         generateRules_PreInInterface_NodeDropAclIn(),
         generateRules_PreInInterface_NodeDropAclIn_PBR(),
@@ -1700,7 +1814,8 @@ public final class BDDReachabilityAnalysisFactory {
   private static Map<String, Map<String, Map<String, BDD>>> computeIfaceAcceptBDDs(
       Map<String, Configuration> configs,
       Map<String, Map<String, Map<String, IpSpace>>> acceptIps, // hostname -> vrf -> iface -> ips
-      IpSpaceToBDD ipSpaceToBDD) {
+      IpSpaceToBDD ipSpaceToBDD,
+      StoredBdds storedBdds) {
     Span span =
         GlobalTracer.get()
             .buildSpan("BDDReachabilityAnalysisFactory.computeIfaceAcceptBDDs")
@@ -1730,9 +1845,12 @@ public final class BDDReachabilityAnalysisFactory {
                           ImmutableMap.toImmutableMap(
                               Function.identity(), /* interface */
                               ifaceName ->
-                                  vrfAcceptIps
-                                      .getOrDefault(ifaceName, EmptyIpSpace.INSTANCE)
-                                      .accept(ipSpaceToBDD)));
+                                  storedBdds.get(
+                                      ImmutableList.of("ifaceAccept", hostname, vrf, ifaceName),
+                                      () ->
+                                          vrfAcceptIps
+                                              .getOrDefault(ifaceName, EmptyIpSpace.INSTANCE)
+                                              .accept(ipSpaceToBDD))));
                 });
           });
     } finally {
@@ -1742,7 +1860,8 @@ public final class BDDReachabilityAnalysisFactory {
 
   private Map<String, Map<String, Map<String, BDD>>> computeNextVrfBDDs(
       Map<String, Map<String, Map<String, IpSpace>>> nextVrfIpsByNodeVrf,
-      IpSpaceToBDD ipSpaceToBDD) {
+      IpSpaceToBDD ipSpaceToBDD,
+      StoredBdds storedBdds) {
     Span span =
         GlobalTracer.get().buildSpan("BDDReachabilityAnalysisFactory.computeNextVrfBDDs").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
@@ -1759,7 +1878,14 @@ public final class BDDReachabilityAnalysisFactory {
                           nextVrfIpsByVrfEntry.getValue() /* nextVrfIpsByNextVrf */,
                           Entry::getKey,
                           nextVrfIpsByNextVrfEntry ->
-                              nextVrfIpsByNextVrfEntry.getValue().accept(ipSpaceToBDD))));
+                              storedBdds.get(
+                                  ImmutableList.of(
+                                      "nextVrf",
+                                      nextVrfIpsByNodeVrfEntry.getKey(),
+                                      nextVrfIpsByVrfEntry.getKey(),
+                                      nextVrfIpsByNextVrfEntry.getKey()),
+                                  () ->
+                                      nextVrfIpsByNextVrfEntry.getValue().accept(ipSpaceToBDD)))));
     } finally {
       span.finish();
     }
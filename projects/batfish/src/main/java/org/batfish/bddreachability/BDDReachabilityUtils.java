@@ -5,6 +5,7 @@ import static com.google.common.collect.ImmutableTable.toImmutableTable;
 import static org.batfish.common.util.CollectionUtil.toImmutableMap;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Streams;
 import com.google.common.collect.Table;
@@ -12,10 +13,15 @@ import com.google.common.collect.Tables;
 import io.opentracing.Scope;
 import io.opentracing.Span;
 import io.opentracing.util.GlobalTracer;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 import net.sf.javabdd.BDD;
 import org.batfish.bddreachability.transition.Transition;
@@ -45,7 +51,11 @@ public final class BDDReachabilityUtils {
             (t1, t2) -> Transitions.or(t1, t2)));
   }
 
-  /** Apply edges to the reachableSets until a fixed point is reached. */
+  /**
+   * Apply edges to the reachableSets until a fixed point is reached, in rounds: each round
+   * propagates every state whose reachable set changed in the previous round. See {@link
+   * FixpointStrategy#ROUNDS}.
+   */
   @VisibleForTesting
   static void fixpoint(
       Map<StateExpr, BDD> reachableSets,
@@ -54,44 +64,121 @@ public final class BDDReachabilityUtils {
     Span span = GlobalTracer.get().buildSpan("BDDReachabilityAnalysis.fixpoint").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
+      FixpointCounters counters = FixpointCounters.forStrategy(FixpointStrategy.ROUNDS);
+      counters.recordRun();
       Set<StateExpr> dirtyStates = ImmutableSet.copyOf(reachableSets.keySet());
-
+      int rounds = 0;
       while (!dirtyStates.isEmpty()) {
+        rounds++;
         Set<StateExpr> newDirtyStates = new HashSet<>();
+        for (StateExpr dirtyState : dirtyStates) {
+          newDirtyStates.addAll(propagate(dirtyState, reachableSets, edges, traverse, counters));
+        }
+        dirtyStates = newDirtyStates;
+      }
+      span.setTag("rounds", rounds);
+    } finally {
+      span.finish();
+    }
+  }
 
-        dirtyStates.forEach(
-            dirtyState -> {
-              Map<StateExpr, Transition> dirtyStateEdges = edges.row(dirtyState);
-              if (dirtyStateEdges == null) {
-                // dirtyState has no edges
-                return;
+  /**
+   * Like {@link #fixpoint}, but takes the strongly connected components of the graph one at a time,
+   * in topological order. Each component is run to its own fixed point before moving on, so states
+   * outside cycles are processed exactly once. Each cyclic component gets its own tracing span.
+   *
+   * @param sccs the strongly connected components of {@code edges}
+   */
+  @VisibleForTesting
+  static void sccFixpoint(
+      Map<StateExpr, BDD> reachableSets,
+      Table<StateExpr, StateExpr, Transition> edges,
+      BiFunction<Transition, BDD, BDD> traverse,
+      StronglyConnectedComponents sccs) {
+    Span span = GlobalTracer.get().buildSpan("BDDReachabilityAnalysis.sccFixpoint").start();
+    try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
+      assert scope != null; // avoid unused warning
+      FixpointCounters counters = FixpointCounters.forStrategy(FixpointStrategy.SCC);
+      counters.recordRun();
+      int cyclicComponents = 0;
+      for (List<StateExpr> component : sccs.getComponents()) {
+        boolean cyclic = component.size() > 1 || edges.contains(component.get(0), component.get(0));
+        if (!cyclic) {
+          propagate(component.get(0), reachableSets, edges, traverse, counters);
+          continue;
+        }
+        cyclicComponents++;
+        Span componentSpan =
+            GlobalTracer.get()
+                .buildSpan("BDDReachabilityAnalysis.sccFixpoint.cyclicComponent")
+                .withTag("states", component.size())
+                .start();
+        try {
+          Set<StateExpr> dirtyStates = new LinkedHashSet<>(component);
+          int visits = 0;
+          while (!dirtyStates.isEmpty()) {
+            Iterator<StateExpr> it = dirtyStates.iterator();
+            StateExpr dirtyState = it.next();
+            it.remove();
+            visits++;
+            for (StateExpr changed :
+                propagate(dirtyState, reachableSets, edges, traverse, counters)) {
+              if (sccs.sameComponent(dirtyState, changed)) {
+                dirtyStates.add(changed);
               }
-
-              BDD dirtyStateBDD = reachableSets.get(dirtyState);
-              dirtyStateEdges.forEach(
-                  (neighbor, edge) -> {
-                    BDD result = traverse.apply(edge, dirtyStateBDD);
-                    if (result.isZero()) {
-                      return;
-                    }
-
-                    // update neighbor's reachable set
-                    BDD oldReach = reachableSets.get(neighbor);
-                    BDD newReach = oldReach == null ? result : oldReach.or(result);
-                    if (oldReach == null || !oldReach.equals(newReach)) {
-                      reachableSets.put(neighbor, newReach);
-                      newDirtyStates.add(neighbor);
-                    }
-                  });
-            });
-
-        dirtyStates = newDirtyStates;
+            }
+          }
+          componentSpan.setTag("visits", visits);
+        } finally {
+          componentSpan.finish();
+        }
       }
+      span.setTag("components", sccs.getComponents().size());
+      span.setTag("cyclicComponents", cyclicComponents);
     } finally {
       span.finish();
     }
   }
 
+  /**
+   * Pushes the reachable set of {@code state} across its out-edges, and returns the neighbors whose
+   * reachable sets grew. The BDD operations are recorded in {@code counters}.
+   */
+  private static List<StateExpr> propagate(
+      StateExpr state,
+      Map<StateExpr, BDD> reachableSets,
+      Table<StateExpr, StateExpr, Transition> edges,
+      BiFunction<Transition, BDD, BDD> traverse,
+      FixpointCounters counters) {
+    BDD stateBdd = reachableSets.get(state);
+    if (stateBdd == null) {
+      // state is not reachable (yet)
+      return ImmutableList.of();
+    }
+    counters.recordVisit();
+    List<StateExpr> changed = new ArrayList<>();
+    edges
+        .row(state)
+        .forEach(
+            (neighbor, edge) -> {
+              counters.recordTraversal();
+              BDD result = traverse.apply(edge, stateBdd);
+              if (result.isZero()) {
+                return;
+              }
+              BDD oldReach = reachableSets.get(neighbor);
+              if (oldReach != null) {
+                counters.recordUnion();
+              }
+              BDD newReach = oldReach == null ? result : oldReach.or(result);
+              if (oldReach == null || !oldReach.equals(newReach)) {
+                reachableSets.put(neighbor, newReach);
+                changed.add(neighbor);
+              }
+            });
+    return changed;
+  }
+
   @VisibleForTesting
   public static IngressLocation toIngressLocation(StateExpr stateExpr) {
     checkArgument(stateExpr instanceof OriginateVrf || stateExpr instanceof OriginateInterfaceLink);
@@ -112,9 +199,51 @@ public final class BDDReachabilityUtils {
     fixpoint(reverseReachable, Tables.transpose(forwardEdgeTable), Transition::transitBackward);
   }
 
+  /**
+   * Propagates {@code reachable} forward along {@code forwardEdgeTable} using {@code strategy}.
+   * {@code forwardSccs} is only computed if the strategy needs it.
+   */
   static void forwardFixpoint(
-      Table<StateExpr, StateExpr, Transition> forwardEdgeTable, Map<StateExpr, BDD> reachable) {
-    fixpoint(reachable, forwardEdgeTable, Transition::transitForward);
+      FixpointStrategy strategy,
+      Table<StateExpr, StateExpr, Transition> forwardEdgeTable,
+      Supplier<StronglyConnectedComponents> forwardSccs,
+      Map<StateExpr, BDD> reachable) {
+    switch (strategy) {
+      case ROUNDS:
+        fixpoint(reachable, forwardEdgeTable, Transition::transitForward);
+        return;
+      case SCC:
+        sccFixpoint(reachable, forwardEdgeTable, Transition::transitForward, forwardSccs.get());
+        return;
+      default:
+        throw new IllegalArgumentException("Unsupported fixpoint strategy: " + strategy);
+    }
+  }
+
+  /**
+   * Propagates {@code reverseReachable} backward along {@code forwardEdgeTable} using {@code
+   * strategy}. {@code forwardSccs} is only computed if the strategy needs it.
+   */
+  static void backwardFixpoint(
+      FixpointStrategy strategy,
+      Table<StateExpr, StateExpr, Transition> forwardEdgeTable,
+      Supplier<StronglyConnectedComponents> forwardSccs,
+      Map<StateExpr, BDD> reverseReachable) {
+    Table<StateExpr, StateExpr, Transition> reverseEdgeTable = Tables.transpose(forwardEdgeTable);
+    switch (strategy) {
+      case ROUNDS:
+        fixpoint(reverseReachable, reverseEdgeTable, Transition::transitBackward);
+        return;
+      case SCC:
+        sccFixpoint(
+            reverseReachable,
+            reverseEdgeTable,
+            Transition::transitBackward,
+            forwardSccs.get().reverse());
+        return;
+      default:
+        throw new IllegalArgumentException("Unsupported fixpoint strategy: " + strategy);
+    }
   }
 
   static Map<IngressLocation, BDD> getIngressLocationBdds(
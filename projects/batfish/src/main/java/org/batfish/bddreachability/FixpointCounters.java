@@ -0,0 +1,92 @@
+package org.batfish.bddreachability;
+
+import com.google.common.base.MoreObjects;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Running totals of the work done by reachability fixpoints, kept separately for each {@link
+ * FixpointStrategy} so that strategies can be compared on the same analyses. Counters are global to
+ * the JVM and safe to update from concurrent analyses.
+ */
+@ParametersAreNonnullByDefault
+public final class FixpointCounters {
+
+  private static final Map<FixpointStrategy, FixpointCounters> COUNTERS = initCounters();
+
+  private static Map<FixpointStrategy, FixpointCounters> initCounters() {
+    Map<FixpointStrategy, FixpointCounters> counters = new EnumMap<>(FixpointStrategy.class);
+    for (FixpointStrategy strategy : FixpointStrategy.values()) {
+      counters.put(strategy, new FixpointCounters());
+    }
+    return counters;
+  }
+
+  /** Returns the counters of the given strategy. */
+  public static @Nonnull FixpointCounters forStrategy(FixpointStrategy strategy) {
+    return COUNTERS.get(strategy);
+  }
+
+  private final LongAdder _runs = new LongAdder();
+  private final LongAdder _visits = new LongAdder();
+  private final LongAdder _traversals = new LongAdder();
+  private final LongAdder _unions = new LongAdder();
+
+  private FixpointCounters() {}
+
+  /** Number of fixpoints computed. */
+  public long getRuns() {
+    return _runs.sum();
+  }
+
+  /** Number of times a state's reachable set was propagated across its out-edges. */
+  public long getVisits() {
+    return _visits.sum();
+  }
+
+  /** Number of BDD transitions applied, i.e. edge traversals that were computed. */
+  public long getTraversals() {
+    return _traversals.sum();
+  }
+
+  /** Number of BDD unions of a traversal's result into a neighbor's existing reachable set. */
+  public long getUnions() {
+    return _unions.sum();
+  }
+
+  public void reset() {
+    _runs.reset();
+    _visits.reset();
+    _traversals.reset();
+    _unions.reset();
+  }
+
+  void recordRun() {
+    _runs.increment();
+  }
+
+  void recordVisit() {
+    _visits.increment();
+  }
+
+  void recordTraversal() {
+    _traversals.increment();
+  }
+
+  void recordUnion() {
+    _unions.increment();
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("runs", getRuns())
+        .add("visits", getVisits())
+        .add("traversals", getTraversals())
+        .add("unions", getUnions())
+        .toString();
+  }
+}
@@ -0,0 +1,15 @@
+package org.batfish.bddreachability;
+
+/** How {@link BDDReachabilityAnalysis} propagates reachable sets to a fixed point. */
+public enum FixpointStrategy {
+  /**
+   * Repeatedly propagate every state whose reachable set changed in the previous round. Simple, but
+   * a state may be revisited once per distinct path length by which new flows reach it.
+   */
+  ROUNDS,
+  /**
+   * Propagate the strongly connected components of the graph in topological order, so states that
+   * are not on a cycle are visited exactly once and only cyclic components are iterated.
+   */
+  SCC
+}
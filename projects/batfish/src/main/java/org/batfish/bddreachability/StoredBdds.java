@@ -0,0 +1,60 @@
+package org.batfish.bddreachability;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import net.sf.javabdd.BDD;
+
+/**
+ * The {@link BDD BDDs} {@link BDDReachabilityAnalysisFactory} builds from the forwarding analysis
+ * and ACLs of a snapshot, keyed by a path of names (e.g. kind, node, vrf, interface).
+ *
+ * <p>BDDs loaded from storage are returned as-is; any other BDD is computed on demand and recorded,
+ * so that the set can be written back whenever it has grown. Loaded BDDs are only meaningful if
+ * they were saved from a {@link org.batfish.common.bdd.BDDPacket} that allocated its variables in
+ * the same order, which holds for a fresh packet and the same snapshot.
+ */
+@ParametersAreNonnullByDefault
+public final class StoredBdds {
+  private final Map<List<String>, BDD> _loaded;
+  private final Map<List<String>, BDD> _computed;
+  private int _numComputedStored;
+
+  public StoredBdds(Map<List<String>, BDD> loaded) {
+    _loaded = ImmutableMap.copyOf(loaded);
+    _computed = new LinkedHashMap<>();
+  }
+
+  public static @Nonnull StoredBdds empty() {
+    return new StoredBdds(ImmutableMap.of());
+  }
+
+  /** Returns the loaded BDD for {@code key}, or computes and records it if there is none. */
+  @Nonnull
+  BDD get(List<String> key, Supplier<BDD> compute) {
+    BDD bdd = _loaded.get(key);
+    if (bdd != null) {
+      return bdd;
+    }
+    return _computed.computeIfAbsent(key, k -> compute.get());
+  }
+
+  /** Whether any BDD has been computed since the BDDs were loaded or last marked stored. */
+  public boolean hasUnstored() {
+    return _computed.size() > _numComputedStored;
+  }
+
+  /** Records that every BDD computed so far has been stored. */
+  public void markStored() {
+    _numComputedStored = _computed.size();
+  }
+
+  /** All loaded and computed BDDs. */
+  public @Nonnull Map<List<String>, BDD> getAll() {
+    return ImmutableMap.<List<String>, BDD>builder().putAll(_loaded).putAll(_computed).build();
+  }
+}
@@ -0,0 +1,141 @@
+package org.batfish.bddreachability;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Table;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.symbolic.state.StateExpr;
+
+/**
+ * The strongly connected components of a reachability graph, in topological order: for every edge
+ * between two different components, the component containing the edge's pre-state comes first.
+ */
+@ParametersAreNonnullByDefault
+final class StronglyConnectedComponents {
+  private final List<List<StateExpr>> _components;
+
+  // state -> position of its component in the topological order of the forward graph
+  private final Map<StateExpr, Integer> _componentIds;
+
+  private StronglyConnectedComponents(
+      List<List<StateExpr>> components, Map<StateExpr, Integer> componentIds) {
+    _components = components;
+    _componentIds = componentIds;
+  }
+
+  /** Computes the strongly connected components of the graph with the given edges. */
+  static StronglyConnectedComponents of(Table<StateExpr, StateExpr, ?> edges) {
+    List<List<StateExpr>> components = new Tarjan(edges).run();
+    // Tarjan's algorithm finds components in reverse topological order.
+    List<List<StateExpr>> topological = ImmutableList.copyOf(Lists.reverse(components));
+    ImmutableMap.Builder<StateExpr, Integer> componentIds = ImmutableMap.builder();
+    for (int i = 0; i < topological.size(); i++) {
+      for (StateExpr state : topological.get(i)) {
+        componentIds.put(state, i);
+      }
+    }
+    return new StronglyConnectedComponents(topological, componentIds.build());
+  }
+
+  /**
+   * Returns the components of the transposed graph, which are the same sets of states in reverse
+   * order.
+   */
+  StronglyConnectedComponents reverse() {
+    return new StronglyConnectedComponents(Lists.reverse(_components), _componentIds);
+  }
+
+  /** The components, in topological order. */
+  List<List<StateExpr>> getComponents() {
+    return _components;
+  }
+
+  /** Whether the two states are in the same component. */
+  boolean sameComponent(StateExpr state1, StateExpr state2) {
+    Integer id1 = _componentIds.get(state1);
+    return id1 != null && id1.equals(_componentIds.get(state2));
+  }
+
+  /** Iterative version of Tarjan's algorithm, so deep graphs cannot overflow the stack. */
+  private static final class Tarjan {
+    private final Table<StateExpr, StateExpr, ?> _edges;
+    private final Map<StateExpr, Integer> _index = new HashMap<>();
+    private final Map<StateExpr, Integer> _lowLink = new HashMap<>();
+    private final Deque<StateExpr> _stack = new ArrayDeque<>();
+    private final Set<StateExpr> _onStack = new HashSet<>();
+    private final List<List<StateExpr>> _components = new ArrayList<>();
+
+    Tarjan(Table<StateExpr, StateExpr, ?> edges) {
+      _edges = edges;
+    }
+
+    List<List<StateExpr>> run() {
+      Set<StateExpr> states = new LinkedHashSet<>(_edges.rowKeySet());
+      states.addAll(_edges.columnKeySet());
+      for (StateExpr state : states) {
+        if (!_index.containsKey(state)) {
+          visit(state);
+        }
+      }
+      return _components;
+    }
+
+    private void visit(StateExpr root) {
+      Deque<StateExpr> path = new ArrayDeque<>();
+      Deque<Iterator<StateExpr>> successors = new ArrayDeque<>();
+      enter(root, path, successors);
+      while (!path.isEmpty()) {
+        StateExpr state = path.peek();
+        Iterator<StateExpr> it = successors.peek();
+        if (it.hasNext()) {
+          StateExpr next = it.next();
+          if (!_index.containsKey(next)) {
+            enter(next, path, successors);
+          } else if (_onStack.contains(next)) {
+            _lowLink.put(state, Math.min(_lowLink.get(state), _index.get(next)));
+          }
+          continue;
+        }
+
+        path.pop();
+        successors.pop();
+        int lowLink = _lowLink.get(state);
+        if (lowLink == _index.get(state)) {
+          ImmutableList.Builder<StateExpr> component = ImmutableList.builder();
+          StateExpr member;
+          do {
+            member = _stack.pop();
+            _onStack.remove(member);
+            component.add(member);
+          } while (!member.equals(state));
+          _components.add(component.build());
+        }
+        StateExpr parent = path.peek();
+        if (parent != null) {
+          _lowLink.put(parent, Math.min(_lowLink.get(parent), lowLink));
+        }
+      }
+    }
+
+    private void enter(StateExpr state, Deque<StateExpr> path, Deque<Iterator<StateExpr>> succs) {
+      int index = _index.size();
+      _index.put(state, index);
+      _lowLink.put(state, index);
+      _stack.push(state);
+      _onStack.add(state);
+      path.push(state);
+      succs.push(_edges.row(state).keySet().iterator());
+    }
+  }
+}
@@ -21,10 +21,21 @@ import org.batfish.identifiers.NetworkId;
 import org.batfish.identifiers.QuestionId;
 import org.batfish.identifiers.SnapshotId;
 import org.batfish.main.Driver.RunMode;
+import org.batfish.storage.SerializationFormat;
 import org.batfish.version.Versioned;
 
 public final class Settings extends BaseSettings implements GrammarSettings {
 
+  private static final String ARG_BDD_AUTO_REORDER = "bddautoreorder";
+
+  private static final String ARG_CACHE_BDD_REACHABILITY_MB = "cachebddreachabilitymb";
+
+  private static final String ARG_CACHE_CONFIGURATIONS_MB = "cacheconfigurationsmb";
+
+  private static final String ARG_CACHE_DATA_PLANES_MB = "cachedataplanesmb";
+
+  private static final String ARG_CACHE_VENDOR_CONFIGURATIONS_MB = "cachevendorconfigurationsmb";
+
   public static final String ARG_CHECK_BGP_REACHABILITY = "checkbgpsessionreachability";
 
   public static final String ARG_COORDINATOR_HOST = "coordinatorhost";
@@ -73,8 +84,12 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   public static final String ARG_RUN_MODE = "runmode";
 
+  private static final String ARG_REUSE_PARENT_DATA_PLANE = "reuseparentdataplane";
+
   private static final String ARG_SEQUENTIAL = "sequential";
 
+  private static final String ARG_SERIALIZATION_FORMAT = "serializationformat";
+
   private static final String ARG_SERVICE_BIND_HOST = "servicebindhost";
 
   public static final String ARG_SERVICE_HOST = "servicehost";
@@ -325,10 +340,48 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return RunMode.valueOf(_config.getString(ARG_RUN_MODE).toUpperCase());
   }
 
+  /**
+   * Whether a forked snapshot whose dataplane inputs are identical to those of its parent should
+   * reuse the parent's computed dataplane instead of recomputing it.
+   */
+  public boolean getReuseParentDataPlane() {
+    return _config.getBoolean(ARG_REUSE_PARENT_DATA_PLANE);
+  }
+
+  /** Returns whether the BDDs of reachability graphs are automatically reordered as they grow */
+  public boolean getBddAutoReorder() {
+    return _config.getBoolean(ARG_BDD_AUTO_REORDER);
+  }
+
+  /** Returns the budget in bytes of the cache of BDD reachability graphs */
+  public long getCacheBddReachabilityBytes() {
+    return _config.getLong(ARG_CACHE_BDD_REACHABILITY_MB) << 20;
+  }
+
+  /** Returns the budget in bytes of the cache of vendor-independent configurations */
+  public long getCacheConfigurationsBytes() {
+    return _config.getLong(ARG_CACHE_CONFIGURATIONS_MB) << 20;
+  }
+
+  /** Returns the budget in bytes of the cache of data planes */
+  public long getCacheDataPlanesBytes() {
+    return _config.getLong(ARG_CACHE_DATA_PLANES_MB) << 20;
+  }
+
+  /** Returns the budget in bytes of the cache of vendor-specific configurations */
+  public long getCacheVendorConfigurationsBytes() {
+    return _config.getLong(ARG_CACHE_VENDOR_CONFIGURATIONS_MB) << 20;
+  }
+
   public boolean getSequential() {
     return _config.getBoolean(ARG_SEQUENTIAL);
   }
 
+  /** Returns the format in which serialized objects are written to storage. */
+  public SerializationFormat getSerializationFormat() {
+    return SerializationFormat.valueOf(_config.getString(ARG_SERIALIZATION_FORMAT).toUpperCase());
+  }
+
   public boolean getSerializeIndependent() {
     return _config.getBoolean(BfConsts.COMMAND_PARSE_VENDOR_INDEPENDENT);
   }
@@ -475,6 +528,12 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(BfConsts.ARG_BDP_PRINT_ALL_ITERATIONS, false);
     setDefaultProperty(BfConsts.ARG_BDP_PRINT_OSCILLATING_ITERATIONS, false);
     setDefaultProperty(BfConsts.ARG_BDP_RECORD_ALL_ITERATIONS, false);
+    setDefaultProperty(ARG_BDD_AUTO_REORDER, false);
+    long maxHeapMb = Runtime.getRuntime().maxMemory() >> 20;
+    setDefaultProperty(ARG_CACHE_BDD_REACHABILITY_MB, (int) (maxHeapMb / 8));
+    setDefaultProperty(ARG_CACHE_CONFIGURATIONS_MB, (int) (maxHeapMb / 4));
+    setDefaultProperty(ARG_CACHE_DATA_PLANES_MB, (int) (maxHeapMb / 4));
+    setDefaultProperty(ARG_CACHE_VENDOR_CONFIGURATIONS_MB, (int) (maxHeapMb / 8));
     setDefaultProperty(CAN_EXECUTE, true);
     setDefaultProperty(BfConsts.ARG_CONTAINER, null);
     setDefaultProperty(ARG_COORDINATOR_REGISTER, false);
@@ -510,7 +569,9 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(ARG_PRINT_PARSE_TREE_LINE_NUMS, false);
     setDefaultProperty(BfConsts.ARG_QUESTION_NAME, null);
     setDefaultProperty(ARG_RUN_MODE, RunMode.WORKER.toString());
+    setDefaultProperty(ARG_REUSE_PARENT_DATA_PLANE, false);
     setDefaultProperty(ARG_SEQUENTIAL, false);
+    setDefaultProperty(ARG_SERIALIZATION_FORMAT, SerializationFormat.DEFAULT.toString());
     setDefaultProperty(ARG_SERVICE_BIND_HOST, Ip.ZERO.toString());
     setDefaultProperty(ARG_SERVICE_HOST, "localhost");
     setDefaultProperty(ARG_SERVICE_NAME, "worker-service");
@@ -578,6 +639,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
         "Set to true to record all iterations, including during oscillation. Ignores max recorded "
             + "iterations value.");
 
+    addBooleanOption(
+        ARG_BDD_AUTO_REORDER,
+        "automatically reorder the variables of BDD reachability graphs as they grow");
+
     addBooleanOption(
         ARG_CHECK_BGP_REACHABILITY,
         "whether to check BGP session reachability during data plane computation");
@@ -687,8 +752,39 @@ public final class Settings extends BaseSettings implements GrammarSettings {
         "mode to run in",
         Arrays.stream(RunMode.values()).map(Object::toString).collect(Collectors.joining("|")));
 
+    addBooleanOption(
+        ARG_REUSE_PARENT_DATA_PLANE,
+        "reuse the data plane of the parent snapshot of a fork when its inputs are unchanged");
+
+    addOption(
+        ARG_CACHE_BDD_REACHABILITY_MB,
+        "estimated size in MB of BDD reachability graphs to keep cached across questions",
+        ARGNAME_NUMBER);
+
+    addOption(
+        ARG_CACHE_CONFIGURATIONS_MB,
+        "estimated size in MB of vendor-independent configurations to keep cached",
+        ARGNAME_NUMBER);
+
+    addOption(
+        ARG_CACHE_DATA_PLANES_MB,
+        "estimated size in MB of data planes to keep cached",
+        ARGNAME_NUMBER);
+
+    addOption(
+        ARG_CACHE_VENDOR_CONFIGURATIONS_MB,
+        "estimated size in MB of vendor-specific configurations to keep cached",
+        ARGNAME_NUMBER);
+
     addBooleanOption(ARG_SEQUENTIAL, "force sequential operation");
 
+    addOption(
+        ARG_SERIALIZATION_FORMAT,
+        "format in which to write serialized objects to storage (one of "
+            + Arrays.toString(SerializationFormat.values())
+            + ")",
+        "serialization format");
+
     addOption(
         ARG_SERVICE_BIND_HOST,
         "local hostname used bind service (default is 0.0.0.0 which listens on all interfaces)",
@@ -811,6 +907,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getIntOptionValue(BfConsts.ARG_BDP_MAX_RECORDED_ITERATIONS);
     getBooleanOptionValue(BfConsts.ARG_BDP_PRINT_ALL_ITERATIONS);
     getBooleanOptionValue(BfConsts.ARG_BDP_PRINT_OSCILLATING_ITERATIONS);
+    getBooleanOptionValue(ARG_BDD_AUTO_REORDER);
     getBooleanOptionValue(ARG_CHECK_BGP_REACHABILITY);
     getStringOptionValue(BfConsts.ARG_CONTAINER);
     getStringOptionValue(ARG_COORDINATOR_HOST);
@@ -842,7 +939,13 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getBooleanOptionValue(ARG_PRINT_PARSE_TREE_LINE_NUMS);
     getStringOptionValue(BfConsts.ARG_QUESTION_NAME);
     getStringOptionValue(ARG_RUN_MODE);
+    getBooleanOptionValue(ARG_REUSE_PARENT_DATA_PLANE);
     getBooleanOptionValue(ARG_SEQUENTIAL);
+    getIntOptionValue(ARG_CACHE_BDD_REACHABILITY_MB);
+    getIntOptionValue(ARG_CACHE_CONFIGURATIONS_MB);
+    getIntOptionValue(ARG_CACHE_DATA_PLANES_MB);
+    getIntOptionValue(ARG_CACHE_VENDOR_CONFIGURATIONS_MB);
+    getStringOptionValue(ARG_SERIALIZATION_FORMAT);
     getBooleanOptionValue(BfConsts.COMMAND_PARSE_VENDOR_INDEPENDENT);
     getBooleanOptionValue(BfConsts.COMMAND_PARSE_VENDOR_SPECIFIC);
     getStringOptionValue(ARG_SERVICE_BIND_HOST);
@@ -947,10 +1050,18 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     _config.setProperty(ARG_RUN_MODE, runMode.toString());
   }
 
+  public void setReuseParentDataPlane(boolean reuseParentDataPlane) {
+    _config.setProperty(ARG_REUSE_PARENT_DATA_PLANE, reuseParentDataPlane);
+  }
+
   public void setSequential(boolean sequential) {
     _config.setProperty(ARG_SEQUENTIAL, sequential);
   }
 
+  public void setSerializationFormat(SerializationFormat serializationFormat) {
+    _config.setProperty(ARG_SERIALIZATION_FORMAT, serializationFormat.toString());
+  }
+
   public void setSslDisable(boolean sslDisable) {
     _config.setProperty(BfConsts.ARG_SSL_DISABLE, sslDisable);
   }
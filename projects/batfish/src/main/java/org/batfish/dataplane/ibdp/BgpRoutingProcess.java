@@ -92,6 +92,8 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
   @Nonnull private BgpTopology _topology;
   /** Metadata about propagated prefixes to/from neighbors */
   @Nonnull private PrefixTracer _prefixTracer;
+  /** Memoized results of import and export policies */
+  @Nonnull final RoutingPolicyResultCache _policyResultCache;
 
   /** Route dependency tracker for BGP IPv4 aggregate routes */
   @Nonnull
@@ -204,6 +206,7 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
     _mainRib = mainRib;
     _topology = topology;
     _prefixTracer = prefixTracer;
+    _policyResultCache = new RoutingPolicyResultCache(configuration.getRoutingPolicies());
 
     // Message queues start out empty
     _bgpv4IncomingRoutes = ImmutableSortedMap.of();
@@ -862,14 +865,18 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
     }
 
     // Process transformed outgoing route by the export policy
-    boolean shouldExport =
-        exportPolicy.processBgpRoute(
-            exportCandidate, transformedOutgoingRouteBuilder, sessionProperties, Direction.OUT);
+    transformedOutgoingRouteBuilder =
+        _policyResultCache.processBgpRoute(
+            exportPolicy,
+            exportCandidate,
+            transformedOutgoingRouteBuilder,
+            sessionProperties,
+            Direction.OUT);
 
     // sessionProperties represents the incoming edge, so its tailIp is the remote peer's IP
     Ip remoteIp = sessionProperties.getTailIp();
 
-    if (!shouldExport) {
+    if (transformedOutgoingRouteBuilder == null) {
       // This route could not be exported due to export policy
       _prefixTracer.filtered(
           exportCandidate.getNetwork(),
@@ -0,0 +1,183 @@
+package org.batfish.dataplane.ibdp;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Runs the phases of an iBDP computation on a dedicated, sized thread pool, so that the dataplane
+ * does not compete with other users of the common fork-join pool. Tracks per-phase wall-clock and
+ * busy time to report pool utilization.
+ *
+ * <p>Phases must be run from a single (driver) thread.
+ */
+@ParametersAreNonnullByDefault
+final class IbdpExecutor implements AutoCloseable {
+
+  /** Timing statistics for a single named phase, accumulated over all of its invocations */
+  static final class PhaseStats {
+    private int _invocations;
+    private long _wallNanos;
+    private final LongAdder _busyNanos = new LongAdder();
+
+    /** Number of times the phase was run */
+    int getInvocations() {
+      return _invocations;
+    }
+
+    /** Total elapsed time spent in the phase, in nanoseconds */
+    long getWallNanos() {
+      return _wallNanos;
+    }
+
+    /** Total time spent executing tasks of the phase across all threads, in nanoseconds */
+    long getBusyNanos() {
+      return _busyNanos.sum();
+    }
+  }
+
+  private final int _parallelism;
+  private final ForkJoinPool _pool;
+  private final Map<String, PhaseStats> _phaseStats;
+
+  IbdpExecutor(int parallelism) {
+    checkArgument(parallelism > 0, "Parallelism must be positive, got %s", parallelism);
+    _parallelism = parallelism;
+    _pool = new ForkJoinPool(parallelism);
+    _phaseStats = new LinkedHashMap<>();
+  }
+
+  /**
+   * Run {@code action} on every {@link VirtualRouter} of {@code nodes}, with one task per virtual
+   * router. Only use for actions that do not mutate state of other virtual routers on the same node
+   * (other than through concurrent message queues).
+   */
+  void forEachVirtualRouter(
+      String phase, Map<String, Node> nodes, Consumer<? super VirtualRouter> action) {
+    forEach(phase, getVirtualRouters(nodes), action);
+  }
+
+  /** Run {@code action} on every node in {@code nodes}, with one task per node. */
+  void forEachNode(String phase, Map<String, Node> nodes, Consumer<? super Node> action) {
+    forEach(phase, nodes.values(), action);
+  }
+
+  /**
+   * Return whether any {@link VirtualRouter} of {@code nodes} satisfies {@code predicate}, testing
+   * with one task per virtual router.
+   */
+  boolean anyVirtualRouterMatch(
+      String phase, Map<String, Node> nodes, Predicate<? super VirtualRouter> predicate) {
+    PhaseStats stats = _phaseStats.computeIfAbsent(phase, p -> new PhaseStats());
+    List<VirtualRouter> vrs = getVirtualRouters(nodes);
+    long start = System.nanoTime();
+    try {
+      return _pool
+          .submit(
+              () ->
+                  vrs.parallelStream()
+                      .anyMatch(
+                          vr -> {
+                            long taskStart = System.nanoTime();
+                            try {
+                              return predicate.test(vr);
+                            } finally {
+                              stats._busyNanos.add(System.nanoTime() - taskStart);
+                            }
+                          }))
+          .join();
+    } finally {
+      stats._invocations++;
+      stats._wallNanos += System.nanoTime() - start;
+    }
+  }
+
+  private static List<VirtualRouter> getVirtualRouters(Map<String, Node> nodes) {
+    return nodes.values().stream()
+        .flatMap(n -> n.getVirtualRouters().values().stream())
+        .collect(toImmutableList());
+  }
+
+  private <T> void forEach(String phase, Iterable<T> items, Consumer<? super T> action) {
+    PhaseStats stats = _phaseStats.computeIfAbsent(phase, p -> new PhaseStats());
+    List<T> tasks = ImmutableList.copyOf(items);
+    long start = System.nanoTime();
+    try {
+      _pool
+          .submit(
+              () ->
+                  tasks
+                      .parallelStream()
+                      .forEach(
+                          t -> {
+                            long taskStart = System.nanoTime();
+                            try {
+                              action.accept(t);
+                            } finally {
+                              stats._busyNanos.add(System.nanoTime() - taskStart);
+                            }
+                          }))
+          .join();
+    } finally {
+      stats._invocations++;
+      stats._wallNanos += System.nanoTime() - start;
+    }
+  }
+
+  /** Return the statistics of all phases run so far, in order of first invocation */
+  @Nonnull
+  Map<String, PhaseStats> getPhaseStats() {
+    return ImmutableMap.copyOf(_phaseStats);
+  }
+
+  int getParallelism() {
+    return _parallelism;
+  }
+
+  /**
+   * Return the fraction of the pool's capacity that was used by {@code stats}, i.e. busy time
+   * divided by available thread time.
+   */
+  @VisibleForTesting
+  double getUtilization(PhaseStats stats) {
+    return stats._wallNanos == 0
+        ? 0.0d
+        : (double) stats.getBusyNanos() / ((double) stats._wallNanos * _parallelism);
+  }
+
+  /** Return a human-readable summary of per-phase statistics */
+  @Nonnull
+  String getUtilizationSummary() {
+    StringBuilder sb =
+        new StringBuilder(
+            String.format("iBDP executor phase utilization (parallelism %d):\n", _parallelism));
+    _phaseStats.forEach(
+        (phase, stats) ->
+            sb.append(
+                String.format(
+                    "  %s: invocations=%d, wall=%.3fs, busy=%.3fs, utilization=%.1f%%\n",
+                    phase,
+                    stats._invocations,
+                    stats._wallNanos / 1e9,
+                    stats.getBusyNanos() / 1e9,
+                    100 * getUtilization(stats))));
+    return sb.toString();
+  }
+
+  @Override
+  public void close() {
+    _pool.shutdown();
+  }
+}
@@ -1,5 +1,6 @@
 package org.batfish.dataplane.ibdp;
 
+import static com.google.common.base.MoreObjects.firstNonNull;
 import static org.batfish.common.topology.TopologyUtil.computeLayer2Topology;
 import static org.batfish.common.topology.TopologyUtil.computeLayer3Topology;
 import static org.batfish.common.topology.TopologyUtil.computeRawLayer3Topology;
@@ -13,20 +14,32 @@ import static org.batfish.datamodel.vxlan.VxlanTopologyUtils.prunedVxlanTopology
 import static org.batfish.dataplane.rib.AbstractRib.importRib;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multiset;
 import com.google.common.collect.Sets;
 import io.opentracing.Scope;
 import io.opentracing.Span;
 import io.opentracing.util.GlobalTracer;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BdpOscillationException;
 import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
@@ -66,8 +79,13 @@ class IncrementalBdpEngine {
 
   private int _numIterations;
   private final BatfishLogger _bfLogger;
+  // hostname -> number of times the node ran a dependent-routes iteration
+  private final Multiset<String> _nodeRuns = HashMultiset.create();
   private final IncrementalDataPlaneSettings _settings;
 
+  /** Executor running the phases of the dataplane computation currently in progress */
+  private IbdpExecutor _executor;
+
   IncrementalBdpEngine(IncrementalDataPlaneSettings settings, BatfishLogger logger) {
     _settings = settings;
     _bfLogger = logger;
@@ -78,8 +96,10 @@ class IncrementalBdpEngine {
       TopologyContext callerTopologyContext,
       Set<BgpAdvertisement> externalAdverts) {
     Span span = GlobalTracer.get().buildSpan("Compute Data Plane").start();
-    try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
+    try (Scope scope = GlobalTracer.get().scopeManager().activate(span);
+        IbdpExecutor executor = new IbdpExecutor(_settings.getParallelism())) {
       assert scope != null; // avoid unused warning
+      _executor = executor;
 
       _bfLogger.resetTimer();
       IncrementalDataPlane.Builder dpBuilder = IncrementalDataPlane.builder();
@@ -232,6 +252,7 @@ class IncrementalBdpEngine {
       // Generate the answers from the computation, compute final FIBs
       // TODO: Properly finalize topologies, IpOwners, etc.
       computeFibs(nodes);
+      computeRoutingPolicyCacheStatistics(nodes, answerElement);
       answerElement.setVersion(BatfishVersion.getVersionStatic());
       IncrementalDataPlane finalDataplane =
           IncrementalDataPlane.builder()
@@ -239,8 +260,10 @@ class IncrementalBdpEngine {
               .setLayer3Topology(currentTopologyContext.getLayer3Topology())
               .build();
       _bfLogger.printElapsedTime();
+      _bfLogger.debug(_executor.getUtilizationSummary());
       return new ComputeDataPlaneResult(answerElement, finalDataplane, currentTopologyContext);
     } finally {
+      _executor = null;
       span.finish();
     }
   }
@@ -260,7 +283,7 @@ class IncrementalBdpEngine {
    * @param allNodes all nodes in the network (for correct neighbor referencing)
    * @param topologyContext the various network topologies
    */
-  private static void computeDependentRoutesIteration(
+  private void computeDependentRoutesIteration(
       Map<String, Node> nodes,
       int numIterations,
       String iterationLabel,
@@ -277,11 +300,8 @@ class IncrementalBdpEngine {
       try (Scope innerScope = GlobalTracer.get().scopeManager().activate(depRoutesspan)) {
         assert innerScope != null; // avoid unused warning
         // (Re)initialization of dependent route calculation
-        nodes
-            .values()
-            .parallelStream()
-            .flatMap(n -> n.getVirtualRouters().values().parallelStream())
-            .forEach(VirtualRouter::reinitForNewIteration);
+        _executor.forEachVirtualRouter(
+            "Reinitialize for new iteration", nodes, VirtualRouter::reinitForNewIteration);
       } finally {
         depRoutesspan.finish();
       }
@@ -293,11 +313,8 @@ class IncrementalBdpEngine {
               .start();
       try (Scope innerScope = GlobalTracer.get().scopeManager().activate(nhIpSpan)) {
         assert innerScope != null; // avoid unused warning
-        nodes
-            .values()
-            .parallelStream()
-            .flatMap(n -> n.getVirtualRouters().values().stream())
-            .forEach(VirtualRouter::activateStaticRoutes);
+        _executor.forEachVirtualRouter(
+            "Activate static routes", nodes, VirtualRouter::activateStaticRoutes);
       } finally {
         nhIpSpan.finish();
       }
@@ -309,11 +326,8 @@ class IncrementalBdpEngine {
               .start();
       try (Scope innerScope = GlobalTracer.get().scopeManager().activate(genRoutesSpan)) {
         assert innerScope != null; // avoid unused warning
-        nodes
-            .values()
-            .parallelStream()
-            .flatMap(n -> n.getVirtualRouters().values().stream())
-            .forEach(VirtualRouter::recomputeGeneratedRoutes);
+        _executor.forEachVirtualRouter(
+            "Recompute generated routes", nodes, VirtualRouter::recomputeGeneratedRoutes);
       } finally {
         genRoutesSpan.finish();
       }
@@ -323,16 +337,9 @@ class IncrementalBdpEngine {
           GlobalTracer.get().buildSpan(iterationLabel + ": propagate EIGRP routes").start();
       try (Scope innerScope = GlobalTracer.get().scopeManager().activate(eigrpSpan)) {
         assert innerScope != null; // avoid unused warning
-        nodes
-            .values()
-            .parallelStream()
-            .flatMap(n -> n.getVirtualRouters().values().stream())
-            .forEach(vr -> vr.eigrpIteration(allNodes));
-        nodes
-            .values()
-            .parallelStream()
-            .flatMap(n -> n.getVirtualRouters().values().stream())
-            .forEach(VirtualRouter::mergeEigrpRoutesToMainRib);
+        _executor.forEachVirtualRouter("EIGRP iteration", nodes, vr -> vr.eigrpIteration(allNodes));
+        _executor.forEachVirtualRouter(
+            "Merge EIGRP routes to main RIB", nodes, VirtualRouter::mergeEigrpRoutesToMainRib);
       } finally {
         eigrpSpan.finish();
       }
@@ -342,11 +349,10 @@ class IncrementalBdpEngine {
           GlobalTracer.get().buildSpan(iterationLabel + ": Recompute IS-IS exports").start();
       try (Scope innerScope = GlobalTracer.get().scopeManager().activate(isisSpan)) {
         assert innerScope != null; // avoid unused warning
-        nodes
-            .values()
-            .parallelStream()
-            .flatMap(n -> n.getVirtualRouters().values().stream())
-            .forEach(vr -> vr.initIsisExports(iteration, allNodes, networkConfigurations));
+        _executor.forEachVirtualRouter(
+            "Initialize IS-IS exports",
+            nodes,
+            vr -> vr.initIsisExports(iteration, allNodes, networkConfigurations));
       } finally {
         isisSpan.finish();
       }
@@ -364,20 +370,18 @@ class IncrementalBdpEngine {
         try (Scope innerScope = GlobalTracer.get().scopeManager().activate(isisSpanRecompute)) {
           assert innerScope != null; // avoid unused warning
           isisChanged.set(false);
-          nodes
-              .values()
-              .parallelStream()
-              .flatMap(n -> n.getVirtualRouters().values().stream())
-              .forEach(
-                  vr -> {
-                    Entry<RibDelta<IsisRoute>, RibDelta<IsisRoute>> p =
-                        vr.propagateIsisRoutes(networkConfigurations);
-                    if (p != null
-                        && vr.unstageIsisRoutes(
-                            allNodes, networkConfigurations, p.getKey(), p.getValue())) {
-                      isisChanged.set(true);
-                    }
-                  });
+          _executor.forEachVirtualRouter(
+              "Propagate IS-IS routes",
+              nodes,
+              vr -> {
+                Entry<RibDelta<IsisRoute>, RibDelta<IsisRoute>> p =
+                    vr.propagateIsisRoutes(networkConfigurations);
+                if (p != null
+                    && vr.unstageIsisRoutes(
+                        allNodes, networkConfigurations, p.getKey(), p.getValue())) {
+                  isisChanged.set(true);
+                }
+              });
         } finally {
           isisSpanRecompute.finish();
         }
@@ -387,16 +391,9 @@ class IncrementalBdpEngine {
           GlobalTracer.get().buildSpan(iterationLabel + ": propagate OSPF external").start();
       try (Scope innerScope = GlobalTracer.get().scopeManager().activate(span)) {
         assert innerScope != null; // avoid unused warning
-        nodes
-            .values()
-            .parallelStream()
-            .flatMap(n -> n.getVirtualRouters().values().stream())
-            .forEach(vr -> vr.ospfIteration(allNodes));
-        nodes
-            .values()
-            .parallelStream()
-            .flatMap(n -> n.getVirtualRouters().values().stream())
-            .forEach(VirtualRouter::mergeOspfRoutesToMainRib);
+        _executor.forEachVirtualRouter("OSPF iteration", nodes, vr -> vr.ospfIteration(allNodes));
+        _executor.forEachVirtualRouter(
+            "Merge OSPF routes to main RIB", nodes, VirtualRouter::mergeOspfRoutesToMainRib);
       } finally {
         span.finish();
       }
@@ -427,7 +424,7 @@ class IncrementalBdpEngine {
     }
   }
 
-  private static void computeIterationOfBgpRoutes(
+  private void computeIterationOfBgpRoutes(
       Map<String, Node> nodes,
       String iterationLabel,
       Map<String, Node> allNodes,
@@ -462,11 +459,10 @@ class IncrementalBdpEngine {
     try (Scope innerScope = GlobalTracer.get().scopeManager().activate(genSpan)) {
       assert innerScope != null; // avoid unused warning
       // first let's initialize nodes-level generated/aggregate routes
-      nodes
-          .values()
-          .parallelStream()
-          .forEach(
-              n -> n.getVirtualRouters().values().forEach(VirtualRouter::initBgpAggregateRoutes));
+      _executor.forEachNode(
+          "Initialize BGP aggregate routes",
+          nodes,
+          n -> n.getVirtualRouters().values().forEach(VirtualRouter::initBgpAggregateRoutes));
     } finally {
       genSpan.finish();
     }
@@ -475,55 +471,52 @@ class IncrementalBdpEngine {
         GlobalTracer.get().buildSpan(iterationLabel + ": Propagate BGP v4 routes").start();
     try (Scope innerScope = GlobalTracer.get().scopeManager().activate(propSpan)) {
       assert innerScope != null; // avoid unused warning
-      nodes
-          .values()
-          .parallelStream()
-          .flatMap(n -> n.getVirtualRouters().values().stream())
-          .forEach(
-              vr -> {
-                Map<Bgpv4Rib, RibDelta<Bgpv4Route>> deltas =
-                    vr.processBgpMessages(bgpTopology, networkConfigurations, nodes);
-                vr.finalizeBgpRoutesAndQueueOutgoingMessages(
-                    deltas, allNodes, bgpTopology, networkConfigurations);
-              });
+      _executor.forEachNode(
+          "Propagate BGP routes",
+          nodes,
+          n ->
+              n.getVirtualRouters()
+                  .values()
+                  .forEach(
+                      vr -> {
+                        Map<Bgpv4Rib, RibDelta<Bgpv4Route>> deltas =
+                            vr.processBgpMessages(bgpTopology, networkConfigurations, nodes);
+                        vr.finalizeBgpRoutesAndQueueOutgoingMessages(
+                            deltas, allNodes, bgpTopology, networkConfigurations);
+                      }));
 
       // Merge BGP routes from BGP process into the main RIB
-      nodes
-          .values()
-          .parallelStream()
-          .flatMap(n -> n.getVirtualRouters().values().stream())
-          .forEach(VirtualRouter::mergeBgpRoutesToMainRib);
+      _executor.forEachVirtualRouter(
+          "Merge BGP routes to main RIB", nodes, VirtualRouter::mergeBgpRoutesToMainRib);
 
       // Multi-VRF redistribution of BGP routes:
-      nodes
-          .values()
-          .parallelStream()
-          .forEach(
-              n -> {
-                for (VirtualRouter srcVr : n.getVirtualRouters().values()) {
-                  for (VirtualRouter dstVr : n.getVirtualRouters().values()) {
-                    if (dstVr.getBgpRoutingProcess() == null) {
-                      continue;
-                    }
-                    dstVr
-                        .getBgpRoutingProcess()
-                        .redistribute(
-                            iteration > 1
-                                ? srcVr._mainRibRouteDeltaBuilder.build()
-                                : RibDelta.<AnnotatedRoute<AbstractRoute>>builder()
-                                    .add(srcVr.getMainRib().getTypedRoutes())
-                                    .build(),
-                            srcVr.getName());
-                  }
+      _executor.forEachNode(
+          "Redistribute BGP routes across VRFs",
+          nodes,
+          n -> {
+            for (VirtualRouter srcVr : n.getVirtualRouters().values()) {
+              for (VirtualRouter dstVr : n.getVirtualRouters().values()) {
+                if (dstVr.getBgpRoutingProcess() == null) {
+                  continue;
                 }
-              });
+                dstVr
+                    .getBgpRoutingProcess()
+                    .redistribute(
+                        iteration > 1
+                            ? srcVr._mainRibRouteDeltaBuilder.build()
+                            : RibDelta.<AnnotatedRoute<AbstractRoute>>builder()
+                                .add(srcVr.getMainRib().getTypedRoutes())
+                                .build(),
+                        srcVr.getName());
+              }
+            }
+          });
     } finally {
       propSpan.finish();
     }
   }
 
-  private static void queueRoutesForCrossVrfLeaking(
-      Map<String, Node> nodes, String iterationLabel) {
+  private void queueRoutesForCrossVrfLeaking(Map<String, Node> nodes, String iterationLabel) {
     Span span =
         GlobalTracer.get()
             .buildSpan(iterationLabel + ": Queueing routes to leak across VRFs")
@@ -531,26 +524,20 @@ class IncrementalBdpEngine {
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
 
-      nodes
-          .values()
-          .parallelStream()
-          .flatMap(n -> n.getVirtualRouters().values().stream())
-          .forEach(VirtualRouter::queueCrossVrfImports);
+      _executor.forEachVirtualRouter(
+          "Queue cross-VRF imports", nodes, VirtualRouter::queueCrossVrfImports);
     } finally {
       span.finish();
     }
   }
 
-  private static void leakAcrossVrfs(Map<String, Node> nodes, String iterationLabel) {
+  private void leakAcrossVrfs(Map<String, Node> nodes, String iterationLabel) {
     Span span =
         GlobalTracer.get().buildSpan(iterationLabel + ": Leaking routes across VRFs").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      nodes
-          .values()
-          .parallelStream()
-          .flatMap(n -> n.getVirtualRouters().values().stream())
-          .forEach(VirtualRouter::processCrossVrfRoutes);
+      _executor.forEachVirtualRouter(
+          "Process cross-VRF routes", nodes, VirtualRouter::processCrossVrfRoutes);
     } finally {
       span.finish();
     }
@@ -565,11 +552,7 @@ class IncrementalBdpEngine {
     Span span = GlobalTracer.get().buildSpan("Compute FIBs").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      nodes
-          .values()
-          .parallelStream()
-          .flatMap(n -> n.getVirtualRouters().values().stream())
-          .forEach(VirtualRouter::computeFib);
+      _executor.forEachVirtualRouter("Compute FIBs", nodes, VirtualRouter::computeFib);
     } finally {
       span.finish();
     }
@@ -600,11 +583,13 @@ class IncrementalBdpEngine {
       Span initializeSpan = GlobalTracer.get().buildSpan("Initialize for IGP computation").start();
       try (Scope innerScope = GlobalTracer.get().scopeManager().activate(initializeSpan)) {
         assert innerScope != null; // avoid unused warning
-        nodes
-            .values()
-            .parallelStream()
-            .flatMap(n -> n.getVirtualRouters().values().stream())
-            .forEach(vr -> vr.initForIgpComputation(topologyContext));
+        _executor.forEachNode(
+            "Initialize for IGP computation",
+            nodes,
+            n ->
+                n.getVirtualRouters()
+                    .values()
+                    .forEach(vr -> vr.initForIgpComputation(topologyContext)));
       } finally {
         initializeSpan.finish();
       }
@@ -620,15 +605,13 @@ class IncrementalBdpEngine {
           GlobalTracer.get().buildSpan("Compute static routes post IGP convergence").start();
       try (Scope innerScope = GlobalTracer.get().scopeManager().activate(staticSpan)) {
         assert innerScope != null; // avoid unused warning
-        nodes
-            .values()
-            .parallelStream()
-            .flatMap(n -> n.getVirtualRouters().values().stream())
-            .forEach(
-                vr -> {
-                  importRib(vr.getMainRib(), vr._independentRib);
-                  vr.activateStaticRoutes();
-                });
+        _executor.forEachVirtualRouter(
+            "Activate static routes",
+            nodes,
+            vr -> {
+              importRib(vr.getMainRib(), vr._independentRib);
+              vr.activateStaticRoutes();
+            });
       } finally {
         staticSpan.finish();
       }
@@ -669,11 +652,13 @@ class IncrementalBdpEngine {
           GlobalTracer.get().buildSpan("Initialize virtual routers for iBDP-external").start();
       try (Scope innerScope = GlobalTracer.get().scopeManager().activate(innerSpan)) {
         assert innerScope != null; // avoid unused warning
-        nodes
-            .values()
-            .parallelStream()
-            .flatMap(n -> n.getVirtualRouters().values().stream())
-            .forEach(vr -> vr.initForEgpComputation(topologyContext));
+        _executor.forEachNode(
+            "Initialize for EGP computation",
+            nodes,
+            n ->
+                n.getVirtualRouters()
+                    .values()
+                    .forEach(vr -> vr.initForEgpComputation(topologyContext)));
       } finally {
         innerSpan.finish();
       }
@@ -681,11 +666,8 @@ class IncrementalBdpEngine {
       Span innerSpan1 = GlobalTracer.get().buildSpan("Queue initial cross-VRF leaking").start();
       try (Scope innerScope = GlobalTracer.get().scopeManager().activate(innerSpan1)) {
         assert innerScope != null; // avoid unused warning
-        nodes
-            .values()
-            .parallelStream()
-            .flatMap(n -> n.getVirtualRouters().values().stream())
-            .forEach(VirtualRouter::initCrossVrfImports);
+        _executor.forEachVirtualRouter(
+            "Initialize cross-VRF imports", nodes, VirtualRouter::initCrossVrfImports);
       } finally {
         innerSpan1.finish();
       }
@@ -695,16 +677,22 @@ class IncrementalBdpEngine {
         assert innerScope != null; // avoid unused warning
         // Queue initial outgoing messages
         BgpTopology bgpTopology = topologyContext.getBgpTopology();
-        nodes
-            .values()
-            .parallelStream()
-            .flatMap(n -> n.getVirtualRouters().values().stream())
-            .forEach(
-                vr -> {
-                  vr.processExternalBgpAdvertisements(
-                      externalAdverts, ipVrfOwners, nodes, bgpTopology, networkConfigurations);
-                  vr.queueInitialBgpMessages(bgpTopology, nodes, networkConfigurations);
-                });
+        _executor.forEachNode(
+            "Queue initial BGP messages",
+            nodes,
+            n ->
+                n.getVirtualRouters()
+                    .values()
+                    .forEach(
+                        vr -> {
+                          vr.processExternalBgpAdvertisements(
+                              externalAdverts,
+                              ipVrfOwners,
+                              nodes,
+                              bgpTopology,
+                              networkConfigurations);
+                          vr.queueInitialBgpMessages(bgpTopology, nodes, networkConfigurations);
+                        }));
       } finally {
         innerSpan2.finish();
       }
@@ -719,6 +707,22 @@ class IncrementalBdpEngine {
 
       Schedule currentSchedule = _settings.getScheduleName();
 
+      /*
+       * In worklist mode, only nodes with pending work are run after the first iteration. Only a
+       * node that ran or one of its neighbors can have new work, so the worklist is fed by the
+       * nodes that ran and their neighbors, and nothing else is ever checked. The iteration
+       * hashcode and statistics are maintained incrementally from the nodes that changed.
+       */
+      boolean worklistScheduling = _settings.getWorklistScheduling();
+      boolean firstIteration = true;
+      Map<String, Set<String>> neighbors =
+          worklistScheduling ? computeNeighbors(topologyContext) : ImmutableMap.of();
+      Set<String> worklist = new HashSet<>();
+      Set<String> dirtyNodes = ImmutableSet.of();
+      Map<VirtualRouter, Integer> vrHashCodes = new IdentityHashMap<>();
+      int[] rollingHashCode = new int[1];
+      IterationStatistics statistics = new IterationStatistics();
+
       // Go into iteration mode, until the routes converge (or oscillation is detected)
       do {
         _numIterations++;
@@ -739,8 +743,25 @@ class IncrementalBdpEngine {
 
           // compute dependent routes for each allowable set of nodes until we cover all nodes
           int nodeSet = 0;
+          Set<String> ranNodes = new HashSet<>();
           while (schedule.hasNext()) {
             Map<String, Node> iterationNodes = schedule.next();
+            if (worklistScheduling && !firstIteration) {
+              // Nodes are checked lazily, since earlier schedule steps may have sent them messages
+              iterationNodes = takeDirtyNodes(worklist, iterationNodes);
+              if (iterationNodes.isEmpty()) {
+                ++nodeSet;
+                continue;
+              }
+            }
+            ranNodes.addAll(iterationNodes.keySet());
+            _nodeRuns.addAll(iterationNodes.keySet());
+            if (worklistScheduling) {
+              for (String hostname : iterationNodes.keySet()) {
+                worklist.add(hostname);
+                worklist.addAll(neighbors.getOrDefault(hostname, ImmutableSet.of()));
+              }
+            }
             String iterationlabel =
                 String.format("Iteration %d Schedule %d", _numIterations, nodeSet);
             computeDependentRoutesIteration(
@@ -760,10 +781,23 @@ class IncrementalBdpEngine {
            * - Compute iteration hashcode
            * - Check for oscillations
            */
-          computeIterationStatistics(nodes, ae, _numIterations);
+          // Only nodes that ran can have changed RIBs
+          statistics.update(worklistScheduling ? subMap(nodes, ranNodes) : nodes);
+          statistics.record(ae, _numIterations);
 
           // This hashcode uniquely identifies the iteration (i.e., network state)
-          int iterationHashCode = computeIterationHashCode(nodes);
+          int iterationHashCode;
+          if (worklistScheduling) {
+            dirtyNodes = computeDirtyNodes(subMap(nodes, worklist));
+            worklist = new HashSet<>(dirtyNodes);
+            // Only nodes that ran or received messages can have changed state
+            iterationHashCode =
+                updateIterationHashCode(
+                    subMap(nodes, Sets.union(ranNodes, dirtyNodes)), vrHashCodes, rollingHashCode);
+          } else {
+            iterationHashCode = computeIterationHashCode(nodes);
+          }
+          firstIteration = false;
           SortedSet<Integer> iterationsWithThisHashCode =
               iterationsByHashCode.computeIfAbsent(iterationHashCode, h -> new TreeSet<>());
 
@@ -783,13 +817,19 @@ class IncrementalBdpEngine {
         } finally {
           iterSpan.finish();
         }
-      } while (hasNotReachedRoutingFixedPoint(nodes));
+      } while (worklistScheduling ? !dirtyNodes.isEmpty() : hasNotReachedRoutingFixedPoint(nodes));
 
       ae.setDependentRoutesIterations(_numIterations);
       return false; // No oscillations
     }
   }
 
+  /** Return the number of dependent-routes iterations each node ran in, keyed by hostname */
+  @VisibleForTesting
+  Multiset<String> getNodeRuns() {
+    return _nodeRuns;
+  }
+
   /** Check if we have reached a routing fixed point */
   private boolean hasNotReachedRoutingFixedPoint(Map<String, Node> nodes) {
     Span span =
@@ -798,11 +838,133 @@ class IncrementalBdpEngine {
             .start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      return nodes
-          .values()
-          .parallelStream()
-          .flatMap(n -> n.getVirtualRouters().values().stream())
-          .anyMatch(VirtualRouter::isDirty);
+      return _executor.anyVirtualRouterMatch(
+          "Check routing fixed point", nodes, VirtualRouter::isDirty);
+    } finally {
+      span.finish();
+    }
+  }
+
+  private static boolean isDirty(Node node) {
+    return node.getVirtualRouters().values().stream().anyMatch(VirtualRouter::isDirty);
+  }
+
+  /**
+   * Remove the nodes of {@code scheduleNodes} from {@code worklist}, returning those that have
+   * remaining computation to do.
+   */
+  private static Map<String, Node> takeDirtyNodes(
+      Set<String> worklist, Map<String, Node> scheduleNodes) {
+    ImmutableMap.Builder<String, Node> dirtyNodes = ImmutableMap.builder();
+    Iterator<String> iterator = worklist.iterator();
+    while (iterator.hasNext()) {
+      Node node = scheduleNodes.get(iterator.next());
+      if (node != null) {
+        iterator.remove();
+        if (isDirty(node)) {
+          dirtyNodes.put(node.getConfiguration().getHostname(), node);
+        }
+      }
+    }
+    return dirtyNodes.build();
+  }
+
+  /** Return the nodes of {@code nodes} named in {@code hostnames}, without scanning all nodes */
+  private static Map<String, Node> subMap(Map<String, Node> nodes, Set<String> hostnames) {
+    return hostnames.stream()
+        .filter(nodes::containsKey)
+        .collect(ImmutableMap.toImmutableMap(hostname -> hostname, nodes::get));
+  }
+
+  /**
+   * Return the nodes each node may exchange routing messages with, i.e., its BGP, OSPF, EIGRP, and
+   * IS-IS neighbors. Mapping: hostname -&gt; neighbor hostnames
+   */
+  @VisibleForTesting
+  static Map<String, Set<String>> computeNeighbors(TopologyContext topologyContext) {
+    Map<String, Set<String>> neighbors = new HashMap<>();
+    BiConsumer<String, String> addEdge =
+        (node1, node2) -> {
+          neighbors.computeIfAbsent(node1, n -> new HashSet<>()).add(node2);
+          neighbors.computeIfAbsent(node2, n -> new HashSet<>()).add(node1);
+        };
+    topologyContext
+        .getBgpTopology()
+        .getGraph()
+        .edges()
+        .forEach(edge -> addEdge.accept(edge.source().getHostname(), edge.target().getHostname()));
+    topologyContext
+        .getOspfTopology()
+        .edges()
+        .forEach(
+            edge -> addEdge.accept(edge.getTail().getHostname(), edge.getHead().getHostname()));
+    topologyContext
+        .getEigrpTopology()
+        .getNetwork()
+        .edges()
+        .forEach(
+            edge -> addEdge.accept(edge.getNode1().getHostname(), edge.getNode2().getHostname()));
+    topologyContext
+        .getIsisTopology()
+        .getNetwork()
+        .edges()
+        .forEach(edge -> addEdge.accept(edge.getNode1().getNode(), edge.getNode2().getNode()));
+    return neighbors;
+  }
+
+  /** Return the names of nodes that have remaining computation to do */
+  private Set<String> computeDirtyNodes(Map<String, Node> nodes) {
+    Span span =
+        GlobalTracer.get()
+            .buildSpan("Iteration " + _numIterations + ": Compute dirty nodes")
+            .start();
+    try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
+      assert scope != null; // avoid unused warning
+      Set<String> dirtyNodes = ConcurrentHashMap.newKeySet();
+      _executor.forEachNode(
+          "Compute dirty nodes",
+          nodes,
+          n -> {
+            if (isDirty(n)) {
+              dirtyNodes.add(n.getConfiguration().getHostname());
+            }
+          });
+      return ImmutableSet.copyOf(dirtyNodes);
+    } finally {
+      span.finish();
+    }
+  }
+
+  /**
+   * Incrementally update the iteration hashcode, recomputing the hashcodes of virtual routers of
+   * {@code changedNodes} only. Produces the same value as {@link #computeIterationHashCode(Map)},
+   * since the iteration hashcode is the sum of the per-VRF hashcodes.
+   *
+   * @param changedNodes nodes whose state may have changed since the last update, keyed by hostname
+   * @param vrHashCodes last known hashcode of each virtual router (updated in place)
+   * @param rollingHashCode single-element holder of the running sum (updated in place)
+   * @return integer hashcode
+   */
+  private int updateIterationHashCode(
+      Map<String, Node> changedNodes,
+      Map<VirtualRouter, Integer> vrHashCodes,
+      int[] rollingHashCode) {
+    Span span =
+        GlobalTracer.get().buildSpan("Iteration " + _numIterations + ": Update hashCode").start();
+    try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
+      assert scope != null; // avoid unused warning
+      // VirtualRouter uses identity equality, so a concurrent hash map is safe here
+      Map<VirtualRouter, Integer> newHashCodes = new ConcurrentHashMap<>();
+      _executor.forEachVirtualRouter(
+          "Update iteration hashcode",
+          changedNodes,
+          vr -> newHashCodes.put(vr, vr.computeIterationHashCode()));
+      newHashCodes.forEach(
+          (vr, hashCode) -> {
+            Integer oldHashCode = vrHashCodes.put(vr, hashCode);
+            rollingHashCode[0] += hashCode - (oldHashCode == null ? 0 : oldHashCode);
+          });
+      return rollingHashCode[0];
     } finally {
       span.finish();
     }
@@ -819,47 +981,75 @@ class IncrementalBdpEngine {
         GlobalTracer.get().buildSpan("Iteration " + _numIterations + ": Compute hashCode").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      return nodes
-          .values()
-          .parallelStream()
-          .flatMap(node -> node.getVirtualRouters().values().stream())
-          .mapToInt(VirtualRouter::computeIterationHashCode)
-          .sum();
+      AtomicInteger hashCode = new AtomicInteger();
+      _executor.forEachVirtualRouter(
+          "Compute iteration hashcode",
+          nodes,
+          vr -> hashCode.addAndGet(vr.computeIterationHashCode()));
+      return hashCode.get();
     } finally {
       span.finish();
     }
   }
 
-  private static void computeIterationStatistics(
-      Map<String, Node> nodes, IncrementalBdpAnswerElement ae, int dependentRoutesIterations) {
-    Span span = GlobalTracer.get().buildSpan("Compute iteration statistics").start();
-    try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
-      assert scope != null; // avoid unused warning
-      int numBgpBestPathRibRoutes =
-          nodes.values().stream()
-              .flatMap(n -> n.getVirtualRouters().values().stream())
-              .mapToInt(VirtualRouter::getNumBgpBestPaths)
-              .sum();
+  /**
+   * Running totals of the RIB sizes reported for each iteration, updated only for the nodes whose
+   * RIBs may have changed.
+   */
+  private static final class IterationStatistics {
+    // virtual router -> {BGP best paths, BGP multipaths, main RIB routes}
+    private final Map<VirtualRouter, int[]> _ribSizes = new IdentityHashMap<>();
+    private int _numBgpBestPathRibRoutes;
+    private int _numBgpMultipathRibRoutes;
+    private int _numMainRibRoutes;
+
+    void update(Map<String, Node> changedNodes) {
+      Span span = GlobalTracer.get().buildSpan("Compute iteration statistics").start();
+      try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
+        assert scope != null; // avoid unused warning
+        changedNodes.values().stream()
+            .flatMap(n -> n.getVirtualRouters().values().stream())
+            .forEach(
+                vr -> {
+                  int[] ribSizes = {
+                    vr.getNumBgpBestPaths(),
+                    vr.getNumBgpPaths(),
+                    vr.getMainRib().getTypedRoutes().size()
+                  };
+                  int[] oldRibSizes = firstNonNull(_ribSizes.put(vr, ribSizes), new int[3]);
+                  _numBgpBestPathRibRoutes += ribSizes[0] - oldRibSizes[0];
+                  _numBgpMultipathRibRoutes += ribSizes[1] - oldRibSizes[1];
+                  _numMainRibRoutes += ribSizes[2] - oldRibSizes[2];
+                });
+      } finally {
+        span.finish();
+      }
+    }
+
+    void record(IncrementalBdpAnswerElement ae, int dependentRoutesIterations) {
       ae.getBgpBestPathRibRoutesByIteration()
-          .put(dependentRoutesIterations, numBgpBestPathRibRoutes);
-      int numBgpMultipathRibRoutes =
-          nodes.values().stream()
-              .flatMap(n -> n.getVirtualRouters().values().stream())
-              .mapToInt(VirtualRouter::getNumBgpPaths)
-              .sum();
+          .put(dependentRoutesIterations, _numBgpBestPathRibRoutes);
       ae.getBgpMultipathRibRoutesByIteration()
-          .put(dependentRoutesIterations, numBgpMultipathRibRoutes);
-      int numMainRibRoutes =
-          nodes.values().stream()
-              .flatMap(n -> n.getVirtualRouters().values().stream())
-              .mapToInt(vr -> vr.getMainRib().getTypedRoutes().size())
-              .sum();
-      ae.getMainRibRoutesByIteration().put(dependentRoutesIterations, numMainRibRoutes);
-    } finally {
-      span.finish();
+          .put(dependentRoutesIterations, _numBgpMultipathRibRoutes);
+      ae.getMainRibRoutesByIteration().put(dependentRoutesIterations, _numMainRibRoutes);
     }
   }
 
+  private static void computeRoutingPolicyCacheStatistics(
+      Map<String, Node> nodes, IncrementalBdpAnswerElement ae) {
+    List<RoutingPolicyResultCache> caches =
+        nodes.values().stream()
+            .flatMap(n -> n.getVirtualRouters().values().stream())
+            .map(VirtualRouter::getBgpRoutingProcess)
+            .filter(Objects::nonNull)
+            .map(process -> process._policyResultCache)
+            .collect(ImmutableList.toImmutableList());
+    ae.setRoutingPolicyCacheHits(
+        caches.stream().mapToLong(RoutingPolicyResultCache::getHits).sum());
+    ae.setRoutingPolicyCacheMisses(
+        caches.stream().mapToLong(RoutingPolicyResultCache::getMisses).sum());
+  }
+
   /**
    * Return the main RIB routes for each node. Map structure: Hostname -&gt; VRF name -&gt; Set of
    * routes
@@ -907,25 +1097,22 @@ class IncrementalBdpEngine {
 
         while (schedule.hasNext()) {
           Map<String, Node> scheduleNodes = schedule.next();
-          scheduleNodes
-              .values()
-              .parallelStream()
-              .flatMap(n -> n.getVirtualRouters().values().stream())
-              .forEach(virtualRouter -> virtualRouter.ospfIteration(allNodes));
-
-          scheduleNodes
-              .values()
-              .parallelStream()
-              .flatMap(n -> n.getVirtualRouters().values().stream())
-              .forEach(VirtualRouter::mergeOspfRoutesToMainRib);
+          _executor.forEachVirtualRouter(
+              "OSPF internal iteration",
+              scheduleNodes,
+              virtualRouter -> virtualRouter.ospfIteration(allNodes));
+
+          _executor.forEachVirtualRouter(
+              "Merge OSPF internal routes to main RIB",
+              scheduleNodes,
+              VirtualRouter::mergeOspfRoutesToMainRib);
         }
         dirty =
-            allNodes
-                .values()
-                .parallelStream()
-                .flatMap(n -> n.getVirtualRouters().values().stream())
-                .flatMap(vr -> vr.getOspfProcesses().values().stream())
-                .anyMatch(OspfRoutingProcess::isDirty);
+            _executor.anyVirtualRouterMatch(
+                "Check OSPF internal fixed point",
+                allNodes,
+                vr ->
+                    vr.getOspfProcesses().values().stream().anyMatch(OspfRoutingProcess::isDirty));
       } finally {
         span.finish();
       }
@@ -939,7 +1126,7 @@ class IncrementalBdpEngine {
    * @param nodes nodes for which to initialize the routes, keyed by name
    * @param topology network topology
    */
-  private static void initRipInternalRoutes(SortedMap<String, Node> nodes, Topology topology) {
+  private void initRipInternalRoutes(SortedMap<String, Node> nodes, Topology topology) {
     /*
      * Consider this method to be a simulation within a simulation. Since RIP routes are not
      * affected by other protocols, we propagate all RIP routes amongst the nodes prior to
@@ -954,16 +1141,14 @@ class IncrementalBdpEngine {
           GlobalTracer.get().buildSpan("RIP internal: iteration " + ripInternalIterations).start();
       try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
         assert scope != null; // avoid unused warning
-        nodes
-            .values()
-            .parallelStream()
-            .flatMap(n -> n.getVirtualRouters().values().stream())
-            .forEach(
-                vr -> {
-                  if (vr.propagateRipInternalRoutes(nodes, topology)) {
-                    ripInternalChanged.set(true);
-                  }
-                });
+        _executor.forEachVirtualRouter(
+            "Propagate RIP internal routes",
+            nodes,
+            vr -> {
+              if (vr.propagateRipInternalRoutes(nodes, topology)) {
+                ripInternalChanged.set(true);
+              }
+            });
       } finally {
         span.finish();
       }
@@ -973,11 +1158,8 @@ class IncrementalBdpEngine {
               .start();
       try (Scope scope = GlobalTracer.get().scopeManager().activate(unstageSpan)) {
         assert scope != null; // avoid unused warning
-        nodes
-            .values()
-            .parallelStream()
-            .flatMap(n -> n.getVirtualRouters().values().stream())
-            .forEach(VirtualRouter::unstageRipInternalRoutes);
+        _executor.forEachVirtualRouter(
+            "Unstage RIP internal routes", nodes, VirtualRouter::unstageRipInternalRoutes);
       } finally {
         unstageSpan.finish();
       }
@@ -987,15 +1169,13 @@ class IncrementalBdpEngine {
               .start();
       try (Scope scope = GlobalTracer.get().scopeManager().activate(importSpan)) {
         assert scope != null; // avoid unused warning
-        nodes
-            .values()
-            .parallelStream()
-            .flatMap(n -> n.getVirtualRouters().values().stream())
-            .forEach(
-                vr -> {
-                  importRib(vr._ripRib, vr._ripInternalRib);
-                  importRib(vr._independentRib, vr._ripRib, vr.getName());
-                });
+        _executor.forEachVirtualRouter(
+            "Import RIP internal routes",
+            nodes,
+            vr -> {
+              importRib(vr._ripRib, vr._ripInternalRib);
+              importRib(vr._independentRib, vr._ripRib, vr.getName());
+            });
       }
     }
   }
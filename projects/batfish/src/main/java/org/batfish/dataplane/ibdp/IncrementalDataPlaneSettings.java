@@ -17,7 +17,9 @@ public class IncrementalDataPlaneSettings {
   private Configuration _config;
 
   public static final String PROP_COLORING = "coloring";
+  public static final String PROP_PARALLELISM = "dataplaneparallelism";
   public static final String PROP_SCHEDULE = "schedule";
+  public static final String PROP_WORKLIST_SCHEDULING = "worklistscheduling";
 
   /**
    * Return the underlying configuration (it will be mutable).
@@ -48,7 +50,14 @@ public class IncrementalDataPlaneSettings {
   /** Initialize defaults for all properties */
   private void initDefaults() {
     _config.setProperty(PROP_COLORING, SATURATION.toString());
+    _config.setProperty(PROP_PARALLELISM, Runtime.getRuntime().availableProcessors());
     _config.setProperty(PROP_SCHEDULE, NODE_COLORED.toString());
+    _config.setProperty(PROP_WORKLIST_SCHEDULING, false);
+  }
+
+  /** Return the number of threads used to compute the dataplane */
+  public int getParallelism() {
+    return _config.getInt(PROP_PARALLELISM);
   }
 
   /** Return the dataplane computation {@link Schedule} */
@@ -56,6 +65,14 @@ public class IncrementalDataPlaneSettings {
     return Schedule.valueOf(_config.getString(PROP_SCHEDULE));
   }
 
+  /**
+   * Whether dependent-route iterations after the first should only run nodes that have pending work
+   * (non-empty message queues or main RIB deltas), rather than every node in the schedule.
+   */
+  public boolean getWorklistScheduling() {
+    return _config.getBoolean(PROP_WORKLIST_SCHEDULING);
+  }
+
   /**
    * If the schedule is of type {@link NodeColoredSchedule}, get the type of {@link Coloring} to
    * perform
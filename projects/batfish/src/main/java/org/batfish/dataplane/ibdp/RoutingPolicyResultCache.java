@@ -0,0 +1,290 @@
+package org.batfish.dataplane.ibdp;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.BgpRoute;
+import org.batfish.datamodel.BgpSessionProperties;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.routing_policy.Environment.Direction;
+import org.batfish.datamodel.routing_policy.RoutingPolicy;
+import org.batfish.datamodel.routing_policy.RoutingPolicyNetworkUsage;
+
+/**
+ * Memoizes the results of applying BGP import and export policies to {@link Bgpv4Route}s during
+ * dataplane computation.
+ *
+ * <p>A result is determined by the policy, the direction, the session, the input route, and the
+ * output route as it was before the policy ran. For policies that never read the route's network
+ * (see {@link RoutingPolicyNetworkUsage}), networks are left out of the key, so routes for
+ * different prefixes with the same attributes share one entry.
+ *
+ * <p>Lookups compare the input route and the output route builder attribute by attribute, so a
+ * cache hit builds no routes. Other BGP route types are not memoized.
+ */
+@ParametersAreNonnullByDefault
+final class RoutingPolicyResultCache {
+
+  /** Bound on the number of memoized results, per cache. */
+  private static final long MAX_SIZE = 10_000L;
+
+  private final @Nonnull Map<String, RoutingPolicy> _routingPolicies;
+
+  // policy name -> whether the policy reads the route's network
+  private final @Nonnull Map<String, Boolean> _readsNetwork;
+
+  // empty if the route was rejected, else the accepted output route
+  private final @Nonnull Cache<Key, Optional<Bgpv4Route>> _results;
+
+  RoutingPolicyResultCache(Map<String, RoutingPolicy> routingPolicies) {
+    _routingPolicies = routingPolicies;
+    _readsNetwork = new ConcurrentHashMap<>();
+    _results = CacheBuilder.newBuilder().maximumSize(MAX_SIZE).recordStats().build();
+  }
+
+  /**
+   * Applies {@code policy} to {@code inputRoute} as {@link RoutingPolicy#processBgpRoute} would.
+   *
+   * @return {@code outputRoute}, transformed, or {@code null} if the policy rejects the route.
+   */
+  @Nullable
+  <B extends BgpRoute.Builder<B, R>, R extends BgpRoute<B, R>> B processBgpRoute(
+      RoutingPolicy policy,
+      BgpRoute<B, R> inputRoute,
+      B outputRoute,
+      BgpSessionProperties sessionProperties,
+      Direction direction) {
+    if (!(inputRoute instanceof Bgpv4Route) || !(outputRoute instanceof Bgpv4Route.Builder)) {
+      return policy.processBgpRoute(inputRoute, outputRoute, sessionProperties, direction)
+          ? outputRoute
+          : null;
+    }
+    Bgpv4Route.Builder output = (Bgpv4Route.Builder) outputRoute;
+    boolean readsNetwork =
+        _readsNetwork.computeIfAbsent(
+            policy.getName(),
+            name -> RoutingPolicyNetworkUsage.readsNetwork(policy, _routingPolicies));
+    Key lookupKey =
+        new Key(
+            policy.getName(),
+            direction,
+            sessionProperties,
+            readsNetwork,
+            (Bgpv4Route) inputRoute,
+            output);
+    Optional<Bgpv4Route> cached = _results.getIfPresent(lookupKey);
+    if (cached != null) {
+      if (!cached.isPresent()) {
+        return null;
+      }
+      copyAttributes(cached.get(), output);
+      return outputRoute;
+    }
+    // The policy mutates the builder, so the stored key needs its own copy.
+    Key key = lookupKey.withOutputRoute(output.build().toBuilder());
+    if (!policy.processBgpRoute(inputRoute, outputRoute, sessionProperties, direction)) {
+      _results.put(key, Optional.empty());
+      return null;
+    }
+    _results.put(key, Optional.of(output.build()));
+    return outputRoute;
+  }
+
+  long getHits() {
+    return _results.stats().hitCount();
+  }
+
+  long getMisses() {
+    return _results.stats().missCount();
+  }
+
+  /** Sets every attribute of {@code builder} but its network to that of {@code route}. */
+  private static void copyAttributes(Bgpv4Route route, Bgpv4Route.Builder builder) {
+    builder
+        .setAdmin(route.getAdministrativeCost())
+        .setAsPath(route.getAsPath())
+        .setClusterList(route.getClusterList())
+        .setCommunities(route.getCommunities())
+        .setDiscard(route.getDiscard())
+        .setLocalPreference(route.getLocalPreference())
+        .setMetric(route.getMetric())
+        .setNextHopInterface(route.getNextHopInterface())
+        .setNextHopIp(route.getNextHopIp())
+        .setNonForwarding(route.getNonForwarding())
+        .setNonRouting(route.getNonRouting())
+        .setOriginatorIp(route.getOriginatorIp())
+        .setOriginType(route.getOriginType())
+        .setProtocol(route.getProtocol())
+        .setReceivedFromIp(route.getReceivedFromIp())
+        .setReceivedFromRouteReflectorClient(route.getReceivedFromRouteReflectorClient())
+        .setSrcProtocol(route.getSrcProtocol())
+        .setTag(route.getTag())
+        .setWeight(route.getWeight());
+  }
+
+  /** Hashes every attribute of {@code route} but its network. */
+  private static int hashAttributes(Bgpv4Route route) {
+    int h = route.getAdministrativeCost();
+    h = h * 31 + route.getAsPath().hashCode();
+    h = h * 31 + route.getClusterList().hashCode();
+    h = h * 31 + route.getCommunities().hashCode();
+    h = h * 31 + Boolean.hashCode(route.getDiscard());
+    h = h * 31 + Long.hashCode(route.getLocalPreference());
+    h = h * 31 + Long.hashCode(route.getMetric());
+    h = h * 31 + Objects.hashCode(route.getNextHopInterface());
+    h = h * 31 + route.getNextHopIp().hashCode();
+    h = h * 31 + Boolean.hashCode(route.getNonForwarding());
+    h = h * 31 + Boolean.hashCode(route.getNonRouting());
+    h = h * 31 + Objects.hashCode(route.getOriginatorIp());
+    h = h * 31 + Objects.hashCode(route.getOriginType());
+    h = h * 31 + Objects.hashCode(route.getProtocol());
+    h = h * 31 + Objects.hashCode(route.getReceivedFromIp());
+    h = h * 31 + Boolean.hashCode(route.getReceivedFromRouteReflectorClient());
+    h = h * 31 + Objects.hashCode(route.getSrcProtocol());
+    h = h * 31 + Long.hashCode(route.getTag());
+    return h * 31 + route.getWeight();
+  }
+
+  /** Hashes every attribute of {@code builder} but its network. */
+  private static int hashAttributes(Bgpv4Route.Builder builder) {
+    int h = builder.getAdmin();
+    h = h * 31 + builder.getAsPath().hashCode();
+    h = h * 31 + builder.getClusterList().hashCode();
+    h = h * 31 + builder.getCommunities().hashCode();
+    h = h * 31 + Boolean.hashCode(builder.getDiscard());
+    h = h * 31 + Long.hashCode(builder.getLocalPreference());
+    h = h * 31 + Long.hashCode(builder.getMetric());
+    h = h * 31 + Objects.hashCode(builder.getNextHopInterface());
+    h = h * 31 + builder.getNextHopIp().hashCode();
+    h = h * 31 + Boolean.hashCode(builder.getNonForwarding());
+    h = h * 31 + Boolean.hashCode(builder.getNonRouting());
+    h = h * 31 + Objects.hashCode(builder.getOriginatorIp());
+    h = h * 31 + Objects.hashCode(builder.getOriginType());
+    h = h * 31 + Objects.hashCode(builder.getProtocol());
+    h = h * 31 + Objects.hashCode(builder.getReceivedFromIp());
+    h = h * 31 + Boolean.hashCode(builder.getReceivedFromRouteReflectorClient());
+    h = h * 31 + Objects.hashCode(builder.getSrcProtocol());
+    h = h * 31 + Long.hashCode(builder.getTag());
+    return h * 31 + builder.getWeight();
+  }
+
+  /** Whether {@code a} and {@code b} agree on every attribute but their networks. */
+  private static boolean sameAttributes(Bgpv4Route a, Bgpv4Route b) {
+    return a == b
+        || (a.getNextHopIp().equals(b.getNextHopIp())
+            && Objects.equals(a.getOriginatorIp(), b.getOriginatorIp())
+            && Objects.equals(a.getNextHopInterface(), b.getNextHopInterface())
+            && Objects.equals(a.getReceivedFromIp(), b.getReceivedFromIp())
+            && a.getAdministrativeCost() == b.getAdministrativeCost()
+            && a.getDiscard() == b.getDiscard()
+            && a.getLocalPreference() == b.getLocalPreference()
+            && a.getMetric().equals(b.getMetric())
+            && a.getNonForwarding() == b.getNonForwarding()
+            && a.getNonRouting() == b.getNonRouting()
+            && a.getOriginType() == b.getOriginType()
+            && a.getProtocol() == b.getProtocol()
+            && a.getReceivedFromRouteReflectorClient() == b.getReceivedFromRouteReflectorClient()
+            && a.getSrcProtocol() == b.getSrcProtocol()
+            && a.getTag() == b.getTag()
+            && a.getWeight() == b.getWeight()
+            && a.getAsPath().equals(b.getAsPath())
+            && a.getClusterList().equals(b.getClusterList())
+            && a.getCommunities().equals(b.getCommunities()));
+  }
+
+  /** Whether {@code a} and {@code b} agree on every attribute but their networks. */
+  private static boolean sameAttributes(Bgpv4Route.Builder a, Bgpv4Route.Builder b) {
+    return a == b
+        || (a.getNextHopIp().equals(b.getNextHopIp())
+            && Objects.equals(a.getOriginatorIp(), b.getOriginatorIp())
+            && Objects.equals(a.getNextHopInterface(), b.getNextHopInterface())
+            && Objects.equals(a.getReceivedFromIp(), b.getReceivedFromIp())
+            && a.getAdmin() == b.getAdmin()
+            && a.getDiscard() == b.getDiscard()
+            && a.getLocalPreference() == b.getLocalPreference()
+            && a.getMetric() == b.getMetric()
+            && a.getNonForwarding() == b.getNonForwarding()
+            && a.getNonRouting() == b.getNonRouting()
+            && a.getOriginType() == b.getOriginType()
+            && a.getProtocol() == b.getProtocol()
+            && a.getReceivedFromRouteReflectorClient() == b.getReceivedFromRouteReflectorClient()
+            && a.getSrcProtocol() == b.getSrcProtocol()
+            && a.getTag() == b.getTag()
+            && a.getWeight() == b.getWeight()
+            && a.getAsPath().equals(b.getAsPath())
+            && a.getClusterList().equals(b.getClusterList())
+            && a.getCommunities().equals(b.getCommunities()));
+  }
+
+  private static final class Key {
+    private final @Nonnull String _policyName;
+    private final @Nonnull Direction _direction;
+    private final @Nonnull BgpSessionProperties _sessionProperties;
+    private final boolean _readsNetwork;
+    private final @Nonnull Bgpv4Route _inputRoute;
+    // The caller's builder for lookups; a private copy once stored in the cache
+    private final @Nonnull Bgpv4Route.Builder _outputRoute;
+    private final int _hashCode;
+
+    private Key(
+        String policyName,
+        Direction direction,
+        BgpSessionProperties sessionProperties,
+        boolean readsNetwork,
+        Bgpv4Route inputRoute,
+        Bgpv4Route.Builder outputRoute) {
+      _policyName = policyName;
+      _direction = direction;
+      _sessionProperties = sessionProperties;
+      _readsNetwork = readsNetwork;
+      _inputRoute = inputRoute;
+      _outputRoute = outputRoute;
+      int h = policyName.hashCode();
+      h = h * 31 + direction.ordinal();
+      h = h * 31 + sessionProperties.hashCode();
+      if (readsNetwork) {
+        h = h * 31 + inputRoute.hashCode();
+        h = h * 31 + Objects.hashCode(outputRoute.getNetwork());
+      } else {
+        h = h * 31 + hashAttributes(inputRoute);
+      }
+      _hashCode = h * 31 + hashAttributes(outputRoute);
+    }
+
+    private @Nonnull Key withOutputRoute(Bgpv4Route.Builder outputRoute) {
+      return new Key(
+          _policyName, _direction, _sessionProperties, _readsNetwork, _inputRoute, outputRoute);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return _hashCode == key._hashCode
+          && _policyName.equals(key._policyName)
+          && _direction == key._direction
+          && _readsNetwork == key._readsNetwork
+          && _sessionProperties.equals(key._sessionProperties)
+          && (_readsNetwork
+              ? _inputRoute.equals(key._inputRoute)
+                  && Objects.equals(_outputRoute.getNetwork(), key._outputRoute.getNetwork())
+              : sameAttributes(_inputRoute, key._inputRoute))
+          && sameAttributes(_outputRoute, key._outputRoute);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+}
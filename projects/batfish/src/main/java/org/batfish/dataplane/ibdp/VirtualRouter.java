@@ -1182,17 +1182,20 @@ public class VirtualRouter implements Serializable {
 
         // Process route through import policy, if one exists
         String importPolicyName = ourBgpConfig.getIpv4UnicastAddressFamily().getImportPolicy();
-        boolean acceptIncoming = true;
         // TODO: ensure there is always an import policy
         if (importPolicyName != null) {
           RoutingPolicy importPolicy = _c.getRoutingPolicies().get(importPolicyName);
           if (importPolicy != null) {
-            acceptIncoming =
-                importPolicy.processBgpRoute(
-                    remoteRoute, transformedIncomingRouteBuilder, sessionProperties, IN);
+            transformedIncomingRouteBuilder =
+                _bgpRoutingProcess._policyResultCache.processBgpRoute(
+                    importPolicy,
+                    remoteRoute,
+                    transformedIncomingRouteBuilder,
+                    sessionProperties,
+                    IN);
           }
         }
-        if (!acceptIncoming) {
+        if (transformedIncomingRouteBuilder == null) {
           // Route could not be imported due to routing policy
           _prefixTracer.filtered(
               remoteRoute.getNetwork(),
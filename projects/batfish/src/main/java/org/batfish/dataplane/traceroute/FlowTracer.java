@@ -25,14 +25,11 @@ import static org.batfish.dataplane.traceroute.TracerouteUtils.returnFlow;
 import static org.batfish.dataplane.traceroute.TracerouteUtils.sessionTransformation;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Ordering;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
@@ -210,11 +207,11 @@ class FlowTracer {
   private final Flow _originalFlow;
   private final @Nonnull String _vrfName;
 
-  // Mutable list of hops in the current trace
-  private final List<Hop> _hops;
+  // Hops in the current trace, shared with the tracer this one was forked from
+  private PersistentList<Hop> _hops;
 
-  // Mutable list of steps in the current hop
-  private final List<Step<?>> _steps;
+  // Steps in the current hop, shared with the tracer this one was forked from
+  private PersistentList<Step<?>> _steps;
 
   private final Stack<Breadcrumb> _breadcrumbs;
 
@@ -240,8 +237,8 @@ class FlowTracer {
         new HashSet<>(),
         originalFlow,
         initVrfName(ingressInterface, currentConfig, originalFlow),
-        new ArrayList<>(),
-        new ArrayList<>(),
+        PersistentList.empty(),
+        PersistentList.empty(),
         new Stack<>(),
         originalFlow);
   }
@@ -255,7 +252,7 @@ class FlowTracer {
   FlowTracer forkTracer(
       Configuration newConfig,
       @Nullable String newIngressInterface,
-      List<Step<?>> initialSteps,
+      PersistentList<Step<?>> initialSteps,
       NodeInterfacePair lastHopNodeAndOutgoingInterface,
       String newVrfName) {
 
@@ -270,8 +267,8 @@ class FlowTracer {
         new HashSet<>(_newSessions),
         _originalFlow,
         newVrfName,
-        new ArrayList<>(_hops),
-        new ArrayList<>(initialSteps),
+        _hops,
+        initialSteps,
         _breadcrumbs,
         _currentFlow);
   }
@@ -307,8 +304,38 @@ class FlowTracer {
       List<Step<?>> steps,
       Stack<Breadcrumb> breadcrumbs,
       Flow currentFlow) {
+    this(
+        tracerouteContext,
+        currentConfig,
+        ingressInterface,
+        currentNode,
+        flowTraces,
+        lastHopNodeAndOutgoingInterface,
+        newSessions,
+        originalFlow,
+        vrfName,
+        PersistentList.copyOf(hops),
+        PersistentList.copyOf(steps),
+        breadcrumbs,
+        currentFlow);
+  }
+
+  private FlowTracer(
+      TracerouteEngineImplContext tracerouteContext,
+      Configuration currentConfig,
+      @Nullable String ingressInterface,
+      Node currentNode,
+      Consumer<TraceAndReverseFlow> flowTraces,
+      @Nullable NodeInterfacePair lastHopNodeAndOutgoingInterface,
+      Set<FirewallSessionTraceInfo> newSessions,
+      Flow originalFlow,
+      @Nonnull String vrfName,
+      PersistentList<Hop> hops,
+      PersistentList<Step<?>> steps,
+      Stack<Breadcrumb> breadcrumbs,
+      Flow currentFlow) {
     assert originalFlow.equals(currentFlow)
-            || steps.stream()
+            || steps.toList().stream()
                 .anyMatch(step -> step instanceof TransformationStep || step instanceof PolicyStep)
         : "Original flow and current flow must be equal unless there's a transformation step or a policy step";
     _tracerouteContext = tracerouteContext;
@@ -353,8 +380,8 @@ class FlowTracer {
         // the original flow of the next hop is the final (i.e. current) flow of this hop
         _currentFlow,
         initVrfName(newIngressInterface, newConfig, _currentFlow),
-        new ArrayList<>(_hops),
-        new ArrayList<>(ImmutableList.of()),
+        _hops,
+        PersistentList.empty(),
         _breadcrumbs,
         _currentFlow);
   }
@@ -380,7 +407,7 @@ class FlowTracer {
       String outgoingInterface, Ip nextHopIp, SortedSet<NodeInterfacePair> neighborIfaces) {
     checkArgument(!neighborIfaces.isEmpty(), "No neighbor interfaces.");
     checkState(
-        _steps.get(_steps.size() - 1) instanceof ExitOutputIfaceStep,
+        _steps.getLast() instanceof ExitOutputIfaceStep,
         "ExitOutputIfaceStep needs to be added before calling this function");
     Ip arpIp =
         Route.UNSET_ROUTE_NEXT_HOP_IP.equals(nextHopIp) ? _currentFlow.getDstIp() : nextHopIp;
@@ -401,8 +428,8 @@ class FlowTracer {
       return;
     }
 
-    Hop hop = new Hop(_currentNode, _steps);
-    _hops.add(hop);
+    Hop hop = new Hop(_currentNode, _steps.toList());
+    _hops = _hops.append(hop);
 
     NodeInterfacePair exitIface = NodeInterfacePair.of(_currentNode.getName(), outgoingInterface);
     interfacesThatReplyToArp.forEach(
@@ -454,7 +481,7 @@ class FlowTracer {
 
     // Trace was received on a source interface of this hop - this should always be first.
     if (_ingressInterface != null) {
-      _steps.add(buildEnterSrcIfaceStep(_currentConfig, _ingressInterface));
+      _steps = _steps.append(buildEnterSrcIfaceStep(_currentConfig, _ingressInterface));
     }
 
     if (processSessions()) {
@@ -487,7 +514,7 @@ class FlowTracer {
       }
     } else {
       // if inputIfaceName is not set for this hop, this is the originating step
-      _steps.add(buildOriginateStep());
+      _steps = _steps.append(buildOriginateStep());
     }
 
     Ip dstIp = _currentFlow.getDstIp();
@@ -543,7 +570,7 @@ class FlowTracer {
 
       @Override
       public Boolean visitDrop(@Nonnull Drop drop) {
-        _steps.add(new PolicyStep(new PolicyStepDetail(policy.getName()), DENIED));
+        _steps = _steps.append(new PolicyStep(new PolicyStepDetail(policy.getName()), DENIED));
         buildDeniedTrace(FlowDisposition.DENIED_IN);
         return true;
       }
@@ -630,7 +657,7 @@ class FlowTracer {
       }
 
       private void makePermittedStep() {
-        _steps.add(new PolicyStep(new PolicyStepDetail(policy.getName()), PERMITTED));
+        _steps = _steps.append(new PolicyStep(new PolicyStepDetail(policy.getName()), PERMITTED));
       }
     }.visit(result.getAction());
   }
@@ -639,7 +666,7 @@ class FlowTracer {
   @VisibleForTesting
   void applyTransformation(Transformation transformation) {
     TransformationResult transformationResult = eval(transformation);
-    _steps.addAll(transformationResult.getTraceSteps());
+    _steps = _steps.appendAll(transformationResult.getTraceSteps());
     _currentFlow = transformationResult.getOutputFlow();
   }
 
@@ -719,22 +746,14 @@ class FlowTracer {
       _breadcrumbs.push(breadcrumb);
     }
     try {
-      Set<FibEntry> fibEntries = fib.get(dstIp);
+      SortedMap<FibAction, Set<FibEntry>> groupedByFibAction =
+          _tracerouteContext.getFibActions(fib, dstIp);
 
-      if (fibEntries.isEmpty()) {
+      if (groupedByFibAction.isEmpty()) {
         buildNoRouteTrace();
         return;
       }
 
-      // Group traces by action (we do not want extra branching if there is branching
-      // in FIB resolution)
-      SortedMap<FibAction, Set<FibEntry>> groupedByFibAction =
-          // Sort so that resulting traces will be in sensible deterministic order
-          ImmutableSortedMap.copyOf(
-              fibEntries.stream()
-                  .collect(Collectors.groupingBy(FibEntry::getAction, Collectors.toSet())),
-              FibActionComparator.INSTANCE);
-
       // For every action corresponding to ECMP LPM FibEntry
       groupedByFibAction.forEach(
           ((fibAction, fibEntriesForFibAction) -> {
@@ -812,7 +831,7 @@ class FlowTracer {
       matchDetail.setTransformation(flowDiffs(_currentFlow, transformationResult.getOutputFlow()));
     }
 
-    _steps.add(new MatchSessionStep(matchDetail.build()));
+    _steps = _steps.append(new MatchSessionStep(matchDetail.build()));
 
     // apply incoming ACL if any
     if (inputIfaceName != null) {
@@ -831,7 +850,7 @@ class FlowTracer {
     // apply transformation
     Flow originalFlow = _currentFlow;
     if (transformationResult != null) {
-      _steps.addAll(transformationResult.getTraceSteps());
+      _steps = _steps.appendAll(transformationResult.getTraceSteps());
       _currentFlow = transformationResult.getOutputFlow();
     }
 
@@ -857,7 +876,8 @@ class FlowTracer {
                       // TODO: handle ACLs
 
                       // add ExitOutputIfaceStep
-                      flowTracer._steps.add(buildExitOutputIfaceStep(outgoingIfaceName));
+                      flowTracer._steps =
+                          flowTracer._steps.append(buildExitOutputIfaceStep(outgoingIfaceName));
 
                       SortedSet<NodeInterfacePair> neighborIfaces =
                           _tracerouteContext.getInterfaceNeighbors(
@@ -904,7 +924,7 @@ class FlowTracer {
                   }
 
                   // add ExitOutIfaceStep
-                  _steps.add(buildExitOutputIfaceStep(outgoingInterfaceName));
+                  _steps = _steps.append(buildExitOutputIfaceStep(outgoingInterfaceName));
 
                   if (nextHop == null) {
                     /* ARP error. Currently we can't use buildArpFailureTrace for sessions, because forwarding
@@ -923,7 +943,7 @@ class FlowTracer {
                         FlowDisposition.EXITS_NETWORK);
                     return null;
                   }
-                  _hops.add(new Hop(new Node(currentNodeName), _steps));
+                  _hops = _hops.append(new Hop(new Node(currentNodeName), _steps.toList()));
 
                   // Forward to neighbor.
                   forkTracerFollowEdge(
@@ -940,13 +960,13 @@ class FlowTracer {
 
   private void buildNullRoutedTrace() {
     checkState(
-        Iterables.getLast(_steps) instanceof RoutingStep,
+        _steps.getLast() instanceof RoutingStep,
         "RoutingStep should be the last step while creating a null routed trace");
     checkState(
-        Iterables.getLast(_steps).getAction() == NULL_ROUTED,
+        _steps.getLast().getAction() == NULL_ROUTED,
         "The last routing step should should have the action as NULL_ROUTED");
-    _hops.add(new Hop(_currentNode, _steps));
-    Trace trace = new Trace(FlowDisposition.NULL_ROUTED, _hops);
+    _hops = _hops.append(new Hop(_currentNode, _steps.toList()));
+    Trace trace = new Trace(FlowDisposition.NULL_ROUTED, _hops.toList());
     _flowTraces.accept(new TraceAndReverseFlow(trace, null, _newSessions));
   }
 
@@ -956,9 +976,9 @@ class FlowTracer {
     routingStepBuilder
         .setDetail(RoutingStepDetail.builder().build())
         .setAction(StepAction.NO_ROUTE);
-    _steps.add(routingStepBuilder.build());
-    _hops.add(new Hop(_currentNode, _steps));
-    Trace trace = new Trace(FlowDisposition.NO_ROUTE, _hops);
+    _steps = _steps.append(routingStepBuilder.build());
+    _hops = _hops.append(new Hop(_currentNode, _steps.toList()));
+    Trace trace = new Trace(FlowDisposition.NO_ROUTE, _hops.toList());
     _flowTraces.accept(new TraceAndReverseFlow(trace, null, _newSessions));
   }
 
@@ -997,14 +1017,15 @@ class FlowTracer {
           buildFirewallSessionTraceInfo(firewallSessionInterfaceInfo);
       if (session != null) {
         _newSessions.add(session);
-        _steps.add(
-            new SetupSessionStep(
-                SetupSessionStepDetail.builder()
-                    .setSessionScope(session.getSessionScope())
-                    .setMatchCriteria(session.getMatchCriteria())
-                    .setSessionAction(session.getAction())
-                    .setTransformation(returnFlowDiffs(_originalFlow, _currentFlow))
-                    .build()));
+        _steps =
+            _steps.append(
+                new SetupSessionStep(
+                    SetupSessionStepDetail.builder()
+                        .setSessionScope(session.getSessionScope())
+                        .setMatchCriteria(session.getMatchCriteria())
+                        .setSessionAction(session.getAction())
+                        .setTransformation(returnFlowDiffs(_originalFlow, _currentFlow))
+                        .build()));
       }
     }
 
@@ -1012,7 +1033,7 @@ class FlowTracer {
     String outgoingIfaceName = outgoingInterface.getName();
 
     // add ExitOutputIfaceStep
-    _steps.add(buildExitOutputIfaceStep(outgoingIfaceName));
+    _steps = _steps.append(buildExitOutputIfaceStep(outgoingIfaceName));
 
     SortedSet<NodeInterfacePair> neighborIfaces =
         _tracerouteContext.getInterfaceNeighbors(currentNodeName, outgoingIfaceName);
@@ -1134,29 +1155,30 @@ class FlowTracer {
           buildFirewallSessionTraceInfo(action, new OriginatingSessionScope(_vrfName));
       if (session != null) {
         _newSessions.add(session);
-        _steps.add(
-            new SetupSessionStep(
-                SetupSessionStepDetail.builder()
-                    .setSessionScope(session.getSessionScope())
-                    .setMatchCriteria(session.getMatchCriteria())
-                    .setSessionAction(session.getAction())
-                    .setTransformation(returnFlowDiffs(_originalFlow, _currentFlow))
-                    .build()));
+        _steps =
+            _steps.append(
+                new SetupSessionStep(
+                    SetupSessionStepDetail.builder()
+                        .setSessionScope(session.getSessionScope())
+                        .setMatchCriteria(session.getMatchCriteria())
+                        .setSessionAction(session.getAction())
+                        .setTransformation(returnFlowDiffs(_originalFlow, _currentFlow))
+                        .build()));
       }
     }
 
     InboundStep inboundStep =
         InboundStep.builder().setDetail(new InboundStepDetail(acceptingInterface)).build();
-    _steps.add(inboundStep);
-    _hops.add(new Hop(_currentNode, _steps));
-    Trace trace = new Trace(FlowDisposition.ACCEPTED, _hops);
+    _steps = _steps.append(inboundStep);
+    _hops = _hops.append(new Hop(_currentNode, _steps.toList()));
+    Trace trace = new Trace(FlowDisposition.ACCEPTED, _hops.toList());
     Flow returnFlow = returnFlow(_currentFlow, _currentNode.getName(), _vrfName, null);
     _flowTraces.accept(new TraceAndReverseFlow(trace, returnFlow, _newSessions));
   }
 
   private void buildLoopTrace() {
-    _hops.add(new Hop(_currentNode, _steps));
-    Trace trace = new Trace(FlowDisposition.LOOP, _hops);
+    _hops = _hops.append(new Hop(_currentNode, _steps.toList()));
+    Trace trace = new Trace(FlowDisposition.LOOP, _hops.toList());
     _flowTraces.accept(new TraceAndReverseFlow(trace, null, _newSessions));
   }
 
@@ -1173,12 +1195,10 @@ class FlowTracer {
         createFilterStep(
             _currentFlow,
             _ingressInterface,
-            filter,
+            _tracerouteContext.getCompiledFilter(_currentConfig, filter),
             filterType,
-            _currentConfig.getIpAccessLists(),
-            _currentConfig.getIpSpaces(),
             _tracerouteContext.getIgnoreFilters());
-    _steps.add(filterStep);
+    _steps = _steps.append(filterStep);
     if (filterStep.getAction() == DENIED) {
       buildDeniedTrace(filterType.deniedDisposition());
     }
@@ -1187,8 +1207,8 @@ class FlowTracer {
 
   @VisibleForTesting
   void buildDeniedTrace(FlowDisposition disposition) {
-    _hops.add(new Hop(_currentNode, _steps));
-    Trace trace = new Trace(disposition, _hops);
+    _hops = _hops.append(new Hop(_currentNode, _steps.toList()));
+    Trace trace = new Trace(disposition, _hops.toList());
     _flowTraces.accept(new TraceAndReverseFlow(trace, null, _newSessions));
   }
 
@@ -1201,19 +1221,29 @@ class FlowTracer {
       String outInterface, Ip resolvedNhIp, FlowDisposition disposition) {
     String currentNodeName = _currentNode.getName();
 
-    _steps.add(buildArpFailureStep(outInterface, resolvedNhIp, disposition));
+    _steps = _steps.append(buildArpFailureStep(outInterface, resolvedNhIp, disposition));
 
-    _hops.add(new Hop(_currentNode, _steps));
+    _hops = _hops.append(new Hop(_currentNode, _steps.toList()));
 
     Flow returnFlow =
         disposition.isSuccessful()
             ? returnFlow(_currentFlow, currentNodeName, null, outInterface)
             : null;
 
-    Trace trace = new Trace(disposition, _hops);
+    Trace trace = new Trace(disposition, _hops.toList());
     _flowTraces.accept(new TraceAndReverseFlow(trace, returnFlow, _newSessions));
   }
 
+  /**
+   * Groups {@code fibEntries} by action, sorted so that resulting traces will be in sensible
+   * deterministic order. Traces branch per action, not per entry.
+   */
+  static SortedMap<FibAction, Set<FibEntry>> groupByFibAction(Set<FibEntry> fibEntries) {
+    return ImmutableSortedMap.copyOf(
+        fibEntries.stream().collect(Collectors.groupingBy(FibEntry::getAction, Collectors.toSet())),
+        FibActionComparator.INSTANCE);
+  }
+
   @VisibleForTesting
   static RoutingStep buildRoutingStep(FibAction fibAction, Set<FibEntry> fibEntries) {
     RoutingStep.Builder routingStepBuilder = RoutingStep.builder();
@@ -1253,7 +1283,7 @@ class FlowTracer {
       Stack<Breadcrumb> intraHopBreadcrumbs,
       Breadcrumb breadcrumb) {
     FlowTracer flowTracer = this;
-    _steps.add(buildRoutingStep(fibAction, fibEntries));
+    _steps = _steps.append(_tracerouteContext.getRoutingStep(fibAction, fibEntries));
     fibAction.accept(
         new FibActionVisitor<Void>() {
           @Override
@@ -0,0 +1,85 @@
+package org.batfish.dataplane.traceroute;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * An immutable list that supports appending in constant time by sharing structure with the list it
+ * was appended to. Used to represent the hops and steps of a trace in progress, so that forking a
+ * {@link FlowTracer} (e.g. at an ECMP branch) does not copy the path taken so far.
+ */
+@ParametersAreNonnullByDefault
+final class PersistentList<T> {
+
+  private static final PersistentList<?> EMPTY = new PersistentList<>(null, null, 0);
+
+  @SuppressWarnings("unchecked")
+  static @Nonnull <T> PersistentList<T> empty() {
+    return (PersistentList<T>) EMPTY;
+  }
+
+  static @Nonnull <T> PersistentList<T> copyOf(Iterable<? extends T> elements) {
+    PersistentList<T> list = empty();
+    return list.appendAll(elements);
+  }
+
+  private final @Nullable PersistentList<T> _init;
+  private final @Nullable T _last;
+  private final int _size;
+
+  private PersistentList(@Nullable PersistentList<T> init, @Nullable T last, int size) {
+    _init = init;
+    _last = last;
+    _size = size;
+  }
+
+  /** Returns a list with {@code element} after the elements of this list. */
+  @Nonnull
+  PersistentList<T> append(T element) {
+    return new PersistentList<>(this, element, _size + 1);
+  }
+
+  @Nonnull
+  PersistentList<T> appendAll(Iterable<? extends T> elements) {
+    PersistentList<T> list = this;
+    for (T element : elements) {
+      list = list.append(element);
+    }
+    return list;
+  }
+
+  boolean isEmpty() {
+    return _size == 0;
+  }
+
+  /** Returns the most recently appended element. */
+  @Nonnull
+  T getLast() {
+    checkState(_last != null, "List is empty");
+    return _last;
+  }
+
+  int size() {
+    return _size;
+  }
+
+  /** Materializes the elements of this list, in the order they were appended. */
+  @Nonnull
+  ImmutableList<T> toList() {
+    Object[] elements = new Object[_size];
+    PersistentList<T> list = this;
+    for (int i = _size - 1; i >= 0; i--) {
+      assert list != null;
+      elements[i] = list._last;
+      list = list._init;
+    }
+    @SuppressWarnings("unchecked") // contains only elements of type T
+    ImmutableList<T> result = (ImmutableList<T>) ImmutableList.copyOf(Arrays.asList(elements));
+    return result;
+  }
+}
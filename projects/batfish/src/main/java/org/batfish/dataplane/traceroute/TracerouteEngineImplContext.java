@@ -5,8 +5,12 @@ import static org.batfish.dataplane.traceroute.TracerouteUtils.buildSessionsByIn
 import static org.batfish.dataplane.traceroute.TracerouteUtils.buildSessionsByOriginatingVrf;
 import static org.batfish.dataplane.traceroute.TracerouteUtils.validateInputs;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Multimap;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -24,14 +28,19 @@ import org.batfish.common.BatfishException;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Fib;
+import org.batfish.datamodel.FibAction;
+import org.batfish.datamodel.FibEntry;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.FlowDisposition;
 import org.batfish.datamodel.ForwardingAnalysis;
 import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
 import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.acl.CompiledIpAccessList;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.flow.FirewallSessionTraceInfo;
 import org.batfish.datamodel.flow.Hop;
+import org.batfish.datamodel.flow.RoutingStep;
 import org.batfish.datamodel.flow.Trace;
 import org.batfish.datamodel.flow.TraceAndReverseFlow;
 
@@ -44,11 +53,27 @@ import org.batfish.datamodel.flow.TraceAndReverseFlow;
  * the context is shared among each of the concurrent {@link FlowTracer FlowTracers}.
  */
 public class TracerouteEngineImplContext {
+  /** Bound on the number of destination IPs whose accepting interface is cached, per VRF. */
+  private static final long MAX_ACCEPTED_IPS_PER_VRF = 10_000L;
+
   private final Map<String, Configuration> _configurations;
   private final DataPlane _dataPlane;
   private final Multimap<NodeInterfacePair, FirewallSessionTraceInfo> _sessionsByIngressInterface;
   private final Map<String, Multimap<String, FirewallSessionTraceInfo>> _sessionsByOriginatingVrf;
   private final Map<String, Map<String, Fib>> _fibs;
+
+  /*
+   * Destination IPs with the same longest-prefix match in a FIB get the same (identical) set of
+   * FIB entries, and are routed identically. These caches, keyed by entry-set identity, let all
+   * flows in such an equivalence class share the FIB resolution and routing step computed for the
+   * first one.
+   */
+  private final Map<Set<FibEntry>, SortedMap<FibAction, Set<FibEntry>>> _fibActions;
+  private final Map<Set<FibEntry>, RoutingStep> _routingSteps;
+
+  // node -> vrf -> dst IP -> interface accepting it, if any
+  private final Map<String, Map<String, LoadingCache<Ip, Optional<String>>>>
+      _interfacesAcceptingIps;
   private final Set<Flow> _flows;
   private final ForwardingAnalysis _forwardingAnalysis;
   private final boolean _ignoreFilters;
@@ -65,6 +90,9 @@ public class TracerouteEngineImplContext {
     _dataPlane = dataPlane;
     _flows = flows;
     _fibs = fibs;
+    _fibActions = new MapMaker().weakKeys().makeMap();
+    _routingSteps = new MapMaker().weakKeys().makeMap();
+    _interfacesAcceptingIps = new ConcurrentHashMap<>();
     _ignoreFilters = ignoreFilters;
     _forwardingAnalysis = _dataPlane.getForwardingAnalysis();
     _sessionsByIngressInterface = buildSessionsByIngressInterface(sessions);
@@ -147,10 +175,39 @@ public class TracerouteEngineImplContext {
     }
   }
 
+  /**
+   * Returns {@code filter}, which is used on the node with configuration {@code c}, compiled for
+   * fast evaluation. Compiled ACLs are shared by all flows and all traceroutes on the snapshot; see
+   * {@link CompiledIpAccessList#forConfiguration(Configuration, IpAccessList)}.
+   */
+  @Nonnull
+  CompiledIpAccessList getCompiledFilter(Configuration c, IpAccessList filter) {
+    return CompiledIpAccessList.forConfiguration(c, filter);
+  }
+
   public Map<String, Configuration> getConfigurations() {
     return _configurations;
   }
 
+  /**
+   * Returns the longest-prefix-match entries of {@code fib} for {@code dstIp}, grouped by action.
+   * The result is empty if there is no matching entry.
+   */
+  @Nonnull
+  SortedMap<FibAction, Set<FibEntry>> getFibActions(Fib fib, Ip dstIp) {
+    return _fibActions.computeIfAbsent(fib.get(dstIp), FlowTracer::groupByFibAction);
+  }
+
+  /**
+   * Returns the {@link RoutingStep} for forwarding by {@code fibAction} via {@code fibEntries},
+   * which must be one of the groups returned by {@link #getFibActions(Fib, Ip)}.
+   */
+  @Nonnull
+  RoutingStep getRoutingStep(FibAction fibAction, Set<FibEntry> fibEntries) {
+    return _routingSteps.computeIfAbsent(
+        fibEntries, entries -> FlowTracer.buildRoutingStep(fibAction, entries));
+  }
+
   /** Return a FIB for a given node and VRF */
   Optional<Fib> getFib(String node, String vrf) {
     return Optional.ofNullable(getFibs(node).get(vrf));
@@ -183,6 +240,19 @@ public class TracerouteEngineImplContext {
    */
   @Nonnull
   Optional<String> interfaceAcceptingIp(String node, String vrf, Ip ip) {
+    return _interfacesAcceptingIps
+        .computeIfAbsent(node, n -> new ConcurrentHashMap<>())
+        .computeIfAbsent(
+            vrf,
+            v ->
+                CacheBuilder.newBuilder()
+                    .maximumSize(MAX_ACCEPTED_IPS_PER_VRF)
+                    .build(CacheLoader.from(i -> computeInterfaceAcceptingIp(node, vrf, i))))
+        .getUnchecked(ip);
+  }
+
+  @Nonnull
+  private Optional<String> computeInterfaceAcceptingIp(String node, String vrf, Ip ip) {
     return _forwardingAnalysis.getAcceptsIps().getOrDefault(node, ImmutableMap.of())
         .getOrDefault(vrf, ImmutableMap.of()).entrySet().stream()
         .filter(e -> e.getValue().containsIp(ip, ImmutableMap.of()))
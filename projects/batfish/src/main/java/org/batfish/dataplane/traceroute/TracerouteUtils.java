@@ -34,12 +34,11 @@ import org.batfish.datamodel.FlowDiff;
 import org.batfish.datamodel.FlowDisposition;
 import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.Ip;
-import org.batfish.datamodel.IpAccessList;
-import org.batfish.datamodel.IpSpace;
 import org.batfish.datamodel.LineAction;
 import org.batfish.datamodel.RoutingProtocol;
 import org.batfish.datamodel.StaticRoute;
 import org.batfish.datamodel.TcpFlags;
+import org.batfish.datamodel.acl.CompiledIpAccessList;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.flow.EnterInputIfaceStep;
 import org.batfish.datamodel.flow.EnterInputIfaceStep.EnterInputIfaceStepDetail;
@@ -137,20 +136,16 @@ public final class TracerouteUtils {
         .build();
   }
 
-  @VisibleForTesting
   static FilterStep createFilterStep(
       Flow currentFlow,
       @Nullable String inInterfaceName,
-      IpAccessList filter,
+      CompiledIpAccessList filter,
       FilterType filterType,
-      Map<String, IpAccessList> aclDefinitions,
-      Map<String, IpSpace> namedIpSpaces,
       boolean ignoreFilters) {
     StepAction action = StepAction.PERMITTED;
     // check filter
     if (!ignoreFilters) {
-      FilterResult filterResult =
-          filter.filter(currentFlow, inInterfaceName, aclDefinitions, namedIpSpaces);
+      FilterResult filterResult = filter.filter(currentFlow, inInterfaceName);
       if (filterResult.getAction() == LineAction.DENY) {
         action = StepAction.DENIED;
       }
@@ -6,7 +6,9 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.Multimap;
 import java.io.File;
 import java.util.Map;
+import java.util.Set;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BatfishLogger.BatfishLoggerHistory;
@@ -129,7 +131,57 @@ public class ParseVendorConfigurationResult
       if (!_parseTree.isEmpty()) {
         answerElement.getParseTrees().put(_filename, _parseTree);
       }
-    } else if (_status == ParseStatus.FAILED) {
+    } else {
+      applyFailureTo(answerElement);
+    }
+  }
+
+  /**
+   * Applies this result to {@code answerElement} without retaining its vendor configuration, for
+   * callers that store each configuration as soon as it is parsed.
+   *
+   * <p>{@code storedFilenames} maps each hostname applied so far to the file it was parsed from. If
+   * this configuration's hostname is already taken, the configuration is renamed as in {@link
+   * #applyTo(Map, BatfishLogger, ParseVendorConfigurationAnswerElement)} and the hostname is added
+   * to {@code duplicateHostnames}. The configuration that took the hostname first may already be
+   * stored, so renaming it is left to the caller.
+   *
+   * @return the name to store this result's vendor configuration under, or {@code null} if there is
+   *     no vendor configuration
+   */
+  @Nullable
+  public String applyTo(
+      Map<String, String> storedFilenames,
+      Set<String> duplicateHostnames,
+      BatfishLogger logger,
+      ParseVendorConfigurationAnswerElement answerElement) {
+    appendHistory(logger);
+    answerElement.getParseStatus().put(_filename, _status);
+    if (_vc == null) {
+      applyFailureTo(answerElement);
+      return null;
+    }
+    String hostname = _vc.getHostname();
+    if (storedFilenames.putIfAbsent(hostname, _filename) != null) {
+      duplicateHostnames.add(hostname);
+      String modifiedNewName = getModifiedNameBase(hostname, _filename);
+      _warnings.redFlag(
+          String.format("Duplicate hostname %s. Changed to %s", hostname, modifiedNewName));
+      _vc.setHostname(modifiedNewName);
+      hostname = modifiedNewName;
+    }
+    answerElement.getFileMap().put(hostname, _filename);
+    if (!_warnings.isEmpty()) {
+      answerElement.getWarnings().put(_filename, _warnings);
+    }
+    if (!_parseTree.isEmpty()) {
+      answerElement.getParseTrees().put(_filename, _parseTree);
+    }
+    return hostname;
+  }
+
+  private void applyFailureTo(ParseVendorConfigurationAnswerElement answerElement) {
+    if (_status == ParseStatus.FAILED) {
       assert _failureCause != null; // status == FAILED, failureCause must be non-null
       answerElement
           .getErrors()
@@ -8,6 +8,7 @@ import static java.util.regex.Pattern.CASE_INSENSITIVE;
 import static java.util.stream.Collectors.toMap;
 import static org.batfish.bddreachability.BDDMultipathInconsistency.computeMultipathInconsistencies;
 import static org.batfish.common.runtime.SnapshotRuntimeData.EMPTY_SNAPSHOT_RUNTIME_DATA;
+import static org.batfish.common.util.CollectionUtil.toImmutableMap;
 import static org.batfish.common.util.CommonUtil.detectCharset;
 import static org.batfish.common.util.CompletionMetadataUtils.getFilterNames;
 import static org.batfish.common.util.CompletionMetadataUtils.getInterfaces;
@@ -28,6 +29,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
 import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.collect.HashMultimap;
@@ -38,8 +40,12 @@ import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.opentracing.References;
 import io.opentracing.Scope;
 import io.opentracing.Span;
@@ -58,21 +64,33 @@ import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -89,6 +107,7 @@ import org.batfish.bddreachability.BDDReachabilityAnalysis;
 import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
 import org.batfish.bddreachability.BidirectionalReachabilityAnalysis;
 import org.batfish.bddreachability.IpsRoutedOutInterfacesFactory;
+import org.batfish.bddreachability.StoredBdds;
 import org.batfish.common.Answerer;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishException.BatfishStackTrace;
@@ -136,6 +155,7 @@ import org.batfish.datamodel.Interface.Dependency;
 import org.batfish.datamodel.Interface.DependencyType;
 import org.batfish.datamodel.InterfaceType;
 import org.batfish.datamodel.NetworkConfigurations;
+import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.SubRange;
 import org.batfish.datamodel.SwitchportMode;
 import org.batfish.datamodel.Topology;
@@ -196,6 +216,7 @@ import org.batfish.job.ParseEnvironmentBgpTableJob;
 import org.batfish.job.ParseResult;
 import org.batfish.job.ParseVendorConfigurationJob;
 import org.batfish.job.ParseVendorConfigurationResult;
+import org.batfish.main.SnapshotCaches.BddReachabilityKey;
 import org.batfish.question.ReachabilityParameters;
 import org.batfish.question.ResolvedReachabilityParameters;
 import org.batfish.question.SrcNattedConstraint;
@@ -245,6 +266,22 @@ public class Batfish extends PluginConsumer implements IBatfish {
   private static final Pattern MANAGEMENT_VRFS =
       Pattern.compile("(\\Amgmt)|(\\Amanagement)", CASE_INSENSITIVE);
 
+  /**
+   * Identifies the variables of a fresh {@link BDDPacket} and the version of the code that
+   * allocates the rest, which together determine what stored data plane BDDs mean.
+   */
+  @VisibleForTesting
+  static final Supplier<String> DATA_PLANE_BDDS_FINGERPRINT =
+      Suppliers.memoize(
+          () -> {
+            Hasher hasher =
+                Hashing.murmur3_128()
+                    .newHasher()
+                    .putString(BatfishVersion.getVersionStatic(), UTF_8);
+            new BDDPacket().getBitNames().forEach(name -> hasher.putString(name, UTF_8));
+            return hasher.hash().toString();
+          });
+
   static void checkTopology(Map<String, Configuration> configurations, Topology topology) {
     for (Edge edge : topology.getEdges()) {
       if (!configurations.containsKey(edge.getNode1())) {
@@ -353,30 +390,31 @@ public class Batfish extends PluginConsumer implements IBatfish {
    */
   private @Nonnull SortedMap<String, String> readAllInputObjects(
       Stream<String> keys, NetworkSnapshot snapshot) {
-    return keys.map(
-            key -> {
-              _logger.debugf("Reading: \"%s\"\n", key);
-              long copiedBytes;
-              ByteArrayOutputStream baos;
-              try (InputStream inputStream =
-                  _storage.loadSnapshotInputObject(
-                      snapshot.getNetwork(), snapshot.getSnapshot(), key)) {
-                baos = new ByteArrayOutputStream();
-                copiedBytes = ByteStreams.copy(inputStream, baos);
-              } catch (IOException e) {
-                throw new UncheckedIOException(e);
-              }
-              if (copiedBytes > 0) {
-                // Adding a trailing newline helps EOF in some parsers.
-                baos.write('\n');
-              }
-              return new SimpleEntry<>(key, new String(baos.toByteArray(), UTF_8));
-            })
+    return keys.map(key -> new SimpleEntry<>(key, readInputObject(key, snapshot)))
         .collect(
             ImmutableSortedMap.toImmutableSortedMap(
                 Ordering.natural(), SimpleEntry::getKey, SimpleEntry::getValue));
   }
 
+  /** Reads the snapshot input object corresponding to the provided key. */
+  private @Nonnull String readInputObject(String key, NetworkSnapshot snapshot) {
+    _logger.debugf("Reading: \"%s\"\n", key);
+    long copiedBytes;
+    ByteArrayOutputStream baos;
+    try (InputStream inputStream =
+        _storage.loadSnapshotInputObject(snapshot.getNetwork(), snapshot.getSnapshot(), key)) {
+      baos = new ByteArrayOutputStream();
+      copiedBytes = ByteStreams.copy(inputStream, baos);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (copiedBytes > 0) {
+      // Adding a trailing newline helps EOF in some parsers.
+      baos.write('\n');
+    }
+    return new String(baos.toByteArray(), UTF_8);
+  }
+
   public static void logWarnings(BatfishLogger logger, Warnings warnings) {
     for (Warning warning : warnings.getRedFlagWarnings()) {
       logger.redflag(logWarningsHelper(warning));
@@ -426,6 +464,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   private SortedMap<BgpTableFormat, BgpTablePlugin> _bgpTablePlugins;
 
+  private final Cache<BddReachabilityKey, BDDReachabilityAnalysisFactory> _cachedBddReachability;
+
   private final Cache<NetworkSnapshot, SortedMap<String, Configuration>> _cachedConfigurations;
 
   private final Cache<NetworkSnapshot, DataPlane> _cachedDataPlanes;
@@ -462,6 +502,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
       Cache<NetworkSnapshot, DataPlane> cachedDataPlanes,
       Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>> cachedEnvironmentBgpTables,
       Cache<NetworkSnapshot, Map<String, VendorConfiguration>> cachedVendorConfigurations,
+      Cache<BddReachabilityKey, BDDReachabilityAnalysisFactory> cachedBddReachability,
       @Nullable StorageProvider alternateStorageProvider,
       @Nullable IdResolver alternateIdResolver) {
     _settings = settings;
@@ -470,6 +511,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
     _cachedDataPlanes = cachedDataPlanes;
     _cachedEnvironmentBgpTables = cachedEnvironmentBgpTables;
     _cachedVendorConfigurations = cachedVendorConfigurations;
+    _cachedBddReachability = cachedBddReachability;
     _externalBgpAdvertisementPlugins = new TreeSet<>();
     initLocalSettings(settings);
     _logger = _settings.getLogger();
@@ -479,7 +521,11 @@ public class Batfish extends PluginConsumer implements IBatfish {
     _storage =
         alternateStorageProvider != null
             ? alternateStorageProvider
-            : new FileBasedStorage(_settings.getStorageBase(), _logger, this::newBatch);
+            : new FileBasedStorage(
+                _settings.getStorageBase(),
+                _logger,
+                this::newBatch,
+                _settings.getSerializationFormat());
     _idResolver =
         alternateIdResolver != null ? alternateIdResolver : new StorageBasedIdResolver(_storage);
     _topologyProvider = new TopologyProviderImpl(this, _storage);
@@ -739,15 +785,150 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   @Override
   public DataPlaneAnswerElement computeDataPlane(NetworkSnapshot snapshot) {
+    if (_settings.getReuseParentDataPlane()) {
+      Optional<NetworkSnapshot> parent = getParentSnapshotWithDataPlane(snapshot);
+      if (parent.isPresent() && hasSameDataPlaneInputs(parent.get(), snapshot)) {
+        _logger.infof(
+            "Reusing data plane of parent snapshot %s for snapshot %s\n",
+            parent.get().getSnapshot(), snapshot.getSnapshot());
+        return copyDataPlane(parent.get(), snapshot);
+      }
+    }
     ComputeDataPlaneResult result = getDataPlanePlugin().computeDataPlane(snapshot);
     saveDataPlane(snapshot, result);
     return result._answerElement;
   }
 
+  /**
+   * Return the snapshot {@code snapshot} was forked from, if any, provided a data plane has already
+   * been computed for it.
+   */
+  private @Nonnull Optional<NetworkSnapshot> getParentSnapshotWithDataPlane(
+      NetworkSnapshot snapshot) {
+    try {
+      SnapshotId parentId =
+          BatfishObjectMapper.mapper()
+              .readValue(
+                  _storage.loadSnapshotMetadata(snapshot.getNetwork(), snapshot.getSnapshot()),
+                  SnapshotMetadata.class)
+              .getParentSnapshotId();
+      if (parentId == null) {
+        return Optional.empty();
+      }
+      NetworkSnapshot parent = new NetworkSnapshot(snapshot.getNetwork(), parentId);
+      return _storage.hasDataPlane(parent) && _storage.hasDataPlaneAnswerElement(parent)
+          ? Optional.of(parent)
+          : Optional.empty();
+    } catch (IOException e) {
+      // No (readable) metadata, so treat the snapshot as not forked.
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Return {@code true} iff the inputs to the data plane computation of {@code parent} and {@code
+   * snapshot} are identical: the same vendor-independent configurations, node blacklist and runtime
+   * data (including the interface blacklist), layer-1 and initial layer-3 topologies, and external
+   * BGP announcements. Devices whose configurations differ are logged.
+   *
+   * <p>Configurations are compared by hashes of their stored serialized form, so neither snapshot's
+   * configurations are deserialized unless all of them match. This is conservative: equal
+   * configurations may serialize differently (e.g., due to hash-based collection ordering), which
+   * only costs a recomputation.
+   */
+  private boolean hasSameDataPlaneInputs(NetworkSnapshot parent, NetworkSnapshot snapshot) {
+    SortedMap<String, HashCode> parentHashes =
+        _storage.loadConfigurationHashes(parent.getNetwork(), parent.getSnapshot());
+    SortedMap<String, HashCode> hashes =
+        _storage.loadConfigurationHashes(snapshot.getNetwork(), snapshot.getSnapshot());
+    if (parentHashes == null || hashes == null) {
+      return false;
+    }
+    Set<String> changedDevices =
+        Sets.union(parentHashes.keySet(), hashes.keySet()).stream()
+            .filter(hostname -> !Objects.equals(parentHashes.get(hostname), hashes.get(hostname)))
+            .collect(ImmutableSortedSet.toImmutableSortedSet(Comparator.naturalOrder()));
+    if (!changedDevices.isEmpty()) {
+      _logger.infof(
+          "Computing data plane of snapshot %s: %s devices changed from parent snapshot %s: %s\n",
+          snapshot.getSnapshot(), changedDevices.size(), parent.getSnapshot(), changedDevices);
+      return false;
+    }
+    // The blacklists are applied to the configurations when they are loaded, not when stored
+    if (!Objects.equals(
+            _storage.loadNodeBlacklist(parent.getNetwork(), parent.getSnapshot()),
+            _storage.loadNodeBlacklist(snapshot.getNetwork(), snapshot.getSnapshot()))
+        || !Objects.equals(
+            _storage.loadRuntimeData(parent.getNetwork(), parent.getSnapshot()),
+            _storage.loadRuntimeData(snapshot.getNetwork(), snapshot.getSnapshot()))) {
+      _logger.infof(
+          "Computing data plane of snapshot %s: node blacklist or runtime data changed from parent"
+              + " snapshot %s\n",
+          snapshot.getSnapshot(), parent.getSnapshot());
+      return false;
+    }
+    TopologyProvider topologyProvider = getTopologyProvider();
+    if (!topologyProvider
+            .getRawLayer1PhysicalTopology(parent)
+            .equals(topologyProvider.getRawLayer1PhysicalTopology(snapshot))
+        || !topologyProvider
+            .getInitialLayer3Topology(parent)
+            .equals(topologyProvider.getInitialLayer3Topology(snapshot))) {
+      _logger.infof(
+          "Computing data plane of snapshot %s: topology changed from parent snapshot %s\n",
+          snapshot.getSnapshot(), parent.getSnapshot());
+      return false;
+    }
+    if (!loadExternalBgpAnnouncements(parent, loadConfigurations(parent))
+        .equals(loadExternalBgpAnnouncements(snapshot, loadConfigurations(snapshot)))) {
+      _logger.infof(
+          "Computing data plane of snapshot %s: external BGP announcements changed from parent"
+              + " snapshot %s\n",
+          snapshot.getSnapshot(), parent.getSnapshot());
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Store the data plane, data plane topologies, and data plane answer element of {@code source}
+   * for {@code target}, and return the answer element.
+   */
+  private @Nonnull DataPlaneAnswerElement copyDataPlane(
+      NetworkSnapshot source, NetworkSnapshot target) {
+    DataPlane dataPlane = loadDataPlane(source);
+    _cachedDataPlanes.put(target, dataPlane);
+    invalidateBddReachability(target);
+    try {
+      DataPlaneAnswerElement answerElement = _storage.loadDataPlaneAnswerElement(source);
+      _storage.storeDataPlane(dataPlane, target);
+      _storage.storeDataPlaneAnswerElement(answerElement, target);
+      _storage.storeBgpTopology(_storage.loadBgpTopology(source), target);
+      _storage.storeEigrpTopology(_storage.loadEigrpTopology(source), target);
+      _storage.storeLayer2Topology(_storage.loadLayer2Topology(source), target);
+      _storage.storeLayer3Topology(_storage.loadLayer3Topology(source), target);
+      _storage.storeOspfTopology(_storage.loadOspfTopology(source), target);
+      _storage.storeVxlanTopology(_storage.loadVxlanTopology(source), target);
+      return answerElement;
+    } catch (IOException e) {
+      throw new BatfishException("Failed to copy data plane of parent snapshot", e);
+    }
+  }
+
+  /**
+   * Drops the cached reachability graphs of {@code snapshot}, which were built from an earlier data
+   * plane, so that they neither answer questions nor store their BDDs for the new one.
+   */
+  private void invalidateBddReachability(NetworkSnapshot snapshot) {
+    _cachedBddReachability.invalidate(new BddReachabilityKey(snapshot, false));
+    _cachedBddReachability.invalidate(new BddReachabilityKey(snapshot, true));
+  }
+
   /* Write the dataplane to disk and cache, and write the answer element to disk.
    */
   private void saveDataPlane(NetworkSnapshot snapshot, ComputeDataPlaneResult result) {
     _cachedDataPlanes.put(snapshot, result._dataPlane);
+    invalidateBddReachability(snapshot);
 
     _logger.resetTimer();
     newBatch("Writing data plane to disk", 0);
@@ -755,6 +936,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
     try (Scope scope = GlobalTracer.get().scopeManager().activate(writeDataplane)) {
       assert scope != null; // avoid unused warning
       _storage.storeDataPlane(result._dataPlane, snapshot);
+      _storage.storeDataPlaneAnswerElement(result._answerElement, snapshot);
       TopologyContainer topologies = result._topologies;
       _storage.storeBgpTopology(topologies.getBgpTopology(), snapshot);
       _storage.storeEigrpTopology(topologies.getEigrpTopology(), snapshot);
@@ -1142,15 +1324,28 @@ public class Batfish extends PluginConsumer implements IBatfish {
       _logger.debugf("Loading configurations for %s, cache miss", snapshot);
 
       // Next, see if we have an up-to-date configurations on disk.
-      configurations = _storage.loadConfigurations(snapshot.getNetwork(), snapshot.getSnapshot());
-      if (configurations != null) {
-        _logger.debugf("Loaded configurations for %s off disk", snapshot);
+      NetworkId networkId = snapshot.getNetwork();
+      SnapshotId snapshotId = snapshot.getSnapshot();
+      SortedSet<String> hostnames = _storage.loadConfigurationHostnames(networkId, snapshotId);
+      if (hostnames != null) {
+        _logger.debugf("Found configurations for %s on disk", snapshot);
       } else {
         // Otherwise, we have to parse the configurations. Fall back to old, hacky code.
-        configurations = actuallyParseConfigurations(snapshot);
+        hostnames = actuallyParseConfigurations(snapshot);
       }
-      // Apply things like blacklist and aggregations before installing in the cache.
-      postProcessSnapshot(snapshot, configurations);
+      // Nodes are only read from disk when first accessed. Apply things like blacklist and
+      // aggregations to each one as it is read.
+      Consumer<Map<String, Configuration>> postProcessor = newPostProcessor(snapshot);
+      AtomicBoolean repaired = new AtomicBoolean();
+      configurations =
+          new LazyConfigurationMap(
+              hostnames,
+              hostname -> {
+                Configuration c = loadConfigurationOrRepair(snapshot, hostname, repaired);
+                postProcessor.accept(ImmutableMap.of(hostname, c));
+                return c;
+              },
+              _storage.getSerializedConfigurationsSize(networkId, snapshotId));
 
       _cachedConfigurations.put(snapshot, configurations);
       return configurations;
@@ -1159,17 +1354,46 @@ public class Batfish extends PluginConsumer implements IBatfish {
     }
   }
 
+  /**
+   * Reads the configuration of {@code hostname} in {@code snapshot} from disk. If it cannot be
+   * read, e.g. because its file is corrupt, repairs the configurations of the snapshot and reads it
+   * again. Callers sharing {@code repaired} repair at most once between them.
+   */
   @Nonnull
-  private SortedMap<String, Configuration> actuallyParseConfigurations(NetworkSnapshot snapshot) {
+  private Configuration loadConfigurationOrRepair(
+      NetworkSnapshot snapshot, String hostname, AtomicBoolean repaired) {
+    NetworkId networkId = snapshot.getNetwork();
+    SnapshotId snapshotId = snapshot.getSnapshot();
+    try {
+      return _storage.loadConfiguration(networkId, snapshotId, hostname);
+    } catch (BatfishException e) {
+      synchronized (repaired) {
+        if (!repaired.get()) {
+          _logger.warnf(
+              "Could not load configuration of %s, repairing configurations for testrig %s: %s\n",
+              hostname, snapshotId, Throwables.getStackTraceAsString(e));
+          // Repair loads the configurations again, so it must not find the map being loaded
+          _cachedConfigurations.invalidate(snapshot);
+          repairConfigurations(snapshot);
+          repaired.set(true);
+        }
+      }
+      return _storage.loadConfiguration(networkId, snapshotId, hostname);
+    }
+  }
+
+  /** Re-parses the configurations of the given snapshot and returns the hostnames of its nodes. */
+  @Nonnull
+  private SortedSet<String> actuallyParseConfigurations(NetworkSnapshot snapshot) {
     _logger.infof("Repairing configurations for testrig %s", snapshot.getSnapshot());
     repairConfigurations(snapshot);
-    SortedMap<String, Configuration> configurations =
-        _storage.loadConfigurations(snapshot.getNetwork(), snapshot.getSnapshot());
+    SortedSet<String> hostnames =
+        _storage.loadConfigurationHostnames(snapshot.getNetwork(), snapshot.getSnapshot());
     verify(
-        configurations != null,
+        hostnames != null,
         "Configurations should not be null when loaded immediately after repair.");
-    assert configurations != null;
-    return configurations;
+    assert hostnames != null;
+    return hostnames;
   }
 
   @Override
@@ -1304,7 +1528,10 @@ public class Batfish extends PluginConsumer implements IBatfish {
         _logger.debugf("Loading vendor configurations for %s, cache miss", snapshot);
         loadParseVendorConfigurationAnswerElement(snapshot);
         try {
-          vendorConfigurations = _storage.loadVendorConfigurations(snapshot);
+          vendorConfigurations =
+              new StoredVendorConfigurations(
+                  _storage.loadVendorConfigurations(snapshot),
+                  _storage.getSerializedVendorConfigurationsSize(snapshot));
         } catch (IOException e) {
           throw new UncheckedIOException(e);
         }
@@ -1544,27 +1771,32 @@ public class Batfish extends PluginConsumer implements IBatfish {
       ConfigurationFormat expectedFormat) {
     List<ParseVendorConfigurationJob> jobs = new ArrayList<>(keyedFileText.size());
     for (Entry<String, String> vendorFile : keyedFileText.entrySet()) {
-      @Nullable
-      SpanContext parseVendorConfigurationSpanContext =
-          GlobalTracer.get().activeSpan() == null
-              ? null
-              : GlobalTracer.get().activeSpan().context();
-
-      ParseVendorConfigurationJob job =
-          new ParseVendorConfigurationJob(
-              _settings,
-              snapshot,
-              vendorFile.getValue(),
-              vendorFile.getKey(),
-              buildWarnings(_settings),
-              expectedFormat,
-              HashMultimap.create(),
-              parseVendorConfigurationSpanContext);
-      jobs.add(job);
+      jobs.add(
+          makeParseVendorConfigurationJob(
+              snapshot, vendorFile.getKey(), vendorFile.getValue(), expectedFormat));
     }
     return jobs;
   }
 
+  private ParseVendorConfigurationJob makeParseVendorConfigurationJob(
+      NetworkSnapshot snapshot,
+      String filename,
+      String fileText,
+      ConfigurationFormat expectedFormat) {
+    @Nullable
+    SpanContext parseVendorConfigurationSpanContext =
+        GlobalTracer.get().activeSpan() == null ? null : GlobalTracer.get().activeSpan().context();
+    return new ParseVendorConfigurationJob(
+        _settings,
+        snapshot,
+        fileText,
+        filename,
+        buildWarnings(_settings),
+        expectedFormat,
+        HashMultimap.create(),
+        parseVendorConfigurationSpanContext);
+  }
+
   /**
    * Parses the given configuration files and returns a map keyed by hostname representing the
    * {@link VendorConfiguration vendor-specific configurations}.
@@ -1955,17 +2187,14 @@ public class Batfish extends PluginConsumer implements IBatfish {
    * </ul>
    */
   private void updateBlacklistedAndInactiveConfigs(
-      NetworkSnapshot snapshot, Map<String, Configuration> configurations) {
+      @Nullable SortedSet<String> blacklistedNodes,
+      @Nullable SnapshotRuntimeData runtimeData,
+      Map<String, Configuration> configurations) {
     NetworkConfigurations nc = NetworkConfigurations.of(configurations);
-    NetworkId networkId = snapshot.getNetwork();
-    SnapshotId snapshotId = snapshot.getSnapshot();
-
-    SortedSet<String> blacklistedNodes = _storage.loadNodeBlacklist(networkId, snapshotId);
     if (blacklistedNodes != null) {
       processInterfaceBlacklist(nodeToInterfaceBlacklist(blacklistedNodes, nc), nc);
     }
     // If interface blacklist was provided, it was converted to runtime data file by WorkMgr
-    SnapshotRuntimeData runtimeData = _storage.loadRuntimeData(networkId, snapshotId);
     if (runtimeData != null) {
       processInterfaceBlacklist(runtimeData.getBlacklistedInterfaces(), nc);
     }
@@ -1996,13 +2225,29 @@ public class Batfish extends PluginConsumer implements IBatfish {
    */
   private void postProcessSnapshot(
       NetworkSnapshot snapshot, Map<String, Configuration> configurations) {
-    updateBlacklistedAndInactiveConfigs(snapshot, configurations);
-    postProcessAggregatedInterfaces(configurations);
-    postProcessRedundantInterfaces(configurations);
-    NetworkConfigurations nc = NetworkConfigurations.of(configurations);
-    OspfTopologyUtils.initNeighborConfigs(nc);
-    postProcessOspfCosts(configurations);
-    EigrpTopologyUtils.initNeighborConfigs(nc);
+    newPostProcessor(snapshot).accept(configurations);
+  }
+
+  /**
+   * Returns a function that performs the post-processing of {@link #postProcessSnapshot} on some
+   * configurations of the given snapshot, reading the snapshot's blacklists only once. Each step
+   * only looks at one configuration at a time, so the function may be applied to the snapshot's
+   * configurations one by one, concurrently.
+   */
+  private @Nonnull Consumer<Map<String, Configuration>> newPostProcessor(NetworkSnapshot snapshot) {
+    NetworkId networkId = snapshot.getNetwork();
+    SnapshotId snapshotId = snapshot.getSnapshot();
+    SortedSet<String> blacklistedNodes = _storage.loadNodeBlacklist(networkId, snapshotId);
+    SnapshotRuntimeData runtimeData = _storage.loadRuntimeData(networkId, snapshotId);
+    return configurations -> {
+      updateBlacklistedAndInactiveConfigs(blacklistedNodes, runtimeData, configurations);
+      postProcessAggregatedInterfaces(configurations);
+      postProcessRedundantInterfaces(configurations);
+      NetworkConfigurations nc = NetworkConfigurations.of(configurations);
+      OspfTopologyUtils.initNeighborConfigs(nc);
+      postProcessOspfCosts(configurations);
+      EigrpTopologyUtils.initNeighborConfigs(nc);
+    };
   }
 
   private void computeAndStoreCompletionMetadata(
@@ -2520,6 +2765,10 @@ public class Batfish extends PluginConsumer implements IBatfish {
    * {@link VendorConfiguration vendor-specific configurations} serialized to the given output path.
    * Returns {@code true} iff at least one network configuration was found.
    *
+   * <p>Each file is read, parsed, and serialized by a single worker, which keeps neither its text
+   * nor its parse result afterwards. Peak memory is therefore bounded by the number of workers
+   * rather than the number of files.
+   *
    * <p>This function should be named better, but it's called by the {@link
    * #serializeVendorConfigs(NetworkSnapshot)}, so leaving as-is for now.
    */
@@ -2531,98 +2780,117 @@ public class Batfish extends PluginConsumer implements IBatfish {
       // Not able to cache with overlays.
       return oldSerializeNetworkConfigs(snapshot, answerElement, overlayHostConfigurations);
     }
-    boolean found = false;
-    _logger.info("\n*** READING DEVICE CONFIGURATION FILES ***\n");
+    _logger.info("\n*** PARSING AND SERIALIZING DEVICE CONFIGURATION FILES ***\n");
+    _logger.resetTimer();
 
-    List<ParseVendorConfigurationResult> parseResults;
+    List<String> keys;
+    try (Stream<String> keyStream = _storage.listInputNetworkConfigurationsKeys(snapshot)) {
+      keys = keyStream.collect(ImmutableList.toImmutableList());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    // hostname -> filename of the first configuration with that hostname
+    Map<String, String> storedFilenames = new HashMap<>();
+    Set<String> duplicateHostnames = new TreeSet<>();
+    Queue<Throwable> failureCauses = new ConcurrentLinkedQueue<>();
     Span parseNetworkConfigsSpan = GlobalTracer.get().buildSpan("Parse network configs").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(parseNetworkConfigsSpan)) {
       assert scope != null; // avoid unused warning
-
-      List<ParseVendorConfigurationJob> jobs;
-      Span makeJobsSpan = GlobalTracer.get().buildSpan("Read files and make jobs").start();
-      try (Scope makeJobsScope = GlobalTracer.get().scopeManager().activate(makeJobsSpan)) {
-        assert makeJobsScope != null; // avoid unused warning
-        Map<String, String> keyedConfigText;
-        // user filename (configs/foo) -> text of configs/foo
-        try (Stream<String> keys = _storage.listInputNetworkConfigurationsKeys(snapshot)) {
-          keyedConfigText = readAllInputObjects(keys, snapshot);
-        } catch (IOException e) {
-          throw new UncheckedIOException(e);
-        }
-        if (!keyedConfigText.isEmpty()) {
-          found = true;
-        }
-        jobs =
-            makeParseVendorConfigurationsJobs(
-                snapshot, keyedConfigText, ConfigurationFormat.UNKNOWN);
-      } finally {
-        makeJobsSpan.finish();
-      }
-
-      AtomicInteger batch = newBatch("Parse network configs", jobs.size());
-      parseResults =
-          jobs.parallelStream()
-              .map(
-                  j -> {
-                    ParseVendorConfigurationResult result =
-                        getOrParse(j, parseNetworkConfigsSpan.context(), _settings);
-                    batch.incrementAndGet();
-                    return result;
-                  })
-              .collect(ImmutableList.toImmutableList());
+      AtomicInteger batch = newBatch("Parse network configs", keys.size());
+      keys.parallelStream()
+          .forEach(
+              key -> {
+                ParseVendorConfigurationResult result =
+                    getOrParse(
+                        makeParseVendorConfigurationJob(
+                            snapshot,
+                            key,
+                            readInputObject(key, snapshot),
+                            ConfigurationFormat.UNKNOWN),
+                        parseNetworkConfigsSpan.context(),
+                        _settings);
+                if (result.getFailureCause() != null) {
+                  failureCauses.add(result.getFailureCause());
+                }
+                String name;
+                synchronized (answerElement) {
+                  name =
+                      result.applyTo(storedFilenames, duplicateHostnames, _logger, answerElement);
+                  if (name != null && name.contains(File.separator)) {
+                    // iptables will get a hostname like configs/iptables-save if they
+                    // are not set up correctly using host files
+                    _logger.errorf("Cannot serialize configuration with hostname %s\n", name);
+                    answerElement.addRedFlagWarning(
+                        name,
+                        new Warning(
+                            "Cannot serialize network config. Bad hostname "
+                                + name.replace("\\", "/"),
+                            "MISCELLANEOUS"));
+                    name = null;
+                  }
+                }
+                if (name != null) {
+                  try {
+                    _storage.storeVendorConfiguration(
+                        name, result.getVendorConfiguration(), snapshot);
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                }
+                batch.incrementAndGet();
+              });
     } finally {
       parseNetworkConfigsSpan.finish();
     }
 
-    if (_settings.getHaltOnParseError()
-        && parseResults.stream().anyMatch(r -> r.getFailureCause() != null)) {
-      BatfishException e = new BatfishException("Exiting due to parser errors");
-      parseResults.stream()
-          .map(ParseVendorConfigurationResult::getFailureCause)
-          .filter(Objects::nonNull)
-          .forEach(e::addSuppressed);
-      throw e;
+    try {
+      if (_settings.getHaltOnParseError() && !failureCauses.isEmpty()) {
+        _storage.deleteVendorConfigurations(snapshot);
+        BatfishException e = new BatfishException("Exiting due to parser errors");
+        failureCauses.forEach(e::addSuppressed);
+        throw e;
+      }
+      renameDuplicateHostnames(snapshot, storedFilenames, duplicateHostnames, answerElement);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
 
     _logger.infof(
         "Snapshot %s in network %s has total number of network configs:%d",
-        snapshot.getSnapshot(), snapshot.getNetwork(), parseResults.size());
-
-    /* Assemble answer. */
-    SortedMap<String, VendorConfiguration> vendorConfigurations = new TreeMap<>();
-    parseResults.forEach(pvcr -> pvcr.applyTo(vendorConfigurations, _logger, answerElement));
-    Span serializeNetworkConfigsSpan =
-        GlobalTracer.get().buildSpan("Serialize network configs").start();
-    try (Scope scope = GlobalTracer.get().scopeManager().activate(serializeNetworkConfigsSpan)) {
-      assert scope != null; // avoid unused warning
-      _logger.info("\n*** SERIALIZING VENDOR CONFIGURATION STRUCTURES ***\n");
-      _logger.resetTimer();
-      Map<String, VendorConfiguration> output = new TreeMap<>();
-      vendorConfigurations.forEach(
-          (name, vc) -> {
-            if (name.contains(File.separator)) {
-              // iptables will get a hostname like configs/iptables-save if they
-              // are not set up correctly using host files
-              _logger.errorf("Cannot serialize configuration with hostname %s\n", name);
-              answerElement.addRedFlagWarning(
-                  name,
-                  new Warning(
-                      "Cannot serialize network config. Bad hostname " + name.replace("\\", "/"),
-                      "MISCELLANEOUS"));
-            } else {
-              output.put(name, vc);
-            }
-          });
+        snapshot.getSnapshot(), snapshot.getNetwork(), keys.size());
+    _logger.printElapsedTime();
+    return !keys.isEmpty();
+  }
 
-      _storage.storeVendorConfigurations(output, snapshot);
-      _logger.printElapsedTime();
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    } finally {
-      serializeNetworkConfigsSpan.finish();
+  /**
+   * Renames the stored vendor configurations that first claimed each of {@code duplicateHostnames}.
+   * Configurations that claimed those hostnames later were already renamed when they were stored.
+   */
+  private void renameDuplicateHostnames(
+      NetworkSnapshot snapshot,
+      Map<String, String> storedFilenames,
+      Set<String> duplicateHostnames,
+      ParseVendorConfigurationAnswerElement answerElement)
+      throws IOException {
+    for (String hostname : duplicateHostnames) {
+      VendorConfiguration vc = _storage.loadVendorConfiguration(hostname, snapshot);
+      if (vc == null) {
+        // never stored, e.g. because of a bad hostname
+        continue;
+      }
+      String filename = storedFilenames.get(hostname);
+      String modifiedName = ParseVendorConfigurationResult.getModifiedNameBase(hostname, filename);
+      vc.setHostname(modifiedName);
+      _storage.storeVendorConfiguration(modifiedName, vc, snapshot);
+      _storage.deleteVendorConfiguration(hostname, snapshot);
+      answerElement.getFileMap().remove(hostname, filename);
+      answerElement.getFileMap().put(modifiedName, filename);
+      answerElement
+          .getWarnings()
+          .computeIfAbsent(filename, f -> buildWarnings(_settings))
+          .redFlag(String.format("Duplicate hostname %s. Changed to %s", hostname, modifiedName));
     }
-    return found;
   }
 
   /** Returns {@code true} iff at least one network configuration was found. */
@@ -2818,10 +3086,10 @@ public class Batfish extends PluginConsumer implements IBatfish {
           params.getSrcNatted() == SrcNattedConstraint.UNCONSTRAINED,
           "Requiring or forbidding Source NAT is currently unsupported");
 
-      BDDPacket pkt = new BDDPacket();
       boolean ignoreFilters = params.getIgnoreFilters();
       BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
-          getBddReachabilityAnalysisFactory(snapshot, pkt, ignoreFilters);
+          getBddReachabilityAnalysisFactory(snapshot, ignoreFilters);
+      BDDPacket pkt = bddReachabilityAnalysisFactory.getBDDPacket();
 
       Map<IngressLocation, BDD> reachableBDDs =
           bddReachabilityAnalysisFactory.getAllBDDs(
@@ -2870,11 +3138,11 @@ public class Batfish extends PluginConsumer implements IBatfish {
     Span span = GlobalTracer.get().buildSpan("bddLoopDetection").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      BDDPacket pkt = new BDDPacket();
       // TODO add ignoreFilters parameter
       boolean ignoreFilters = false;
       BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
-          getBddReachabilityAnalysisFactory(snapshot, pkt, ignoreFilters);
+          getBddReachabilityAnalysisFactory(snapshot, ignoreFilters);
+      BDDPacket pkt = bddReachabilityAnalysisFactory.getBDDPacket();
       BDDLoopDetectionAnalysis analysis =
           bddReachabilityAnalysisFactory.bddLoopDetectionAnalysis(
               getAllSourcesInferFromLocationIpSpaceAssignment(snapshot));
@@ -2920,11 +3188,11 @@ public class Batfish extends PluginConsumer implements IBatfish {
     Span span = GlobalTracer.get().buildSpan("bddMultipathConsistency").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      BDDPacket pkt = new BDDPacket();
       // TODO add ignoreFilters parameter
       boolean ignoreFilters = false;
       BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
-          getBddReachabilityAnalysisFactory(snapshot, pkt, ignoreFilters);
+          getBddReachabilityAnalysisFactory(snapshot, ignoreFilters);
+      BDDPacket pkt = bddReachabilityAnalysisFactory.getBDDPacket();
       IpSpaceAssignment srcIpSpaceAssignment = parameters.getSrcIpSpaceAssignment();
       Set<String> finalNodes = parameters.getFinalNodes();
       Set<FlowDisposition> failureDispositions =
@@ -2978,10 +3246,96 @@ public class Batfish extends PluginConsumer implements IBatfish {
     return InferFromLocationIpSpaceSpecifier.INSTANCE.resolve(locations, specifierContext);
   }
 
+  /**
+   * Returns the reachability graph factory of the given snapshot, reusing the one built by an
+   * earlier question if it is still cached. Only query-specific edges are then added per question.
+   */
   @Nonnull
   private BDDReachabilityAnalysisFactory getBddReachabilityAnalysisFactory(
-      NetworkSnapshot snapshot, BDDPacket pkt, boolean ignoreFilters) {
-    Span span = GlobalTracer.get().buildSpan("getBddReachabilityAnalysisFactory").start();
+      NetworkSnapshot snapshot, boolean ignoreFilters) {
+    BddReachabilityKey key = new BddReachabilityKey(snapshot, ignoreFilters);
+    BDDReachabilityAnalysisFactory factory = _cachedBddReachability.getIfPresent(key);
+    if (factory == null) {
+      factory = newStoredBddReachabilityAnalysisFactory(snapshot, ignoreFilters);
+    } else {
+      // store the BDDs computed by earlier questions
+      storeDataPlaneBdds(snapshot, factory);
+    }
+    // (re-)insert to account for the BDD nodes allocated by earlier questions
+    _cachedBddReachability.put(key, factory);
+    return factory;
+  }
+
+  /**
+   * Builds a reachability graph factory on a fresh {@link BDDPacket}, starting from the forwarding
+   * and ACL BDDs stored with the data plane if there are any, and storing them otherwise. Failure
+   * to load or store them only costs time, so it is logged rather than thrown.
+   */
+  @Nonnull
+  private BDDReachabilityAnalysisFactory newStoredBddReachabilityAnalysisFactory(
+      NetworkSnapshot snapshot, boolean ignoreFilters) {
+    BDDPacket pkt = new BDDPacket();
+    Optional<Map<List<String>, BDD>> loaded;
+    try {
+      loaded =
+          _storage.loadDataPlaneBdds(snapshot, DATA_PLANE_BDDS_FINGERPRINT.get(), pkt.getFactory());
+    } catch (Exception e) {
+      _logger.warnf("Unable to load data plane BDDs: %s\n", Throwables.getStackTraceAsString(e));
+      // the failed load may have allocated variables, so start over
+      pkt = new BDDPacket();
+      loaded = Optional.empty();
+    }
+    if (_settings.getBddAutoReorder()) {
+      pkt.enableAutoReorder();
+    }
+    BDDReachabilityAnalysisFactory factory =
+        newBddReachabilityAnalysisFactory(
+            snapshot, pkt, ignoreFilters, loaded.map(StoredBdds::new).orElseGet(StoredBdds::empty));
+    storeDataPlaneBdds(snapshot, factory);
+    return factory;
+  }
+
+  /**
+   * Stores the data plane BDDs of {@code factory} if any were computed since they were last loaded
+   * or stored. Only BDDs already computed are stored, so questions never compute BDDs they do not
+   * need. Factories with and without filters share the stored BDDs, so the BDDs stored since this
+   * factory loaded its own (e.g. ACL BDDs stored by the other) are kept rather than overwritten.
+   */
+  @VisibleForTesting
+  void storeDataPlaneBdds(NetworkSnapshot snapshot, BDDReachabilityAnalysisFactory factory) {
+    StoredBdds storedBdds = factory.getStoredBdds();
+    if (!storedBdds.hasUnstored()) {
+      return;
+    }
+    String fingerprint = DATA_PLANE_BDDS_FINGERPRINT.get();
+    Map<List<String>, BDD> previous;
+    try {
+      previous =
+          _storage
+              .loadDataPlaneBdds(snapshot, fingerprint, factory.getBDDPacket().getFactory())
+              .orElse(ImmutableMap.of());
+    } catch (Exception e) {
+      _logger.warnf(
+          "Unable to load data plane BDDs to merge with: %s\n",
+          Throwables.getStackTraceAsString(e));
+      previous = ImmutableMap.of();
+    }
+    try {
+      Map<List<String>, BDD> merged = new LinkedHashMap<>(previous);
+      merged.putAll(storedBdds.getAll());
+      _storage.storeDataPlaneBdds(merged, fingerprint, snapshot);
+      storedBdds.markStored();
+    } catch (Exception e) {
+      _logger.warnf("Unable to store data plane BDDs: %s\n", Throwables.getStackTraceAsString(e));
+    } finally {
+      previous.values().forEach(BDD::free);
+    }
+  }
+
+  @Nonnull
+  private BDDReachabilityAnalysisFactory newBddReachabilityAnalysisFactory(
+      NetworkSnapshot snapshot, BDDPacket pkt, boolean ignoreFilters, StoredBdds storedBdds) {
+    Span span = GlobalTracer.get().buildSpan("newBddReachabilityAnalysisFactory").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
       DataPlane dataPlane = loadDataPlane(snapshot);
@@ -2991,7 +3345,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
           dataPlane.getForwardingAnalysis(),
           new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
           ignoreFilters,
-          false);
+          false,
+          storedBdds);
     } finally {
       span.finish();
     }
@@ -3009,7 +3364,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
       boolean ignoreFilters,
       boolean useInterfaceRoots) {
     BDDReachabilityAnalysisFactory factory =
-        getBddReachabilityAnalysisFactory(snapshot, pkt, ignoreFilters);
+        newBddReachabilityAnalysisFactory(snapshot, pkt, ignoreFilters, StoredBdds.empty());
     return factory.bddReachabilityAnalysis(
         srcIpSpaceAssignment,
         initialHeaderSpace,
@@ -3034,7 +3389,6 @@ public class Batfish extends PluginConsumer implements IBatfish {
       assert scope != null; // avoid unused warning
       checkArgument(
           !parameters.getFlowDispositions().isEmpty(), "Must specify at least one FlowDisposition");
-      BDDPacket pkt = new BDDPacket();
 
       AclLineMatchExpr headerSpace =
           parameters.getInvertSearch()
@@ -3046,26 +3400,63 @@ public class Batfish extends PluginConsumer implements IBatfish {
        * E.g. suppose we add a host subnet in the delta network. This would be a source of
        * differential reachability, but we currently won't find it because it won't be in the
        * IpSpaceAssignment.
+       *
+       * BDD factories are single-threaded, so each snapshot's analysis uses its own (possibly
+       * cached) factory. Both factories are built on this thread, so loading configurations and
+       * data planes and the factory cache are never used concurrently. Unless running
+       * sequentially, the reference snapshot's analysis then runs on a dedicated thread (not the
+       * common fork-join pool, which the data plane and configuration loading use) while this
+       * thread analyzes the base snapshot. The delta results are then imported into the base
+       * packet. Comparing a snapshot to itself would share one factory, so that is analyzed once.
        */
-      Map<IngressLocation, BDD> baseAcceptBDDs =
-          getBddReachabilityAnalysisFactory(snapshot, pkt, parameters.getIgnoreFilters())
-              .getAllBDDs(
-                  parameters.getIpSpaceAssignment(),
-                  headerSpace,
-                  parameters.getForbiddenTransitNodes(),
-                  parameters.getRequiredTransitNodes(),
-                  parameters.getFinalNodes(),
-                  parameters.getFlowDispositions());
-
-      Map<IngressLocation, BDD> deltaAcceptBDDs =
-          getBddReachabilityAnalysisFactory(reference, pkt, parameters.getIgnoreFilters())
-              .getAllBDDs(
+      boolean ignoreFilters = parameters.getIgnoreFilters();
+      Function<BDDReachabilityAnalysisFactory, Map<IngressLocation, BDD>> acceptBddsFor =
+          factory ->
+              factory.getAllBDDs(
                   parameters.getIpSpaceAssignment(),
                   headerSpace,
                   parameters.getForbiddenTransitNodes(),
                   parameters.getRequiredTransitNodes(),
                   parameters.getFinalNodes(),
                   parameters.getFlowDispositions());
+      BDDReachabilityAnalysisFactory baseFactory =
+          getBddReachabilityAnalysisFactory(snapshot, ignoreFilters);
+      BDDPacket pkt = baseFactory.getBDDPacket();
+      Map<IngressLocation, BDD> baseAcceptBDDs;
+      Map<IngressLocation, BDD> deltaAcceptBDDs;
+      if (snapshot.equals(reference)) {
+        baseAcceptBDDs = acceptBddsFor.apply(baseFactory);
+        deltaAcceptBDDs = baseAcceptBDDs;
+      } else {
+        BDDReachabilityAnalysisFactory referenceFactory =
+            getBddReachabilityAnalysisFactory(reference, ignoreFilters);
+        ExecutorService referenceExecutor =
+            _settings.getSequential()
+                ? MoreExecutors.newDirectExecutorService()
+                : Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder()
+                        .setNameFormat("differential-reachability-%d")
+                        .setDaemon(true)
+                        .build());
+        Map<IngressLocation, BDD> referenceAcceptBDDs;
+        try {
+          Future<Map<IngressLocation, BDD>> referenceResult =
+              referenceExecutor.submit(() -> acceptBddsFor.apply(referenceFactory));
+          baseAcceptBDDs = acceptBddsFor.apply(baseFactory);
+          referenceAcceptBDDs = referenceResult.get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new BatfishException("Interrupted computing differential reachability", e);
+        } catch (ExecutionException e) {
+          Throwables.throwIfUnchecked(e.getCause());
+          throw new BatfishException("Error computing reachability of reference snapshot", e);
+        } finally {
+          referenceExecutor.shutdown();
+        }
+        deltaAcceptBDDs =
+            toImmutableMap(
+                referenceAcceptBDDs, Entry::getKey, e -> pkt.getFactory().importBDD(e.getValue()));
+      }
 
       Set<IngressLocation> commonSources =
           Sets.intersection(baseAcceptBDDs.keySet(), deltaAcceptBDDs.keySet());
@@ -2,7 +2,8 @@ package org.batfish.main;
 
 import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
 import io.jaegertracing.Configuration.ReporterConfiguration;
 import io.jaegertracing.Configuration.SamplerConfiguration;
 import io.jaegertracing.Configuration.SenderConfiguration;
@@ -26,6 +27,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.net.ssl.SSLHandshakeException;
 import javax.ws.rs.ProcessingException;
@@ -35,6 +37,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import org.apache.commons.collections4.map.LRUMap;
+import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
@@ -53,6 +56,7 @@ import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerStatus;
 import org.batfish.datamodel.collections.BgpAdvertisementsByVrf;
+import org.batfish.main.SnapshotCaches.BddReachabilityKey;
 import org.batfish.vendor.VendorConfiguration;
 import org.batfish.version.BatfishVersion;
 import org.codehaus.jettison.json.JSONArray;
@@ -79,16 +83,18 @@ public class Driver {
 
   private static ConcurrentMap<String, Task> _taskLog;
 
-  private static final Cache<NetworkSnapshot, DataPlane> CACHED_DATA_PLANES = buildDataPlaneCache();
+  /** Caches sized by {@link #_mainSettings}, so they are created once settings are parsed */
+  private static Cache<BddReachabilityKey, BDDReachabilityAnalysisFactory> _cachedBddReachability;
+
+  private static Cache<NetworkSnapshot, DataPlane> _cachedDataPlanes;
 
   private static final Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
       CACHED_ENVIRONMENT_BGP_TABLES = buildEnvironmentBgpTablesCache();
 
-  private static final Cache<NetworkSnapshot, SortedMap<String, Configuration>> CACHED_TESTRIGS =
-      buildTestrigCache();
+  private static Cache<NetworkSnapshot, SortedMap<String, Configuration>> _cachedTestrigs;
 
-  private static final Cache<NetworkSnapshot, Map<String, VendorConfiguration>>
-      CACHED_VENDOR_CONFIGURATIONS = buildVendorConfigurationCache();
+  private static Cache<NetworkSnapshot, Map<String, VendorConfiguration>>
+      _cachedVendorConfigurations;
 
   private static final int COORDINATOR_CHECK_INTERVAL_MS = 1 * 60 * 1000; // 1 min
 
@@ -98,36 +104,39 @@ public class Driver {
 
   static Logger httpServerLogger = Logger.getLogger(HttpServer.class.getName());
 
-  private static final int MAX_CACHED_DATA_PLANES = 2;
-
   private static final int MAX_CACHED_ENVIRONMENT_BGP_TABLES = 4;
 
-  private static final int MAX_CACHED_TESTRIGS = 5;
-
-  private static final int MAX_CACHED_VENDOR_CONFIGURATIONS = 2;
-
   static Logger networkListenerLogger =
       Logger.getLogger("org.glassfish.grizzly.http.server.NetworkListener");
 
-  private static Cache<NetworkSnapshot, DataPlane> buildDataPlaneCache() {
-    return CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_DATA_PLANES).build();
-  }
-
   private static Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
       buildEnvironmentBgpTablesCache() {
     return Collections.synchronizedMap(new LRUMap<>(MAX_CACHED_ENVIRONMENT_BGP_TABLES));
   }
 
-  private static Cache<NetworkSnapshot, SortedMap<String, Configuration>> buildTestrigCache() {
-    return CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_TESTRIGS).build();
+  private static void initCaches(Settings settings) {
+    _cachedBddReachability =
+        SnapshotCaches.bddReachabilityCache(settings.getCacheBddReachabilityBytes());
+    _cachedTestrigs = SnapshotCaches.configurationsCache(settings.getCacheConfigurationsBytes());
+    _cachedDataPlanes = SnapshotCaches.dataPlaneCache(settings.getCacheDataPlanesBytes());
+    _cachedVendorConfigurations =
+        SnapshotCaches.vendorConfigurationsCache(settings.getCacheVendorConfigurationsBytes());
   }
 
-  private static Cache<NetworkSnapshot, Map<String, VendorConfiguration>>
-      buildVendorConfigurationCache() {
-    return CacheBuilder.newBuilder()
-        .softValues()
-        .maximumSize(MAX_CACHED_VENDOR_CONFIGURATIONS)
-        .build();
+  /**
+   * Returns the hit, miss, and eviction statistics of each cache of snapshot artifacts, keyed by
+   * the name of the cached artifact.
+   */
+  static @Nonnull Map<String, CacheStats> getCacheStats() {
+    return ImmutableMap.of(
+        "bddReachability",
+        _cachedBddReachability.stats(),
+        "configurations",
+        _cachedTestrigs.stats(),
+        "dataPlanes",
+        _cachedDataPlanes.stats(),
+        "vendorConfigurations",
+        _cachedVendorConfigurations.stats());
   }
 
   private static synchronized boolean claimIdle() {
@@ -231,6 +240,7 @@ public class Driver {
     _taskLog = new ConcurrentHashMap<>();
     try {
       _mainSettings = new Settings(args);
+      initCaches(_mainSettings);
       networkListenerLogger.setLevel(Level.WARNING);
       httpServerLogger.setLevel(Level.WARNING);
     } catch (Exception e) {
@@ -385,10 +395,11 @@ public class Driver {
       final Batfish batfish =
           new Batfish(
               settings,
-              CACHED_TESTRIGS,
-              CACHED_DATA_PLANES,
+              _cachedTestrigs,
+              _cachedDataPlanes,
               CACHED_ENVIRONMENT_BGP_TABLES,
-              CACHED_VENDOR_CONFIGURATIONS,
+              _cachedVendorConfigurations,
+              _cachedBddReachability,
               null,
               null);
 
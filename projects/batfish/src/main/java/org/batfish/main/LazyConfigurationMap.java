@@ -0,0 +1,128 @@
+package org.batfish.main;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ForwardingSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.Collection;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.Configuration;
+
+/**
+ * An unmodifiable map from hostname to {@link Configuration} whose keys are known up front but
+ * whose configurations are loaded on first access. Accessing a single node (e.g. via {@link
+ * #get(Object)}) loads only that node, while iterating over the values or entries first loads all
+ * missing nodes in parallel.
+ *
+ * <p>Loaded configurations are held for the life of the map, so each node is loaded at most once
+ * and callers may key caches on configuration identity. Memory is reclaimed by dropping the whole
+ * map.
+ */
+@ParametersAreNonnullByDefault
+final class LazyConfigurationMap extends ForwardingSortedMap<String, Configuration>
+    implements SerializedSize {
+
+  private final @Nonnull ImmutableSortedSet<String> _hostnames;
+  private final @Nonnull LoadingCache<String, Configuration> _loaded;
+  private final @Nonnull SortedMap<String, Configuration> _view;
+  private final long _serializedBytes;
+
+  /**
+   * Creates a map with keys {@code hostnames}, where {@code loader} returns the configuration of a
+   * node whenever it is not currently loaded. {@code loader} may be called concurrently for
+   * different nodes. {@code serializedBytes} is the total size of the stored configurations.
+   */
+  LazyConfigurationMap(
+      Set<String> hostnames, Function<String, Configuration> loader, long serializedBytes) {
+    _hostnames = ImmutableSortedSet.copyOf(hostnames);
+    _serializedBytes = serializedBytes;
+    _loaded = CacheBuilder.newBuilder().build(CacheLoader.from(loader::apply));
+    _view = Maps.asMap(_hostnames, this::load);
+  }
+
+  @Override
+  protected SortedMap<String, Configuration> delegate() {
+    return _view;
+  }
+
+  // Answer from the hostnames alone rather than relying on the view not to load every node
+
+  @Override
+  public boolean containsKey(@Nullable Object key) {
+    return _hostnames.contains(key);
+  }
+
+  @Override
+  public @Nullable Configuration get(@Nullable Object key) {
+    return _hostnames.contains(key) ? load((String) key) : null;
+  }
+
+  @Override
+  public int size() {
+    return _hostnames.size();
+  }
+
+  @Override
+  public Set<String> keySet() {
+    return _hostnames;
+  }
+
+  @Override
+  public String firstKey() {
+    return _hostnames.first();
+  }
+
+  @Override
+  public String lastKey() {
+    return _hostnames.last();
+  }
+
+  @Override
+  public Set<Entry<String, Configuration>> entrySet() {
+    loadAll();
+    return super.entrySet();
+  }
+
+  @Override
+  public Collection<Configuration> values() {
+    loadAll();
+    return super.values();
+  }
+
+  @Override
+  public long getSerializedBytes() {
+    return _serializedBytes;
+  }
+
+  /** Returns the number of configurations currently loaded. */
+  @VisibleForTesting
+  long loadedCount() {
+    return _loaded.size();
+  }
+
+  private @Nonnull Configuration load(String hostname) {
+    try {
+      return _loaded.getUnchecked(hostname);
+    } catch (UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+
+  /** Loads, in parallel, all configurations that are not currently loaded. */
+  private void loadAll() {
+    if (_loaded.size() < _hostnames.size()) {
+      _hostnames.parallelStream().forEach(this::load);
+    }
+  }
+}
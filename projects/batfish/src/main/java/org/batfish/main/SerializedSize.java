@@ -0,0 +1,13 @@
+package org.batfish.main;
+
+/**
+ * A snapshot artifact read from storage that knows how large its serialized form is, so that {@link
+ * SnapshotCaches} can weigh it without walking it.
+ */
+interface SerializedSize {
+
+  /**
+   * Returns the total size in bytes of the stored serialized objects this artifact is read from.
+   */
+  long getSerializedBytes();
+}
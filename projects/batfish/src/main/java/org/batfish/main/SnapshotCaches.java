@@ -0,0 +1,163 @@
+package org.batfish.main;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.ToLongFunction;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.GenericRib;
+import org.batfish.vendor.VendorConfiguration;
+
+/**
+ * Builds the caches of per-snapshot artifacts that a worker shares across {@link Batfish}
+ * instances. Each cache is bounded by a budget of bytes, weighing every entry by an estimate of the
+ * heap it retains, so that a few large snapshots cannot exhaust the heap while many small ones do
+ * not evict each other needlessly.
+ *
+ * <p>Estimates are computed when an entry is inserted and are deliberately cheap: configurations
+ * read from storage are weighed by the size of their serialized objects, since they are loaded
+ * lazily and may not be in memory yet, data planes are weighed per route, and reachability graphs
+ * per allocated BDD node. An entry that alone exceeds the budget is weighed as the whole budget, so
+ * the most recently used snapshot always stays cached. Values are also softly referenced, so the
+ * garbage collector may still reclaim them if the estimates are too low.
+ */
+@ParametersAreNonnullByDefault
+final class SnapshotCaches {
+
+  /**
+   * Estimated heap retained per byte of stored serialized configurations. Calibrated against the
+   * default compressed serialization format; heap usage ranges from about 1.5 to 13 times the
+   * stored size depending on how repetitive the configuration is.
+   */
+  @VisibleForTesting static final long HEAP_BYTES_PER_SERIALIZED_BYTE = 4L;
+
+  /** Estimated heap retained by a vendor-independent configuration not read from storage */
+  @VisibleForTesting static final long BYTES_PER_CONFIGURATION = 512L << 10;
+
+  /** Estimated heap retained by a vendor-specific configuration not read from storage */
+  @VisibleForTesting static final long BYTES_PER_VENDOR_CONFIGURATION = 1L << 20;
+
+  /** Estimated heap retained per route of a data plane, across its RIBs, FIBs, and BGP RIBs */
+  @VisibleForTesting static final long BYTES_PER_ROUTE = 512L;
+
+  /**
+   * Estimated heap retained per allocated BDD node of a reachability graph, including its share of
+   * the factory's operation caches
+   */
+  @VisibleForTesting static final long BYTES_PER_BDD_NODE = 32L;
+
+  /** Cache weights are in kibibytes, so that budgets beyond 2GiB fit in an int weight */
+  private static final int WEIGHT_SHIFT = 10;
+
+  static @Nonnull Cache<NetworkSnapshot, SortedMap<String, Configuration>> configurationsCache(
+      long budgetBytes) {
+    return build(budgetBytes, configs -> estimateBytes(configs, BYTES_PER_CONFIGURATION));
+  }
+
+  static @Nonnull Cache<NetworkSnapshot, DataPlane> dataPlaneCache(long budgetBytes) {
+    return build(budgetBytes, SnapshotCaches::estimateBytes);
+  }
+
+  static @Nonnull Cache<NetworkSnapshot, Map<String, VendorConfiguration>>
+      vendorConfigurationsCache(long budgetBytes) {
+    return build(budgetBytes, configs -> estimateBytes(configs, BYTES_PER_VENDOR_CONFIGURATION));
+  }
+
+  /**
+   * The factory is weighed when it is inserted, so callers should re-insert it after use to account
+   * for the nodes allocated by their queries.
+   */
+  static @Nonnull Cache<BddReachabilityKey, BDDReachabilityAnalysisFactory> bddReachabilityCache(
+      long budgetBytes) {
+    return build(
+        budgetBytes,
+        factory -> factory.getBDDPacket().getFactory().getNodeTableSize() * BYTES_PER_BDD_NODE);
+  }
+
+  @VisibleForTesting
+  static long estimateBytes(Map<String, ?> configurations, long bytesPerConfiguration) {
+    if (configurations instanceof SerializedSize) {
+      return ((SerializedSize) configurations).getSerializedBytes()
+          * HEAP_BYTES_PER_SERIALIZED_BYTE;
+    }
+    return configurations.size() * bytesPerConfiguration;
+  }
+
+  @VisibleForTesting
+  static long estimateBytes(DataPlane dataPlane) {
+    long routes = 0;
+    for (SortedMap<String, ? extends GenericRib<?>> ribsByVrf : dataPlane.getRibs().values()) {
+      for (GenericRib<?> rib : ribsByVrf.values()) {
+        routes += rib.getTypedRoutes().size();
+      }
+    }
+    for (Set<?> bgpRoutes : dataPlane.getBgpRoutes().values()) {
+      routes += bgpRoutes.size();
+    }
+    for (Set<?> evpnRoutes : dataPlane.getEvpnRoutes().values()) {
+      routes += evpnRoutes.size();
+    }
+    return routes * BYTES_PER_ROUTE;
+  }
+
+  private static <K, V> Cache<K, V> build(long budgetBytes, ToLongFunction<V> estimateBytes) {
+    checkArgument(budgetBytes > 0, "Cache budget must be positive: %s", budgetBytes);
+    int maximumWeight = toWeight(budgetBytes);
+    Weigher<K, V> weigher =
+        (key, value) -> Math.min(toWeight(estimateBytes.applyAsLong(value)), maximumWeight);
+    return CacheBuilder.newBuilder()
+        // a single segment, since each segment enforces its share of the maximum weight
+        .concurrencyLevel(1)
+        .maximumWeight(maximumWeight)
+        .weigher(weigher)
+        .softValues()
+        .recordStats()
+        .build();
+  }
+
+  private static int toWeight(long bytes) {
+    return (int) Math.max(1L, Math.min(Integer.MAX_VALUE, bytes >> WEIGHT_SHIFT));
+  }
+
+  /** Identifies the reachability graph of a snapshot, which differs when filters are ignored. */
+  static final class BddReachabilityKey {
+    private final @Nonnull NetworkSnapshot _snapshot;
+    private final boolean _ignoreFilters;
+
+    BddReachabilityKey(NetworkSnapshot snapshot, boolean ignoreFilters) {
+      _snapshot = snapshot;
+      _ignoreFilters = ignoreFilters;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof BddReachabilityKey)) {
+        return false;
+      }
+      BddReachabilityKey that = (BddReachabilityKey) o;
+      return _ignoreFilters == that._ignoreFilters && _snapshot.equals(that._snapshot);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_snapshot, _ignoreFilters);
+    }
+  }
+
+  private SnapshotCaches() {}
+}
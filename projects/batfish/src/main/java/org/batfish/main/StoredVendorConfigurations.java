@@ -0,0 +1,32 @@
+package org.batfish.main;
+
+import com.google.common.collect.ForwardingMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.vendor.VendorConfiguration;
+
+/** The vendor configurations of a snapshot as read from storage, with their serialized size. */
+@ParametersAreNonnullByDefault
+final class StoredVendorConfigurations extends ForwardingMap<String, VendorConfiguration>
+    implements SerializedSize {
+
+  private final @Nonnull Map<String, VendorConfiguration> _vendorConfigurations;
+  private final long _serializedBytes;
+
+  StoredVendorConfigurations(
+      Map<String, VendorConfiguration> vendorConfigurations, long serializedBytes) {
+    _vendorConfigurations = vendorConfigurations;
+    _serializedBytes = serializedBytes;
+  }
+
+  @Override
+  protected Map<String, VendorConfiguration> delegate() {
+    return _vendorConfigurations;
+  }
+
+  @Override
+  public long getSerializedBytes() {
+    return _serializedBytes;
+  }
+}
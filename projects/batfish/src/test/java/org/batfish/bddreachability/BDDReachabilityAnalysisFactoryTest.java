@@ -37,6 +37,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
@@ -47,7 +48,12 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -59,6 +65,7 @@ import net.sf.javabdd.BDD;
 import org.batfish.bddreachability.transition.Transition;
 import org.batfish.common.bdd.BDDPacket;
 import org.batfish.common.bdd.HeaderSpaceToBDD;
+import org.batfish.common.bdd.IpAccessListToBdd;
 import org.batfish.common.bdd.IpSpaceToBDD;
 import org.batfish.datamodel.AclIpSpace;
 import org.batfish.datamodel.ConcreteInterfaceAddress;
@@ -190,6 +197,84 @@ public final class BDDReachabilityAnalysisFactoryTest {
         false);
   }
 
+  @Test
+  public void testStoredBdds() throws IOException {
+    TestNetworkIndirection net = new TestNetworkIndirection();
+    Batfish batfish = BatfishTestUtils.getBatfish(net._configs, temp);
+    batfish.computeDataPlane(batfish.getSnapshot());
+    DataPlane dataPlane = batfish.loadDataPlane(batfish.getSnapshot());
+
+    BDDReachabilityAnalysisFactory computed =
+        new BDDReachabilityAnalysisFactory(
+            new BDDPacket(),
+            net._configs,
+            dataPlane.getForwardingAnalysis(),
+            new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
+            false,
+            false);
+    StoredBdds computedBdds = computed.getStoredBdds();
+    assertTrue(computedBdds.hasUnstored());
+    String hostname = net._node.getHostname();
+    List<String> aclKey =
+        ImmutableList.of("acl", hostname, TestNetworkIndirection.INDIRECT_ACL_NAME);
+    // ACL BDDs are only stored once they are computed
+    assertThat(computedBdds.getAll(), not(hasKey(aclKey)));
+    computedBdds.markStored();
+    computed.getAclPermitBdds().get(hostname).get(TestNetworkIndirection.INDIRECT_ACL_NAME).get();
+    assertTrue(computedBdds.hasUnstored());
+    assertThat(computedBdds.getAll(), hasKey(aclKey));
+
+    // save and load into a fresh packet, as after a restart
+    List<List<String>> keys = ImmutableList.copyOf(computedBdds.getAll().keySet());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    computed
+        .getBDDPacket()
+        .getFactory()
+        .save(new DataOutputStream(out), ImmutableList.copyOf(computedBdds.getAll().values()));
+    BDDPacket pkt = new BDDPacket();
+    List<BDD> loaded =
+        pkt.getFactory().load(new DataInputStream(new ByteArrayInputStream(out.toByteArray())));
+    Map<List<String>, BDD> loadedBdds = new HashMap<>();
+    for (int i = 0; i < keys.size(); i++) {
+      loadedBdds.put(keys.get(i), loaded.get(i));
+    }
+
+    StoredBdds storedBdds = new StoredBdds(loadedBdds);
+    BDDReachabilityAnalysisFactory factory =
+        new BDDReachabilityAnalysisFactory(
+            pkt,
+            net._configs,
+            dataPlane.getForwardingAnalysis(),
+            new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
+            false,
+            false,
+            storedBdds);
+    assertThat(factory.getStoredBdds(), sameInstance(storedBdds));
+    assertFalse(storedBdds.hasUnstored());
+
+    // the loaded BDDs are the ones the factory would have computed
+    IpAccessListToBdd aclToBdd = factory.ipAccessListToBdd(net._node);
+    factory
+        .getAclPermitBdds()
+        .get(hostname)
+        .forEach(
+            (aclName, permitBdd) ->
+                assertThat(
+                    permitBdd.get(),
+                    equalTo(aclToBdd.toBdd(net._node.getIpAccessLists().get(aclName)))));
+    dataPlane
+        .getForwardingAnalysis()
+        .getAcceptsIps()
+        .get(hostname)
+        .forEach(
+            (vrf, ifaceAcceptIps) ->
+                ifaceAcceptIps.forEach(
+                    (iface, ips) ->
+                        assertThat(
+                            factory.getIfaceAcceptBDDs().get(hostname).get(vrf).get(iface),
+                            equalTo(ips.accept(pkt.getDstIpSpaceToBDD())))));
+  }
+
   @Test
   public void testAnalysisUseInterfaceRootsParam() throws IOException {
     SortedMap<String, Configuration> configs = TestNetworkSources.twoNodeNetwork();
@@ -2,6 +2,7 @@ package org.batfish.bddreachability;
 
 import static org.batfish.bddreachability.BDDReachabilityUtils.computeForwardEdgeTable;
 import static org.batfish.bddreachability.BDDReachabilityUtils.fixpoint;
+import static org.batfish.bddreachability.BDDReachabilityUtils.sccFixpoint;
 import static org.batfish.bddreachability.BDDReachabilityUtils.toIngressLocation;
 import static org.batfish.bddreachability.TestNetwork.DST_PREFIX_1;
 import static org.batfish.bddreachability.TestNetwork.DST_PREFIX_2;
@@ -12,10 +13,14 @@ import static org.batfish.common.bdd.BDDMatchers.intersects;
 import static org.batfish.common.bdd.BDDMatchers.isOne;
 import static org.batfish.common.bdd.BDDMatchers.isZero;
 import static org.batfish.datamodel.Configuration.DEFAULT_VRF_NAME;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDst;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
@@ -38,6 +43,7 @@ import org.batfish.common.bdd.BDDOps;
 import org.batfish.common.bdd.BDDPacket;
 import org.batfish.common.bdd.IpSpaceToBDD;
 import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.FlowDisposition;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.IpProtocol;
 import org.batfish.datamodel.UniverseIpSpace;
@@ -46,6 +52,7 @@ import org.batfish.main.BatfishTestUtils;
 import org.batfish.specifier.InterfaceLinkLocation;
 import org.batfish.specifier.InterfaceLocation;
 import org.batfish.specifier.IpSpaceAssignment;
+import org.batfish.symbolic.IngressLocation;
 import org.batfish.symbolic.state.Accept;
 import org.batfish.symbolic.state.DropNoRoute;
 import org.batfish.symbolic.state.InterfaceAccept;
@@ -661,4 +668,126 @@ public final class BDDReachabilityAnalysisTest {
                   c, start)));
     }
   }
+
+  @Test
+  public void testSccFixpoint() {
+    StateExpr a = new NodeAccept("A");
+    StateExpr b = new NodeAccept("B");
+    StateExpr c = new NodeAccept("C");
+    StateExpr d = new NodeAccept("D");
+
+    BDD start = PKT.getSrcPort().value(1).or(PKT.getSrcPort().value(2));
+    BDD bddAB = PKT.getDstIp().value(1);
+    BDD bddBC = PKT.getSrcIp().value(1);
+    BDD bddCB = PKT.getDstPort().value(1);
+    BDD bddCD = PKT.getSrcPort().value(1);
+
+    // a -> (b <-> c) -> d
+    Table<StateExpr, StateExpr, Transition> forwardEdges =
+        computeForwardEdgeTable(
+            ImmutableList.of(
+                new Edge(a, b, bddAB),
+                new Edge(b, c, bddBC),
+                new Edge(c, b, bddCB),
+                new Edge(c, d, bddCD)));
+    Table<StateExpr, StateExpr, Transition> reverseEdges = Tables.transpose(forwardEdges);
+    StronglyConnectedComponents sccs = StronglyConnectedComponents.of(forwardEdges);
+
+    // forward from a agrees with the round-based fixpoint
+    {
+      Map<StateExpr, BDD> expected = new HashMap<>(ImmutableMap.of(a, start));
+      fixpoint(expected, forwardEdges, Transition::transitForward);
+      Map<StateExpr, BDD> actual = new HashMap<>(ImmutableMap.of(a, start));
+      sccFixpoint(actual, forwardEdges, Transition::transitForward, sccs);
+      assertThat(actual, equalTo(expected));
+      assertThat(actual.get(d), equalTo(start.and(bddAB).and(bddBC).and(bddCD)));
+    }
+
+    // reverse from d agrees with the round-based fixpoint
+    {
+      Map<StateExpr, BDD> expected = new HashMap<>(ImmutableMap.of(d, start));
+      fixpoint(expected, reverseEdges, Transition::transitBackward);
+      Map<StateExpr, BDD> actual = new HashMap<>(ImmutableMap.of(d, start));
+      sccFixpoint(actual, reverseEdges, Transition::transitBackward, sccs.reverse());
+      assertThat(actual, equalTo(expected));
+    }
+  }
+
+  @Test
+  public void testFactoryReusedAcrossQueries() {
+    IpSpaceAssignment assignment =
+        IpSpaceAssignment.builder()
+            .assign(
+                new InterfaceLocation(_net._srcNode.getHostname(), _net._link1Src.getName()),
+                UniverseIpSpace.INSTANCE)
+            .build();
+    BDDReachabilityAnalysis noRoute =
+        _graphFactory.bddReachabilityAnalysis(
+            assignment,
+            matchDst(UniverseIpSpace.INSTANCE),
+            ImmutableSet.of(),
+            ImmutableSet.of(),
+            _net._configs.keySet(),
+            ImmutableSet.of(FlowDisposition.NO_ROUTE));
+    assertThat(noRoute.getForwardEdgeMap().get(DropNoRoute.INSTANCE), hasKey(Query.INSTANCE));
+    assertThat(noRoute.getForwardEdgeMap().get(Accept.INSTANCE), nullValue());
+
+    // the query-independent edges are shared, while query edges are specific to each query
+    BDDReachabilityAnalysis accepted = _graphFactory.bddReachabilityAnalysis(assignment);
+    assertThat(accepted.getForwardEdgeMap().keySet(), equalTo(_graph.getForwardEdgeMap().keySet()));
+    assertThat(
+        accepted.getForwardEdgeMap().get(_srcPostInVrf).get(_srcPreOutVrf),
+        sameInstance(noRoute.getForwardEdgeMap().get(_srcPostInVrf).get(_srcPreOutVrf)));
+    assertThat(
+        accepted.getIngressLocationReachableBDDs(),
+        equalTo(_graph.getIngressLocationReachableBDDs()));
+  }
+
+  @Test
+  public void testFixpointStrategiesAgree() {
+    _graph.setFixpointStrategy(FixpointStrategy.ROUNDS);
+    Map<IngressLocation, BDD> rounds = _graph.getIngressLocationReachableBDDs();
+    _graph.setFixpointStrategy(FixpointStrategy.SCC);
+    assertThat(_graph.getIngressLocationReachableBDDs(), equalTo(rounds));
+  }
+
+  @Test
+  public void testFixpointCounters() {
+    StateExpr a = new NodeAccept("A");
+    StateExpr b = new NodeAccept("B");
+    StateExpr c = new NodeAccept("C");
+    StateExpr d = new NodeAccept("D");
+
+    // a -> b -> c -> d, with a shortcut a -> c, so c is first reached before all of its inputs
+    Table<StateExpr, StateExpr, Transition> forwardEdges =
+        computeForwardEdgeTable(
+            ImmutableList.of(
+                new Edge(a, b, PKT.getDstIp().value(1)),
+                new Edge(a, c, PKT.getDstIp().value(2)),
+                new Edge(b, c, PKT.getFactory().one()),
+                new Edge(c, d, PKT.getFactory().one())));
+    StronglyConnectedComponents sccs = StronglyConnectedComponents.of(forwardEdges);
+
+    FixpointCounters roundsCounters = FixpointCounters.forStrategy(FixpointStrategy.ROUNDS);
+    FixpointCounters sccCounters = FixpointCounters.forStrategy(FixpointStrategy.SCC);
+    roundsCounters.reset();
+    sccCounters.reset();
+
+    Map<StateExpr, BDD> rounds = new HashMap<>(ImmutableMap.of(a, PKT.getFactory().one()));
+    fixpoint(rounds, forwardEdges, Transition::transitForward);
+    Map<StateExpr, BDD> scc = new HashMap<>(ImmutableMap.of(a, PKT.getFactory().one()));
+    sccFixpoint(scc, forwardEdges, Transition::transitForward, sccs);
+    assertThat(scc, equalTo(rounds));
+
+    // each state is visited exactly once in topological order, and c unions its two inputs
+    assertThat(sccCounters.getRuns(), equalTo(1L));
+    assertThat(sccCounters.getVisits(), equalTo(4L));
+    assertThat(sccCounters.getTraversals(), equalTo(4L));
+    assertThat(sccCounters.getUnions(), equalTo(1L));
+
+    // rounds revisit c (and so d) after the longer path through b reaches it
+    assertThat(roundsCounters.getRuns(), equalTo(1L));
+    assertThat(roundsCounters.getVisits(), greaterThan(4L));
+    assertThat(roundsCounters.getTraversals(), greaterThan(4L));
+  }
 }
@@ -0,0 +1,62 @@
+package org.batfish.bddreachability;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import java.util.List;
+import org.batfish.bddreachability.transition.Transition;
+import org.batfish.bddreachability.transition.Transitions;
+import org.batfish.symbolic.state.NodeAccept;
+import org.batfish.symbolic.state.StateExpr;
+import org.junit.Test;
+
+/** Tests of {@link StronglyConnectedComponents}. */
+public final class StronglyConnectedComponentsTest {
+  private static final StateExpr A = new NodeAccept("A");
+  private static final StateExpr B = new NodeAccept("B");
+  private static final StateExpr C = new NodeAccept("C");
+  private static final StateExpr D = new NodeAccept("D");
+  private static final StateExpr E = new NodeAccept("E");
+
+  @Test
+  public void testChain() {
+    Table<StateExpr, StateExpr, Transition> edges =
+        ImmutableTable.<StateExpr, StateExpr, Transition>builder()
+            .put(B, C, Transitions.IDENTITY)
+            .put(A, B, Transitions.IDENTITY)
+            .build();
+    StronglyConnectedComponents sccs = StronglyConnectedComponents.of(edges);
+    assertThat(sccs.getComponents(), contains(contains(A), contains(B), contains(C)));
+    assertThat(sccs.reverse().getComponents(), contains(contains(C), contains(B), contains(A)));
+    assertFalse(sccs.sameComponent(A, B));
+  }
+
+  @Test
+  public void testCycles() {
+    // A -> (B <-> C) -> D, D -> D, E -> C
+    Table<StateExpr, StateExpr, Transition> edges =
+        ImmutableTable.<StateExpr, StateExpr, Transition>builder()
+            .put(A, B, Transitions.IDENTITY)
+            .put(B, C, Transitions.IDENTITY)
+            .put(C, B, Transitions.IDENTITY)
+            .put(C, D, Transitions.IDENTITY)
+            .put(D, D, Transitions.IDENTITY)
+            .put(E, C, Transitions.IDENTITY)
+            .build();
+    StronglyConnectedComponents sccs = StronglyConnectedComponents.of(edges);
+    List<List<StateExpr>> components = sccs.getComponents();
+    assertThat(components, hasSize(4));
+    assertThat(components.get(2), containsInAnyOrder(B, C));
+    assertThat(components.get(3), contains(D));
+    assertThat(components.subList(0, 2), containsInAnyOrder(contains(A), contains(E)));
+    assertTrue(sccs.sameComponent(B, C));
+    assertFalse(sccs.sameComponent(C, D));
+    assertFalse(sccs.sameComponent(A, new NodeAccept("unknown")));
+  }
+}
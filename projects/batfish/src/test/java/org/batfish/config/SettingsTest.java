@@ -12,6 +12,7 @@ import org.batfish.common.CleanBatfishException;
 import org.batfish.identifiers.NetworkId;
 import org.batfish.identifiers.SnapshotId;
 import org.batfish.main.Driver.RunMode;
+import org.batfish.storage.SerializationFormat;
 import org.junit.Test;
 
 /** Test for {@link org.batfish.config.Settings} */
@@ -67,6 +68,28 @@ public class SettingsTest {
     assertThat(settings.getRunMode(), equalTo(RunMode.WORKSERVICE));
   }
 
+  /** Test that the serialization format defaults to LZ4 and is parsed case-insensitively */
+  @Test
+  public void testSerializationFormat() {
+    assertThat(
+        new Settings(new String[] {}).getSerializationFormat(), equalTo(SerializationFormat.LZ4));
+    assertThat(
+        new Settings(new String[] {"-serializationformat=lz4_hc"}).getSerializationFormat(),
+        equalTo(SerializationFormat.LZ4_HC));
+  }
+
+  @Test
+  public void testCacheBudgets() {
+    Settings settings =
+        new Settings(
+            new String[] {
+              "-cacheconfigurationsmb=3", "-cachedataplanesmb=5", "-cachevendorconfigurationsmb=7"
+            });
+    assertThat(settings.getCacheConfigurationsBytes(), equalTo(3L << 20));
+    assertThat(settings.getCacheDataPlanesBytes(), equalTo(5L << 20));
+    assertThat(settings.getCacheVendorConfigurationsBytes(), equalTo(7L << 20));
+  }
+
   @Test
   public void testLogfileWithDeltaTestrig() {
     // Only main testrig
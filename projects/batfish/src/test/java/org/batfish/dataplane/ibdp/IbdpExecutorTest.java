@@ -0,0 +1,94 @@
+package org.batfish.dataplane.ibdp;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.NetworkFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests of {@link IbdpExecutor} */
+public final class IbdpExecutorTest {
+
+  private Map<String, Node> _nodes;
+
+  @Before
+  public void setup() {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration c1 =
+        nf.configurationBuilder()
+            .setHostname("n1")
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    nf.vrfBuilder().setOwner(c1).setName("vrf1").build();
+    nf.vrfBuilder().setOwner(c1).setName("vrf2").build();
+    Configuration c2 =
+        nf.configurationBuilder()
+            .setHostname("n2")
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    nf.vrfBuilder().setOwner(c2).setName("vrf1").build();
+    _nodes = ImmutableMap.of("n1", new Node(c1), "n2", new Node(c2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonPositiveParallelism() {
+    new IbdpExecutor(0);
+  }
+
+  @Test
+  public void testForEachNode() {
+    Set<String> visited = ConcurrentHashMap.newKeySet();
+    try (IbdpExecutor executor = new IbdpExecutor(2)) {
+      executor.forEachNode("phase", _nodes, n -> visited.add(n.getConfiguration().getHostname()));
+      assertThat(visited, containsInAnyOrder("n1", "n2"));
+      assertThat(executor.getPhaseStats().get("phase").getInvocations(), equalTo(1));
+    }
+  }
+
+  @Test
+  public void testForEachVirtualRouter() {
+    Set<String> visited = ConcurrentHashMap.newKeySet();
+    try (IbdpExecutor executor = new IbdpExecutor(2)) {
+      executor.forEachVirtualRouter(
+          "phase",
+          _nodes,
+          vr -> visited.add(vr.getConfiguration().getHostname() + ":" + vr.getName()));
+      assertThat(visited, containsInAnyOrder("n1:vrf1", "n1:vrf2", "n2:vrf1"));
+    }
+  }
+
+  @Test
+  public void testAnyVirtualRouterMatch() {
+    try (IbdpExecutor executor = new IbdpExecutor(2)) {
+      assertTrue(
+          executor.anyVirtualRouterMatch("phase", _nodes, vr -> vr.getName().equals("vrf2")));
+      assertFalse(
+          executor.anyVirtualRouterMatch("phase", _nodes, vr -> vr.getName().equals("vrf3")));
+    }
+  }
+
+  @Test
+  public void testPhaseStats() {
+    try (IbdpExecutor executor = new IbdpExecutor(2)) {
+      executor.forEachNode("a", _nodes, n -> {});
+      executor.forEachNode("b", _nodes, n -> {});
+      executor.forEachNode("a", _nodes, n -> {});
+      Map<String, IbdpExecutor.PhaseStats> stats = executor.getPhaseStats();
+      assertThat(stats.keySet(), contains("a", "b"));
+      assertThat(stats.get("a").getInvocations(), equalTo(2));
+      assertThat(stats.get("b").getInvocations(), equalTo(1));
+      assertTrue(executor.getUtilization(stats.get("a")) <= 1.0d);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package org.batfish.dataplane.ibdp;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.Configuration;
+
+/**
+ * Runs {@link IncrementalBdpEngine} directly, bypassing {@link IncrementalDataPlanePlugin} and
+ * storage. Only for tests and benchmarks outside this package, which get it from the test jar.
+ */
+@ParametersAreNonnullByDefault
+public final class IncrementalBdpEngineTestHook {
+
+  /**
+   * Compute the data plane of {@code configs} with a new {@link IncrementalBdpEngine}, with no
+   * external BGP advertisements.
+   */
+  @Nonnull
+  public static ComputeDataPlaneResult computeDataPlane(
+      Settings settings, Map<String, Configuration> configs, TopologyContext topologyContext) {
+    return new IncrementalBdpEngine(
+            new IncrementalDataPlaneSettings(settings.getImmutableConfiguration()),
+            settings.getLogger())
+        .computeDataPlane(configs, topologyContext, ImmutableSet.of());
+  }
+
+  private IncrementalBdpEngineTestHook() {}
+}
@@ -2,6 +2,7 @@ package org.batfish.dataplane.ibdp;
 
 import static org.batfish.datamodel.matchers.AbstractRouteDecoratorMatchers.hasPrefix;
 import static org.batfish.datamodel.matchers.AbstractRouteDecoratorMatchers.hasProtocol;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.not;
@@ -56,6 +57,8 @@ public class RouteReflectionTest {
 
   private static final String EDGE2_NAME = "edge2";
 
+  private static final String ISOLATED_NAME = "isolated";
+
   private static final String RR_NAME = "rr";
 
   private static final String RR1_NAME = "rr1";
@@ -99,6 +102,14 @@ public class RouteReflectionTest {
 
   private BgpProcess.Builder _pb;
 
+  private IncrementalDataPlaneSettings _settings;
+
+  // the engine that computed the last network generated by generateRoutesOneReflector
+  private IncrementalBdpEngine _engine;
+
+  // configurations added to the network generated by generateRoutesOneReflector
+  private SortedMap<String, Configuration> _otherConfigurations;
+
   private Vrf.Builder _vb;
 
   /*
@@ -216,14 +227,14 @@ public class RouteReflectionTest {
             .put(edge1.getHostname(), edge1)
             .put(rr.getHostname(), rr)
             .put(edge2.getHostname(), edge2)
+            .putAll(_otherConfigurations)
             .build();
-    IncrementalBdpEngine engine =
+    _engine =
         new IncrementalBdpEngine(
-            new IncrementalDataPlaneSettings(),
-            new BatfishLogger(BatfishLogger.LEVELSTR_OUTPUT, false));
+            _settings, new BatfishLogger(BatfishLogger.LEVELSTR_OUTPUT, false));
     Topology topology = TopologyUtil.synthesizeL3Topology(configurations);
     ComputeDataPlaneResult dpResult =
-        engine.computeDataPlane(
+        _engine.computeDataPlane(
             configurations,
             TopologyContext.builder().setLayer3Topology(topology).build(),
             ImmutableSet.of(
@@ -350,8 +361,7 @@ public class RouteReflectionTest {
             .build();
     IncrementalBdpEngine engine =
         new IncrementalBdpEngine(
-            new IncrementalDataPlaneSettings(),
-            new BatfishLogger(BatfishLogger.LEVELSTR_OUTPUT, false));
+            _settings, new BatfishLogger(BatfishLogger.LEVELSTR_OUTPUT, false));
     Topology topology = TopologyUtil.synthesizeL3Topology(configurations);
     IncrementalDataPlane dp =
         (IncrementalDataPlane)
@@ -389,6 +399,8 @@ public class RouteReflectionTest {
     _ib = _nf.interfaceBuilder();
     _nb = _nf.bgpNeighborBuilder().setLocalAs(2L);
     _pb = _nf.bgpProcessBuilder().setAdminCostsToVendorDefaults(ConfigurationFormat.CISCO_IOS);
+    _settings = new IncrementalDataPlaneSettings();
+    _otherConfigurations = ImmutableSortedMap.of();
     _vb = _nf.vrfBuilder().setName(Configuration.DEFAULT_VRF_NAME);
     If acceptIffBgp = new If();
     Disjunction guard = new Disjunction();
@@ -479,4 +491,46 @@ public class RouteReflectionTest {
     assertIbgpRoute(routes, RR_NAME, AS3_PREFIX);
     assertIbgpRoute(routes, EDGE2_NAME, AS1_PREFIX);
   }
+
+  /*
+   * AS1 |                  AS2                   | AS3
+   *       edge1(client) <=> rr <=> (client)edge2
+   */
+  @Test
+  public void testSingleReflectorTwoClientsWorklistScheduling() {
+    _settings.getConfig().setProperty(IncrementalDataPlaneSettings.PROP_WORKLIST_SCHEDULING, true);
+    SortedMap<String, SortedMap<String, Set<AbstractRoute>>> routes =
+        generateRoutesOneReflector(true, true);
+
+    assertIbgpRoute(routes, EDGE1_NAME, AS3_PREFIX);
+    assertIbgpRoute(routes, RR_NAME, AS1_PREFIX);
+    assertIbgpRoute(routes, RR_NAME, AS3_PREFIX);
+    assertIbgpRoute(routes, EDGE2_NAME, AS1_PREFIX);
+  }
+
+  /*
+   * AS1 |                  AS2                   | AS3
+   *       edge1(client) <=> rr <=> (client)edge2
+   *
+   *                      isolated
+   */
+  @Test
+  public void testWorklistSchedulingSkipsUnaffectedNodes() {
+    _settings.getConfig().setProperty(IncrementalDataPlaneSettings.PROP_WORKLIST_SCHEDULING, true);
+    Configuration isolated = _cb.setHostname(ISOLATED_NAME).build();
+    _vb.setOwner(isolated).build();
+    _otherConfigurations = ImmutableSortedMap.of(ISOLATED_NAME, isolated);
+    SortedMap<String, SortedMap<String, Set<AbstractRoute>>> routes =
+        generateRoutesOneReflector(true, true);
+
+    assertIbgpRoute(routes, EDGE1_NAME, AS3_PREFIX);
+    assertIbgpRoute(routes, EDGE2_NAME, AS1_PREFIX);
+    /*
+     * Every node runs in the first iteration of each topology iteration. After that, the isolated
+     * node has no neighbors to give it work, so only the BGP speakers run again.
+     */
+    int isolatedRuns = _engine.getNodeRuns().count(ISOLATED_NAME);
+    assertThat(_engine.getNodeRuns().count(RR_NAME), greaterThan(isolatedRuns));
+    assertThat(_engine.getNodeRuns().count(EDGE1_NAME), greaterThan(isolatedRuns));
+  }
 }
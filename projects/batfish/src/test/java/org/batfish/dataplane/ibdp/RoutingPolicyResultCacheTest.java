@@ -0,0 +1,135 @@
+package org.batfish.dataplane.ibdp;
+
+import static org.batfish.datamodel.routing_policy.Environment.Direction.IN;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import com.google.common.collect.ImmutableList;
+import org.batfish.datamodel.BgpSessionProperties;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.OriginType;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixRange;
+import org.batfish.datamodel.PrefixSpace;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.routing_policy.RoutingPolicy;
+import org.batfish.datamodel.routing_policy.expr.DestinationNetwork;
+import org.batfish.datamodel.routing_policy.expr.ExplicitPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.LiteralLong;
+import org.batfish.datamodel.routing_policy.expr.MatchPrefixSet;
+import org.batfish.datamodel.routing_policy.statement.If;
+import org.batfish.datamodel.routing_policy.statement.SetLocalPreference;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests of {@link RoutingPolicyResultCache}. */
+public final class RoutingPolicyResultCacheTest {
+
+  private static final BgpSessionProperties SESSION =
+      BgpSessionProperties.builder()
+          .setHeadAs(1L)
+          .setTailAs(2L)
+          .setHeadIp(Ip.parse("1.1.1.1"))
+          .setTailIp(Ip.parse("2.2.2.2"))
+          .build();
+
+  private Configuration _c;
+  private RoutingPolicyResultCache _cache;
+
+  @Before
+  public void setup() {
+    _c =
+        new NetworkFactory()
+            .configurationBuilder()
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    _cache = new RoutingPolicyResultCache(_c.getRoutingPolicies());
+  }
+
+  private static Bgpv4Route route(String prefix) {
+    return Bgpv4Route.builder()
+        .setNetwork(Prefix.parse(prefix))
+        .setOriginatorIp(Ip.parse("2.2.2.2"))
+        .setOriginType(OriginType.IGP)
+        .setProtocol(RoutingProtocol.BGP)
+        .setNextHopIp(Ip.parse("2.2.2.2"))
+        .build();
+  }
+
+  private Bgpv4Route process(RoutingPolicy policy, Bgpv4Route route) {
+    Bgpv4Route.Builder output =
+        _cache.processBgpRoute(policy, route, route.toBuilder(), SESSION, IN);
+    return output == null ? null : output.build();
+  }
+
+  @Test
+  public void testNetworkIndependentPolicySharesResults() {
+    RoutingPolicy policy =
+        RoutingPolicy.builder()
+            .setName("setLp")
+            .setOwner(_c)
+            .addStatement(new SetLocalPreference(new LiteralLong(200)))
+            .addStatement(Statements.ExitAccept.toStaticStatement())
+            .build();
+
+    Bgpv4Route first = process(policy, route("10.0.0.0/24"));
+    Bgpv4Route second = process(policy, route("10.0.1.0/24"));
+
+    assertThat(first, equalTo(route("10.0.0.0/24").toBuilder().setLocalPreference(200).build()));
+    assertThat(second, equalTo(route("10.0.1.0/24").toBuilder().setLocalPreference(200).build()));
+    assertThat(_cache.getMisses(), equalTo(1L));
+    assertThat(_cache.getHits(), equalTo(1L));
+  }
+
+  @Test
+  public void testNetworkDependentPolicy() {
+    RoutingPolicy policy =
+        RoutingPolicy.builder()
+            .setName("matchPrefix")
+            .setOwner(_c)
+            .addStatement(
+                new If(
+                    new MatchPrefixSet(
+                        DestinationNetwork.instance(),
+                        new ExplicitPrefixSet(
+                            new PrefixSpace(PrefixRange.fromPrefix(Prefix.parse("10.0.0.0/24"))))),
+                    ImmutableList.of(Statements.ExitAccept.toStaticStatement()),
+                    ImmutableList.of(Statements.ExitReject.toStaticStatement())))
+            .build();
+
+    assertThat(process(policy, route("10.0.0.0/24")), notNullValue());
+    assertThat(process(policy, route("10.0.1.0/24")), nullValue());
+    assertThat(_cache.getMisses(), equalTo(2L));
+
+    // Rejections are memoized too
+    assertThat(process(policy, route("10.0.1.0/24")), nullValue());
+    assertThat(_cache.getHits(), equalTo(1L));
+  }
+
+  @Test
+  public void testOutputRouteAttributesAreKeyed() {
+    RoutingPolicy policy =
+        RoutingPolicy.builder()
+            .setName("accept")
+            .setOwner(_c)
+            .addStatement(Statements.ExitAccept.toStaticStatement())
+            .build();
+    Bgpv4Route route = route("10.0.0.0/24");
+
+    Bgpv4Route.Builder first =
+        _cache.processBgpRoute(policy, route, route.toBuilder().setWeight(1), SESSION, IN);
+    Bgpv4Route.Builder second =
+        _cache.processBgpRoute(policy, route, route.toBuilder().setWeight(2), SESSION, IN);
+
+    assertThat(first.build().getWeight(), equalTo(1));
+    assertThat(second.build().getWeight(), equalTo(2));
+    assertThat(_cache.getMisses(), equalTo(2L));
+  }
+}
@@ -29,6 +29,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -513,6 +514,51 @@ public final class FlowTracerTest {
     assertThat(routingStep.getAction(), equalTo(StepAction.NULL_ROUTED));
   }
 
+  @Test
+  public void testFibLookupSharesRoutingStepsWithinEquivalenceClass() {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration c =
+        nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS).build();
+    String hostname = c.getHostname();
+    String vrfName = nf.vrfBuilder().setOwner(c).build().getName();
+    Ip dstIp1 = Ip.parse("1.1.1.1");
+    Ip dstIp2 = Ip.parse("1.1.1.2");
+
+    // Both destinations have the same longest-prefix match
+    Set<FibEntry> entries =
+        ImmutableSet.of(
+            new FibEntry(
+                FibNullRoute.INSTANCE,
+                ImmutableList.of(
+                    StaticRoute.builder()
+                        .setAdmin(1)
+                        .setNetwork(Prefix.parse("1.1.1.0/24"))
+                        .setNextHopInterface(Interface.NULL_INTERFACE_NAME)
+                        .build())));
+    Fib fib =
+        MockFib.builder().setFibEntries(ImmutableMap.of(dstIp1, entries, dstIp2, entries)).build();
+
+    TracerouteEngineImplContext ctxt =
+        new TracerouteEngineImplContext(
+            MockDataPlane.builder().setConfigs(ImmutableMap.of(hostname, c)).build(),
+            Topology.EMPTY,
+            ImmutableSet.of(),
+            ImmutableSet.of(),
+            ImmutableMap.of(hostname, ImmutableMap.of(vrfName, fib)),
+            false);
+    List<Step<?>> routingSteps = new ArrayList<>();
+    for (Ip dstIp : ImmutableList.of(dstIp1, dstIp2)) {
+      Flow flow =
+          Flow.builder().setDstIp(dstIp).setIngressNode(hostname).setIngressVrf(vrfName).build();
+      ImmutableList.Builder<TraceAndReverseFlow> traces = ImmutableList.builder();
+      initialFlowTracer(ctxt, hostname, null, flow, traces::add).fibLookup(dstIp, hostname, fib);
+      TraceAndReverseFlow trace = Iterables.getOnlyElement(traces.build());
+      assertThat(trace, hasTrace(hasDisposition(NULL_ROUTED)));
+      routingSteps.add(trace.getTrace().getHops().get(0).getSteps().get(0));
+    }
+    assertThat(routingSteps.get(0), sameInstance(routingSteps.get(1)));
+  }
+
   @Test
   public void testFibLookupNextVrf() {
     NetworkFactory nf = new NetworkFactory();
@@ -821,7 +867,8 @@ public final class FlowTracerTest {
       Flow flow = fb.setDstIp(ip1).build();
       FlowTracer flowTracer = initialFlowTracer(ctxt, c1.getHostname(), null, flow, tarf -> {});
       flowTracer =
-          flowTracer.forkTracer(c2, null, new ArrayList<>(), null, Configuration.DEFAULT_VRF_NAME);
+          flowTracer.forkTracer(
+              c2, null, PersistentList.empty(), null, Configuration.DEFAULT_VRF_NAME);
       assertThat(flowTracer.eval(transformation).getOutputFlow().getDstIp(), equalTo(ip1));
     }
 
@@ -830,7 +877,8 @@ public final class FlowTracerTest {
       Flow flow = fb.setDstIp(ip2).build();
       FlowTracer flowTracer = initialFlowTracer(ctxt, c1.getHostname(), null, flow, tarf -> {});
       flowTracer =
-          flowTracer.forkTracer(c2, null, new ArrayList<>(), null, Configuration.DEFAULT_VRF_NAME);
+          flowTracer.forkTracer(
+              c2, null, PersistentList.empty(), null, Configuration.DEFAULT_VRF_NAME);
       assertThat(flowTracer.eval(transformation).getOutputFlow().getDstIp(), equalTo(ip3));
     }
   }
@@ -0,0 +1,48 @@
+package org.batfish.dataplane.traceroute;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+/** Tests of {@link PersistentList}. */
+public class PersistentListTest {
+
+  @Test
+  public void testEmpty() {
+    PersistentList<String> list = PersistentList.empty();
+    assertTrue(list.isEmpty());
+    assertThat(list.size(), equalTo(0));
+    assertThat(list.toList(), empty());
+  }
+
+  @Test
+  public void testAppend() {
+    PersistentList<String> list = PersistentList.<String>empty().append("a").append("b");
+    assertFalse(list.isEmpty());
+    assertThat(list.size(), equalTo(2));
+    assertThat(list.getLast(), equalTo("b"));
+    assertThat(list.toList(), contains("a", "b"));
+  }
+
+  @Test
+  public void testAppendDoesNotModifySharedPrefix() {
+    PersistentList<String> prefix = PersistentList.copyOf(ImmutableList.of("a", "b"));
+    PersistentList<String> left = prefix.append("c");
+    PersistentList<String> right = prefix.appendAll(ImmutableList.of("d", "e"));
+
+    assertThat(prefix.toList(), contains("a", "b"));
+    assertThat(left.toList(), contains("a", "b", "c"));
+    assertThat(right.toList(), contains("a", "b", "d", "e"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testGetLastEmpty() {
+    PersistentList.empty().getLast();
+  }
+}
@@ -101,6 +101,7 @@ import org.batfish.datamodel.TcpFlagsMatchConditions;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.Vrf;
 import org.batfish.datamodel.acl.AclLineMatchExprs;
+import org.batfish.datamodel.acl.CompiledIpAccessList;
 import org.batfish.datamodel.acl.MatchSrcInterface;
 import org.batfish.datamodel.acl.OriginatingFromDevice;
 import org.batfish.datamodel.collections.NodeInterfacePair;
@@ -544,10 +545,8 @@ public class TracerouteEngineImplTest {
         TracerouteUtils.createFilterStep(
             flow,
             iface1,
-            filter,
+            CompiledIpAccessList.compile(filter, ImmutableMap.of(), ImmutableMap.of()),
             FilterType.INGRESS_FILTER,
-            ImmutableMap.of(filterName, filter),
-            ImmutableMap.of(),
             false);
 
     assertThat(step.getAction(), equalTo(StepAction.PERMITTED));
@@ -559,10 +558,8 @@ public class TracerouteEngineImplTest {
         TracerouteUtils.createFilterStep(
             flow,
             iface2,
-            filter,
+            CompiledIpAccessList.compile(filter, ImmutableMap.of(), ImmutableMap.of()),
             FilterType.INGRESS_FILTER,
-            ImmutableMap.of(filterName, filter),
-            ImmutableMap.of(),
             false);
 
     assertThat(step.getAction(), equalTo(StepAction.DENIED));
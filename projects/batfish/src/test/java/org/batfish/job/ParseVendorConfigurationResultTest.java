@@ -1,10 +1,18 @@
 package org.batfish.job;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.collection.IsMapContaining.hasEntry;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import org.batfish.common.BatfishLogger;
@@ -58,4 +66,50 @@ public class ParseVendorConfigurationResultTest {
     // Confirm result warning was properly applied to answerElement
     assertThat(answerWarnings, hasEntry(filename, warnings));
   }
+
+  private static ParseVendorConfigurationResult passedResult(String filename, String hostname) {
+    VendorConfiguration config = new CiscoConfiguration();
+    config.setHostname(hostname);
+    config.setFilename(filename);
+    return new ParseVendorConfigurationResult(
+        0,
+        new BatfishLoggerHistory(),
+        filename,
+        config,
+        new Warnings(true, true, true),
+        new ParseTreeSentences(),
+        ParseStatus.PASSED,
+        HashMultimap.create());
+  }
+
+  @Test
+  public void testApplyToWithoutRetainingConfigs() {
+    Map<String, String> storedFilenames = new HashMap<>();
+    Set<String> duplicateHostnames = new HashSet<>();
+    BatfishLogger logger = new BatfishLogger("debug", false);
+    ParseVendorConfigurationAnswerElement answerElement =
+        new ParseVendorConfigurationAnswerElement();
+
+    assertThat(
+        passedResult("configs/a", "r1")
+            .applyTo(storedFilenames, duplicateHostnames, logger, answerElement),
+        equalTo("r1"));
+    assertThat(
+        passedResult("configs/b", "r2")
+            .applyTo(storedFilenames, duplicateHostnames, logger, answerElement),
+        equalTo("r2"));
+    assertThat(duplicateHostnames, empty());
+
+    // The second configuration named r1 is renamed; the first is left to the caller.
+    String modifiedName = ParseVendorConfigurationResult.getModifiedNameBase("r1", "configs/c");
+    ParseVendorConfigurationResult duplicate = passedResult("configs/c", "r1");
+    assertThat(
+        duplicate.applyTo(storedFilenames, duplicateHostnames, logger, answerElement),
+        equalTo(modifiedName));
+    assertThat(duplicate.getVendorConfiguration().getHostname(), equalTo(modifiedName));
+    assertThat(duplicateHostnames, contains("r1"));
+    assertThat(storedFilenames, hasEntry("r1", "configs/a"));
+    assertThat(answerElement.getFileMap().get(modifiedName), contains("configs/c"));
+    assertThat(answerElement.getWarnings().get("configs/c").getRedFlagWarnings(), hasSize(1));
+  }
 }
@@ -4,15 +4,20 @@ import static org.batfish.datamodel.FlowDisposition.LOOP;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.Flow;
@@ -57,4 +62,29 @@ public class BatfishBDDDetectLoopsTest {
             .collect(Collectors.toSet());
     assertThat(dispositions, equalTo(ImmutableSet.of(LOOP)));
   }
+
+  @Test
+  public void testStoresDataPlaneBdds() throws IOException {
+    initNetwork(true);
+    _batfish.bddLoopDetection(_batfish.getSnapshot());
+    try (Stream<Path> files = Files.walk(_tempFolder.getRoot().toPath())) {
+      assertTrue(files.anyMatch(path -> path.getFileName().toString().equals("dp_bdds")));
+    }
+  }
+
+  @Test
+  public void testRecomputingDataPlaneDropsDataPlaneBdds() throws IOException {
+    initNetwork(true);
+    _batfish.bddLoopDetection(_batfish.getSnapshot());
+    _batfish.computeDataPlane(_batfish.getSnapshot());
+    try (Stream<Path> files = Files.walk(_tempFolder.getRoot().toPath())) {
+      assertFalse(files.anyMatch(path -> path.getFileName().toString().equals("dp_bdds")));
+    }
+
+    // the next question stores BDDs built from the new data plane
+    assertThat(_batfish.bddLoopDetection(_batfish.getSnapshot()), hasSize(2));
+    try (Stream<Path> files = Files.walk(_tempFolder.getRoot().toPath())) {
+      assertTrue(files.anyMatch(path -> path.getFileName().toString().equals("dp_bdds")));
+    }
+  }
 }
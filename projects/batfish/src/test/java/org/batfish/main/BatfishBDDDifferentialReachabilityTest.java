@@ -229,6 +229,18 @@ public class BatfishBDDDifferentialReachabilityTest {
     checkDispositions(batfish, flows, EXITS_NETWORK);
   }
 
+  @Test
+  public void testSameSnapshot() throws IOException {
+    Batfish batfish = initBatfish(new ExitsNetworkNetworkGenerator());
+    DifferentialReachabilityResult differentialReachabilityResult =
+        batfish.bddDifferentialReachability(
+            batfish.getSnapshot(),
+            batfish.getSnapshot(),
+            parameters(batfish, ImmutableSet.of(FlowDisposition.EXITS_NETWORK)));
+    assertThat(differentialReachabilityResult.getIncreasedReachabilityFlows(), empty());
+    assertThat(differentialReachabilityResult.getDecreasedReachabilityFlows(), empty());
+  }
+
   @Test
   public void testDeliveredToSubnet() throws IOException {
     Batfish batfish = initBatfish(new ExitsNetworkNetworkGenerator());
@@ -1,11 +1,14 @@
 package org.batfish.main;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.batfish.common.BfConsts.RELPATH_AWS_CONFIGS_FILE;
 import static org.batfish.common.matchers.ThrowableMatchers.hasStackTrace;
 import static org.batfish.datamodel.matchers.InterfaceMatchers.hasName;
 import static org.batfish.datamodel.matchers.InterfaceMatchers.isActive;
 import static org.batfish.main.Batfish.mergeInternetAndIspNodes;
 import static org.batfish.main.Batfish.postProcessInterfaceDependencies;
+import static org.batfish.main.BatfishTestUtils.TEST_REFERENCE_SNAPSHOT;
+import static org.batfish.main.BatfishTestUtils.TEST_SNAPSHOT;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
@@ -14,8 +17,10 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -25,8 +30,12 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -38,10 +47,17 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.stream.Stream;
+import net.sf.javabdd.BDD;
+import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
+import org.batfish.bddreachability.IpsRoutedOutInterfacesFactory;
+import org.batfish.bddreachability.StoredBdds;
 import org.batfish.common.Answerer;
 import org.batfish.common.BatfishException;
+import org.batfish.common.BfConsts;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.Warnings;
+import org.batfish.common.bdd.BDDPacket;
 import org.batfish.common.plugin.IBatfish;
 import org.batfish.common.topology.IpOwners;
 import org.batfish.common.topology.Layer1Edge;
@@ -52,23 +68,32 @@ import org.batfish.common.util.isp.IspModelingUtils.ModeledNodes;
 import org.batfish.datamodel.AsPath;
 import org.batfish.datamodel.BgpAdvertisement;
 import org.batfish.datamodel.BgpAdvertisement.BgpAdvertisementType;
+import org.batfish.datamodel.ConcreteInterfaceAddress;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.ExprAclLine;
 import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.Interface.Dependency;
 import org.batfish.datamodel.Interface.DependencyType;
 import org.batfish.datamodel.InterfaceType;
 import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
 import org.batfish.datamodel.NetworkFactory;
 import org.batfish.datamodel.OriginType;
 import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.UniverseIpSpace;
 import org.batfish.datamodel.Vrf;
 import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerElement;
 import org.batfish.datamodel.answers.AnswerStatus;
+import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+import org.batfish.datamodel.answers.DataPlaneAnswerElement;
+import org.batfish.datamodel.answers.IncrementalBdpAnswerElement;
 import org.batfish.datamodel.collections.BgpAdvertisementsByVrf;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.datamodel.questions.TestQuestion;
@@ -78,6 +103,9 @@ import org.batfish.identifiers.QuestionId;
 import org.batfish.identifiers.QuestionSettingsId;
 import org.batfish.identifiers.TestIdResolver;
 import org.batfish.job.ParseVendorConfigurationResult;
+import org.batfish.specifier.InterfaceLinkLocation;
+import org.batfish.specifier.IpSpaceAssignment;
+import org.batfish.storage.FileBasedStorage;
 import org.batfish.storage.TestStorageProvider;
 import org.batfish.vendor.VendorConfiguration;
 import org.junit.Rule;
@@ -215,6 +243,34 @@ public class BatfishTest {
         equalTo(ImmutableSet.of("rtr1", "rtr2")));
   }
 
+  @Test
+  public void testLoadConfigurationsRepairsCorruptConfiguration() throws IOException {
+    Batfish batfish =
+        BatfishTestUtils.getBatfishFromTestrigText(
+            TestrigText.builder()
+                .setConfigurationText(
+                    "org/batfish/main/snapshots/duplicate_hostnames2", ImmutableList.of("rtr1"))
+                .build(),
+            _folder);
+    Map<String, Configuration> configurations = batfish.loadConfigurations(batfish.getSnapshot());
+
+    // Corrupt the stored configuration of rtr1 before it is first read
+    List<Path> storedRtr1;
+    try (Stream<Path> files = Files.walk(_folder.getRoot().toPath())) {
+      storedRtr1 =
+          files
+              .filter(
+                  path ->
+                      path.getFileName().toString().equals("rtr1")
+                          && path.getParent().getFileName().toString().equals("indep"))
+              .collect(ImmutableList.toImmutableList());
+    }
+    assertThat(storedRtr1, hasSize(1));
+    Files.write(storedRtr1.get(0), new byte[] {1, 2, 3});
+
+    assertThat(configurations.get("rtr1").getHostname(), equalTo("rtr1"));
+  }
+
   @Test
   public void testInitTestrigWithLayer1Topology() throws IOException {
     String testrigResourcePrefix = "org/batfish/common/topology/testrigs/layer1";
@@ -378,6 +434,164 @@ public class BatfishTest {
     assertThat(ipOwners.get(vrrpAddress), equalTo(Collections.singleton("r2")));
   }
 
+  private static SortedMap<String, Configuration> forkTestConfigs(String... hostnames) {
+    ImmutableSortedMap.Builder<String, Configuration> configs = ImmutableSortedMap.naturalOrder();
+    NetworkFactory nf = new NetworkFactory();
+    for (String hostname : hostnames) {
+      Configuration c =
+          nf.configurationBuilder()
+              .setHostname(hostname)
+              .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+              .build();
+      nf.vrfBuilder().setOwner(c).setName(Configuration.DEFAULT_VRF_NAME).build();
+      configs.put(hostname, c);
+    }
+    return configs.build();
+  }
+
+  /**
+   * Mark {@link BatfishTestUtils#TEST_REFERENCE_SNAPSHOT} as a fork of the test snapshot, and store
+   * the configurations of both snapshots.
+   */
+  private Batfish forkBatfish(
+      SortedMap<String, Configuration> baseConfigs, SortedMap<String, Configuration> deltaConfigs)
+      throws IOException {
+    Batfish batfish = BatfishTestUtils.getBatfish(baseConfigs, deltaConfigs, _folder);
+    FileBasedStorage storage =
+        new FileBasedStorage(batfish.getSettings().getStorageBase(), batfish.getLogger());
+    storage.storeSnapshotMetadata(
+        new SnapshotMetadata(Instant.now(), TEST_SNAPSHOT.getSnapshot()),
+        TEST_REFERENCE_SNAPSHOT.getNetwork(),
+        TEST_REFERENCE_SNAPSHOT.getSnapshot());
+    storage.storeConfigurations(
+        baseConfigs,
+        new ConvertConfigurationAnswerElement(),
+        null,
+        TEST_SNAPSHOT.getNetwork(),
+        TEST_SNAPSHOT.getSnapshot());
+    storage.storeConfigurations(
+        deltaConfigs,
+        new ConvertConfigurationAnswerElement(),
+        null,
+        TEST_REFERENCE_SNAPSHOT.getNetwork(),
+        TEST_REFERENCE_SNAPSHOT.getSnapshot());
+    return batfish;
+  }
+
+  @Test
+  public void testComputeDataPlaneReusesUnchangedParent() throws IOException {
+    Batfish batfish = forkBatfish(forkTestConfigs("n1", "n2"), forkTestConfigs("n1", "n2"));
+    batfish.getSettings().setReuseParentDataPlane(true);
+    DataPlaneAnswerElement parentAnswer = batfish.computeDataPlane(TEST_SNAPSHOT);
+    DataPlaneAnswerElement answer = batfish.computeDataPlane(TEST_REFERENCE_SNAPSHOT);
+
+    assertThat(
+        ((IncrementalBdpAnswerElement) answer).getDependentRoutesIterations(),
+        equalTo(((IncrementalBdpAnswerElement) parentAnswer).getDependentRoutesIterations()));
+    assertThat(
+        batfish.loadDataPlane(TEST_REFERENCE_SNAPSHOT),
+        sameInstance(batfish.loadDataPlane(TEST_SNAPSHOT)));
+  }
+
+  @Test
+  public void testComputeDataPlaneRecomputesChangedFork() throws IOException {
+    Batfish batfish = forkBatfish(forkTestConfigs("n1", "n2"), forkTestConfigs("n1", "n3"));
+    batfish.getSettings().setReuseParentDataPlane(true);
+    batfish.computeDataPlane(TEST_SNAPSHOT);
+    batfish.computeDataPlane(TEST_REFERENCE_SNAPSHOT);
+
+    assertThat(
+        batfish.loadDataPlane(TEST_REFERENCE_SNAPSHOT),
+        not(sameInstance(batfish.loadDataPlane(TEST_SNAPSHOT))));
+  }
+
+  @Test
+  public void testComputeDataPlaneRecomputesForkWithNewNodeBlacklist() throws IOException {
+    Batfish batfish = forkBatfish(forkTestConfigs("n1", "n2"), forkTestConfigs("n1", "n2"));
+    batfish.getSettings().setReuseParentDataPlane(true);
+    new FileBasedStorage(batfish.getSettings().getStorageBase(), batfish.getLogger())
+        .storeSnapshotInputObject(
+            new ByteArrayInputStream("[\"n2\"]".getBytes(UTF_8)),
+            BfConsts.RELPATH_NODE_BLACKLIST_FILE,
+            TEST_REFERENCE_SNAPSHOT);
+    batfish.computeDataPlane(TEST_SNAPSHOT);
+    batfish.computeDataPlane(TEST_REFERENCE_SNAPSHOT);
+
+    assertThat(
+        batfish.loadDataPlane(TEST_REFERENCE_SNAPSHOT),
+        not(sameInstance(batfish.loadDataPlane(TEST_SNAPSHOT))));
+  }
+
+  @Test
+  public void testComputeDataPlaneReuseDisabledByDefault() throws IOException {
+    Batfish batfish = forkBatfish(forkTestConfigs("n1", "n2"), forkTestConfigs("n1", "n2"));
+    batfish.computeDataPlane(TEST_SNAPSHOT);
+    batfish.computeDataPlane(TEST_REFERENCE_SNAPSHOT);
+
+    assertThat(
+        batfish.loadDataPlane(TEST_REFERENCE_SNAPSHOT),
+        not(sameInstance(batfish.loadDataPlane(TEST_SNAPSHOT))));
+  }
+
+  private static BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory(
+      Batfish batfish, boolean ignoreFilters) {
+    DataPlane dataPlane = batfish.loadDataPlane(batfish.getSnapshot());
+    return new BDDReachabilityAnalysisFactory(
+        new BDDPacket(),
+        batfish.loadConfigurations(batfish.getSnapshot()),
+        dataPlane.getForwardingAnalysis(),
+        new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
+        ignoreFilters,
+        false,
+        StoredBdds.empty());
+  }
+
+  @Test
+  public void testStoreDataPlaneBddsKeepsBddsStoredByOtherFactories() throws IOException {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration c =
+        nf.configurationBuilder()
+            .setHostname("n1")
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    Vrf vrf = nf.vrfBuilder().setOwner(c).setName(Configuration.DEFAULT_VRF_NAME).build();
+    IpAccessList acl =
+        nf.aclBuilder().setOwner(c).setName("acl").setLines(ExprAclLine.ACCEPT_ALL).build();
+    nf.interfaceBuilder()
+        .setOwner(c)
+        .setVrf(vrf)
+        .setName("eth0")
+        .setAddress(ConcreteInterfaceAddress.parse("10.0.0.1/24"))
+        .setIncomingFilter(acl)
+        .build();
+    Batfish batfish = BatfishTestUtils.getBatfish(ImmutableSortedMap.of("n1", c), _folder);
+    batfish.computeDataPlane(batfish.getSnapshot());
+    BDDReachabilityAnalysisFactory withFilters = bddReachabilityAnalysisFactory(batfish, false);
+    BDDReachabilityAnalysisFactory ignoringFilters = bddReachabilityAnalysisFactory(batfish, true);
+    // ACL BDDs are computed when first needed
+    withFilters
+        .bddReachabilityAnalysis(
+            IpSpaceAssignment.builder()
+                .assign(new InterfaceLinkLocation("n1", "eth0"), UniverseIpSpace.INSTANCE)
+                .build())
+        .getIngressLocationReachableBDDs();
+    List<String> aclKey = ImmutableList.of("acl", "n1", "acl");
+    assertThat(withFilters.getStoredBdds().getAll(), hasKey(aclKey));
+    assertThat(ignoringFilters.getStoredBdds().getAll(), not(hasKey(aclKey)));
+
+    batfish.storeDataPlaneBdds(batfish.getSnapshot(), withFilters);
+    batfish.storeDataPlaneBdds(batfish.getSnapshot(), ignoringFilters);
+
+    Map<List<String>, BDD> stored =
+        new FileBasedStorage(batfish.getSettings().getStorageBase(), batfish.getLogger())
+            .loadDataPlaneBdds(
+                batfish.getSnapshot(),
+                Batfish.DATA_PLANE_BDDS_FINGERPRINT.get(),
+                new BDDPacket().getFactory())
+            .get();
+    assertThat(stored.keySet(), equalTo(withFilters.getStoredBdds().getAll().keySet()));
+  }
+
   @Test
   public void testCheckValidTopology() {
     Map<String, Configuration> configs = new HashMap<>();
@@ -0,0 +1,90 @@
+package org.batfish.main;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.batfish.common.BatfishException;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/** Tests of {@link LazyConfigurationMap}. */
+public final class LazyConfigurationMapTest {
+
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  private Map<String, AtomicInteger> _loads;
+  private LazyConfigurationMap _map;
+
+  @Before
+  public void setup() {
+    _loads = new ConcurrentHashMap<>();
+    _map =
+        new LazyConfigurationMap(
+            ImmutableSet.of("c", "a", "b"),
+            hostname -> {
+              _loads.computeIfAbsent(hostname, h -> new AtomicInteger()).incrementAndGet();
+              return new Configuration(hostname, ConfigurationFormat.CISCO_IOS);
+            },
+            0L);
+  }
+
+  @Test
+  public void testKeysDoNotLoad() {
+    assertThat(_map.keySet(), contains("a", "b", "c"));
+    assertThat(_map.size(), equalTo(3));
+    assertThat(_map.containsKey("b"), equalTo(true));
+    assertThat(_map.firstKey(), equalTo("a"));
+    assertThat(_map.loadedCount(), equalTo(0L));
+  }
+
+  @Test
+  public void testGetLoadsOnlyThatNodeOnce() {
+    Configuration b = _map.get("b");
+    assertThat(b.getHostname(), equalTo("b"));
+    assertThat(_map.get("b"), sameInstance(b));
+    assertThat(_map.loadedCount(), equalTo(1L));
+    assertThat(_loads.get("b").get(), equalTo(1));
+    assertThat(_map.get("d"), equalTo(null));
+  }
+
+  @Test
+  public void testValuesLoadAll() {
+    assertThat(
+        _map.values().stream().map(Configuration::getHostname).collect(Collectors.toList()),
+        contains("a", "b", "c"));
+    assertThat(_map.loadedCount(), equalTo(3L));
+    _map.entrySet().forEach(e -> assertThat(e.getValue().getHostname(), equalTo(e.getKey())));
+    _loads.values().forEach(count -> assertThat(count.get(), equalTo(1)));
+  }
+
+  @Test
+  public void testLoaderExceptionIsRethrown() {
+    LazyConfigurationMap map =
+        new LazyConfigurationMap(
+            ImmutableSet.of("a"),
+            hostname -> {
+              throw new BatfishException("cannot load " + hostname);
+            },
+            0L);
+    _thrown.expect(BatfishException.class);
+    _thrown.expectMessage("cannot load a");
+    map.get("a");
+  }
+
+  @Test
+  public void testUnmodifiable() {
+    _thrown.expect(UnsupportedOperationException.class);
+    _map.put("d", new Configuration("d", ConfigurationFormat.CISCO_IOS));
+  }
+}
@@ -0,0 +1,148 @@
+package org.batfish.main;
+
+import static org.batfish.main.SnapshotCaches.BYTES_PER_CONFIGURATION;
+import static org.batfish.main.SnapshotCaches.BYTES_PER_ROUTE;
+import static org.batfish.main.SnapshotCaches.HEAP_BYTES_PER_SERIALIZED_BYTE;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.cache.Cache;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Table;
+import com.google.common.testing.EqualsTester;
+import java.util.Set;
+import java.util.SortedMap;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.AnnotatedRoute;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.ConnectedRoute;
+import org.batfish.datamodel.GenericRib;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.MockDataPlane;
+import org.batfish.datamodel.MockRib;
+import org.batfish.datamodel.OriginType;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.batfish.main.SnapshotCaches.BddReachabilityKey;
+import org.junit.Test;
+
+/** Tests of {@link SnapshotCaches}. */
+public final class SnapshotCachesTest {
+
+  private static NetworkSnapshot snapshot(String name) {
+    return new NetworkSnapshot(new NetworkId("network"), new SnapshotId(name));
+  }
+
+  private static SortedMap<String, Configuration> configs(int numNodes) {
+    ImmutableSortedMap.Builder<String, Configuration> configs = ImmutableSortedMap.naturalOrder();
+    for (int i = 0; i < numNodes; i++) {
+      String hostname = "n" + i;
+      configs.put(hostname, new Configuration(hostname, ConfigurationFormat.CISCO_IOS));
+    }
+    return configs.build();
+  }
+
+  @Test
+  public void testEvictsByWeight() {
+    Cache<NetworkSnapshot, SortedMap<String, Configuration>> cache =
+        SnapshotCaches.configurationsCache(10 * BYTES_PER_CONFIGURATION);
+
+    // many small snapshots fit
+    for (int i = 0; i < 10; i++) {
+      cache.put(snapshot("small" + i), configs(1));
+    }
+    assertThat(cache.size(), equalTo(10L));
+
+    // a large snapshot evicts the least recently used small ones to make room
+    cache.put(snapshot("large"), configs(6));
+    assertThat(cache.size(), equalTo(5L));
+    assertThat(cache.getIfPresent(snapshot("small0")), nullValue());
+    assertThat(cache.getIfPresent(snapshot("small9")), notNullValue());
+    assertThat(cache.getIfPresent(snapshot("large")), notNullValue());
+    assertThat(cache.stats().evictionCount(), equalTo(6L));
+  }
+
+  @Test
+  public void testKeepsEntryLargerThanBudget() {
+    Cache<NetworkSnapshot, SortedMap<String, Configuration>> cache =
+        SnapshotCaches.configurationsCache(2 * BYTES_PER_CONFIGURATION);
+    cache.put(snapshot("small"), configs(1));
+    cache.put(snapshot("huge"), configs(5));
+    assertThat(cache.getIfPresent(snapshot("huge")), notNullValue());
+    assertThat(cache.getIfPresent(snapshot("small")), nullValue());
+  }
+
+  @Test
+  public void testRecordsStats() {
+    Cache<NetworkSnapshot, SortedMap<String, Configuration>> cache =
+        SnapshotCaches.configurationsCache(BYTES_PER_CONFIGURATION);
+    cache.getIfPresent(snapshot("s"));
+    cache.put(snapshot("s"), configs(1));
+    cache.getIfPresent(snapshot("s"));
+    assertThat(cache.stats().missCount(), equalTo(1L));
+    assertThat(cache.stats().hitCount(), equalTo(1L));
+  }
+
+  @Test
+  public void testEstimateConfigurationBytes() {
+    // configurations read from storage are weighed by their serialized size, not their count
+    assertThat(
+        SnapshotCaches.estimateBytes(
+            new LazyConfigurationMap(ImmutableSet.of("n1", "n2"), hostname -> null, 1000L),
+            BYTES_PER_CONFIGURATION),
+        equalTo(1000L * HEAP_BYTES_PER_SERIALIZED_BYTE));
+    assertThat(
+        SnapshotCaches.estimateBytes(
+            new StoredVendorConfigurations(ImmutableSortedMap.of(), 300L), BYTES_PER_CONFIGURATION),
+        equalTo(300L * HEAP_BYTES_PER_SERIALIZED_BYTE));
+    assertThat(
+        SnapshotCaches.estimateBytes(configs(2), BYTES_PER_CONFIGURATION),
+        equalTo(2 * BYTES_PER_CONFIGURATION));
+  }
+
+  @Test
+  public void testEstimateDataPlaneBytes() {
+    Set<AnnotatedRoute<AbstractRoute>> mainRoutes =
+        ImmutableSet.of(
+            new AnnotatedRoute<>(new ConnectedRoute(Prefix.parse("1.0.0.0/24"), "i1"), "vrf"),
+            new AnnotatedRoute<>(new ConnectedRoute(Prefix.parse("2.0.0.0/24"), "i2"), "vrf"));
+    Table<String, String, Set<Bgpv4Route>> bgpRoutes = HashBasedTable.create();
+    bgpRoutes.put(
+        "n",
+        "vrf",
+        ImmutableSet.of(
+            Bgpv4Route.builder()
+                .setNetwork(Prefix.parse("3.0.0.0/24"))
+                .setOriginatorIp(Ip.ZERO)
+                .setOriginType(OriginType.IGP)
+                .setProtocol(RoutingProtocol.BGP)
+                .build()));
+    GenericRib<AnnotatedRoute<AbstractRoute>> rib = MockRib.builder().setRoutes(mainRoutes).build();
+    MockDataPlane dataPlane =
+        MockDataPlane.builder()
+            .setRibs(ImmutableSortedMap.of("n", ImmutableSortedMap.of("vrf", rib)))
+            .setBgpRoutes(bgpRoutes)
+            .build();
+    assertThat(SnapshotCaches.estimateBytes(dataPlane), equalTo(3 * BYTES_PER_ROUTE));
+  }
+
+  @Test
+  public void testBddReachabilityKey() {
+    new EqualsTester()
+        .addEqualityGroup(
+            new BddReachabilityKey(snapshot("s"), false),
+            new BddReachabilityKey(snapshot("s"), false))
+        .addEqualityGroup(new BddReachabilityKey(snapshot("s"), true))
+        .addEqualityGroup(new BddReachabilityKey(snapshot("t"), false))
+        .testEquals();
+  }
+}
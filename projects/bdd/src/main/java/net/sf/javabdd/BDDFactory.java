@@ -29,6 +29,8 @@
 package net.sf.javabdd;
 
 import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -346,6 +348,42 @@ public abstract class BDDFactory {
    */
   public abstract BDD orAll(Collection<BDD> bddOperands);
 
+  /**
+   * Returns a BDD in this factory representing the same function as {@code bdd}, which may belong
+   * to another factory. Variables are matched by number, so this factory must have at least as many
+   * variables as the one {@code bdd} comes from.
+   *
+   * <p>BDD factories are not thread-safe. To spread independent BDD computations across threads,
+   * give each thread its own factory and use this method to bring the results together. The factory
+   * {@code bdd} belongs to must not be in use by another thread during the call.
+   */
+  public abstract BDD importBDD(BDD bdd);
+
+  /**
+   * Writes the given BDDs of this factory to {@code out} in a compact binary format, which {@link
+   * #load(DataInput)} reads back. Nodes shared by several of the BDDs are written only once.
+   *
+   * <p>Compare to bdd_save.
+   *
+   * @param out output to write to
+   * @param bdds BDDs to write
+   * @throws IOException if writing fails
+   */
+  public abstract void save(DataOutput out, List<BDD> bdds) throws IOException;
+
+  /**
+   * Reads BDDs written by {@link #save(DataOutput, List)} into this factory, in the order they were
+   * written. Variables are matched by number, and are added to this factory if it has fewer than
+   * the one the BDDs were saved from. The variable orders of the two factories may differ.
+   *
+   * <p>Compare to bdd_load.
+   *
+   * @param in input to read from
+   * @return the BDDs read
+   * @throws IOException if reading fails or the input is not in the expected format
+   */
+  public abstract List<BDD> load(DataInput in) throws IOException;
+
   /**
    * Sets the node table size.
    *
@@ -502,6 +540,94 @@ public abstract class BDDFactory {
     return result;
   }
 
+  /** No reordering. */
+  public static final ReorderMethod REORDER_NONE = new ReorderMethod(0, "NONE");
+
+  /** Reordering using a sliding window of two blocks, in a single pass. */
+  public static final ReorderMethod REORDER_WIN2 = new ReorderMethod(1, "WIN2");
+
+  /** Reordering using a sliding window of two blocks, iterated until no further progress. */
+  public static final ReorderMethod REORDER_WIN2ITE = new ReorderMethod(2, "WIN2ITE");
+
+  /**
+   * Reordering where each block is moved through all possible positions, and then left at the
+   * position that minimizes the number of nodes. Blocks holding the most nodes are sifted first.
+   */
+  public static final ReorderMethod REORDER_SIFT = new ReorderMethod(3, "SIFT");
+
+  /**
+   * Enumeration class for methods of dynamic variable reordering. Use the static fields in
+   * BDDFactory to access the different methods.
+   */
+  public static class ReorderMethod {
+    final int id;
+    final String name;
+
+    private ReorderMethod(int id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  /**
+   * Reorders the variables using the given method, to reduce the number of nodes in use. Variables
+   * in a block added with {@link #addVarBlock(int, int)} are kept at consecutive levels and in the
+   * same relative order. Existing BDDs still represent the same functions afterwards, but their
+   * levels may change.
+   *
+   * <p>Compare to bdd_reorder.
+   *
+   * @param method reordering method
+   */
+  public abstract void reorder(ReorderMethod method);
+
+  /**
+   * Enables automatic reordering using the given method, or disables it for {@link #REORDER_NONE}.
+   * When enabled, the factory reorders at the start of an operation once more than {@code
+   * nodeThreshold} nodes are in use. After each such reordering the threshold is raised to at least
+   * twice the number of nodes still in use, so that a reordering that gains little is not retried
+   * immediately.
+   *
+   * <p>Since levels may change whenever an operation starts, code that walks the structure of a BDD
+   * (e.g. via {@link BDD#high()} and {@link BDD#low()}) must not interleave other operations.
+   *
+   * <p>Compare to bdd_autoreorder.
+   *
+   * @param method reordering method
+   * @param nodeThreshold number of nodes in use above which to reorder
+   * @return the previous reordering method
+   */
+  public abstract ReorderMethod autoReorder(ReorderMethod method, int nodeThreshold);
+
+  /**
+   * Returns the method used for automatic reordering, or {@link #REORDER_NONE} if it is disabled.
+   */
+  public abstract ReorderMethod getReorderMethod();
+
+  /**
+   * Adds a block of the variables {@code first} to {@code last}, inclusive, which reordering then
+   * moves as a unit. The variables must currently be at consecutive levels, and must not belong to
+   * another block.
+   *
+   * <p>Compare to bdd_intaddvarblock.
+   *
+   * @param first first variable of the block
+   * @param last last variable of the block
+   */
+  public abstract void addVarBlock(int first, int last);
+
+  /**
+   * Removes all blocks of variables added with {@link #addVarBlock(int, int)}.
+   *
+   * <p>Compare to bdd_clrvarblocks.
+   */
+  public abstract void clearVarBlocks();
+
   /**
    * Make a new BDDPairing object.
    *
@@ -1313,9 +1439,27 @@ public abstract class BDDFactory {
     }
   }
 
+  /** Verbosity of the default reorder handler; 0 prints nothing. */
+  protected int reorderverbose = 0;
+
+  /**
+   * Sets the verbosity of the default reorder handler, which is used when no reorder callback is
+   * registered. A value of 0 prints nothing, and a positive value prints statistics about each
+   * reordering.
+   *
+   * <p>Compare to bdd_reorder_verbose.
+   *
+   * @param v new verbosity
+   * @return the previous verbosity
+   */
+  public int reorderVerbose(int v) {
+    int old = reorderverbose;
+    reorderverbose = v;
+    return old;
+  }
+
   protected void bdd_default_reohandler(boolean prestate, ReorderStats s) {
-    int verbose = 1;
-    if (verbose > 0) {
+    if (reorderverbose > 0) {
       if (prestate) {
         System.out.println("Start reordering");
       } else {
@@ -28,10 +28,20 @@
  */
 package net.sf.javabdd;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import javax.annotation.Nonnull;
 
@@ -40,13 +50,26 @@ import javax.annotation.Nonnull;
  * BuDDy. As such, the implementation is very ugly, but it works. Like BuDDy, it uses a reference
  * counting scheme for garbage collection.
  *
+ * <p>A factory is not thread-safe. Parallel computations should use a factory per thread and
+ * combine results with {@link #importBDD(BDD)}.
+ *
  * @author John Whaley
  * @version $Id: JFactory.java,v 1.28 2005/09/27 22:56:18 joewhaley Exp $
  */
 public final class JFactory extends BDDFactory {
-  /** Whether to maintain (and in some cases print) statistics about the cache use. */
+  /**
+   * Whether to maintain (and in some cases print) statistics about the unique table and cache
+   * resets. Operator cache lookups are counted separately; see {@link
+   * #setOperatorCacheStats(boolean)}.
+   */
   private static final boolean CACHESTATS = false;
 
+  /**
+   * With adaptive cache sizing, an operator cache never grows beyond the node table size divided by
+   * this ratio.
+   */
+  private static final int ADAPTIVE_CACHE_MIN_RATIO = 4;
+
   /**
    * Whether to flush (clear completely) the cache when live BDD nodes are garbage collected. If
    * {@code false}, the cache will be attempted to be cleaned and maintain existing valid cache
@@ -583,6 +606,16 @@ public final class JFactory extends BDDFactory {
     BddCacheData[] table;
     int tablesize;
 
+    /* Lookup telemetry, kept for the life of the cache. */
+    long hits;
+    long misses;
+    long overwrites;
+
+    /* Telemetry at the last adaptive sizing decision; see bdd_operator_adapt. */
+    long adaptedhits;
+    long adaptedmisses;
+    long adaptedoverwrites;
+
     BddCache copy() {
       BddCache that = new BddCache();
       if (table instanceof BddCacheDataI[]) {
@@ -595,6 +628,12 @@ public final class JFactory extends BDDFactory {
         throw new IllegalStateException("Unexpected BddCache type");
       }
       that.tablesize = tablesize;
+      that.hits = hits;
+      that.misses = misses;
+      that.overwrites = overwrites;
+      that.adaptedhits = adaptedhits;
+      that.adaptedmisses = adaptedmisses;
+      that.adaptedoverwrites = adaptedoverwrites;
       for (int i = 0; i < table.length; ++i) {
         that.table[i] = table[i].copy();
       }
@@ -908,7 +947,212 @@ public final class JFactory extends BDDFactory {
     }
   }
 
+  @Override
+  public BDD importBDD(BDD bdd) {
+    if (bdd.getFactory() == this) {
+      return bdd.id();
+    }
+    if (!(bdd.getFactory() instanceof JFactory)) {
+      throw new IllegalArgumentException("Can only import BDDs from another JFactory");
+    }
+    JFactory source = (JFactory) bdd.getFactory();
+    if (source.bddvarnum > bddvarnum) {
+      throw new IllegalArgumentException(
+          "Source factory has " + source.bddvarnum + " variables, this one has " + bddvarnum);
+    }
+
+    // Imported nodes are referenced until the end, since building later nodes may trigger GC.
+    Map<Integer, Integer> imported = new HashMap<>();
+    INITREF();
+    try {
+      int res = import_rec(source, ((BDDImpl) bdd)._index, imported, sameRelativeOrder(source));
+      return makeBDD(res);
+    } finally {
+      imported.values().forEach(this::bdd_delref);
+      checkresize();
+    }
+  }
+
+  /** Whether the variables of {@code source} appear in the same relative order in this factory. */
+  private boolean sameRelativeOrder(JFactory source) {
+    int lastlevel = -1;
+    for (int level = 0; level < source.bddvarnum; level++) {
+      int thislevel = bddvar2level[source.bddlevel2var[level]];
+      if (thislevel < lastlevel) {
+        return false;
+      }
+      lastlevel = thislevel;
+    }
+    return true;
+  }
+
+  private int import_rec(
+      JFactory source, int r, Map<Integer, Integer> imported, boolean sameRelativeOrder) {
+    if (ISCONST(r)) {
+      return r;
+    }
+    Integer cached = imported.get(r);
+    if (cached != null) {
+      return cached;
+    }
+
+    int low = import_rec(source, source.LOW(r), imported, sameRelativeOrder);
+    int high = import_rec(source, source.HIGH(r), imported, sameRelativeOrder);
+    int var = source.bddlevel2var[source.LEVEL(r)];
+    int res =
+        sameRelativeOrder
+            ? bdd_makenode(bddvar2level[var], low, high)
+            : bdd_ite(bdd_ithvar(var), high, low);
+    imported.put(r, bdd_addref(res));
+    return res;
+  }
+
+  /* "JBDD" */
+  private static final int SAVE_MAGIC = 0x4A424444;
+  private static final int SAVE_VERSION = 1;
+
+  /*
+   * Saved format: magic, version, and number of variables, followed by the nodes in post-order so
+   * that children precede their parents, then by the roots. Each node is written as its variable
+   * plus one, then its low and high children. Nodes are numbered from 2 in the order written, the
+   * constants keeping their own numbers; a child is written as its distance to the node being
+   * written plus one, which is small since children are usually written shortly before their
+   * parents. A 0 in place of a variable ends the nodes. All numbers are unsigned varints.
+   */
+
+  @Override
+  public void save(DataOutput out, List<BDD> bdds) throws IOException {
+    out.writeInt(SAVE_MAGIC);
+    out.writeByte(SAVE_VERSION);
+    writeVarInt(out, bddvarnum);
+
+    /* Number assigned to each written node, or 0 if it has not been written yet */
+    int[] saved = new int[bddnodesize];
+    int[] next = {2};
+    for (BDD bdd : bdds) {
+      if (bdd.getFactory() != this) {
+        throw new IllegalArgumentException("Can only save BDDs of this factory");
+      }
+      save_rec(out, ((BDDImpl) bdd)._index, saved, next);
+    }
+    writeVarInt(out, 0);
+
+    writeVarInt(out, bdds.size());
+    for (BDD bdd : bdds) {
+      int r = ((BDDImpl) bdd)._index;
+      writeVarInt(out, ISCONST(r) ? r : saved[r]);
+    }
+  }
+
+  private void save_rec(DataOutput out, int r, int[] saved, int[] next) throws IOException {
+    if (ISCONST(r) || saved[r] != 0) {
+      return;
+    }
+    int low = LOW(r);
+    int high = HIGH(r);
+    save_rec(out, low, saved, next);
+    save_rec(out, high, saved, next);
+
+    int id = next[0]++;
+    writeVarInt(out, bddlevel2var[LEVEL(r)] + 1);
+    writeVarInt(out, ISCONST(low) ? low : id - saved[low] + 1);
+    writeVarInt(out, ISCONST(high) ? high : id - saved[high] + 1);
+    saved[r] = id;
+  }
+
+  @Override
+  public List<BDD> load(DataInput in) throws IOException {
+    if (in.readInt() != SAVE_MAGIC) {
+      throw new IOException("Input does not hold saved BDDs");
+    }
+    int version = in.readUnsignedByte();
+    if (version != SAVE_VERSION) {
+      throw new IOException("Unsupported version of saved BDDs: " + version);
+    }
+    int varnum = readVarInt(in);
+    if (varnum > bddvarnum) {
+      bdd_setvarnum(varnum);
+    }
+
+    /* Node of this factory for each saved node number. Loaded nodes are referenced until the end,
+     * since building later nodes may trigger GC. */
+    int[] loaded = new int[1024];
+    loaded[0] = BDDZERO;
+    loaded[1] = BDDONE;
+    int num = 2;
+    INITREF();
+    try {
+      for (int v = readVarInt(in); v != 0; v = readVarInt(in)) {
+        int var = v - 1;
+        if (var >= varnum) {
+          throw new IOException("Saved node has variable " + var + " out of " + varnum);
+        }
+        int low = loaded[load_child(readVarInt(in), num)];
+        int high = loaded[load_child(readVarInt(in), num)];
+        int level = bddvar2level[var];
+        /* Children built under a different variable order may be above this variable */
+        int res =
+            (ISCONST(low) || level < LEVEL(low)) && (ISCONST(high) || level < LEVEL(high))
+                ? bdd_makenode(level, low, high)
+                : bdd_ite(bdd_ithvar(var), high, low);
+        if (num == loaded.length) {
+          loaded = Arrays.copyOf(loaded, num * 2);
+        }
+        loaded[num++] = bdd_addref(res);
+      }
+
+      int rootnum = readVarInt(in);
+      List<BDD> roots = new ArrayList<>(rootnum);
+      for (int i = 0; i < rootnum; i++) {
+        int root = readVarInt(in);
+        if (root >= num) {
+          throw new IOException("Saved root " + root + " is not a saved node");
+        }
+        roots.add(makeBDD(loaded[root]));
+      }
+      return roots;
+    } finally {
+      for (int i = 2; i < num; i++) {
+        bdd_delref(loaded[i]);
+      }
+      checkresize();
+    }
+  }
+
+  /** Returns the number of the saved child written as {@code v} for the saved node {@code id}. */
+  private static int load_child(int v, int id) throws IOException {
+    if (v < 2) {
+      return v;
+    }
+    int child = id - v + 1;
+    if (child < 2) {
+      throw new IOException("Saved node " + id + " has a child that is not a saved node");
+    }
+    return child;
+  }
+
+  private static void writeVarInt(DataOutput out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  private static int readVarInt(DataInput in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint in saved BDDs");
+  }
+
   private int bdd_orAll(int[] operands) {
+    checkreorder();
     if (multiopcache == null) {
       multiopcache = BddCacheMultiOp_init(cachesize);
     }
@@ -940,6 +1184,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int bdd_not(int r) {
+    checkreorder();
     CHECK(r);
 
     if (applycache == null) {
@@ -966,13 +1211,13 @@ public final class JFactory extends BDDFactory {
     entry = BddCache_lookupI(applycache, NOTHASH(r));
 
     if (entry.a == r && entry.c == bddop_not) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        applycache.hits++;
       }
       return entry.res;
     }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      applycache.misses++;
     }
 
     PUSHREF(not_rec(LOW(r)));
@@ -980,8 +1225,8 @@ public final class JFactory extends BDDFactory {
     res = bdd_makenode(LEVEL(r), READREF(2), READREF(1));
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      applycache.overwrites++;
     }
     entry.a = r;
     entry.c = bddop_not;
@@ -991,6 +1236,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int bdd_ite(int f, int g, int h) {
+    checkreorder();
     CHECK(f);
     CHECK(g);
     CHECK(h);
@@ -1036,13 +1282,13 @@ public final class JFactory extends BDDFactory {
     // Fortuitously, these are logically equivalent -- if f then g else false === f and g.
     entry = BddCache_lookupI(applycache, APPLYHASH(f, g, -h));
     if (entry.a == f && entry.b == g && entry.c == -h) { // To explain -h, see caching note above.
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        applycache.hits++;
       }
       return entry.res;
     }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      applycache.misses++;
     }
 
     if (LEVEL(f) == LEVEL(g)) {
@@ -1091,8 +1337,8 @@ public final class JFactory extends BDDFactory {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      applycache.overwrites++;
     }
     entry.a = f;
     entry.b = g;
@@ -1103,6 +1349,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int bdd_replace(int r, bddPair pair) {
+    checkreorder();
     CHECK(r);
 
     if (replacecache == null) {
@@ -1129,13 +1376,13 @@ public final class JFactory extends BDDFactory {
 
     entry = BddCache_lookupI(replacecache, REPLACEHASH(replaceid, r));
     if (entry.a == r && entry.c == replaceid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        replacecache.hits++;
       }
       return entry.res;
     }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      replacecache.misses++;
     }
 
     PUSHREF(replace_rec(LOW(r)));
@@ -1158,8 +1405,8 @@ public final class JFactory extends BDDFactory {
     }
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      replacecache.overwrites++;
     }
     entry.a = r;
     entry.c = replaceid;
@@ -1193,13 +1440,13 @@ public final class JFactory extends BDDFactory {
 
     BddCacheDataI entry = BddCache_lookupI(replacecache, CORRECTIFYHASH(replaceid, l, r));
     if (entry.a == l && entry.b == r && entry.c == replaceid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        replacecache.hits++;
       }
       return entry.res;
     }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      replacecache.misses++;
     }
 
     if (LEVEL(l) == LEVEL(r)) {
@@ -1217,8 +1464,8 @@ public final class JFactory extends BDDFactory {
     }
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      replacecache.overwrites++;
     }
     entry.a = l;
     entry.b = r;
@@ -1229,6 +1476,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int bdd_apply(int l, int r, int op) {
+    checkreorder();
     CHECK(l);
     CHECK(r);
 
@@ -1412,13 +1660,13 @@ public final class JFactory extends BDDFactory {
     entry = BddCache_lookupI(applycache, APPLYHASH(l, r, applyop));
 
     if (entry.a == l && entry.b == r && entry.c == applyop) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        applycache.hits++;
       }
       return entry.res;
     }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      applycache.misses++;
     }
 
     if (LEVEL(l) == LEVEL(r)) {
@@ -1437,8 +1685,8 @@ public final class JFactory extends BDDFactory {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      applycache.overwrites++;
     }
     entry.a = l;
     entry.b = r;
@@ -1469,13 +1717,13 @@ public final class JFactory extends BDDFactory {
     entry = BddCache_lookupI(applycache, APPLYHASH(l, r, bddop_and));
 
     if (entry.a == l && entry.b == r && entry.c == bddop_and) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        applycache.hits++;
       }
       return entry.res;
     }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      applycache.misses++;
     }
 
     if (LEVEL(l) == LEVEL(r)) {
@@ -1494,8 +1742,8 @@ public final class JFactory extends BDDFactory {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      applycache.overwrites++;
     }
     entry.a = l;
     entry.b = r;
@@ -1517,14 +1765,14 @@ public final class JFactory extends BDDFactory {
     // TODO: should we also check for diff? For now, don't since diff_sat should be real fast.
     BddCacheDataI entry = BddCache_lookupI(applycache, APPLYHASH(l, r, bddop_diffsat));
     if (entry.a == l && entry.b == r && entry.c == bddop_diffsat) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        applycache.hits++;
       }
       // We set entry.res to BDDZERO for false and BDDONE for true.
       return entry.res == BDDONE;
     }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      applycache.misses++;
     }
 
     boolean res;
@@ -1536,8 +1784,8 @@ public final class JFactory extends BDDFactory {
       res = diffsat_rec(l, LOW(r)) || diffsat_rec(l, HIGH(r));
     }
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      applycache.overwrites++;
     }
     entry.a = l;
     entry.b = r;
@@ -1564,14 +1812,14 @@ public final class JFactory extends BDDFactory {
     // TODO: should we also check for and? For now, don't since and_sat should be real fast.
     BddCacheDataI entry = BddCache_lookupI(applycache, APPLYHASH(l, r, bddop_andsat));
     if (entry.a == l && entry.b == r && entry.c == bddop_andsat) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        applycache.hits++;
       }
       // We set entry.res to BDDZERO for false and BDDONE for true.
       return entry.res == BDDONE;
     }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      applycache.misses++;
     }
 
     boolean res;
@@ -1583,8 +1831,8 @@ public final class JFactory extends BDDFactory {
       res = andsat_rec(l, LOW(r)) || andsat_rec(l, HIGH(r));
     }
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      applycache.overwrites++;
     }
     entry.a = l;
     entry.b = r;
@@ -1636,13 +1884,13 @@ public final class JFactory extends BDDFactory {
     MultiOpBddCacheData entry =
         BddCache_lookupMultiOp(multiopcache, MULTIOPHASH(operands, bddop_or));
     if (entry.a == bddop_or && Arrays.equals(operands, entry.operands)) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        multiopcache.hits++;
       }
       return entry.b;
     }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      multiopcache.misses++;
     }
 
     /* Compute the result in a way that generalizes or_rec. Identify the variable to branch on, and
@@ -1757,8 +2005,8 @@ public final class JFactory extends BDDFactory {
       POPREF(1);
     }
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      multiopcache.overwrites++;
     }
     entry.a = bddop_or;
     entry.b = res;
@@ -1787,13 +2035,13 @@ public final class JFactory extends BDDFactory {
     entry = BddCache_lookupI(applycache, APPLYHASH(l, r, bddop_or));
 
     if (entry.a == l && entry.b == r && entry.c == bddop_or) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        applycache.hits++;
       }
       return entry.res;
     }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      applycache.misses++;
     }
 
     if (LEVEL(l) == LEVEL(r)) {
@@ -1812,8 +2060,8 @@ public final class JFactory extends BDDFactory {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      applycache.overwrites++;
     }
     entry.a = l;
     entry.b = r;
@@ -1846,13 +2094,13 @@ public final class JFactory extends BDDFactory {
     } else {
       entry = BddCache_lookupI(appexcache, APPEXHASH(l, r, bddop_and));
       if (entry.a == l && entry.b == r && entry.c == appexid) {
-        if (CACHESTATS) {
-          cachestats.opHit++;
+        if (countcachelookups) {
+          appexcache.hits++;
         }
         return entry.res;
       }
-      if (CACHESTATS) {
-        cachestats.opMiss++;
+      if (countcachelookups) {
+        appexcache.misses++;
       }
 
       if (LEVEL_l == LEVEL_r) {
@@ -1883,8 +2131,8 @@ public final class JFactory extends BDDFactory {
 
       POPREF(2);
 
-      if (CACHESTATS && entry.a != -1) {
-        cachestats.opOverwrite++;
+      if (countcachelookups && entry.a != -1) {
+        appexcache.overwrites++;
       }
       entry.a = l;
       entry.b = r;
@@ -1900,6 +2148,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int bdd_appex(int l, int r, int opr, int var) {
+    checkreorder();
     CHECK(l);
     CHECK(r);
     CHECK(var);
@@ -2058,13 +2307,13 @@ public final class JFactory extends BDDFactory {
     } else {
       entry = BddCache_lookupI(appexcache, APPEXHASH(l, r, appexop));
       if (entry.a == l && entry.b == r && entry.c == appexid) {
-        if (CACHESTATS) {
-          cachestats.opHit++;
+        if (countcachelookups) {
+          appexcache.hits++;
         }
         return entry.res;
       }
-      if (CACHESTATS) {
-        cachestats.opMiss++;
+      if (countcachelookups) {
+        appexcache.misses++;
       }
 
       int lev;
@@ -2100,8 +2349,8 @@ public final class JFactory extends BDDFactory {
 
       POPREF(2);
 
-      if (CACHESTATS && entry.a != -1) {
-        cachestats.opOverwrite++;
+      if (countcachelookups && entry.a != -1) {
+        appexcache.overwrites++;
       }
       entry.a = l;
       entry.b = r;
@@ -2146,13 +2395,13 @@ public final class JFactory extends BDDFactory {
     } else {
       entry = BddCache_lookupI(appexcache, APPEXHASH(l, r, appexop));
       if (entry.a == l && entry.b == r && entry.c == appexid) {
-        if (CACHESTATS) {
-          cachestats.opHit++;
+        if (countcachelookups) {
+          appexcache.hits++;
         }
         return entry.res;
       }
-      if (CACHESTATS) {
-        cachestats.opMiss++;
+      if (countcachelookups) {
+        appexcache.misses++;
       }
 
       int lev;
@@ -2204,8 +2453,8 @@ public final class JFactory extends BDDFactory {
 
       POPREF(2);
 
-      if (CACHESTATS && entry.a != -1) {
-        cachestats.opOverwrite++;
+      if (countcachelookups && entry.a != -1) {
+        appexcache.overwrites++;
       }
       entry.a = l;
       entry.b = r;
@@ -2234,13 +2483,13 @@ public final class JFactory extends BDDFactory {
 
     entry = BddCache_lookupI(quantcache, QUANTHASH(r));
     if (entry.a == r && entry.c == quantid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        quantcache.hits++;
       }
       return entry.res;
     }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      quantcache.misses++;
     }
 
     if (LEVEL_r == LEVEL_q) {
@@ -2255,8 +2504,8 @@ public final class JFactory extends BDDFactory {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      quantcache.overwrites++;
     }
     entry.a = r;
     entry.c = quantid;
@@ -2275,13 +2524,13 @@ public final class JFactory extends BDDFactory {
 
     entry = BddCache_lookupI(quantcache, QUANTHASH(r));
     if (entry.a == r && entry.c == quantid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        quantcache.hits++;
       }
       return entry.res;
     }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      quantcache.misses++;
     }
 
     PUSHREF(quant_rec(LOW(r)));
@@ -2306,8 +2555,8 @@ public final class JFactory extends BDDFactory {
 
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      quantcache.overwrites++;
     }
     entry.a = r;
     entry.c = quantid;
@@ -2317,6 +2566,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int bdd_constrain(int f, int c) {
+    checkreorder();
     CHECK(f);
     CHECK(c);
 
@@ -2348,13 +2598,13 @@ public final class JFactory extends BDDFactory {
 
     entry = BddCache_lookupI(misccache, CONSTRAINHASH(f, c));
     if (entry.a == f && entry.b == c && entry.c == miscid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        misccache.hits++;
       }
       return entry.res;
     }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      misccache.misses++;
     }
 
     if (LEVEL(f) == LEVEL(c)) {
@@ -2386,8 +2636,8 @@ public final class JFactory extends BDDFactory {
       }
     }
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      misccache.overwrites++;
     }
     entry.a = f;
     entry.b = c;
@@ -2398,6 +2648,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int bdd_compose(int f, int g, int var) {
+    checkreorder();
     CHECK(f);
     CHECK(g);
     if (var < 0 || var >= bddvarnum) {
@@ -2432,13 +2683,13 @@ public final class JFactory extends BDDFactory {
 
     entry = BddCache_lookupI(replacecache, COMPOSEHASH(replaceid, f, g));
     if (entry.a == f && entry.b == g && entry.c == replaceid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        replacecache.hits++;
       }
       return entry.res;
     }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      replacecache.misses++;
     }
 
     if (LEVEL(f) < composelevel) {
@@ -2461,8 +2712,8 @@ public final class JFactory extends BDDFactory {
       res = ite_rec(g, HIGH(f), LOW(f));
     }
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      replacecache.overwrites++;
     }
     entry.a = f;
     entry.b = g;
@@ -2473,6 +2724,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int bdd_veccompose(int f, bddPair pair) {
+    checkreorder();
     CHECK(f);
 
     if (applycache == null) {
@@ -2502,13 +2754,13 @@ public final class JFactory extends BDDFactory {
 
     entry = BddCache_lookupI(replacecache, VECCOMPOSEHASH(replaceid, f));
     if (entry.a == f && entry.c == replaceid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        replacecache.hits++;
       }
       return entry.res;
     }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      replacecache.misses++;
     }
 
     PUSHREF(veccompose_rec(LOW(f)));
@@ -2516,8 +2768,8 @@ public final class JFactory extends BDDFactory {
     res = ite_rec(replacepair[LEVEL(f)], READREF(1), READREF(2));
     POPREF(2);
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      replacecache.overwrites++;
     }
     entry.a = f;
     entry.c = replaceid;
@@ -2527,6 +2779,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int bdd_exist(int r, int var) {
+    checkreorder();
     CHECK(r);
     CHECK(var);
 
@@ -2554,6 +2807,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int bdd_forall(int r, int var) {
+    checkreorder();
     CHECK(r);
     CHECK(var);
 
@@ -2581,6 +2835,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int bdd_unique(int r, int var) {
+    checkreorder();
     CHECK(r);
     CHECK(var);
 
@@ -2605,6 +2860,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int bdd_restrict(int r, int var) {
+    checkreorder();
     CHECK(r);
     CHECK(var);
 
@@ -2637,13 +2893,13 @@ public final class JFactory extends BDDFactory {
 
     entry = BddCache_lookupI(misccache, RESTRHASH(r, miscid));
     if (entry.a == r && entry.c == miscid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        misccache.hits++;
       }
       return entry.res;
     }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      misccache.misses++;
     }
 
     if (INSVARSET(LEVEL(r))) {
@@ -2659,8 +2915,8 @@ public final class JFactory extends BDDFactory {
       POPREF(2);
     }
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      misccache.overwrites++;
     }
     entry.a = r;
     entry.c = miscid;
@@ -2670,6 +2926,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int bdd_simplify(int f, int d) {
+    checkreorder();
     CHECK(f);
     CHECK(d);
 
@@ -2700,13 +2957,13 @@ public final class JFactory extends BDDFactory {
     entry = BddCache_lookupI(applycache, APPLYHASH(f, d, bddop_simplify));
 
     if (entry.a == f && entry.b == d && entry.c == bddop_simplify) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        applycache.hits++;
       }
       return entry.res;
     }
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      applycache.misses++;
     }
 
     if (LEVEL(f) == LEVEL(d)) {
@@ -2731,8 +2988,8 @@ public final class JFactory extends BDDFactory {
       POPREF(1);
     }
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      applycache.overwrites++;
     }
     entry.a = f;
     entry.b = d;
@@ -2813,6 +3070,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int bdd_appall(int l, int r, int opr, int var) {
+    checkreorder();
     CHECK(l);
     CHECK(r);
     CHECK(var);
@@ -2851,6 +3109,7 @@ public final class JFactory extends BDDFactory {
   }
 
   private int bdd_appuni(int l, int r, int opr, int var) {
+    checkreorder();
     CHECK(l);
     CHECK(r);
     CHECK(var);
@@ -3133,19 +3392,19 @@ public final class JFactory extends BDDFactory {
 
     BigIntegerBddCacheData entry = BddCache_lookupBigInteger(countcache, PATHCOUHASH(r, miscid));
     if (entry.a == r && entry.c == miscid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        countcache.hits++;
       }
       return entry.value;
     }
 
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      countcache.misses++;
     }
     BigInteger size = bdd_pathcount_rec(LOW(r)).add(bdd_pathcount_rec(HIGH(r)));
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      countcache.overwrites++;
     }
     entry.a = r;
     entry.c = miscid;
@@ -3174,14 +3433,14 @@ public final class JFactory extends BDDFactory {
 
     BigIntegerBddCacheData entry = BddCache_lookupBigInteger(countcache, SATCOUHASH(root, miscid));
     if (entry.a == root && entry.c == miscid) {
-      if (CACHESTATS) {
-        cachestats.opHit++;
+      if (countcachelookups) {
+        countcache.hits++;
       }
       return entry.value;
     }
 
-    if (CACHESTATS) {
-      cachestats.opMiss++;
+    if (countcachelookups) {
+      countcache.misses++;
     }
 
     int low = LOW(root);
@@ -3191,8 +3450,8 @@ public final class JFactory extends BDDFactory {
             .shiftLeft(LEVEL(low) - LEVEL(root) - 1)
             .add(satcount_rec(high).shiftLeft(LEVEL(high) - LEVEL(root) - 1));
 
-    if (CACHESTATS && entry.a != -1) {
-      cachestats.opOverwrite++;
+    if (countcachelookups && entry.a != -1) {
+      countcache.overwrites++;
     }
     entry.a = root;
     entry.c = miscid;
@@ -3248,6 +3507,11 @@ public final class JFactory extends BDDFactory {
     if (bddfreenum > 0) {
       // Don't reset or clean caches if we didn't free any nodes.
 
+      if (adaptivecachesizing && FLUSH_CACHE_ON_GC) {
+        // The caches are about to be flushed, so resizing them here costs no useful entries.
+        bdd_operator_adapt();
+      }
+
       if (FLUSH_CACHE_ON_GC) {
         bdd_operator_reset();
       } else {
@@ -3486,6 +3750,7 @@ public final class JFactory extends BDDFactory {
 
     resize_handler(oldsize, newsize);
 
+    long c1 = System.currentTimeMillis();
     int[] newnodes;
     newnodes = new int[newsize * __node_size];
     System.arraycopy(bddnodes, 0, newnodes, 0, bddnodes.length);
@@ -3514,6 +3779,8 @@ public final class JFactory extends BDDFactory {
     }
 
     bddresized = true;
+    noderesizenum++;
+    noderesizeclock += System.currentTimeMillis() - c1;
 
     return 0;
   }
@@ -3554,6 +3821,8 @@ public final class JFactory extends BDDFactory {
     bddvarnum = 0;
     gbcollectnum = 0;
     gbcclock = 0;
+    noderesizenum = 0;
+    noderesizeclock = 0;
     cachesize = cs;
     bddmaxnodeincrease = DEFAULTMAXNODEINC;
 
@@ -3628,6 +3897,12 @@ public final class JFactory extends BDDFactory {
   private BddCache multiopcache; /* Cache for varargs operators */
   private BddCache countcache; /* Cache for count results */
   private int cacheratio;
+  private boolean adaptivecachesizing; /* Grow thrashing operator caches at GC time */
+  private boolean operatorcachestats; /* Count operator cache lookups for getOperatorCacheStats */
+  /* Count operator cache lookups: needed by adaptive sizing and operator cache stats */
+  private boolean countcachelookups;
+  private int noderesizenum; /* Number of node table resizes */
+  private long noderesizeclock; /* Clock ticks used in node table resizes */
   private int satPolarity;
   /* Used instead of local variable in order
   to avoid compiler warning about 'first'
@@ -3637,6 +3912,9 @@ public final class JFactory extends BDDFactory {
     quantvarsetID = 0;
     quantvarset = null;
     cacheratio = 0;
+    adaptivecachesizing = false;
+    operatorcachestats = false;
+    countcachelookups = false;
     supportSet = new int[0];
   }
 
@@ -3711,18 +3989,63 @@ public final class JFactory extends BDDFactory {
     if (cacheratio > 0) {
       int newcachesize = bddnodesize / cacheratio;
 
-      BddCache_resize(applycache, newcachesize);
-      BddCache_resize(quantcache, newcachesize);
-      BddCache_resize(appexcache, newcachesize);
-      BddCache_resize(replacecache, newcachesize);
-      BddCache_resize(misccache, newcachesize);
-      BddCache_resize(multiopcache, newcachesize);
-      BddCache_resize(countcache, newcachesize);
+      BddCache_noderesize(applycache, newcachesize);
+      BddCache_noderesize(quantcache, newcachesize);
+      BddCache_noderesize(appexcache, newcachesize);
+      BddCache_noderesize(replacecache, newcachesize);
+      BddCache_noderesize(misccache, newcachesize);
+      BddCache_noderesize(multiopcache, newcachesize);
+      BddCache_noderesize(countcache, newcachesize);
 
       cachesize = newcachesize;
     }
   }
 
+  private void BddCache_noderesize(BddCache cache, int newsize) {
+    if (cache == null) {
+      return;
+    }
+    // Do not undo growth that adaptive sizing found to be useful.
+    BddCache_resize(cache, adaptivecachesizing ? Math.max(newsize, cache.tablesize) : newsize);
+  }
+
+  /**
+   * Doubles the size of each operator cache that is thrashing, as judged by the telemetry gathered
+   * since its last sizing decision.
+   */
+  private void bdd_operator_adapt() {
+    int maxsize = bddnodesize / ADAPTIVE_CACHE_MIN_RATIO;
+
+    BddCache_adapt(applycache, maxsize);
+    BddCache_adapt(quantcache, maxsize);
+    BddCache_adapt(appexcache, maxsize);
+    BddCache_adapt(replacecache, maxsize);
+    BddCache_adapt(misccache, maxsize);
+    BddCache_adapt(multiopcache, maxsize);
+    BddCache_adapt(countcache, maxsize);
+  }
+
+  private void BddCache_adapt(BddCache cache, int maxsize) {
+    if (cache == null) {
+      return;
+    }
+    long misses = cache.misses - cache.adaptedmisses;
+    long lookups = cache.hits - cache.adaptedhits + misses;
+    long overwrites = cache.overwrites - cache.adaptedoverwrites;
+    if (lookups < cache.tablesize) {
+      // Too few lookups since the last decision to say anything about this cache.
+      return;
+    }
+    cache.adaptedhits = cache.hits;
+    cache.adaptedmisses = cache.misses;
+    cache.adaptedoverwrites = cache.overwrites;
+
+    // A cache is thrashing when most results it stores evict another live result.
+    if (overwrites * 2 > misses && cache.tablesize < maxsize) {
+      BddCache_resize(cache, Math.min(cache.tablesize * 2, maxsize));
+    }
+  }
+
   private BddCache BddCacheI_init(int size) {
     size = bdd_prime_gte(size);
 
@@ -3777,11 +4100,7 @@ public final class JFactory extends BDDFactory {
     cache.tablesize = 0;
   }
 
-  /**
-   * Returns the name of the type of {@link BddCache} that {@code cache} represents.
-   *
-   * <p>Slow. Should only be used in debugging contexts.
-   */
+  /** Returns the name of the type of {@link BddCache} that {@code cache} represents. */
   private String getCacheName(BddCache cache) {
     if (cache == applycache) {
       return "apply";
@@ -4211,6 +4530,111 @@ public final class JFactory extends BDDFactory {
     return bdd_setcacheratio(r);
   }
 
+  /**
+   * Enables or disables adaptive operator cache sizing. When enabled, each operator cache that is
+   * thrashing (most stored results evict another live result) is doubled at garbage collection, up
+   * to a quarter of the node table size. Growth is kept across later node table resizes.
+   *
+   * @return the previous setting
+   */
+  public boolean setAdaptiveCacheSizing(boolean enabled) {
+    boolean old = adaptivecachesizing;
+    adaptivecachesizing = enabled;
+    countcachelookups = adaptivecachesizing || operatorcachestats;
+    return old;
+  }
+
+  /**
+   * Enables or disables counting of operator cache hits, misses, and overwrites for {@link
+   * #getOperatorCacheStats()} and {@link #getCacheStats()}. Lookups are also counted while adaptive
+   * cache sizing is enabled. Counting is off by default, since it adds work to every cached
+   * operation.
+   *
+   * @return the previous setting
+   */
+  public boolean setOperatorCacheStats(boolean enabled) {
+    boolean old = operatorcachestats;
+    operatorcachestats = enabled;
+    countcachelookups = adaptivecachesizing || operatorcachestats;
+    return old;
+  }
+
+  /**
+   * Stores statistics about one operator cache. The counters cover the life of the cache, across
+   * resizes and flushes.
+   */
+  public static class OperatorCacheStats {
+    public final int size;
+    public final long hits;
+    public final long misses;
+    public final long overwrites;
+
+    private OperatorCacheStats(BddCache cache) {
+      size = cache.tablesize;
+      hits = cache.hits;
+      misses = cache.misses;
+      overwrites = cache.overwrites;
+    }
+
+    /** Fraction of lookups answered from the cache, or 0 if there were none. */
+    public double hitRate() {
+      long lookups = hits + misses;
+      return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%d entries / %d hits / %d misses / %d overwrites / hit rate %.3f",
+          size, hits, misses, overwrites, hitRate());
+    }
+  }
+
+  /**
+   * Returns statistics for each operator cache that has been allocated, keyed by cache name ({@code
+   * apply}, {@code quant}, {@code appex}, {@code replace}, {@code misc}, {@code multiop}, {@code
+   * count}).
+   */
+  public Map<String, OperatorCacheStats> getOperatorCacheStats() {
+    Map<String, OperatorCacheStats> stats = new LinkedHashMap<>();
+    for (BddCache cache :
+        new BddCache[] {
+          applycache, quantcache, appexcache, replacecache, misccache, multiopcache, countcache
+        }) {
+      if (cache != null) {
+        stats.put(getCacheName(cache), new OperatorCacheStats(cache));
+      }
+    }
+    return Collections.unmodifiableMap(stats);
+  }
+
+  /** Returns the number of times the node table has been resized. */
+  public int getNodeTableResizeNum() {
+    return noderesizenum;
+  }
+
+  /** Returns the total time in milliseconds spent resizing the node table. */
+  public long getNodeTableResizeTime() {
+    return noderesizeclock;
+  }
+
+  /** Fills in the operator totals from the per-cache counters. */
+  @Override
+  public CacheStats getCacheStats() {
+    long hits = 0;
+    long misses = 0;
+    long overwrites = 0;
+    for (OperatorCacheStats s : getOperatorCacheStats().values()) {
+      hits += s.hits;
+      misses += s.misses;
+      overwrites += s.overwrites;
+    }
+    cachestats.opHit = (int) Math.min(hits, Integer.MAX_VALUE);
+    cachestats.opMiss = (int) Math.min(misses, Integer.MAX_VALUE);
+    cachestats.opOverwrite = (int) Math.min(overwrites, Integer.MAX_VALUE);
+    return cachestats;
+  }
+
   private int bdd_setcacheratio(int r) {
     int old = cacheratio;
 
@@ -4424,6 +4848,221 @@ public final class JFactory extends BDDFactory {
     reorder_done();
   }
 
+  /*
+   * Maximum growth of the node count, relative to the best found so far, before sifting stops
+   * moving a block in one direction.
+   */
+  private static final double SIFT_MAX_GROWTH = 1.2;
+
+  private ReorderMethod reordermethod = REORDER_NONE;
+  private int reorderthreshold;
+
+  /* Blocks of variables that reordering keeps together, as {first, last} pairs */
+  private final List<int[]> varblocks = new ArrayList<>();
+
+  @Override
+  public void reorder(ReorderMethod method) {
+    bdd_reorder(method);
+  }
+
+  @Override
+  public ReorderMethod autoReorder(ReorderMethod method, int nodeThreshold) {
+    if (nodeThreshold <= 0) {
+      throw new IllegalArgumentException("Node threshold must be positive: " + nodeThreshold);
+    }
+    ReorderMethod old = reordermethod;
+    reordermethod = method;
+    reorderthreshold = nodeThreshold;
+    return old;
+  }
+
+  @Override
+  public ReorderMethod getReorderMethod() {
+    return reordermethod;
+  }
+
+  @Override
+  public void addVarBlock(int first, int last) {
+    if (first < 0 || last >= bddvarnum || first > last) {
+      throw new IllegalArgumentException(
+          "Invalid block of variables " + first + ".." + last + " out of " + bddvarnum);
+    }
+    for (int[] block : varblocks) {
+      if (first <= block[1] && block[0] <= last) {
+        throw new IllegalArgumentException(
+            "Block of variables "
+                + first
+                + ".."
+                + last
+                + " overlaps "
+                + block[0]
+                + ".."
+                + block[1]);
+      }
+    }
+    int minlevel = bddvarnum;
+    int maxlevel = -1;
+    for (int var = first; var <= last; var++) {
+      minlevel = Math.min(minlevel, bddvar2level[var]);
+      maxlevel = Math.max(maxlevel, bddvar2level[var]);
+    }
+    if (maxlevel - minlevel != last - first) {
+      throw new IllegalArgumentException(
+          "Variables " + first + ".." + last + " are not at consecutive levels");
+    }
+    varblocks.add(new int[] {first, last});
+  }
+
+  @Override
+  public void clearVarBlocks() {
+    varblocks.clear();
+  }
+
+  /**
+   * Reorders if automatic reordering is enabled and too many nodes are in use. Top-level operations
+   * call this before doing anything else, when every live node is still referenced from outside the
+   * factory and no level-dependent state has been set up.
+   */
+  private void checkreorder() {
+    if (reordermethod != REORDER_NONE && bdd_getnodenum() > reorderthreshold) {
+      bdd_reorder(reordermethod);
+      reorderthreshold = Math.max(reorderthreshold, 2 * bdd_getnodenum());
+    }
+  }
+
+  private void bdd_reorder(ReorderMethod method) {
+    if (method == REORDER_NONE || bddvarnum < 2) {
+      return;
+    }
+
+    reorder_init();
+
+    List<int[]> units = reorder_units();
+    if (method == REORDER_SIFT) {
+      reorder_sift(units);
+    } else if (method == REORDER_WIN2) {
+      reorder_win2(units);
+    } else if (method == REORDER_WIN2ITE) {
+      while (reorder_win2(units)) {
+        // Repeat until a pass does not reduce the node count
+      }
+    }
+
+    reorder_done();
+  }
+
+  /**
+   * Returns the units that reordering moves, in level order. Each unit holds its variables in level
+   * order, and is either a run of consecutive levels whose variables belong to the same block, or a
+   * single variable that belongs to no block.
+   */
+  private List<int[]> reorder_units() {
+    int[] blockOf = new int[bddvarnum];
+    Arrays.fill(blockOf, -1);
+    for (int b = 0; b < varblocks.size(); b++) {
+      int[] block = varblocks.get(b);
+      for (int var = block[0]; var <= block[1] && var < bddvarnum; var++) {
+        blockOf[var] = b;
+      }
+    }
+
+    List<int[]> units = new ArrayList<>();
+    int level = 0;
+    while (level < bddvarnum) {
+      int block = blockOf[bddlevel2var[level]];
+      int end = level + 1;
+      if (block >= 0) {
+        while (end < bddvarnum && blockOf[bddlevel2var[end]] == block) {
+          end++;
+        }
+      }
+      units.add(Arrays.copyOfRange(bddlevel2var, level, end));
+      level = end;
+    }
+    return units;
+  }
+
+  /** Swaps the unit at {@code pos} with the one right below it, keeping each unit's order. */
+  private void reorder_swapunits(List<int[]> units, int pos) {
+    int[] upper = units.get(pos);
+    int[] lower = units.get(pos + 1);
+    for (int var : lower) {
+      for (int n = 0; n < upper.length; n++) {
+        reorder_varup(var);
+      }
+    }
+    units.set(pos, lower);
+    units.set(pos + 1, upper);
+  }
+
+  /**
+   * Makes one pass of window reordering, keeping each swap of adjacent units that reduces the node
+   * count. Returns whether any swap was kept.
+   */
+  private boolean reorder_win2(List<int[]> units) {
+    boolean improved = false;
+    for (int pos = 0; pos + 1 < units.size(); pos++) {
+      int before = bdd_getnodenum();
+      reorder_swapunits(units, pos);
+      if (bdd_getnodenum() < before) {
+        improved = true;
+      } else {
+        reorder_swapunits(units, pos);
+      }
+    }
+    return improved;
+  }
+
+  private void reorder_sift(List<int[]> units) {
+    List<int[]> bysize = new ArrayList<>(units);
+    bysize.sort(Comparator.comparingInt(this::reorder_unitnodenum).reversed());
+    for (int[] unit : bysize) {
+      reorder_siftunit(units, units.indexOf(unit));
+    }
+  }
+
+  private int reorder_unitnodenum(int[] unit) {
+    int num = 0;
+    for (int var : unit) {
+      num += levels[var].nodenum;
+    }
+    return num;
+  }
+
+  /**
+   * Moves the unit at {@code pos} towards the closer end of the order and then towards the other
+   * end, and finally back to the position where the fewest nodes were in use. Moving in a direction
+   * stops early once the node count grows too much beyond the best found so far.
+   */
+  private void reorder_siftunit(List<int[]> units, int pos) {
+    int best = bdd_getnodenum();
+    int bestpos = pos;
+    boolean upfirst = pos < units.size() / 2;
+    for (int pass = 0; pass < 2; pass++) {
+      boolean up = upfirst == (pass == 0);
+      while (up ? pos > 0 : pos + 1 < units.size()) {
+        if (up) {
+          reorder_swapunits(units, --pos);
+        } else {
+          reorder_swapunits(units, pos++);
+        }
+        int size = bdd_getnodenum();
+        if (size < best) {
+          best = size;
+          bestpos = pos;
+        } else if (size > best * SIFT_MAX_GROWTH) {
+          break;
+        }
+      }
+    }
+    while (pos > bestpos) {
+      reorder_swapunits(units, --pos);
+    }
+    while (pos < bestpos) {
+      reorder_swapunits(units, pos++);
+    }
+  }
+
   private int reorder_varup(int var) {
     if (var < 0 || var >= bddvarnum) {
       return bdd_error(BDD_VAR);
@@ -4486,7 +5125,7 @@ public final class JFactory extends BDDFactory {
     for (int n = 0; n < bddvarnum; n++) {
       levels[n].maxsize = bddnodesize / bddvarnum;
       levels[n].start = n * levels[n].maxsize;
-      levels[n].size = Math.min(levels[n].maxsize, (levels[n].nodenum * 5) / 4);
+      levels[n].size = Math.min(levels[n].maxsize, Math.max(1, (levels[n].nodenum * 5) / 4));
 
       if (levels[n].size >= 4) {
         levels[n].size = bdd_prime_lte(levels[n].size);
@@ -4672,7 +5311,7 @@ public final class JFactory extends BDDFactory {
 
     /* Resize */
     if (levels[var1].nodenum < levels[var1].size) {
-      levels[var1].size = MIN(levels[var1].maxsize, levels[var1].size / 2);
+      levels[var1].size = MIN(levels[var1].maxsize, Math.max(1, levels[var1].size / 2));
     } else {
       levels[var1].size = MIN(levels[var1].maxsize, levels[var1].size * 2);
     }
@@ -5061,12 +5700,18 @@ public final class JFactory extends BDDFactory {
   }
 
   private void addDependencies(boolean[] dep) {
+    /* Only visit pairs of dependent variables, since a root usually depends on few of them */
+    int[] vars = new int[bddvarnum];
+    int num = 0;
     for (int n = 0; n < bddvarnum; n++) {
-      for (int m = n; m < bddvarnum; m++) {
-        if (dep[n] && dep[m]) {
-          imatrixSet(iactmtx, n, m);
-          imatrixSet(iactmtx, m, n);
-        }
+      if (dep[n]) {
+        vars[num++] = n;
+      }
+    }
+    for (int i = 0; i < num; i++) {
+      for (int j = i; j < num; j++) {
+        imatrixSet(iactmtx, vars[i], vars[j]);
+        imatrixSet(iactmtx, vars[j], vars[i]);
       }
     }
   }
@@ -5117,6 +5762,8 @@ public final class JFactory extends BDDFactory {
 
     imatrixDelete(iactmtx);
     bdd_gbc();
+    /* Nodes freed and reused while reordering may still appear in the caches */
+    bdd_operator_reset();
 
     reorder_handler(false, reorderstats);
   }
@@ -5229,8 +5876,11 @@ public final class JFactory extends BDDFactory {
   }
 
   private void bdd_fprintstat(PrintStream out) {
-    CacheStats s = cachestats;
+    CacheStats s = getCacheStats();
     out.print(s.toString());
+    getOperatorCacheStats().forEach((name, stats) -> out.println(name + " cache: " + stats));
+    out.println(
+        "Node table resizes: " + noderesizenum + " / " + (float) noderesizeclock / 1000 + "s");
   }
 
   @Override
@@ -1,12 +1,25 @@
 package net.sf.javabdd;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.Test;
 
 /** Tests of {@link JFactory}. */
@@ -446,4 +459,283 @@ public class JFactoryTest {
     int[] a4 = {1};
     assertEquals(JFactory.dedupSorted(a4), a4);
   }
+
+  @Test
+  public void testOperatorCacheStats() {
+    _factory.setOperatorCacheStats(true);
+    _factory.setVarNum(10);
+    BDD x = _factory.ithVar(0);
+    BDD y = _factory.ithVar(1);
+    BDD z = _factory.ithVar(2);
+    BDD xy = x.or(y);
+    xy.and(z).free();
+    xy.and(z).free();
+
+    assertThat(_factory.getOperatorCacheStats(), hasKey("apply"));
+    JFactory.OperatorCacheStats stats = _factory.getOperatorCacheStats().get("apply");
+    assertThat(stats.hits, greaterThan(0L));
+    assertThat(stats.misses, greaterThan(0L));
+    assertThat(_factory.getCacheStats().opHit, greaterThan(0));
+  }
+
+  @Test
+  public void testOperatorCacheStatsDisabled() {
+    _factory.setVarNum(10);
+    BDD xy = _factory.ithVar(0).or(_factory.ithVar(1));
+    xy.and(_factory.ithVar(2)).free();
+    xy.and(_factory.ithVar(2)).free();
+
+    JFactory.OperatorCacheStats stats = _factory.getOperatorCacheStats().get("apply");
+    assertThat(stats.hits, equalTo(0L));
+    assertThat(stats.misses, equalTo(0L));
+  }
+
+  /** Builds and discards many distinct BDDs, forcing garbage collections. */
+  private static void churn(JFactory factory) {
+    int n = factory.varNum();
+    for (int i = 0; i < 50; i++) {
+      BDD bdd = factory.zero();
+      for (int v = 0; v < n; v++) {
+        bdd.xorWith(factory.ithVar(v).andWith(factory.ithVar((v * 7 + i) % n)));
+      }
+      bdd.free();
+    }
+  }
+
+  @Test
+  public void testAdaptiveCacheSizing() {
+    JFactory factory = (JFactory) JFactory.init(1000, 10);
+    factory.setVarNum(20);
+    factory.setAdaptiveCacheSizing(true);
+    churn(factory);
+
+    assertThat(factory.getGCStats().num, greaterThan(0));
+    assertThat(factory.getOperatorCacheStats().get("apply").size, greaterThan(11));
+  }
+
+  @Test
+  public void testNoAdaptiveCacheSizing() {
+    JFactory factory = (JFactory) JFactory.init(1000, 10);
+    factory.setVarNum(20);
+    churn(factory);
+
+    assertThat(factory.getGCStats().num, greaterThan(0));
+    assertThat(factory.getOperatorCacheStats().get("apply").size, equalTo(11));
+  }
+
+  /** (x0 and x1) or (x2 and not x3) or x5, built in the given factory. */
+  private static BDD sampleBdd(BDDFactory factory) {
+    return factory
+        .ithVar(0)
+        .and(factory.ithVar(1))
+        .or(factory.ithVar(2).and(factory.nithVar(3)))
+        .or(factory.ithVar(5));
+  }
+
+  @Test
+  public void testImportBDD() {
+    _factory.setVarNum(10);
+    JFactory other = (JFactory) JFactory.init(1000, 100);
+    other.setVarNum(6);
+
+    BDD imported = _factory.importBDD(sampleBdd(other));
+    assertThat(imported.getFactory(), equalTo(_factory));
+    assertThat(imported, equalTo(sampleBdd(_factory)));
+    assertThat(_factory.importBDD(other.zero()), equalTo(_factory.zero()));
+    assertThat(_factory.importBDD(other.one()), equalTo(_factory.one()));
+  }
+
+  @Test
+  public void testImportBDDDifferentOrder() {
+    _factory.setVarNum(6);
+    _factory.setVarOrder(new int[] {5, 4, 3, 2, 1, 0});
+    JFactory other = (JFactory) JFactory.init(1000, 100);
+    other.setVarNum(6);
+
+    assertThat(_factory.importBDD(sampleBdd(other)), equalTo(sampleBdd(_factory)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testImportBDDTooFewVariables() {
+    _factory.setVarNum(2);
+    JFactory other = (JFactory) JFactory.init(1000, 100);
+    other.setVarNum(6);
+    _factory.importBDD(sampleBdd(other));
+  }
+
+  @Test
+  public void testImportBDDFromParallelFactories() {
+    _factory.setVarNum(20);
+    List<BDD> results =
+        IntStream.range(0, 4)
+            .parallel()
+            .mapToObj(
+                i -> {
+                  JFactory factory = (JFactory) JFactory.init(100, 10);
+                  factory.setVarNum(20);
+                  BDD bdd = factory.zero();
+                  for (int v = i; v < 20; v += 4) {
+                    bdd.orWith(factory.ithVar(v).and(factory.nithVar((v + 1) % 20)));
+                  }
+                  return bdd;
+                })
+            .collect(Collectors.toList());
+
+    for (int i = 0; i < 4; i++) {
+      BDD expected = _factory.zero();
+      for (int v = i; v < 20; v += 4) {
+        expected.orWith(_factory.ithVar(v).and(_factory.nithVar((v + 1) % 20)));
+      }
+      assertThat(_factory.importBDD(results.get(i)), equalTo(expected));
+    }
+  }
+
+  /**
+   * (x0 and xn) or (x1 and xn+1) or ... or (xn-1 and x2n-1), whose size is exponential in n under
+   * the identity order but linear when each pair of variables is adjacent.
+   */
+  private static BDD pairsBdd(BDDFactory factory, int n) {
+    BDD bdd = factory.zero();
+    for (int i = 0; i < n; i++) {
+      bdd.orWith(factory.ithVar(i).and(factory.ithVar(i + n)));
+    }
+    return bdd;
+  }
+
+  @Test
+  public void testReorderSift() {
+    _factory.setVarNum(12);
+    BDD bdd = pairsBdd(_factory, 6);
+    double satCount = bdd.satCount();
+    int before = bdd.nodeCount();
+
+    _factory.reorder(BDDFactory.REORDER_SIFT);
+
+    assertThat(bdd.nodeCount(), lessThan(before));
+    assertThat(bdd.satCount(), equalTo(satCount));
+    // Rebuilding the function under the new order yields the same node
+    assertThat(pairsBdd(_factory, 6), equalTo(bdd));
+    assertThat(_factory.getReorderStats().usednum_after, lessThan(before));
+  }
+
+  @Test
+  public void testReorderWin2() {
+    _factory.setVarNum(4);
+    BDD bdd = pairsBdd(_factory, 2);
+    int before = bdd.nodeCount();
+
+    _factory.reorder(BDDFactory.REORDER_WIN2);
+
+    // Swapping x1 and x2 makes both pairs adjacent
+    assertThat(_factory.getVarOrder(), equalTo(new int[] {0, 2, 1, 3}));
+    assertThat(bdd.nodeCount(), lessThan(before));
+    assertThat(pairsBdd(_factory, 2), equalTo(bdd));
+  }
+
+  @Test
+  public void testReorderKeepsBlocksTogether() {
+    _factory.setVarNum(12);
+    _factory.addVarBlock(0, 5);
+    _factory.addVarBlock(6, 11);
+    BDD bdd = pairsBdd(_factory, 6).and(_factory.nithVar(0));
+    int before = bdd.nodeCount();
+
+    _factory.reorder(BDDFactory.REORDER_SIFT);
+
+    // The blocks may only be swapped, so each keeps its variables in order
+    int first = _factory.var2Level(0);
+    int second = _factory.var2Level(6);
+    for (int i = 0; i < 6; i++) {
+      assertThat(_factory.var2Level(i), equalTo(first + i));
+      assertThat(_factory.var2Level(i + 6), equalTo(second + i));
+    }
+    assertThat(bdd.nodeCount(), lessThanOrEqualTo(before));
+    assertThat(pairsBdd(_factory, 6).and(_factory.nithVar(0)), equalTo(bdd));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddVarBlockOverlapping() {
+    _factory.setVarNum(4);
+    _factory.addVarBlock(0, 2);
+    _factory.addVarBlock(2, 3);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddVarBlockNotConsecutive() {
+    _factory.setVarNum(4);
+    _factory.setVarOrder(new int[] {0, 2, 1, 3});
+    _factory.addVarBlock(0, 1);
+  }
+
+  @Test
+  public void testAutoReorder() {
+    _factory.setVarNum(16);
+    assertThat(_factory.getReorderMethod(), equalTo(BDDFactory.REORDER_NONE));
+    _factory.autoReorder(BDDFactory.REORDER_SIFT, 100);
+
+    BDD bdd = pairsBdd(_factory, 8);
+
+    // Without reordering the BDD would have more than 2^8 nodes
+    assertThat(bdd.nodeCount(), lessThan(100));
+    assertThat(bdd.satCount(), equalTo(Math.pow(2, 16) - Math.pow(3, 8)));
+    assertThat(_factory.getVarOrder(), not(equalTo(IntStream.range(0, 16).toArray())));
+  }
+
+  private static byte[] save(BDDFactory factory, List<BDD> bdds) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    factory.save(new DataOutputStream(bytes), bdds);
+    return bytes.toByteArray();
+  }
+
+  private static List<BDD> load(BDDFactory factory, byte[] bytes) throws IOException {
+    return factory.load(new DataInputStream(new ByteArrayInputStream(bytes)));
+  }
+
+  @Test
+  public void testSaveLoad() throws IOException {
+    _factory.setVarNum(10);
+    BDD bdd = sampleBdd(_factory);
+    List<BDD> bdds = Arrays.asList(bdd, bdd.not(), _factory.zero(), _factory.one(), bdd);
+
+    assertThat(load(_factory, save(_factory, bdds)), equalTo(bdds));
+  }
+
+  @Test
+  public void testSaveLoadSharedNodes() throws IOException {
+    _factory.setVarNum(10);
+    BDD bdd = sampleBdd(_factory);
+    byte[] once = save(_factory, Arrays.asList(bdd));
+    byte[] twice = save(_factory, Arrays.asList(bdd, bdd.and(_factory.ithVar(9))));
+
+    // The second BDD only adds a node for x9 and the nodes above it
+    assertThat(twice.length, lessThan(2 * once.length));
+  }
+
+  @Test
+  public void testLoadIntoOtherFactory() throws IOException {
+    _factory.setVarNum(6);
+    JFactory other = (JFactory) JFactory.init(1000, 100);
+    other.setVarNum(6);
+    other.setVarOrder(new int[] {5, 4, 3, 2, 1, 0});
+    byte[] bytes = save(_factory, Arrays.asList(sampleBdd(_factory), _factory.nithVar(4)));
+
+    assertThat(load(other, bytes), contains(sampleBdd(other), other.nithVar(4)));
+  }
+
+  @Test
+  public void testLoadAddsVariables() throws IOException {
+    _factory.setVarNum(6);
+    JFactory other = (JFactory) JFactory.init(1000, 100);
+    other.setVarNum(2);
+    byte[] bytes = save(_factory, Arrays.asList(sampleBdd(_factory)));
+
+    assertThat(load(other, bytes), contains(sampleBdd(other)));
+    assertThat(other.varNum(), equalTo(6));
+  }
+
+  @Test(expected = IOException.class)
+  public void testLoadNotSaved() throws IOException {
+    _factory.setVarNum(6);
+    load(_factory, new byte[] {1, 2, 3, 4, 5});
+  }
 }
@@ -0,0 +1,137 @@
+package org.batfish.benchmarks;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import net.sf.javabdd.BDD;
+import org.batfish.bddreachability.BDDReachabilityAnalysis;
+import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
+import org.batfish.bddreachability.FixpointCounters;
+import org.batfish.bddreachability.FixpointStrategy;
+import org.batfish.bddreachability.IpsRoutedOutInterfacesFactory;
+import org.batfish.common.bdd.BDDPacket;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.UniverseIpSpace;
+import org.batfish.specifier.InterfaceLocation;
+import org.batfish.specifier.IpSpaceAssignment;
+import org.batfish.specifier.Location;
+import org.batfish.symbolic.IngressLocation;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks construction of a {@link BDDReachabilityAnalysisFactory} and all-pairs reachability
+ * from the loopback of every device, under each {@link FixpointStrategy}. The BDD work done by each
+ * strategy is reported in the secondary results (see {@link FixpointCounters}), as totals over the
+ * iteration's {@code operations}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class BDDReachabilityBenchmark {
+
+  @Param({"FAT_TREE:8", "WAN:100", "MULTI_VRF_PE:50"})
+  public String _network;
+
+  /** The fixpoint strategy, separate from the network so that it does not affect construction. */
+  @State(Scope.Benchmark)
+  public static class Strategy {
+    @Param({"SCC", "ROUNDS"})
+    public FixpointStrategy _strategy;
+  }
+
+  /** The {@link FixpointCounters} of the reachability benchmark. Reset each iteration. */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class FixpointWork {
+    private long _visits;
+    private long _traversals;
+    private long _unions;
+    private long _operations;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      _visits = 0;
+      _traversals = 0;
+      _unions = 0;
+      _operations = 0;
+    }
+
+    public long operations() {
+      return _operations;
+    }
+
+    public long visits() {
+      return _visits;
+    }
+
+    public long traversals() {
+      return _traversals;
+    }
+
+    public long unions() {
+      return _unions;
+    }
+  }
+
+  private SortedMap<String, Configuration> _configs;
+  private DataPlane _dataPlane;
+  private IpSpaceAssignment _assignment;
+
+  @Setup
+  public void setup() {
+    Settings settings = BenchmarkPipeline.settings();
+    _configs = BenchmarkPipeline.parseAndConvert(settings, SyntheticNetworks.generate(_network));
+    _dataPlane =
+        BenchmarkDataPlanes.computeDataPlane(
+                settings, _configs, BenchmarkDataPlanes.topologyContext(_configs))
+            ._dataPlane;
+    IpSpaceAssignment.Builder assignment = IpSpaceAssignment.builder();
+    for (String hostname : _configs.keySet()) {
+      Location location = new InterfaceLocation(hostname, "Loopback0");
+      assignment.assign(location, UniverseIpSpace.INSTANCE);
+    }
+    _assignment = assignment.build();
+  }
+
+  private BDDReachabilityAnalysisFactory factory() {
+    return new BDDReachabilityAnalysisFactory(
+        new BDDPacket(),
+        _configs,
+        _dataPlane.getForwardingAnalysis(),
+        new IpsRoutedOutInterfacesFactory(_dataPlane.getFibs()),
+        false,
+        false);
+  }
+
+  @Benchmark
+  public BDDReachabilityAnalysisFactory constructFactory() {
+    return factory();
+  }
+
+  @Benchmark
+  public Map<IngressLocation, BDD> reachability(Strategy strategy, FixpointWork work) {
+    BDDReachabilityAnalysis analysis = factory().bddReachabilityAnalysis(_assignment);
+    analysis.setFixpointStrategy(strategy._strategy);
+    FixpointCounters counters = FixpointCounters.forStrategy(strategy._strategy);
+    long visits = counters.getVisits();
+    long traversals = counters.getTraversals();
+    long unions = counters.getUnions();
+    Map<IngressLocation, BDD> result = analysis.getIngressLocationReachableBDDs();
+    work._visits += counters.getVisits() - visits;
+    work._traversals += counters.getTraversals() - traversals;
+    work._unions += counters.getUnions() - unions;
+    work._operations++;
+    return result;
+  }
+}
@@ -0,0 +1,40 @@
+package org.batfish.benchmarks;
+
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.common.topology.TopologyUtil;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.NetworkConfigurations;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.ospf.OspfTopologyUtils;
+import org.batfish.dataplane.ibdp.IncrementalBdpEngineTestHook;
+import org.batfish.dataplane.ibdp.TopologyContext;
+
+/** Computes data planes of synthetic networks for benchmarks, bypassing storage. */
+@ParametersAreNonnullByDefault
+public final class BenchmarkDataPlanes {
+
+  /** Return the initial topologies of {@code configs} needed to compute their data plane */
+  @Nonnull
+  public static TopologyContext topologyContext(Map<String, Configuration> configs) {
+    Topology layer3Topology = TopologyUtil.synthesizeL3Topology(configs);
+    return TopologyContext.builder()
+        .setLayer3Topology(layer3Topology)
+        .setOspfTopology(
+            OspfTopologyUtils.computeOspfTopology(
+                NetworkConfigurations.of(configs), layer3Topology))
+        .build();
+  }
+
+  /** Compute the data plane of {@code configs} with a new incremental BDP engine */
+  @Nonnull
+  public static ComputeDataPlaneResult computeDataPlane(
+      Settings settings, Map<String, Configuration> configs, TopologyContext topologyContext) {
+    return IncrementalBdpEngineTestHook.computeDataPlane(settings, configs, topologyContext);
+  }
+
+  private BenchmarkDataPlanes() {}
+}
@@ -0,0 +1,98 @@
+package org.batfish.benchmarks;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.Map;
+import java.util.SortedMap;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.Warnings;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.NetworkConfigurations;
+import org.batfish.datamodel.ospf.OspfTopologyUtils;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.batfish.job.ConvertConfigurationJob;
+import org.batfish.job.ParseVendorConfigurationJob;
+import org.batfish.vendor.VendorConfiguration;
+
+/**
+ * Runs the stages of snapshot processing that benchmarks depend on, without storage or a {@link
+ * org.batfish.main.Batfish} instance.
+ */
+@ParametersAreNonnullByDefault
+public final class BenchmarkPipeline {
+
+  private static final NetworkSnapshot SNAPSHOT =
+      new NetworkSnapshot(new NetworkId("benchmark"), new SnapshotId("benchmark"));
+
+  /** Return quiet settings suitable for benchmarking */
+  @Nonnull
+  public static Settings settings() {
+    Settings settings = new Settings();
+    settings.setLogger(new BatfishLogger(BatfishLogger.LEVELSTR_ERROR, false));
+    return settings;
+  }
+
+  /** Parse a single configuration file */
+  @Nonnull
+  public static VendorConfiguration parse(Settings settings, String filename, String text) {
+    return new ParseVendorConfigurationJob(
+            settings,
+            SNAPSHOT,
+            text,
+            filename,
+            new Warnings(),
+            ConfigurationFormat.UNKNOWN,
+            HashMultimap.create(),
+            null)
+        .call()
+        .getVendorConfiguration();
+  }
+
+  /** Parse configuration files keyed by filename */
+  @Nonnull
+  public static SortedMap<String, VendorConfiguration> parse(
+      Settings settings, Map<String, String> texts) {
+    ImmutableSortedMap.Builder<String, VendorConfiguration> vendorConfigs =
+        ImmutableSortedMap.naturalOrder();
+    texts.forEach((filename, text) -> vendorConfigs.put(filename, parse(settings, filename, text)));
+    return vendorConfigs.build();
+  }
+
+  /** Convert a single vendor configuration to vendor-independent configurations */
+  @Nonnull
+  public static Map<String, Configuration> convert(
+      Settings settings, String name, VendorConfiguration vendorConfig) {
+    return new ConvertConfigurationJob(settings, null, vendorConfig, name)
+        .call()
+        .getConfigurations();
+  }
+
+  /**
+   * Convert vendor configurations to vendor-independent configurations, and post-process them as
+   * needed for data plane computation.
+   */
+  @Nonnull
+  public static SortedMap<String, Configuration> convert(
+      Settings settings, Map<String, VendorConfiguration> vendorConfigs) {
+    ImmutableSortedMap.Builder<String, Configuration> configs = ImmutableSortedMap.naturalOrder();
+    vendorConfigs.forEach((name, vc) -> configs.putAll(convert(settings, name, vc)));
+    SortedMap<String, Configuration> result = configs.build();
+    OspfTopologyUtils.initNeighborConfigs(NetworkConfigurations.of(result));
+    return result;
+  }
+
+  /** Parse and convert configuration files keyed by filename */
+  @Nonnull
+  public static SortedMap<String, Configuration> parseAndConvert(
+      Settings settings, Map<String, String> texts) {
+    return convert(settings, parse(settings, texts));
+  }
+
+  private BenchmarkPipeline() {}
+}
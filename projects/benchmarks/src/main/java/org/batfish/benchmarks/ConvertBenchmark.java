@@ -0,0 +1,48 @@
+package org.batfish.benchmarks;
+
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.job.ConvertConfigurationJob;
+import org.batfish.vendor.VendorConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Benchmarks {@link ConvertConfigurationJob} on every device of a synthetic network */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ConvertBenchmark {
+
+  @Param({"FAT_TREE:8", "WAN:100", "MULTI_VRF_PE:50"})
+  public String _network;
+
+  private Settings _settings;
+  private SortedMap<String, String> _texts;
+  private SortedMap<String, VendorConfiguration> _vendorConfigs;
+
+  @Setup
+  public void setup() {
+    _settings = BenchmarkPipeline.settings();
+    _texts = SyntheticNetworks.generate(_network);
+  }
+
+  /** Conversion mutates vendor configurations, so each invocation gets freshly parsed ones */
+  @Setup(Level.Invocation)
+  public void parse() {
+    _vendorConfigs = BenchmarkPipeline.parse(_settings, _texts);
+  }
+
+  @Benchmark
+  public SortedMap<String, Configuration> convert() {
+    return BenchmarkPipeline.convert(_settings, _vendorConfigs);
+  }
+}
@@ -0,0 +1,92 @@
+package org.batfish.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.Interface;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.flow.TraceAndReverseFlow;
+import org.batfish.dataplane.TracerouteEngineImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks flow tracing by {@link TracerouteEngineImpl}, tracing a flow between every pair of
+ * endpoints in the same VRF on different devices.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class FlowTracerBenchmark {
+
+  /**
+   * Networks to trace through. {@code FAT_TREE:16} has 64-way ECMP between pods, which stresses
+   * forking at ECMP branches; run with {@code -prof gc} to compare allocation rates.
+   */
+  @Param({"FAT_TREE:8", "FAT_TREE:16", "WAN:100", "MULTI_VRF_PE:50"})
+  public String _network;
+
+  private TracerouteEngineImpl _tracerouteEngine;
+  private Set<Flow> _flows;
+
+  @Setup
+  public void setup() {
+    Settings settings = BenchmarkPipeline.settings();
+    SortedMap<String, Configuration> configs =
+        BenchmarkPipeline.parseAndConvert(settings, SyntheticNetworks.generate(_network));
+    ComputeDataPlaneResult result =
+        BenchmarkDataPlanes.computeDataPlane(
+            settings, configs, BenchmarkDataPlanes.topologyContext(configs));
+    _tracerouteEngine =
+        new TracerouteEngineImpl(result._dataPlane, result._topologies.getLayer3Topology());
+    List<Interface> endpoints =
+        configs.values().stream()
+            .flatMap(c -> c.getAllInterfaces().values().stream())
+            .filter(FlowTracerBenchmark::isEndpoint)
+            .collect(ImmutableList.toImmutableList());
+    ImmutableSet.Builder<Flow> flows = ImmutableSet.builder();
+    for (Interface src : endpoints) {
+      for (Interface dst : endpoints) {
+        if (src.getOwner() == dst.getOwner() || !src.getVrfName().equals(dst.getVrfName())) {
+          continue;
+        }
+        flows.add(
+            Flow.builder()
+                .setIngressNode(src.getOwner().getHostname())
+                .setIngressVrf(src.getVrfName())
+                .setIpProtocol(IpProtocol.TCP)
+                .setSrcIp(src.getConcreteAddress().getIp())
+                .setSrcPort(49152)
+                .setDstIp(dst.getConcreteAddress().getIp())
+                .setDstPort(22)
+                .build());
+      }
+    }
+    _flows = flows.build();
+  }
+
+  /** Loopbacks in the default VRF, and customer interfaces in other VRFs */
+  private static boolean isEndpoint(Interface iface) {
+    return iface.getVrfName().equals(Configuration.DEFAULT_VRF_NAME)
+        ? iface.getName().equals("Loopback0")
+        : iface.getName().startsWith("Vlan");
+  }
+
+  @Benchmark
+  public SortedMap<Flow, List<TraceAndReverseFlow>> traceFlows() {
+    return _tracerouteEngine.computeTracesAndReverseFlows(_flows, ImmutableSet.of(), false);
+  }
+}
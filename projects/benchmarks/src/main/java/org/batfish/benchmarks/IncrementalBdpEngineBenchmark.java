@@ -0,0 +1,42 @@
+package org.batfish.benchmarks;
+
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.dataplane.ibdp.TopologyContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Benchmarks data plane computation by the incremental BDP engine */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class IncrementalBdpEngineBenchmark {
+
+  @Param({"FAT_TREE:8", "WAN:100", "MULTI_VRF_PE:50"})
+  public String _network;
+
+  private Settings _settings;
+  private SortedMap<String, Configuration> _configs;
+  private TopologyContext _topologyContext;
+
+  @Setup
+  public void setup() {
+    _settings = BenchmarkPipeline.settings();
+    _configs = BenchmarkPipeline.parseAndConvert(_settings, SyntheticNetworks.generate(_network));
+    _topologyContext = BenchmarkDataPlanes.topologyContext(_configs);
+  }
+
+  @Benchmark
+  public ComputeDataPlaneResult computeDataPlane() {
+    return BenchmarkDataPlanes.computeDataPlane(_settings, _configs, _topologyContext);
+  }
+}
@@ -0,0 +1,76 @@
+package org.batfish.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.JFactory;
+import org.batfish.common.bdd.BDDPacket;
+import org.batfish.common.bdd.IpSpaceToBDD;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks core {@link JFactory} operations on header-space BDDs of the shape produced by
+ * forwarding analysis: unions and differences of destination prefixes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class JFactoryBenchmark {
+
+  private static final long RANDOM_SEED = 0L;
+
+  @Param({"1000", "10000"})
+  public int _numPrefixes;
+
+  private BDDPacket _packet;
+  private List<Prefix> _prefixes;
+  private BDD _union;
+
+  @Setup
+  public void setup() {
+    _packet = new BDDPacket();
+    Random random = new Random(RANDOM_SEED);
+    _prefixes = new ArrayList<>(_numPrefixes);
+    for (int i = 0; i < _numPrefixes; i++) {
+      _prefixes.add(
+          Prefix.create(Ip.create(random.nextInt() & 0xFFFFFFFFL), 8 + random.nextInt(25)));
+    }
+    _union = prefixUnion();
+  }
+
+  /** Build the union of the destination-IP BDDs of all prefixes */
+  @Benchmark
+  public BDD prefixUnion() {
+    IpSpaceToBDD toBdd = _packet.getDstIpSpaceToBDD();
+    BDD result = _packet.getFactory().zero();
+    for (Prefix prefix : _prefixes) {
+      result.orWith(toBdd.toBDD(prefix));
+    }
+    return result;
+  }
+
+  /**
+   * Longest-prefix-match style differencing: subtract each prefix from the union, as when computing
+   * the headers matched by each FIB entry
+   */
+  @Benchmark
+  public BDD prefixDifferences() {
+    IpSpaceToBDD toBdd = _packet.getDstIpSpaceToBDD();
+    BDD result = _packet.getFactory().zero();
+    for (Prefix prefix : _prefixes) {
+      result.orWith(_union.diff(toBdd.toBDD(prefix)));
+    }
+    return result;
+  }
+}
@@ -0,0 +1,48 @@
+package org.batfish.benchmarks;
+
+import java.io.IOException;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks bundle. Accepts the standard JMH command line (e.g. a benchmark
+ * regex, {@code -p _network=FAT_TREE:16}, {@code -f 1 -wi 2 -i 5}), but writes results as JSON to
+ * {@value #DEFAULT_RESULT_FILE} unless {@code -rf}/{@code -rff} are given, so that runs on
+ * different commits can be compared.
+ */
+public final class Main {
+
+  static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+  public static void main(String[] args)
+      throws CommandLineOptionException, IOException, RunnerException {
+    CommandLineOptions cmdOptions = new CommandLineOptions(args);
+    if (cmdOptions.shouldHelp()) {
+      cmdOptions.showHelp();
+      return;
+    }
+    if (cmdOptions.shouldList()) {
+      new Runner(cmdOptions).list();
+      return;
+    }
+    if (cmdOptions.shouldListWithParams()) {
+      new Runner(cmdOptions).listWithParams(cmdOptions);
+      return;
+    }
+    ChainedOptionsBuilder options = new OptionsBuilder().parent(cmdOptions);
+    if (!cmdOptions.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+    }
+    if (!cmdOptions.getResult().hasValue()) {
+      options.result(DEFAULT_RESULT_FILE);
+    }
+    new Runner(options.build()).run();
+  }
+
+  private Main() {}
+}
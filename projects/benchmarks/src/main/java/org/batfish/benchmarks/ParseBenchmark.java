@@ -0,0 +1,39 @@
+package org.batfish.benchmarks;
+
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.batfish.config.Settings;
+import org.batfish.job.ParseVendorConfigurationJob;
+import org.batfish.vendor.VendorConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Benchmarks {@link ParseVendorConfigurationJob} on every device of a synthetic network */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+  @Param({"FAT_TREE:8", "WAN:100", "MULTI_VRF_PE:50"})
+  public String _network;
+
+  private Settings _settings;
+  private SortedMap<String, String> _texts;
+
+  @Setup
+  public void setup() {
+    _settings = BenchmarkPipeline.settings();
+    _texts = SyntheticNetworks.generate(_network);
+  }
+
+  @Benchmark
+  public SortedMap<String, VendorConfiguration> parse() {
+    return BenchmarkPipeline.parse(_settings, _texts);
+  }
+}
@@ -0,0 +1,84 @@
+package org.batfish.benchmarks;
+
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.answers.IncrementalBdpAnswerElement;
+import org.batfish.dataplane.ibdp.TopologyContext;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks data plane computation of eBGP networks, where every route received or advertised on
+ * a session goes through the data plane's routing policy result cache. The cache's hits and misses
+ * are reported in the secondary results (see {@link CacheWork}), as totals over the iteration's
+ * {@code operations}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class RoutingPolicyResultCacheBenchmark {
+
+  @Param({"FAT_TREE:8", "FAT_TREE:12"})
+  public String _network;
+
+  /** The routing policy cache statistics of the benchmark. Reset each iteration. */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class CacheWork {
+    private long _hits;
+    private long _misses;
+    private long _operations;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      _hits = 0;
+      _misses = 0;
+      _operations = 0;
+    }
+
+    public long operations() {
+      return _operations;
+    }
+
+    public long hits() {
+      return _hits;
+    }
+
+    public long misses() {
+      return _misses;
+    }
+  }
+
+  private Settings _settings;
+  private SortedMap<String, Configuration> _configs;
+  private TopologyContext _topologyContext;
+
+  @Setup
+  public void setup() {
+    _settings = BenchmarkPipeline.settings();
+    _configs = BenchmarkPipeline.parseAndConvert(_settings, SyntheticNetworks.generate(_network));
+    _topologyContext = BenchmarkDataPlanes.topologyContext(_configs);
+  }
+
+  @Benchmark
+  public ComputeDataPlaneResult computeDataPlane(CacheWork work) {
+    ComputeDataPlaneResult result =
+        BenchmarkDataPlanes.computeDataPlane(_settings, _configs, _topologyContext);
+    IncrementalBdpAnswerElement ae = (IncrementalBdpAnswerElement) result._answerElement;
+    work._hits += ae.getRoutingPolicyCacheHits();
+    work._misses += ae.getRoutingPolicyCacheMisses();
+    work._operations++;
+    return result;
+  }
+}
@@ -0,0 +1,166 @@
+package org.batfish.benchmarks;
+
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.topology.Layer1Topology;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.batfish.storage.FileBasedStorage;
+import org.batfish.storage.SerializationFormat;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks storing and loading the configurations and data plane of a synthetic network through
+ * {@link FileBasedStorage} in each {@link SerializationFormat}. The size on disk of each format is
+ * reported in the secondary results: {@code bytes} divided by {@code operations} is the size of the
+ * stored configurations or data plane.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+  private static final NetworkId NETWORK = new NetworkId("benchmark");
+  private static final SnapshotId SNAPSHOT = new SnapshotId("benchmark");
+
+  @Param({"FAT_TREE:8", "WAN:100"})
+  public String _network;
+
+  @Param({"JAVA_SERIALIZED", "LZ4", "LZ4_HC", "GZIP"})
+  public SerializationFormat _format;
+
+  /** Bytes stored or loaded, reported as secondary results. Reset each iteration. */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class DiskUsage {
+    private long _bytes;
+    private long _operations;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      _bytes = 0;
+      _operations = 0;
+    }
+
+    public long bytes() {
+      return _bytes;
+    }
+
+    public long operations() {
+      return _operations;
+    }
+
+    private void record(long bytes) {
+      _bytes += bytes;
+      _operations++;
+    }
+  }
+
+  private Path _storageBase;
+  private FileBasedStorage _storage;
+  private SortedMap<String, Configuration> _configs;
+  private DataPlane _dataPlane;
+  private long _configurationBytes;
+  private long _dataPlaneBytes;
+
+  @Setup
+  public void setup() throws IOException {
+    Settings settings = BenchmarkPipeline.settings();
+    _configs = BenchmarkPipeline.parseAndConvert(settings, SyntheticNetworks.generate(_network));
+    _dataPlane =
+        BenchmarkDataPlanes.computeDataPlane(
+                settings, _configs, BenchmarkDataPlanes.topologyContext(_configs))
+            ._dataPlane;
+    _storageBase = Files.createTempDirectory("serialization-benchmark");
+    _storage =
+        new FileBasedStorage(
+            _storageBase,
+            new BatfishLogger(BatfishLogger.LEVELSTR_ERROR, false),
+            (m, n) -> new AtomicInteger(),
+            _format);
+    doStoreConfigurations();
+    _configurationBytes = sizeOnDisk(_storageBase);
+    doStoreDataPlane();
+    _dataPlaneBytes = sizeOnDisk(_storageBase) - _configurationBytes;
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    MoreFiles.deleteRecursively(_storageBase, RecursiveDeleteOption.ALLOW_INSECURE);
+  }
+
+  @Benchmark
+  public void storeConfigurations(DiskUsage diskUsage) throws IOException {
+    doStoreConfigurations();
+    diskUsage.record(_configurationBytes);
+  }
+
+  @Benchmark
+  public SortedMap<String, Configuration> loadConfigurations(DiskUsage diskUsage) {
+    diskUsage.record(_configurationBytes);
+    return _storage.loadConfigurations(NETWORK, SNAPSHOT);
+  }
+
+  @Benchmark
+  public void storeDataPlane(DiskUsage diskUsage) throws IOException {
+    doStoreDataPlane();
+    diskUsage.record(_dataPlaneBytes);
+  }
+
+  @Benchmark
+  public DataPlane loadDataPlane(DiskUsage diskUsage) throws IOException {
+    diskUsage.record(_dataPlaneBytes);
+    return _storage.loadDataPlane(new NetworkSnapshot(NETWORK, SNAPSHOT));
+  }
+
+  private void doStoreConfigurations() throws IOException {
+    _storage.storeConfigurations(
+        _configs, new ConvertConfigurationAnswerElement(), Layer1Topology.EMPTY, NETWORK, SNAPSHOT);
+  }
+
+  private void doStoreDataPlane() throws IOException {
+    _storage.storeDataPlane(_dataPlane, new NetworkSnapshot(NETWORK, SNAPSHOT));
+  }
+
+  private static long sizeOnDisk(Path dir) {
+    try (Stream<Path> files = Files.walk(dir)) {
+      return files
+          .filter(Files::isRegularFile)
+          .mapToLong(
+              file -> {
+                try {
+                  return Files.size(file);
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              })
+          .sum();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,327 @@
+package org.batfish.benchmarks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+
+/**
+ * Generators of reproducible synthetic networks, as Cisco IOS configuration text keyed by hostname.
+ * The same arguments always produce the same network, so results are comparable across commits.
+ */
+@ParametersAreNonnullByDefault
+public final class SyntheticNetworks {
+
+  /** Kinds of synthetic network */
+  public enum NetworkType {
+    /** A k-ary fat-tree data center running eBGP with one AS per router */
+    FAT_TREE,
+    /** A WAN of routers in a ring with random chords, running OSPF in a single area */
+    WAN,
+    /** A ring of PE routers with one OSPF instance per VRF over dot1q subinterfaces */
+    MULTI_VRF_PE
+  }
+
+  private static final long FIRST_ASN = 4200000000L;
+  private static final long FIRST_LINK_IP = Ip.parse("10.0.0.0").asLong();
+  private static final long FIRST_LOOPBACK_IP = Ip.parse("172.16.0.0").asLong();
+  private static final long FIRST_HOST_SUBNET_IP = Ip.parse("100.64.0.0").asLong();
+  private static final long RANDOM_SEED = 0L;
+
+  /**
+   * Generate a network from a specification of the form {@code TYPE:SIZE}, e.g. {@code FAT_TREE:8}.
+   * See {@link #generate(NetworkType, int)}.
+   */
+  @Nonnull
+  public static SortedMap<String, String> generate(String spec) {
+    String[] parts = spec.split(":");
+    checkArgument(parts.length == 2, "Expected TYPE:SIZE, got %s", spec);
+    return generate(NetworkType.valueOf(parts[0]), Integer.parseInt(parts[1]));
+  }
+
+  /**
+   * Generate a network of the given type. {@code size} is the arity of a {@link
+   * NetworkType#FAT_TREE fat-tree} (which must be even), the number of routers of a {@link
+   * NetworkType#WAN}, or the number of VRFs on each of 4 {@link NetworkType#MULTI_VRF_PE PEs}.
+   */
+  @Nonnull
+  public static SortedMap<String, String> generate(NetworkType type, int size) {
+    switch (type) {
+      case FAT_TREE:
+        return fatTree(size);
+      case WAN:
+        return wan(size);
+      case MULTI_VRF_PE:
+        return multiVrfPe(4, size);
+      default:
+        throw new IllegalArgumentException("Unsupported network type: " + type);
+    }
+  }
+
+  /**
+   * A {@code k}-ary fat-tree: {@code k} pods of {@code k/2} edge and {@code k/2} aggregation
+   * routers, and {@code (k/2)^2} core routers. Every router is in its own AS, and every edge router
+   * originates a host subnet.
+   */
+  @Nonnull
+  public static SortedMap<String, String> fatTree(int k) {
+    checkArgument(k >= 2 && k % 2 == 0, "Fat-tree arity must be even and positive, got %s", k);
+    int half = k / 2;
+    NetworkBuilder nb = new NetworkBuilder();
+    List<RouterBuilder> cores = new ArrayList<>();
+    for (int c = 0; c < half * half; c++) {
+      cores.add(nb.router(String.format("core-%d", c)));
+    }
+    for (int p = 0; p < k; p++) {
+      List<RouterBuilder> aggs = new ArrayList<>();
+      for (int a = 0; a < half; a++) {
+        RouterBuilder agg = nb.router(String.format("agg-%d-%d", p, a));
+        aggs.add(agg);
+        for (int c = a * half; c < (a + 1) * half; c++) {
+          nb.link(agg, cores.get(c));
+        }
+      }
+      for (int e = 0; e < half; e++) {
+        RouterBuilder edge = nb.router(String.format("edge-%d-%d", p, e));
+        edge.addHostSubnet();
+        for (RouterBuilder agg : aggs) {
+          nb.link(edge, agg);
+        }
+      }
+    }
+    return nb.build(RouterBuilder::bgpConfig);
+  }
+
+  /**
+   * A WAN of {@code n} routers connected in a ring, plus {@code n/2} random chords. Every router
+   * runs OSPF in area 0 and has a customer subnet.
+   */
+  @Nonnull
+  public static SortedMap<String, String> wan(int n) {
+    checkArgument(n >= 3, "A WAN needs at least 3 routers, got %s", n);
+    NetworkBuilder nb = new NetworkBuilder();
+    List<RouterBuilder> routers = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      RouterBuilder router = nb.router(String.format("wan-%d", i));
+      router.addHostSubnet();
+      routers.add(router);
+    }
+    for (int i = 0; i < n; i++) {
+      nb.link(routers.get(i), routers.get((i + 1) % n));
+    }
+    Random random = new Random(RANDOM_SEED);
+    for (int i = 0; i < n / 2; i++) {
+      int a = random.nextInt(n);
+      // Skip self-loops and ring neighbors
+      int b = (a + 2 + random.nextInt(n - 3)) % n;
+      nb.link(routers.get(a), routers.get(b));
+    }
+    return nb.build(RouterBuilder::ospfConfig);
+  }
+
+  /**
+   * A ring of {@code numPes} PE routers with {@code numVrfs} VRFs each. Each ring link carries one
+   * dot1q subinterface per VRF, and each VRF runs its own OSPF instance and has a customer subnet
+   * on every PE.
+   */
+  @Nonnull
+  public static SortedMap<String, String> multiVrfPe(int numPes, int numVrfs) {
+    checkArgument(numPes >= 2, "Need at least 2 PEs, got %s", numPes);
+    checkArgument(numVrfs >= 1 && numVrfs < 4095, "Invalid number of VRFs: %s", numVrfs);
+    NetworkBuilder nb = new NetworkBuilder();
+    List<RouterBuilder> pes = new ArrayList<>();
+    for (int i = 0; i < numPes; i++) {
+      RouterBuilder pe = nb.router(String.format("pe-%d", i));
+      pe._numVrfs = numVrfs;
+      for (int v = 1; v <= numVrfs; v++) {
+        pe.addHostSubnet();
+      }
+      pes.add(pe);
+    }
+    for (int i = 0; i < numPes; i++) {
+      nb.link(pes.get(i), pes.get((i + 1) % numPes));
+    }
+    return nb.build(RouterBuilder::multiVrfConfig);
+  }
+
+  /** Allocates routers, addresses and links */
+  private static final class NetworkBuilder {
+    private final List<RouterBuilder> _routers = new ArrayList<>();
+    private long _nextLinkIp = FIRST_LINK_IP;
+    private long _nextHostSubnetIp = FIRST_HOST_SUBNET_IP;
+
+    private RouterBuilder router(String hostname) {
+      RouterBuilder router = new RouterBuilder(this, hostname, _routers.size());
+      _routers.add(router);
+      return router;
+    }
+
+    /** Connect two routers with a /31 (or, for multi-VRF routers, /31s on subinterfaces) */
+    private void link(RouterBuilder a, RouterBuilder b) {
+      String aIface = a.nextInterfaceName();
+      String bIface = b.nextInterfaceName();
+      int numVrfs = Math.max(a._numVrfs, 1);
+      List<Prefix> prefixes = new ArrayList<>();
+      for (int v = 0; v < numVrfs; v++) {
+        prefixes.add(Prefix.create(Ip.create(_nextLinkIp), Prefix.MAX_PREFIX_LENGTH - 1));
+        _nextLinkIp += 2;
+      }
+      a._links.add(new Link(aIface, prefixes, 0, b));
+      b._links.add(new Link(bIface, prefixes, 1, a));
+    }
+
+    private Prefix nextHostSubnet() {
+      Prefix prefix = Prefix.create(Ip.create(_nextHostSubnetIp), 24);
+      _nextHostSubnetIp += 256;
+      return prefix;
+    }
+
+    private SortedMap<String, String> build(Function<RouterBuilder, String> routingConfig) {
+      ImmutableSortedMap.Builder<String, String> configs = ImmutableSortedMap.naturalOrder();
+      for (RouterBuilder router : _routers) {
+        configs.put(router._hostname, router.interfacesConfig() + routingConfig.apply(router));
+      }
+      return configs.build();
+    }
+  }
+
+  /** One end of a point-to-point link */
+  private static final class Link {
+    private final String _interfaceName;
+    /** One prefix per VRF, or a single prefix for routers without VRFs */
+    private final List<Prefix> _prefixes;
+    /** Offset of this end's address within each prefix */
+    private final int _offset;
+
+    private final RouterBuilder _neighbor;
+
+    private Link(String interfaceName, List<Prefix> prefixes, int offset, RouterBuilder neighbor) {
+      _interfaceName = interfaceName;
+      _prefixes = prefixes;
+      _offset = offset;
+      _neighbor = neighbor;
+    }
+
+    private Ip address(int vrfIndex) {
+      return Ip.create(_prefixes.get(vrfIndex).getStartIp().asLong() + _offset);
+    }
+
+    private Ip neighborAddress() {
+      return Ip.create(_prefixes.get(0).getStartIp().asLong() + 1 - _offset);
+    }
+  }
+
+  /** Accumulates the interfaces of a single router and renders its configuration */
+  private static final class RouterBuilder {
+    private final NetworkBuilder _network;
+    private final String _hostname;
+    private final int _index;
+    private final List<Link> _links = new ArrayList<>();
+    private final List<Prefix> _hostSubnets = new ArrayList<>();
+    private int _numVrfs;
+
+    private RouterBuilder(NetworkBuilder network, String hostname, int index) {
+      _network = network;
+      _hostname = hostname;
+      _index = index;
+    }
+
+    private void addHostSubnet() {
+      _hostSubnets.add(_network.nextHostSubnet());
+    }
+
+    private String nextInterfaceName() {
+      return String.format("GigabitEthernet0/%d", _links.size());
+    }
+
+    private Ip loopback() {
+      return Ip.create(FIRST_LOOPBACK_IP + _index);
+    }
+
+    private long asn() {
+      return FIRST_ASN + _index;
+    }
+
+    private String interfacesConfig() {
+      StringBuilder sb = new StringBuilder();
+      sb.append("!\nhostname ").append(_hostname).append("\n!\n");
+      for (int v = 1; v <= _numVrfs; v++) {
+        sb.append(
+            String.format(
+                "vrf definition VRF%d\n address-family ipv4\n exit-address-family\n!\n", v));
+      }
+      sb.append(
+          String.format("interface Loopback0\n ip address %s 255.255.255.255\n!\n", loopback()));
+      for (Link link : _links) {
+        if (_numVrfs == 0) {
+          sb.append(
+              String.format(
+                  "interface %s\n ip address %s 255.255.255.254\n ip ospf cost 10\n no shutdown\n!\n",
+                  link._interfaceName, link.address(0)));
+        } else {
+          sb.append(String.format("interface %s\n no shutdown\n!\n", link._interfaceName));
+          for (int v = 1; v <= _numVrfs; v++) {
+            sb.append(
+                String.format(
+                    "interface %s.%d\n encapsulation dot1Q %d\n vrf forwarding VRF%d\n"
+                        + " ip address %s 255.255.255.254\n ip ospf cost 10\n no shutdown\n!\n",
+                    link._interfaceName, v, v, v, link.address(v - 1)));
+          }
+        }
+      }
+      for (int i = 0; i < _hostSubnets.size(); i++) {
+        Prefix subnet = _hostSubnets.get(i);
+        sb.append(String.format("interface Vlan%d\n", i + 1));
+        if (_numVrfs > 0) {
+          sb.append(String.format(" vrf forwarding VRF%d\n", i + 1));
+        }
+        sb.append(
+            String.format(
+                " ip address %s 255.255.255.0\n ip ospf cost 10\n no shutdown\n!\n",
+                Ip.create(subnet.getStartIp().asLong() + 1)));
+      }
+      return sb.toString();
+    }
+
+    private String bgpConfig() {
+      StringBuilder sb = new StringBuilder();
+      sb.append(String.format("router bgp %d\n bgp router-id %s\n", asn(), loopback()));
+      for (Link link : _links) {
+        sb.append(
+            String.format(
+                " neighbor %s remote-as %d\n", link.neighborAddress(), link._neighbor.asn()));
+      }
+      sb.append(String.format(" network %s mask 255.255.255.255\n", loopback()));
+      for (Prefix subnet : _hostSubnets) {
+        sb.append(String.format(" network %s mask 255.255.255.0\n", subnet.getStartIp()));
+      }
+      return sb.append("!\n").toString();
+    }
+
+    private String ospfConfig() {
+      return String.format(
+          "router ospf 1\n router-id %s\n network 0.0.0.0 255.255.255.255 area 0\n!\n", loopback());
+    }
+
+    private String multiVrfConfig() {
+      StringBuilder sb = new StringBuilder();
+      for (int v = 1; v <= _numVrfs; v++) {
+        sb.append(
+            String.format(
+                "router ospf %d vrf VRF%d\n router-id %s\n network 0.0.0.0 255.255.255.255 area 0\n!\n",
+                v, v, loopback()));
+      }
+      return sb.toString();
+    }
+  }
+
+  private SyntheticNetworks() {}
+}
@@ -47,6 +47,7 @@ import java.nio.file.Paths;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -81,7 +82,6 @@ import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
 import org.batfish.common.BfConsts.TaskStatus;
-import org.batfish.common.ColumnSortOption;
 import org.batfish.common.CompletionMetadata;
 import org.batfish.common.Container;
 import org.batfish.common.CoordConsts.WorkStatusCode;
@@ -132,6 +132,7 @@ import org.batfish.datamodel.pojo.Topology;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.datamodel.questions.Variable;
 import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.ColumnVectors;
 import org.batfish.datamodel.table.ExcludedRows;
 import org.batfish.datamodel.table.Row;
 import org.batfish.datamodel.table.TableAnswerElement;
@@ -148,8 +149,10 @@ import org.batfish.identifiers.QuestionSettingsId;
 import org.batfish.identifiers.SnapshotId;
 import org.batfish.referencelibrary.ReferenceLibrary;
 import org.batfish.role.NodeRolesData;
+import org.batfish.storage.AnswerRowIndex;
 import org.batfish.storage.StorageProvider;
 import org.batfish.storage.StoredObjectMetadata;
+import org.batfish.storage.StoredTableReader;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
@@ -875,6 +878,64 @@ public class WorkMgr extends AbstractCoordinator {
       @Nullable String referenceSnapshot,
       @Nullable String analysis)
       throws IOException {
+    AnswerId finalAnswerId =
+        getFinalAnswerId(network, snapshot, question, referenceSnapshot, analysis);
+    return finalAnswerId == null ? null : _storage.loadAnswer(finalAnswerId);
+  }
+
+  /**
+   * Get the filtered answer for the specified question. Table answers that were indexed when they
+   * were stored are read a row at a time, so only the requested page (plus, when sorting, the rows
+   * that pass the filters) is held in memory. Other answers are loaded whole and filtered as by
+   * {@link #processAnswerRows2}, and failures to filter an indexed answer are reported the same
+   * way.
+   */
+  public @Nonnull Answer getFilteredAnswer(
+      String network,
+      String snapshot,
+      String question,
+      @Nullable String referenceSnapshot,
+      @Nullable String analysis,
+      AnswerRowsOptions options)
+      throws JsonProcessingException {
+    try {
+      AnswerId finalAnswerId =
+          getFinalAnswerId(network, snapshot, question, referenceSnapshot, analysis);
+      Optional<AnswerRowIndex> rowIndex =
+          finalAnswerId == null ? Optional.empty() : _storage.loadAnswerRowIndex(finalAnswerId);
+      if (rowIndex.isPresent()) {
+        Answer answer = new Answer();
+        answer.setStatus(AnswerStatus.SUCCESS);
+        answer.addAnswerElement(
+            new StoredTableReader(_storage, finalAnswerId, rowIndex.get())
+                .readView(options, this::schemaComparator));
+        return answer;
+      }
+    } catch (IOException e) {
+      _logger.warnf(
+          "Could not read indexed answer, loading it whole instead: %s\n",
+          Throwables.getStackTraceAsString(e));
+    } catch (Exception e) {
+      _logger.errorf(
+          "Failed to filter indexed answer to question '%s' for network '%s', snapshot '%s': %s\n",
+          question, network, snapshot, Throwables.getStackTraceAsString(e));
+      return Answer.failureAnswer(e.getMessage(), null);
+    }
+    return processAnswerRows2(
+        getAnswerString(network, snapshot, question, referenceSnapshot, analysis), options);
+  }
+
+  /**
+   * Get the ID of the final answer for the specified question. Returns {@code null} if the question
+   * is not answered.
+   */
+  private @Nullable AnswerId getFinalAnswerId(
+      String network,
+      String snapshot,
+      String question,
+      @Nullable String referenceSnapshot,
+      @Nullable String analysis)
+      throws IOException {
     NetworkId networkId = _idManager.getNetworkId(network);
     AnalysisId analysisId = analysis != null ? _idManager.getAnalysisId(analysis, networkId) : null;
     QuestionId questionId = _idManager.getQuestionId(question, networkId, analysisId);
@@ -898,16 +959,14 @@ public class WorkMgr extends AbstractCoordinator {
       return null;
     }
     AnswerMetadata baseAnswerMetadata = _storage.loadAnswerMetadata(baseAnswerId);
-    AnswerId finalAnswerId =
-        computeFinalAnswerAndId(
-            baseAnswerMetadata,
-            networkId,
-            snapshotId,
-            questionId,
-            baseAnswerId,
-            referenceSnapshotId,
-            analysisId);
-    return _storage.loadAnswer(finalAnswerId);
+    return computeFinalAnswerAndId(
+        baseAnswerMetadata,
+        networkId,
+        snapshotId,
+        questionId,
+        baseAnswerId,
+        referenceSnapshotId,
+        analysisId);
   }
 
   /**
@@ -2404,16 +2463,10 @@ public class WorkMgr extends AbstractCoordinator {
   @Nonnull
   TableAnswerElement processAnswerTable(TableAnswerElement rawTable, AnswerRowsOptions options) {
     Map<String, ColumnMetadata> rawColumnMap = rawTable.getMetadata().toColumnMap();
-    List<Row> filteredRows =
-        rawTable.getRowsList().stream()
-            .filter(row -> options.getFilters().stream().allMatch(filter -> filter.matches(row)))
-            .collect(ImmutableList.toImmutableList());
+    ColumnVectors rawColumns = new ColumnVectors(rawTable.getRowsList(), rawColumnMap);
+    int[] filteredRows = filterAndSortRows(rawColumns, options);
 
-    Stream<Row> rowStream = filteredRows.stream();
-    if (!options.getSortOrder().isEmpty()) {
-      // sort using specified sort order
-      rowStream = rowStream.sorted(buildComparator(rawColumnMap, options.getSortOrder()));
-    }
+    Stream<Row> rowStream = Arrays.stream(filteredRows).mapToObj(rawColumns::getRow);
     TableAnswerElement table;
     if (options.getColumns().isEmpty()) {
       table = new TableAnswerElement(rawTable.getMetadata());
@@ -2436,7 +2489,7 @@ public class WorkMgr extends AbstractCoordinator {
     // offset, truncate, and add to table
     rowStream.skip(options.getRowOffset()).limit(options.getMaxRows()).forEach(table::addRow);
     table.setSummary(rawTable.getSummary() != null ? rawTable.getSummary() : new AnswerSummary());
-    table.getSummary().setNumResults(filteredRows.size());
+    table.getSummary().setNumResults(filteredRows.length);
     return table;
   }
 
@@ -2444,18 +2497,19 @@ public class WorkMgr extends AbstractCoordinator {
   @Nonnull
   TableView processAnswerTable2(TableAnswerElement rawTable, AnswerRowsOptions options) {
     Map<Row, Integer> rowIds = Maps.newIdentityHashMap();
-    CommonUtil.forEachWithIndex(rawTable.getRowsList(), (i, row) -> rowIds.put(row, i));
     Map<String, ColumnMetadata> rawColumnMap = rawTable.getMetadata().toColumnMap();
-    List<Row> filteredRows =
-        rawTable.getRowsList().stream()
-            .filter(row -> options.getFilters().stream().allMatch(filter -> filter.matches(row)))
-            .collect(ImmutableList.toImmutableList());
-
-    Stream<Row> rowStream = filteredRows.stream();
-    if (!options.getSortOrder().isEmpty()) {
-      // sort using specified sort order
-      rowStream = rowStream.sorted(buildComparator(rawColumnMap, options.getSortOrder()));
-    }
+    ColumnVectors rawColumns = new ColumnVectors(rawTable.getRowsList(), rawColumnMap);
+    int[] filteredRows = filterAndSortRows(rawColumns, options);
+
+    // only rows that make it into the view need ids
+    Stream<Row> rowStream =
+        Arrays.stream(filteredRows)
+            .mapToObj(
+                i -> {
+                  Row row = rawColumns.getRow(i);
+                  rowIds.put(row, i);
+                  return row;
+                });
     TableMetadata tableMetadata;
     if (options.getColumns().isEmpty()) {
       tableMetadata = rawTable.getMetadata();
@@ -2490,45 +2544,27 @@ public class WorkMgr extends AbstractCoordinator {
             tableMetadata);
     tableView.setSummary(
         rawTable.getSummary() != null ? rawTable.getSummary() : new AnswerSummary());
-    tableView.getSummary().setNumResults(filteredRows.size());
+    tableView.getSummary().setNumResults(filteredRows.length);
     return tableView;
   }
 
-  @VisibleForTesting
-  @Nonnull
-  Comparator<Row> buildComparator(
-      Map<String, ColumnMetadata> rawColumnMap, List<ColumnSortOption> sortOrder) {
-    ColumnSortOption firstColumnSortOption = sortOrder.get(0);
-    ColumnMetadata firstMetadata = rawColumnMap.get(firstColumnSortOption.getColumn());
-    Comparator<Row> comparator = columnComparator(firstMetadata);
-    if (firstColumnSortOption.getReversed()) {
-      comparator = comparator.reversed();
-    }
-    for (int i = 1; i < sortOrder.size(); i++) {
-      ColumnSortOption columnSortOption = sortOrder.get(i);
-      Comparator<Row> nextComparator =
-          columnComparator(rawColumnMap.get(columnSortOption.getColumn()));
-      if (columnSortOption.getReversed()) {
-        nextComparator = nextComparator.reversed();
-      }
-      comparator = comparator.thenComparing(nextComparator);
+  /**
+   * Returns the indices of the rows of {@code rawColumns} that match the filters of {@code
+   * options}, in the sort order of {@code options}.
+   */
+  private @Nonnull int[] filterAndSortRows(ColumnVectors rawColumns, AnswerRowsOptions options) {
+    int[] filteredRows = rawColumns.filter(options.getFilters());
+    if (!options.getSortOrder().isEmpty()) {
+      // sort using specified sort order
+      filteredRows = rawColumns.sort(filteredRows, options.getSortOrder(), this::schemaComparator);
     }
-    return comparator;
+    return filteredRows;
   }
 
   @SuppressWarnings({"rawtypes", "unchecked"})
   @VisibleForTesting
   @Nonnull
-  Comparator<Row> columnComparator(ColumnMetadata columnMetadata) {
-    Schema schema = columnMetadata.getSchema();
-    Comparator schemaComparator = schemaComparator(schema);
-    Comparator comparator =
-        comparing((Row r) -> r.get(columnMetadata.getName(), schema), nullsFirst(schemaComparator));
-    return comparator;
-  }
-
-  @SuppressWarnings({"rawtypes", "unchecked"})
-  private @Nonnull Comparator<?> schemaComparator(Schema schema) {
+  Comparator<?> schemaComparator(Schema schema) {
     if (schema.equals(Schema.ACL_TRACE)) {
       return COMPARATOR_ACL_TRACE;
     } else if (schema.equals(Schema.BOOLEAN)) {
@@ -109,6 +109,7 @@ import org.batfish.datamodel.questions.Exclusion;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.datamodel.questions.TestQuestion;
 import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.ColumnVectors;
 import org.batfish.datamodel.table.Row;
 import org.batfish.datamodel.table.TableAnswerElement;
 import org.batfish.datamodel.table.TableMetadata;
@@ -2099,6 +2100,39 @@ public final class WorkMgrTest {
     assertThat(processedRows, equalTo(table.getRowsList()));
   }
 
+  @Test
+  public void testGetFilteredAnswerFailure() throws IOException {
+    String network = "network";
+    String snapshot = "snapshot";
+    String questionName = "question";
+    String columnName = "issue";
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(new ColumnMetadata(columnName, Schema.ISSUE, "foobar"))));
+    table.addRow(Row.of(columnName, new Issue("blah", 5, new Issue.Type("m", "n"))));
+    Answer answer = new Answer();
+    answer.addAnswerElement(table);
+    answer.setStatus(AnswerStatus.SUCCESS);
+    _manager.initNetwork(network, null);
+    uploadTestSnapshot(network, snapshot);
+    setupQuestionAndAnswer(network, snapshot, questionName, null, answer);
+    // Sorting by a column the table does not have fails while reading the indexed answer
+    AnswerRowsOptions options =
+        new AnswerRowsOptions(
+            ImmutableSet.of(),
+            ImmutableList.of(),
+            1,
+            0,
+            ImmutableList.of(new ColumnSortOption("missing", true)),
+            false);
+
+    Answer filteredAnswer =
+        _manager.getFilteredAnswer(network, snapshot, questionName, null, null, options);
+
+    assertThat(filteredAnswer.getStatus(), equalTo(AnswerStatus.FAILURE));
+  }
+
   @Test
   public void testProcessAnswerRowsFailure() throws IOException {
     String columnName = "issue";
@@ -2430,8 +2464,33 @@ public final class WorkMgrTest {
         equalTo(ImmutableList.of(row1)));
   }
 
+  /**
+   * Returns a comparator of two rows by the order {@link ColumnVectors#sort} puts them in when
+   * sorting answer rows by {@code sortOrder}. Rows the stable sort keeps in either input order are
+   * equal.
+   */
+  private Comparator<Row> sortComparator(
+      Map<String, ColumnMetadata> columnMap, List<ColumnSortOption> sortOrder) {
+    return (row1, row2) -> {
+      ColumnVectors columns = new ColumnVectors(ImmutableList.of(row1, row2), columnMap);
+      int[] forward = columns.sort(new int[] {0, 1}, sortOrder, _manager::schemaComparator);
+      int[] backward = columns.sort(new int[] {1, 0}, sortOrder, _manager::schemaComparator);
+      if (forward[0] != backward[0]) {
+        return 0;
+      }
+      return forward[0] == 0 ? -1 : 1;
+    };
+  }
+
+  /** Returns a comparator of two rows by ascending values of the given column. */
+  private Comparator<Row> sortComparator(ColumnMetadata columnMetadata) {
+    return sortComparator(
+        ImmutableMap.of(columnMetadata.getName(), columnMetadata),
+        ImmutableList.of(new ColumnSortOption(columnMetadata.getName(), false)));
+  }
+
   @Test
-  public void testBuildComparator() {
+  public void testSortOrder() {
     String col1 = "col1";
     String col2 = "col2";
     Map<String, ColumnMetadata> rawColumnMap =
@@ -2441,19 +2500,19 @@ public final class WorkMgrTest {
             col2,
             new ColumnMetadata(col2, Schema.INTEGER, "bloop"));
     Comparator<Row> comCol1 =
-        _manager.buildComparator(rawColumnMap, ImmutableList.of(new ColumnSortOption(col1, false)));
+        sortComparator(rawColumnMap, ImmutableList.of(new ColumnSortOption(col1, false)));
     Comparator<Row> comCol1Reversed =
-        _manager.buildComparator(rawColumnMap, ImmutableList.of(new ColumnSortOption(col1, true)));
+        sortComparator(rawColumnMap, ImmutableList.of(new ColumnSortOption(col1, true)));
     Comparator<Row> comCol2 =
-        _manager.buildComparator(rawColumnMap, ImmutableList.of(new ColumnSortOption(col2, false)));
+        sortComparator(rawColumnMap, ImmutableList.of(new ColumnSortOption(col2, false)));
     Comparator<Row> comCol2Reversed =
-        _manager.buildComparator(rawColumnMap, ImmutableList.of(new ColumnSortOption(col2, true)));
+        sortComparator(rawColumnMap, ImmutableList.of(new ColumnSortOption(col2, true)));
     Comparator<Row> comCol1Then2 =
-        _manager.buildComparator(
+        sortComparator(
             rawColumnMap,
             ImmutableList.of(new ColumnSortOption(col1, false), new ColumnSortOption(col2, false)));
     Comparator<Row> comCol2Then1 =
-        _manager.buildComparator(
+        sortComparator(
             rawColumnMap,
             ImmutableList.of(new ColumnSortOption(col2, false), new ColumnSortOption(col1, false)));
 
@@ -2506,7 +2565,7 @@ public final class WorkMgrTest {
   }
 
   @Test
-  public void testColumnComparator() {
+  public void testSchemaComparator() {
     String colInteger = "colInteger";
     String colIssue = "colIssue";
     String colString = "colString";
@@ -2517,9 +2576,9 @@ public final class WorkMgrTest {
     ColumnMetadata columnMetadataString =
         new ColumnMetadata(colString, Schema.STRING, "colStringDesc");
 
-    Comparator<Row> comInteger = _manager.columnComparator(columnMetadataInteger);
-    Comparator<Row> comIssue = _manager.columnComparator(columnMetadataIssue);
-    Comparator<Row> comString = _manager.columnComparator(columnMetadataString);
+    Comparator<Row> comInteger = sortComparator(columnMetadataInteger);
+    Comparator<Row> comIssue = sortComparator(columnMetadataIssue);
+    Comparator<Row> comString = sortComparator(columnMetadataString);
 
     Row r1 =
         Row.of(
@@ -2544,10 +2603,10 @@ public final class WorkMgrTest {
   }
 
   @Test
-  public void testColumnComparatorAclTrace() {
+  public void testSchemaComparatorAclTrace() {
     String col = "col1";
     ColumnMetadata columnMetadata = new ColumnMetadata(col, Schema.ACL_TRACE, "colDesc");
-    Comparator<Row> comparator = _manager.columnComparator(columnMetadata);
+    Comparator<Row> comparator = sortComparator(columnMetadata);
     Row r1 = Row.of(col, new AclTrace(ImmutableList.of(new TraceEvent("a"))));
     Row r2 = Row.of(col, new AclTrace(ImmutableList.of(new TraceEvent("b"))));
 
@@ -2555,10 +2614,10 @@ public final class WorkMgrTest {
   }
 
   @Test
-  public void testColumnComparatorBoolean() {
+  public void testSchemaComparatorBoolean() {
     String col = "col1";
     ColumnMetadata columnMetadata = new ColumnMetadata(col, Schema.BOOLEAN, "colDesc");
-    Comparator<Row> comparator = _manager.columnComparator(columnMetadata);
+    Comparator<Row> comparator = sortComparator(columnMetadata);
     Row r1 = Row.of(col, false);
     Row r2 = Row.of(col, true);
 
@@ -2566,10 +2625,10 @@ public final class WorkMgrTest {
   }
 
   @Test
-  public void testColumnComparatorFlow() {
+  public void testSchemaComparatorFlow() {
     String col = "col1";
     ColumnMetadata columnMetadata = new ColumnMetadata(col, Schema.FLOW, "colDesc");
-    Comparator<Row> comparator = _manager.columnComparator(columnMetadata);
+    Comparator<Row> comparator = sortComparator(columnMetadata);
     Row r1 = Row.of(col, Flow.builder().setDstIp(Ip.ZERO).setIngressNode("a").build());
     Row r2 = Row.of(col, Flow.builder().setDstIp(Ip.MAX).setIngressNode("a").build());
 
@@ -2577,10 +2636,10 @@ public final class WorkMgrTest {
   }
 
   @Test
-  public void testColumnComparatorInteger() {
+  public void testSchemaComparatorInteger() {
     String col = "col1";
     ColumnMetadata columnMetadata = new ColumnMetadata(col, Schema.INTEGER, "colDesc");
-    Comparator<Row> comparator = _manager.columnComparator(columnMetadata);
+    Comparator<Row> comparator = sortComparator(columnMetadata);
     Row r1 = Row.of(col, 0);
     Row r2 = Row.of(col, 1);
 
@@ -2588,10 +2647,10 @@ public final class WorkMgrTest {
   }
 
   @Test
-  public void testColumnComparatorInterface() {
+  public void testSchemaComparatorInterface() {
     String col = "col1";
     ColumnMetadata columnMetadata = new ColumnMetadata(col, Schema.INTERFACE, "colDesc");
-    Comparator<Row> comparator = _manager.columnComparator(columnMetadata);
+    Comparator<Row> comparator = sortComparator(columnMetadata);
     Row r1 = Row.of(col, NodeInterfacePair.of("a", "a"));
     Row r2 = Row.of(col, NodeInterfacePair.of("a", "b"));
     Row r3 = Row.of(col, NodeInterfacePair.of("b", "a"));
@@ -2602,10 +2661,10 @@ public final class WorkMgrTest {
   }
 
   @Test
-  public void testColumnComparatorIp() {
+  public void testSchemaComparatorIp() {
     String col = "col1";
     ColumnMetadata columnMetadata = new ColumnMetadata(col, Schema.IP, "colDesc");
-    Comparator<Row> comparator = _manager.columnComparator(columnMetadata);
+    Comparator<Row> comparator = sortComparator(columnMetadata);
     Row r1 = Row.of(col, Ip.ZERO);
     Row r2 = Row.of(col, Ip.MAX);
 
@@ -2613,10 +2672,10 @@ public final class WorkMgrTest {
   }
 
   @Test
-  public void testColumnComparatorIssue() {
+  public void testSchemaComparatorIssue() {
     String col = "col1";
     ColumnMetadata columnMetadata = new ColumnMetadata(col, Schema.ISSUE, "colDesc");
-    Comparator<Row> comparator = _manager.columnComparator(columnMetadata);
+    Comparator<Row> comparator = sortComparator(columnMetadata);
     Row r1 = Row.of(col, new Issue("a", 1, new Issue.Type("major", "minor")));
     Row r2 = Row.of(col, new Issue("a", 2, new Issue.Type("major", "minor")));
     Row r3 = Row.of(col, new Issue("b", 1, new Issue.Type("major", "minor")));
@@ -2627,10 +2686,10 @@ public final class WorkMgrTest {
   }
 
   @Test
-  public void testColumnComparatorList() {
+  public void testSchemaComparatorList() {
     String col = "col1";
     ColumnMetadata columnMetadata = new ColumnMetadata(col, Schema.list(Schema.STRING), "colDesc");
-    Comparator<Row> comparator = _manager.columnComparator(columnMetadata);
+    Comparator<Row> comparator = sortComparator(columnMetadata);
     Row r1 = Row.of(col, ImmutableList.of());
     Row r2 = Row.of(col, ImmutableList.of("a"));
     Row r3 = Row.of(col, ImmutableList.of("a", "b"));
@@ -2650,10 +2709,10 @@ public final class WorkMgrTest {
   }
 
   @Test
-  public void testColumnComparatorLong() {
+  public void testSchemaComparatorLong() {
     String col = "col1";
     ColumnMetadata columnMetadata = new ColumnMetadata(col, Schema.LONG, "colDesc");
-    Comparator<Row> comparator = _manager.columnComparator(columnMetadata);
+    Comparator<Row> comparator = sortComparator(columnMetadata);
     Row r1 = Row.of(col, 0L);
     Row r2 = Row.of(col, 1L);
     Row r3 = Row.of(col, Long.MAX_VALUE);
@@ -2664,10 +2723,10 @@ public final class WorkMgrTest {
   }
 
   @Test
-  public void testColumnComparatorNode() {
+  public void testSchemaComparatorNode() {
     String col = "col1";
     ColumnMetadata columnMetadata = new ColumnMetadata(col, Schema.NODE, "colDesc");
-    Comparator<Row> comparator = _manager.columnComparator(columnMetadata);
+    Comparator<Row> comparator = sortComparator(columnMetadata);
     Row r1 = Row.of(col, new Node("a"));
     Row r2 = Row.of(col, new Node("b"));
 
@@ -2675,10 +2734,10 @@ public final class WorkMgrTest {
   }
 
   @Test
-  public void testColumnComparatorPrefix() {
+  public void testSchemaComparatorPrefix() {
     String col = "col1";
     ColumnMetadata columnMetadata = new ColumnMetadata(col, Schema.PREFIX, "colDesc");
-    Comparator<Row> comparator = _manager.columnComparator(columnMetadata);
+    Comparator<Row> comparator = sortComparator(columnMetadata);
     Row r1 = Row.of(col, Prefix.parse("1.1.2.1/32"));
     Row r2 = Row.of(col, Prefix.parse("1.1.11.1/32"));
 
@@ -2686,10 +2745,10 @@ public final class WorkMgrTest {
   }
 
   @Test
-  public void testColumnComparatorSet() {
+  public void testSchemaComparatorSet() {
     String col = "col1";
     ColumnMetadata columnMetadata = new ColumnMetadata(col, Schema.set(Schema.STRING), "colDesc");
-    Comparator<Row> comparator = _manager.columnComparator(columnMetadata);
+    Comparator<Row> comparator = sortComparator(columnMetadata);
     Row r0 = Row.of(col, null);
     Row r1 = Row.of(col, ImmutableSet.of());
     Row r2 = Row.of(col, ImmutableSet.of("a"));
@@ -2713,10 +2772,10 @@ public final class WorkMgrTest {
   }
 
   @Test
-  public void testColumnComparatorString() {
+  public void testSchemaComparatorString() {
     String col = "col1";
     ColumnMetadata columnMetadata = new ColumnMetadata(col, Schema.STRING, "colDesc");
-    Comparator<Row> comparator = _manager.columnComparator(columnMetadata);
+    Comparator<Row> comparator = sortComparator(columnMetadata);
     Row r1 = Row.of(col, "a");
     Row r2 = Row.of(col, "b");
 
@@ -2724,10 +2783,10 @@ public final class WorkMgrTest {
   }
 
   @Test
-  public void testColumnComparatorSelfDescribingObject() {
+  public void testSchemaComparatorSelfDescribingObject() {
     String col = "col1";
     ColumnMetadata columnMetadata = new ColumnMetadata(col, Schema.SELF_DESCRIBING, "colDesc");
-    Comparator<Row> comparator = _manager.columnComparator(columnMetadata);
+    Comparator<Row> comparator = sortComparator(columnMetadata);
     Row r1 = Row.of(col, new SelfDescribingObject(Schema.STRING, "a"));
     Row r2 = Row.of(col, new SelfDescribingObject(Schema.STRING, "b"));
 
@@ -2735,10 +2794,10 @@ public final class WorkMgrTest {
   }
 
   @Test
-  public void testColumnComparatorTrace() {
+  public void testSchemaComparatorTrace() {
     String col = "col1";
     ColumnMetadata columnMetadata = new ColumnMetadata(col, Schema.TRACE, "colDesc");
-    Comparator<Row> comparator = _manager.columnComparator(columnMetadata);
+    Comparator<Row> comparator = sortComparator(columnMetadata);
     Row r1 = Row.of(col, new Trace(FlowDisposition.ACCEPTED, ImmutableList.of()));
     Row r2 =
         Row.of(
@@ -35,6 +35,7 @@ import org.batfish.datamodel.PacketHeaderConstraints;
 import org.batfish.datamodel.PacketHeaderConstraintsUtil;
 import org.batfish.datamodel.UniverseIpSpace;
 import org.batfish.datamodel.acl.AclTracer;
+import org.batfish.datamodel.acl.CompiledIpAccessList;
 import org.batfish.datamodel.answers.Schema;
 import org.batfish.datamodel.pojo.Node;
 import org.batfish.datamodel.questions.DisplayHints;
@@ -214,7 +215,7 @@ public class TestFiltersAnswerer extends Answerer {
             c.getIpSpaces(),
             c.getIpSpaceMetadata());
     FilterResult result =
-        filter.filter(flow, flow.getIngressInterface(), c.getIpAccessLists(), c.getIpSpaces());
+        CompiledIpAccessList.forConfiguration(c, filter).filter(flow, flow.getIngressInterface());
     Integer matchLine = result.getMatchLine();
     String lineDesc = "no-match";
     if (matchLine != null) {